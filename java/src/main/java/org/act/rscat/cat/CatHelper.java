@@ -151,13 +151,21 @@ public class CatHelper {
         List<Integer> administeredPassagesIndexSequence = SimulationFunctions
                 .getPassageIndexOrderForAdministeredItems(itemToPassageIndexMap, itemsAdminAll);
 
-        return new CatInputStandard.Builder().catConfig(catInput.getCatConfig()).testConfig(catInput.getTestConfig())
-                .itemScores(allItemScores).itemsAdmin(itemsAdminAll).completedCount(itemsAdminAll.size())
-                .adaptiveStage(stage).administeredPassageIndexSequence(administeredPassagesIndexSequence)
+        return new CatInputStandard.Builder()
+                .catConfig(catInput.getCatConfig())
+                .testConfig(catInput.getTestConfig())
+                .studentId(catInput.getExamineeId())
+                .itemScores(allItemScores)
+                .itemsAdmin(itemsAdminAll)
+                .completedCount(itemsAdminAll.size())
+                .adaptiveStage(stage)
+                .administeredPassageIndexSequence(administeredPassagesIndexSequence)
                 .passageOrItemEligibilityOverall(passageOrItemEligibilityOverall)
                 .itemsToAdminister(catOutput.getItemsToAdminister().getListItemsToAdminister())
-                .shadowTest(catOutput.getShadowTest()).previousTheta(catOutput.getThetaEst().getTheta())
-                .previousThetaSe(catOutput.getThetaEst().getSe()).build();
+                .shadowTest(catOutput.getShadowTest())
+                .previousTheta(catOutput.getThetaEst().getTheta())
+                .previousThetaSe(catOutput.getThetaEst().getSe())
+                .build();
     }
 
 
@@ -68,6 +68,18 @@ public interface CatInput {
      */
     List<String> getItemsAdmin();
 
+    /**
+     * Returns the item pool row indices of the administered items, in the order of {@link #getItemsAdmin()}. The
+     * default implementation resolves the item identifiers in the {@link ItemPool} of the test configuration.
+     *
+     * @return the row indices of the administered items
+     * @throws IllegalArgumentException if an administered item is not in the item pool
+     * @see ItemPool
+     */
+    default int[] getItemsAdminIndices() {
+        return ItemPool.forTestConfig(getTestConfig()).getItemIndices(getItemsAdmin());
+    }
+
     /**
      * Returns the array of item scores for items administered.
      *
@@ -77,7 +89,7 @@ public interface CatInput {
 
     /**
      * Returns the item pool data set associated with the CAT input, which includes item id, passage id, item IRT parameters,
-     * and scaling D constants.
+     * and scaling D constants. The data set may be shared by the inputs of a test configuration and must not be modified.
      *
      * @return a {@link PrimitiveArraySet} representing the item pool data set
      */
@@ -111,10 +123,23 @@ public interface CatInput {
      */
     List<String> getShadowTest();
 
+    /**
+     * Returns the item pool row indices of the items in the previous shadow test, in the order of
+     * {@link #getShadowTest()}. The default implementation resolves the item identifiers in the {@link ItemPool} of
+     * the test configuration.
+     *
+     * @return the row indices of the previous shadow test
+     * @throws IllegalArgumentException if an item of the shadow test is not in the item pool
+     * @see ItemPool
+     */
+    default int[] getShadowTestIndices() {
+        return ItemPool.forTestConfig(getTestConfig()).getItemIndices(getShadowTest());
+    }
+
     /**
      * Returns the item identifiers included in the item pool.
      *
-     * @return a list of item identifiers included in the item pool
+     * @return an unmodifiable list of item identifiers included in the item pool
      */
     List<String> getItemIds();
 
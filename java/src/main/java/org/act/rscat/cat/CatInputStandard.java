@@ -1,16 +1,15 @@
 package org.act.rscat.cat;
 
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.act.rscat.testdef.Item;
 import org.act.rscat.testdef.TestConfig;
 import org.act.rscat.util.PrimitiveArraySet;
 
 /**
  * An implementation of {@link CatInput} for the standard CAT engine.
+ * <p>
+ * The item pool data are not parsed per instance: every input of a test
+ * configuration shares the {@link ItemPool} of that configuration.
  */
 public class CatInputStandard implements CatInput {
 
@@ -22,8 +21,8 @@ public class CatInputStandard implements CatInput {
     private List<String> itemsAdmin;
     private ItemScores itemScores;
 
-    // the item pool data table
-    private final PrimitiveArraySet itemPoolDataSet;
+    // the shared item pool
+    private final ItemPool itemPool;
     private final List<Integer> administeredPassageIndexSequence;
     private final ExposureControlData exposureControlData;
     private final PassageOrItemEligibilityOverall passageOrItemEligibilityOverall;
@@ -42,7 +41,7 @@ public class CatInputStandard implements CatInput {
         this.examineeId = studentId;
         this.itemsAdmin = itemsAdmin;
         this.itemScores = itemScores;
-        this.itemPoolDataSet = convertItemPoolDataSet();
+        this.itemPool = ItemPool.forTestConfig(testConfig);
         this.administeredPassageIndexSequence = passageRowIndexSequence;
         this.exposureControlData = exposureControlData;
         this.passageOrItemEligibilityOverall = passageOrItemEligibilityOverall;
@@ -82,6 +81,11 @@ public class CatInputStandard implements CatInput {
         return itemsAdmin;
     }
 
+    @Override
+    public int[] getItemsAdminIndices() {
+        return itemPool.getItemIndices(itemsAdmin);
+    }
+
     @Override
     public ItemScores getItemScores() {
         return itemScores;
@@ -117,9 +121,14 @@ public class CatInputStandard implements CatInput {
         return shadowTest;
     }
 
+    @Override
+    public int[] getShadowTestIndices() {
+        return itemPool.getItemIndices(shadowTest);
+    }
+
     @Override
     public List<String> getItemIds() {
-        return Arrays.asList(itemPoolDataSet.getStringArrayCopy(Item.ColumnName.ITEM_ID.getColName()));
+        return itemPool.getItemIdList();
     }
 
     @Override
@@ -134,27 +143,7 @@ public class CatInputStandard implements CatInput {
 
     @Override
     public PrimitiveArraySet getItemPoolDataSet() {
-        return itemPoolDataSet;
-    }
-
-    /**
-     * Converts the item pool {@link ContentTable.RowOriented} to
-     * {@link PrimitiveArraySet}.
-     *
-     * @return the item pool {@code PrimitiveArraySet} data
-     */
-    private PrimitiveArraySet convertItemPoolDataSet() {
-        Map<String, Class<?>> columnTypes = new HashMap<>();
-        columnTypes.put(Item.ColumnName.ITEM_ID.getColName(), String[].class);
-        columnTypes.put(Item.ColumnName.ITEM_PASSAGE_ID.getColName(), String[].class);
-        columnTypes.put(Item.ColumnName.A_PARAM.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.A_PARAM_SE.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.B_PARAM.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.B_PARAM_SE.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.C_PARAM.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.C_PARAM_SE.getColName(), double[].class);
-        columnTypes.put(Item.ColumnName.D_CONSTANT.getColName(), double[].class);
-        return PrimitiveArraySet.fromContentTable(testConfig.getItemPoolTable(), columnTypes);
+        return itemPool.getItemPoolDataSet();
     }
 
     /**
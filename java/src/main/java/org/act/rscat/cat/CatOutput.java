@@ -45,6 +45,31 @@ public interface CatOutput {
      */
     List<String> getShadowTest();
 
+    /**
+     * Returns the item pool row indices of the items in the shadow test, in the order of {@link #getShadowTest()}.
+     * The default implementation throws an {@link UnsupportedOperationException}, since an output does not know
+     * the item pool of its test configuration; outputs of the CAT engine return the indices selected by the solver.
+     *
+     * @return the row indices of the shadow test
+     * @throws UnsupportedOperationException if the output does not carry the row indices
+     * @see #getShadowTestIndices(ItemPool)
+     */
+    default int[] getShadowTestIndices() {
+        throw new UnsupportedOperationException("The CAT output does not carry the shadow test indices!");
+    }
+
+    /**
+     * Returns the item pool row indices of the items in the shadow test, in the order of {@link #getShadowTest()}.
+     * The default implementation resolves the item identifiers in the given {@link ItemPool}.
+     *
+     * @param itemPool the item pool of the test configuration of the output
+     * @return the row indices of the shadow test
+     * @throws IllegalArgumentException if an item of the shadow test is not in the item pool
+     */
+    default int[] getShadowTestIndices(ItemPool itemPool) {
+        return itemPool.getItemIndices(getShadowTest());
+    }
+
     /**
      * Returns the CAT engine runtime.
      *
@@ -59,4 +84,16 @@ public interface CatOutput {
      */
     double getSolverTime();
 
+    /**
+     * Returns how the shadow test of the stage was obtained: solved to
+     * optimality, to the optimality gap, to the time limit, or reused from the
+     * previous stage. The default implementation reports
+     * {@link ShadowTestStatus#NONE} for outputs without status information.
+     *
+     * @return the shadow test status
+     */
+    default ShadowTestStatus getShadowTestStatus() {
+        return ShadowTestStatus.NONE;
+    }
+
 }
@@ -12,8 +12,10 @@ class CatOutputStandard implements CatOutput {
     private final boolean testComplete;
     private final PassageOrItemEligibilityAtThetaRange passageOrItemEligibilityAtThetaRange;
     private final List<String> shadowTest;
+    private final int[] shadowTestIndices;
     private final double catEngineTime;
     private final double solverTime;
+    private final ShadowTestStatus shadowTestStatus;
 
     /**
      * Constructs a new {@link CatOutputStandard}.
@@ -25,19 +27,23 @@ class CatOutputStandard implements CatOutput {
      * @param passageOrItemEligibilityAtThetaRange the item eligibility
      *            indicators at the theta range
      * @param shadowTest the string arry storing the shadow test result
+     * @param shadowTestIndices the item pool row indices of the shadow test
      * @param catEngineTime the CAT engine time in seconds
      * @param solverTime the total MIP solver time in seconds
+     * @param shadowTestStatus how the shadow test of the stage was obtained
      */
     CatOutputStandard(CatItemsToAdminister itemsToAdminister, ThetaEst thetaEst, boolean testComplete,
             PassageOrItemEligibilityAtThetaRange passageOrItemEligibilityAtThetaRange, List<String> shadowTest,
-            double catEngineTime, double solverTime) {
+            int[] shadowTestIndices, double catEngineTime, double solverTime, ShadowTestStatus shadowTestStatus) {
         this.itemsToAdminister = itemsToAdminister;
         this.thetaEst = thetaEst;
         this.testComplete = testComplete;
         this.passageOrItemEligibilityAtThetaRange = passageOrItemEligibilityAtThetaRange;
         this.shadowTest = shadowTest;
+        this.shadowTestIndices = shadowTestIndices;
         this.catEngineTime = catEngineTime;
         this.solverTime = solverTime;
+        this.shadowTestStatus = shadowTestStatus;
     }
 
     @Override
@@ -65,6 +71,11 @@ class CatOutputStandard implements CatOutput {
         return shadowTest;
     }
 
+    @Override
+    public int[] getShadowTestIndices() {
+        return shadowTestIndices;
+    }
+
     @Override
     public double getCatEngineTime() {
         return catEngineTime;
@@ -75,4 +86,9 @@ class CatOutputStandard implements CatOutput {
         return this.solverTime;
     }
 
+    @Override
+    public ShadowTestStatus getShadowTestStatus() {
+        return shadowTestStatus;
+    }
+
 }
@@ -0,0 +1,672 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.ExposureControlFunctions.applyLRandomToInfo;
+import static org.act.rscat.cat.ExposureControlFunctions.findThetaInterval;
+import static org.act.rscat.cat.ExposureControlFunctions.prepStageDataForSolver;
+import static org.act.rscat.util.PrimitiveArrays.bitSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.act.rscat.mip.SolverInputStage;
+import org.act.rscat.mip.SolverOutput;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.sol.ShadowTestRun;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.util.Precision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A CAT session holds the state of the standard CAT engine for a single
+ * examinee: the shadow test assembly, the current theta estimate, the last
+ * shadow test and the exposure control data at the current theta range.
+ * <p>
+ * Item and passage pool data are shared, read-only, through {@link ItemPool},
+ * so any number of sessions can run their CAT cycles concurrently. A session
+ * itself serves one examinee and is obtained from
+ * {@link CatEngineStandard#newSession(String)}.
+ * <p>
+ * The stage data passed to the solver, such as the item information and the
+ * eligibility bit sets, are kept in buffers sized to the item pool and reused
+ * across the stages of the session, so that steady-state cycles allocate
+ * little besides their output.
+ */
+public final class CatSession implements CatEngine {
+
+    /**
+     * A Logger instance for the CAT session.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatSession.class);
+
+    /**
+     * The identifier of the examinee served by this session.
+     */
+    private final String examineeId;
+
+    /**
+     * The random generator for the randomized steps of the CAT cycle, or
+     * {@code null} to use an unseeded generator.
+     */
+    private final RandomGenerator randomGenerator;
+
+    /**
+     * The instance of ShadowTestRun. It assembles a shadow test based on the
+     * provided input data.
+     */
+    private ShadowTestRun shadowTestRun;
+
+    /**
+     * Provides information about the remaining items to be administered.
+     */
+    private CatItemsToAdminister itemsToAdminister;
+
+    /**
+     * The theta estimate for an examinee at the current stage.
+     */
+    private ThetaEst thetaEst;
+
+    /**
+     * The flag indicating if the current stage is the final stage in the test.
+     */
+    private boolean testComplete = false;
+
+    /**
+     * The time used by the MIP solver for the shadow test assembly, with the unit
+     * second.
+     */
+    private double solverTimeSecs = 0;
+
+    /**
+     * The passage or item eligibility data (at theta ranges)
+     */
+    private PassageOrItemEligibilityAtThetaRange passageOrItemEligibilityAtThetaRange;
+
+    /**
+     * The list of item IDs in the shadow test associated with the CAT. The list
+     * will be updated every time when runsCatCycle is executed.
+     */
+    private List<String> shadowTest;
+
+    /**
+     * The item pool row indices of the items in the shadow test.
+     */
+    private int[] shadowTestIndices;
+
+    /**
+     * The passage row indices of the passage order constraints of the last
+     * shadow test assembled by the solver, kept for a stage falling back on
+     * it.
+     */
+    private List<Integer> passageRowIndexSequence = Collections.emptyList();
+
+    /**
+     * How the shadow test of the current stage was obtained.
+     */
+    private ShadowTestStatus shadowTestStatus = ShadowTestStatus.NONE;
+
+    /**
+     * The scoring method configured for the CAT.
+     */
+    private ScoringMethod scoringMethod;
+
+    /**
+     * The posterior carried forward between stages by the incremental EAP
+     * scoring, or {@code null} if the scoring is not incremental.
+     */
+    private ScoringMethodEapIncremental incrementalScoring;
+
+    /**
+     * The passage state of the examinee, carried between adaptive stages.
+     */
+    private PassageTracker passageTracker;
+
+    /**
+     * The planner of the administration order of shadow tests.
+     */
+    private ShadowTestPlanner shadowTestPlanner;
+
+    /**
+     * The test length (number of items) for the CAT.
+     */
+    private int testLength;
+
+    /**
+     * The number of completed stages (number of administered items).
+     */
+    private int completedCount;
+
+    /**
+     * The shared item pool of the test configuration.
+     */
+    private ItemPool itemPool;
+
+    /**
+     * The shared item response and information tables of the item pool.
+     */
+    private ItemResponseTable responseTable;
+
+    /**
+     * Parameters of items as an instance of RealMatrix.
+     */
+    private RealMatrix itemPar;
+
+    /**
+     * Item identifiers extracted from the item pool.
+     */
+    private String[] itemIds;
+
+    /**
+     * Passage identifiers extracted from the passage pool.
+     */
+    private String[] passageIdsFromPassageTable;
+
+    /**
+     * The items in the item pool that have been administered.
+     */
+    private BitSet itemsAdministered;
+
+    /**
+     * The selection criteria of all items at the current stage.
+     */
+    private double[] itemInformation;
+
+    /**
+     * The soft eligibility of items with respect to exposure control at the
+     * current stage.
+     */
+    private BitSet eligibilityItemSoft;
+
+    /**
+     * The soft eligibility of passages with respect to exposure control at the
+     * current stage.
+     */
+    private BitSet eligibilityPassageSoft;
+
+    /**
+     * The items eligible with respect to passage management at the current
+     * stage.
+     */
+    private BitSet eligiblePassageItemsHard;
+
+    /**
+     * The items of the previous shadow test.
+     */
+    private BitSet previousShadowTestItems;
+
+    /**
+     * The solver input over the stage buffers above.
+     */
+    private SolverInputStage solverInputStage;
+
+    /**
+     * The string array indicating the identifiers of items that have already been
+     * administered.
+     */
+    private String[] itemsAdministeredString;
+
+    /**
+     * The row indices (in the item pool) of items that have already been
+     * administered.
+     */
+    private int[] rowIndicesItemsAdmin;
+
+    /**
+     * The exposure control type applied to the CAT engine.
+     */
+    private ExposureControlType exposureControlType;
+
+    /**
+     * Constructs a new {@link CatSession}.
+     *
+     * @param examineeId the identifier of the examinee served by the session
+     * @param randomGenerator the random generator for the randomized steps of
+     *            the CAT cycle, or {@code null} to use an unseeded generator
+     */
+    CatSession(String examineeId, RandomGenerator randomGenerator) {
+        this.examineeId = examineeId;
+        this.randomGenerator = randomGenerator;
+    }
+
+    /**
+     * Returns the identifier of the examinee served by this session.
+     *
+     * @return the examinee identifier
+     */
+    public String getExamineeId() {
+        return examineeId;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Cycles of a session are run one at a time; concurrent calls on the same
+     * session are serialized.
+     *
+     * @throws InfeasibleTestConfigException
+     */
+    @Override
+    public synchronized CatOutput runsCatCycle(CatInput catInput) throws IOException, InfeasibleTestConfigException {
+        completedCount = catInput.getCompletedCount();
+        LOGGER.debug("runsCatCycle starts for stage {}", completedCount);
+        long startTime = System.currentTimeMillis();
+        initialize(catInput);
+        if (completedCount > testLength) {
+            throw new IllegalArgumentException("Number of items completed cannot exceed total items");
+        }
+
+        // If the test is complete, just estimate theta and change test status.
+        // Also process the exposure information
+        // (won't call solver)
+        if (testIsComplete()) {
+            setupShadowTestRun(catInput);
+            processCompleteTest(catInput);
+            logWarmStart();
+            close();
+        } else {
+
+            // if the test is not complete, call solver
+            if (completedCount == 0 || shadowTestRun == null) {
+                initializeShadowTestRun(catInput);
+            }
+            startTime = System.currentTimeMillis();
+            setupShadowTestRun(catInput);
+            refreshShadowTest(catInput);
+        }
+
+        // Save shadow test and cat engine time
+        double catEngineTime = (System.currentTimeMillis() - startTime) / 1000.00d;
+
+        // Returns an instance of CatOutput.
+
+        CatOutput catOutput = new CatOutputStandard(itemsToAdminister, thetaEst, testComplete,
+                passageOrItemEligibilityAtThetaRange, shadowTest, shadowTestIndices, catEngineTime,
+                Precision.round(solverTimeSecs, 3), shadowTestStatus);
+
+        LOGGER.debug("runsCatCycle ends for stage {} with CAT engine time {}second", completedCount, catEngineTime);
+        return catOutput;
+    }
+
+    /**
+     * Refreshes the shadow test for the current cat cycle based on the updated cat
+     * input.
+     *
+     * @param catInput the instance of {@link CatInput}
+     * @throws IOException                   if there is an IO error
+     * @throws InfeasibleTestConfigException if test configuration is infeasible
+     */
+    private void refreshShadowTest(CatInput catInput) throws IOException, InfeasibleTestConfigException {
+
+        // Calculate information values for all items
+        double[] fisherInformation = itemInformation;
+        if (catInput.getCatConfig().scoringMethodConfig().scoringMethod().equals(ScoringMethod.SUPPORTED_METHODS.EAP)) {
+            ItemSelectionMethodFactory.getInstance(catInput.getCatConfig().itemSelectionMethod(), responseTable,
+                    thetaEst.getTheta(), thetaEst.getSe()).getSelectionCriteria(fisherInformation);
+        } else {
+            throw new IllegalArgumentException("The scoring method specified is not supported!");
+        }
+
+        // Call L randomization method
+        if (catInput.getCatConfig().lValue() > catInput.getAdaptiveStage()) {
+            double[] randomizedInformation;
+            if (randomGenerator == null) {
+                randomizedInformation = applyLRandomToInfo(catInput.getCatConfig().lValue(),
+                        catInput.getAdaptiveStage(), fisherInformation);
+            } else {
+                randomizedInformation = applyLRandomToInfo(catInput.getCatConfig().lValue(),
+                        catInput.getAdaptiveStage(), fisherInformation, randomGenerator);
+            }
+            System.arraycopy(randomizedInformation, 0, fisherInformation, 0, fisherInformation.length);
+        }
+
+        // Initialize eligibility indicators
+        eligibilityItemSoft.clear();
+        eligibilityPassageSoft.clear();
+
+        // Initialize bigM value
+        double bigM = 0;
+
+        if (exposureControlEnabled()) {
+            bigM = initalizeExposureControl(catInput, eligibilityItemSoft, eligibilityPassageSoft,
+                    fisherInformation);
+        } else {
+            clearExposureControl(eligibilityItemSoft, eligibilityPassageSoft);
+        }
+
+        // already administered items are eligible
+        eligibilityItemSoft.or(itemsAdministered);
+
+        // items eligible with respect to passage management (all items if
+        // there are no passages)
+        if (catInput.getTestConfig().getPassageTable().rowCount() > 0) {
+
+            // if any items in pool are associated with passages, then update
+            // the passage state with the newly administered items
+            if (passageTracker == null) {
+                passageTracker = new PassageTracker(itemPool);
+            }
+            passageTracker.update(rowIndicesItemsAdmin);
+            passageTracker.getEligibleItems(eligiblePassageItemsHard);
+        } else {
+            eligiblePassageItemsHard.set(0, itemIds.length);
+        }
+
+        // put data in the stage buffers of the solver input
+        int[] previousShadowTestIndices = catInput.getShadowTestIndices();
+        previousShadowTestItems.clear();
+        for (int previousShadowItem : previousShadowTestIndices) {
+            previousShadowTestItems.set(previousShadowItem);
+        }
+
+        // Call solver
+        SolverOutput outputData = shadowTestRun.runShadowTestAssembly(catInput.getAdaptiveStage(),
+                solverInputStage, thetaEst.getTheta(), bigM, passageOrItemEligibilityAtThetaRange.getExposureType());
+
+        solverTimeSecs = shadowTestRun.getSolver().getTotalSolverTime();
+
+        // Without a solution at the time limit, reuse the previous shadow test
+        // (the administered items are skipped when preparing the next item)
+        List<String> previousShadowTest = catInput.getShadowTest();
+        if (outputData.getSolverStatus().equals(SolverOutput.SOLVER_STATS.UNFINISHED) &&
+                outputData.getSelectedItemIdentifiers().isEmpty() && !previousShadowTest.isEmpty()) {
+            LOGGER.warn("No shadow test found within {} seconds at stage {}, reusing the previous shadow test",
+                    catInput.getCatConfig().solverConfig().getMaxTime(), catInput.getAdaptiveStage());
+            shadowTestStatus = ShadowTestStatus.FALLBACK;
+            itemsToAdminister = planShadowTest(previousShadowTestIndices, fisherInformation,
+                    passageRowIndexSequence);
+            shadowTest = previousShadowTest;
+            shadowTestIndices = previousShadowTestIndices;
+            return;
+        }
+        if (outputData.getSolverStatus().equals(SolverOutput.SOLVER_STATS.UNFINISHED) &&
+                outputData.getSelectedItemIdentifiers().isEmpty()) {
+            throw new InfeasibleTestConfigException("No shadow test was found within the solver time limit " +
+                    "and there is no previous shadow test to fall back on");
+        }
+
+        // CBC solver doesn't return correct infeasible status. Need additional checking
+        // on solutions
+        if (outputData.getSolverStatus().equals(SolverOutput.SOLVER_STATS.INFEASIBLE) ||
+                outputData.getSelectedItemIdentifiers().isEmpty()) {
+            throw new InfeasibleTestConfigException("Test configuration is not feasible." +
+                    "Please check the configuration parameters and/or constraitns");
+        }
+        shadowTestStatus = ShadowTestStatus.of(outputData);
+        passageRowIndexSequence = outputData.getPassageRowIndexSequence();
+
+        // prepare shadow test for administration
+        itemsToAdminister = planShadowTest(outputData.getSelectedItemRowIndicesArray(), fisherInformation,
+                passageRowIndexSequence);
+        shadowTest = outputData.getSelectedItemIdentifiers();
+        shadowTestIndices = outputData.getSelectedItemRowIndicesArray();
+    }
+
+    /**
+     * Prepares the remaining items of a shadow test for administration.
+     *
+     * @param selectedItemIndices     the item pool row indices of the shadow test
+     * @param fisherInformation       the information values of all items
+     * @param passageRowIndexSequence the passage row indices of the passage order
+     *                                constraints
+     * @return the items to administer in administration order
+     */
+    private CatItemsToAdminister planShadowTest(int[] selectedItemIndices, double[] fisherInformation,
+            List<Integer> passageRowIndexSequence) {
+        int[] plannedItems = shadowTestPlanner.plan(rowIndicesItemsAdmin, selectedItemIndices, fisherInformation,
+                passageRowIndexSequence);
+        String[] itemsToAdmin = new String[plannedItems.length];
+        for (int i = 0; i < plannedItems.length; i++) {
+            itemsToAdmin[i] = itemIds[plannedItems[i]];
+        }
+        return new CatItemsToAdminister(itemsToAdmin, itemsAdministeredString, 1);
+    }
+
+    /**
+     * Clears and resets the exposure control data.
+     *
+     * @param eligibilityItemSoft    the soft eligibility of items
+     * @param eligibilityPassageSoft the soft eligibility of passages
+     */
+    private void clearExposureControl(BitSet eligibilityItemSoft, BitSet eligibilityPassageSoft) {
+        eligibilityItemSoft.set(0, itemIds.length);
+        eligibilityPassageSoft.set(0, passageIdsFromPassageTable.length);
+
+        // ExposureType needs to be set to NONE if exposure control is turned
+        // off
+        passageOrItemEligibilityAtThetaRange.setExposureControlType(ExposureControlType.NONE);
+    }
+
+    /**
+     * Initializes the exposure control data.
+     * <p>
+     * Item fisher information is used to calculate the big M penalty for exposure
+     * rate control.
+     *
+     * @param data                   the {@link CatInput} data
+     * @param eligibilityItemSoft    the soft eligibility of items
+     * @param eligibilityPassageSoft the soft eligibility of passages
+     * @param fisherInformation      the fisher information of items
+     * @return the big M penalty for exposure control
+     */
+    private double initalizeExposureControl(CatInput data, BitSet eligibilityItemSoft,
+            BitSet eligibilityPassageSoft, double[] fisherInformation) {
+
+        // find current theta interval and get associated eligibility indicators
+        passageOrItemEligibilityAtThetaRange = findThetaInterval(data.getPassageOrItemEligibilityOverall(), thetaEst);
+
+        // if exposure control is at the item level, then get item eligibility
+        // and fix passage eligibility
+        if (ExposureControlType.ITEM.equals(passageOrItemEligibilityAtThetaRange.getExposureType())) {
+            bitSet(passageOrItemEligibilityAtThetaRange.getEligibilityIndicators(), eligibilityItemSoft);
+            eligibilityPassageSoft.set(0, passageIdsFromPassageTable.length);
+            // if exposure control is at the passage level, then get passage
+            // eligibility and fix item
+            // eligibility
+        } else if (ExposureControlType.PASSAGE.equals(passageOrItemEligibilityAtThetaRange.getExposureType())) {
+            eligibilityItemSoft.set(0, itemIds.length);
+            bitSet(passageOrItemEligibilityAtThetaRange.getEligibilityIndicators(), eligibilityPassageSoft);
+        }
+
+        // calculate value of bigM
+        // get max info value
+        double maxInfo = 0;
+        for (int i = 0; i < fisherInformation.length; i++) {
+            if (fisherInformation[i] > maxInfo) {
+                maxInfo = fisherInformation[i];
+            }
+        }
+        return maxInfo * 1.5;
+    }
+
+    /**
+     * Sets up ability estimation before running shadow test.
+     *
+     * @param catInput the {@link CatInput} data
+     * @throws IOException if there is an IO error
+     */
+    private void setupShadowTestRun(CatInput catInput) {
+        if (catInput.getAdaptiveStage() == 0) {
+
+            // if this is the first stage of the test, use initial theta value
+            double initTheta = catInput.getCatConfig().initTheta();
+            if (catInput.getCatConfig().scoringMethodConfig().scoringMethod()
+                    .equals(ScoringMethod.SUPPORTED_METHODS.EAP)) {
+                thetaEst = new ThetaEst(initTheta, 1.0d);
+            } else {
+                throw new IllegalArgumentException("The scoring method is not supported!");
+            }
+        } else {
+
+            // if this is not the first stage of the test, estimate theta
+            if (catInput.getCatConfig().scoringMethodConfig().scoringMethod() 
+                    == ScoringMethod.SUPPORTED_METHODS.EAP) {
+                ScoringMethodConfigEap config = (ScoringMethodConfigEap) catInput.getCatConfig()
+                        .scoringMethodConfig();
+                if (config.isIncremental()) {
+
+                    // add only the newly administered items to the posterior
+                    if (incrementalScoring == null) {
+                        incrementalScoring = new ScoringMethodEapIncremental(config, responseTable);
+                    }
+                    incrementalScoring.update(rowIndicesItemsAdmin, catInput.getItemScores());
+                    scoringMethod = incrementalScoring;
+                } else {
+
+                    // take subset of item parameter matrix (i.e., the items
+                    // administered) to use for estimating theta
+                    RealMatrix itemParForScoring = itemPar.getSubMatrix(rowIndicesItemsAdmin,
+                            new int[] { 0, 1, 2, 3 });
+                    scoringMethod = new ScoringMethodEap(itemParForScoring, catInput.getItemScores(), config);
+                }
+            }
+            thetaEst = scoringMethod.estimateTheta();
+        }
+    }
+
+    /**
+     * Checks if the test is completed.
+     *
+     * @return <code>true</code> if the test is completed; <code>false</code>
+     *         otherwise.
+     */
+    private boolean testIsComplete() {
+        return testLength == completedCount;
+    }
+
+    /**
+     * Processes test data after test is completed.
+     *
+     * @param data the {@link CatInput} data
+     */
+    private void processCompleteTest(CatInput data) {
+        itemsToAdminister = new CatItemsToAdminister(new ArrayList<>(), data.getItemsAdmin(), 1);
+        testComplete = true;
+    }
+
+    /**
+     * Checks if item or passage exposure control is enabled
+     *
+     * @return <code>true</code> if exposure control is enabled; <code>false</code>
+     *         otherwise.
+     */
+    private boolean exposureControlEnabled() {
+        return exposureControlType == ExposureControlType.ITEM || exposureControlType == ExposureControlType.PASSAGE;
+    }
+
+    /**
+     * Creates an instance of {@link ShadowTestRun}.
+     *
+     * @param catInput an instance of {@link CatInput}
+     * @throws IOException if there is an IO error
+     */
+    private void initializeShadowTestRun(CatInput catInput) throws IOException {
+        close();
+        shadowTestRun = new ShadowTestRun(catInput);
+        passageRowIndexSequence = Collections.emptyList();
+    }
+
+    /**
+     * Logs how often the warm start solutions were accepted during the test.
+     */
+    private void logWarmStart() {
+        if (shadowTestRun != null && shadowTestRun.getSolver().getWarmStartCount() > 0) {
+            LOGGER.debug("Warm start accepted for examinee {} at {} of {} stages", examineeId,
+                    shadowTestRun.getSolver().getWarmStartAcceptedCount(),
+                    shadowTestRun.getSolver().getWarmStartCount());
+        }
+    }
+
+    /**
+     * Releases the solver resources held by this session, such as a
+     * shadow-test model kept between stages, returning the solver to the
+     * {@link org.act.rscat.sol.ShadowTestSolverPool}. A later cycle starting a
+     * new test checks out a solver again.
+     */
+    public synchronized void close() {
+        if (shadowTestRun != null) {
+            shadowTestRun.close();
+            shadowTestRun = null;
+        }
+    }
+
+    /**
+     * Initializes data before running a CAT cycle.
+     * <p>
+     * Item and passage data are initialized from the {@link CatInput} data.
+     *
+     * @param catInput an instance of {@link CatInput}
+     */
+    private void initialize(CatInput catInput) {
+        testLength = catInput.getTestConfig().getTestLength();
+
+        // get the shared item and passage pool data, and size the stage
+        // buffers to the pool
+        ItemPool currentItemPool = ItemPool.forTestConfig(catInput.getTestConfig());
+        if (currentItemPool != itemPool) {
+            itemPool = currentItemPool;
+            itemPar = itemPool.getItemPar();
+            responseTable = ItemResponseTable.forTestConfig(catInput.getTestConfig());
+            itemIds = itemPool.getItemIds();
+            passageIdsFromPassageTable = itemPool.getPassageIdsFromPassageTable();
+            passageTracker = null;
+            incrementalScoring = null;
+            allocateStageBuffers();
+        }
+
+        // a session reused from the first stage does not carry the passage or
+        // scoring state of the previous examinee
+        if (completedCount == 0) {
+            passageTracker = null;
+            incrementalScoring = null;
+        }
+
+        // initialize returned values
+        shadowTest = Collections.emptyList();
+        shadowTestIndices = new int[0];
+        shadowTestStatus = ShadowTestStatus.NONE;
+
+        // set initial exposure control values
+        // exposureType indicates whether exposure control is at the passage or
+        // the item level (or none)
+        exposureControlType = catInput.getPassageOrItemEligibility().getExposureType();
+
+        // initialize exposure control output data object
+        passageOrItemEligibilityAtThetaRange = new PassageOrItemEligibilityAtThetaRange();
+
+        // set exposure type
+        passageOrItemEligibilityAtThetaRange.setExposureControlType(exposureControlType);
+
+        // initialize the set of items administered
+        itemsAdministered.clear();
+
+        // get indices of items administered
+        itemsAdministeredString = catInput.getItemsAdmin().toArray(new String[0]);
+        rowIndicesItemsAdmin = catInput.getItemsAdminIndices();
+
+        // update the set of items administered
+        for (int adminIndex = 0; adminIndex < rowIndicesItemsAdmin.length; adminIndex++) {
+            itemsAdministered.set(rowIndicesItemsAdmin[adminIndex]);
+        }
+    }
+
+    /**
+     * Allocates the stage buffers and the shadow test planner for the current
+     * item pool.
+     */
+    private void allocateStageBuffers() {
+        int itemNum = itemIds.length;
+        itemInformation = new double[itemNum];
+        itemsAdministered = new BitSet(itemNum);
+        eligibilityItemSoft = new BitSet(itemNum);
+        eligibilityPassageSoft = new BitSet(passageIdsFromPassageTable.length);
+        eligiblePassageItemsHard = new BitSet(itemNum);
+        previousShadowTestItems = new BitSet(itemNum);
+        solverInputStage = prepStageDataForSolver(itemInformation, itemsAdministered, eligibilityItemSoft,
+                eligiblePassageItemsHard, previousShadowTestItems, eligibilityPassageSoft);
+        shadowTestPlanner = new ShadowTestPlanner(itemPool);
+    }
+}
@@ -13,6 +13,7 @@ import org.apache.commons.math3.linear.RealMatrix;
  */
 public class EBIMethod implements ItemSelectionMethod {
     private RealMatrix itemPar;
+    private ItemResponseTable responseTable;
     private double thetaEst;
     private double thetaSe;
 
@@ -30,6 +31,20 @@ public class EBIMethod implements ItemSelectionMethod {
         this.thetaSe = thetaSe;
     }
 
+    /**
+     * Constructs a new {@link EBIMethod} integrating the item information from
+     * the precomputed tables of an item pool.
+     *
+     * @param responseTable the {@link ItemResponseTable} of the item pool
+     * @param thetaEst      the value of ability estimate
+     * @param thetaSe       the value of ability estimate standard error
+     */
+    public EBIMethod(ItemResponseTable responseTable, double thetaEst, double thetaSe) {
+        this.responseTable = responseTable;
+        this.thetaEst = thetaEst;
+        this.thetaSe = thetaSe;
+    }
+
     /**
      * Returns the EBI values of items.
      *
@@ -37,6 +52,9 @@ public class EBIMethod implements ItemSelectionMethod {
      */
     @Override
     public double[] getSelectionCriteria() {
+        if (responseTable != null) {
+            return getSelectionCriteria(new double[responseTable.getItemNum()]);
+        }
         int parNum = itemPar.getRowDimension();
         double[] ebiValues = new double[parNum];
         for (int i = 0; i < parNum; i++) {
@@ -50,6 +68,26 @@ public class EBIMethod implements ItemSelectionMethod {
         return ebiValues;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double[] getSelectionCriteria(double[] criteria) {
+        if (responseTable == null) {
+            return ItemSelectionMethod.super.getSelectionCriteria(criteria);
+        }
+
+        // the information integral over the +/- 2 SE interval is exact up
+        // to the interpolation error instead of a midpoint sum
+        double[] ebiValues = responseTable.getInformationIntegral(thetaEst - 2 * thetaSe, thetaEst + 2 * thetaSe,
+                criteria);
+        double[] maxInfo = responseTable.getMaxInformation();
+        for (int i = 0; i < responseTable.getItemNum(); i++) {
+            ebiValues[i] *= 1 + 1 / maxInfo[i];
+        }
+        return ebiValues;
+    }
+
     /**
      * {@inheritDoc}
      */
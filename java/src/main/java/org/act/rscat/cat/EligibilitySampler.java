@@ -0,0 +1,258 @@
+package org.act.rscat.cat;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Draws the exposure control eligibility of passages or items from the usage
+ * counts.
+ * <p>
+ * The eligibility probabilities follow
+ * {@link ExposureControlFunctions#calcEligibilityProbabilities(ExposureControlData, int)}.
+ * They are kept in one array for all theta intervals and refreshed from an
+ * {@link ExposureUsageSource}, where only the probabilities of the passages
+ * or items whose alpha or epsilon count changed since the previous refresh are
+ * recomputed, and nothing is recomputed if the counters were not updated. The
+ * Bernoulli indicators are drawn directly from a {@link SplittableRandom}:
+ * passages or items with probability 1 are eligible and with probability 0
+ * ineligible without a draw, the others are eligible if a uniform draw is below
+ * their probability.
+ * <p>
+ * Refreshes must not run concurrently with each other or with draws; draws may
+ * run concurrently, each with its own random stream.
+ */
+public final class EligibilitySampler {
+
+    /**
+     * The exposure control type.
+     */
+    private final ExposureControlType exposureType;
+
+    /**
+     * The boundaries of the theta intervals.
+     */
+    private final double[] thetaPoints;
+
+    /**
+     * The number of theta intervals.
+     */
+    private final int thetaIntervalNum;
+
+    /**
+     * The number of passages or items.
+     */
+    private final int entityNum;
+
+    /**
+     * The exposure control goal rate.
+     */
+    private final double rMax;
+
+    /**
+     * The eligibility probabilities, indexed by
+     * {@code thetaInterval * entityNum + entityIndex}.
+     */
+    private final double[] probabilities;
+
+    /**
+     * The alpha counts of the last refresh, indexed as the probabilities.
+     */
+    private final double[] alpha;
+
+    /**
+     * The epsilon counts of the last refresh, indexed as the probabilities.
+     */
+    private final double[] epsilon;
+
+    /**
+     * The alpha counts of the theta interval being refreshed, in pool order.
+     */
+    private final double[] alphaBuffer;
+
+    /**
+     * The epsilon counts of the theta interval being refreshed, in pool order.
+     */
+    private final double[] epsilonBuffer;
+
+    /**
+     * The update count of the counters at the last refresh, or -1 before the
+     * first refresh.
+     */
+    private long refreshedUpdateCount = -1;
+
+    /**
+     * Constructs a new {@link EligibilitySampler}, where every passage or item
+     * is eligible until the first refresh.
+     *
+     * @param exposureType the exposure control type
+     * @param thetaRanges a {@code List} of {@link ThetaRange} for the exposure
+     *            control
+     * @param rMax the exposure control goal rate
+     * @param entityNum the number of passages or items
+     */
+    public EligibilitySampler(ExposureControlType exposureType, List<ThetaRange> thetaRanges, double rMax,
+            int entityNum) {
+        if (thetaRanges.isEmpty()) {
+            throw new IllegalArgumentException("The theta ranges are empty!");
+        }
+        this.exposureType = exposureType;
+        this.thetaPoints = ExposureControlFunctions.getThetaPoints(thetaRanges);
+        this.thetaIntervalNum = thetaRanges.size();
+        this.entityNum = entityNum;
+        this.rMax = rMax;
+        probabilities = new double[thetaIntervalNum * entityNum];
+        Arrays.fill(probabilities, 1.0d);
+        alpha = new double[thetaIntervalNum * entityNum];
+        epsilon = new double[thetaIntervalNum * entityNum];
+        alphaBuffer = new double[entityNum];
+        epsilonBuffer = new double[entityNum];
+    }
+
+    /**
+     * Returns the number of theta intervals.
+     *
+     * @return the number of theta intervals
+     */
+    public int getThetaIntervalNum() {
+        return thetaIntervalNum;
+    }
+
+    /**
+     * Returns the number of passages or items.
+     *
+     * @return the number of passages or items
+     */
+    public int getEntityNum() {
+        return entityNum;
+    }
+
+    /**
+     * Refreshes the eligibility probabilities from the usage counts.
+     * <p>
+     * A usage source with a single theta interval counts the usage over the
+     * overall range, which then applies to every theta interval; otherwise the
+     * source has one theta interval per theta interval of the sampler.
+     *
+     * @param usageCounters the usage source
+     * @return the number of probabilities recomputed
+     */
+    public int refresh(ExposureUsageSource usageCounters) {
+        int counterIntervalNum = usageCounters.getThetaIntervalNum();
+        if (counterIntervalNum != 1 && counterIntervalNum != thetaIntervalNum
+                || usageCounters.getEntityNum() != entityNum) {
+            throw new IllegalArgumentException("The usage counters have " + counterIntervalNum
+                    + " theta intervals and " + usageCounters.getEntityNum() + " entities for "
+                    + thetaIntervalNum + " theta intervals and " + entityNum + " entities!");
+        }
+        long updateCount = usageCounters.getUpdateCount();
+        if (updateCount == refreshedUpdateCount) {
+            return 0;
+        }
+        int recomputed = 0;
+        for (int k = 0; k < thetaIntervalNum; k++) {
+            if (k == 0 || counterIntervalNum > 1) {
+                usageCounters.copyUsage(counterIntervalNum == 1 ? 0 : k, alphaBuffer, epsilonBuffer);
+            }
+            int offset = k * entityNum;
+            for (int i = 0; i < entityNum; i++) {
+                if (alphaBuffer[i] != alpha[offset + i] || epsilonBuffer[i] != epsilon[offset + i]
+                        || refreshedUpdateCount < 0) {
+                    alpha[offset + i] = alphaBuffer[i];
+                    epsilon[offset + i] = epsilonBuffer[i];
+                    probabilities[offset + i] = probability(alphaBuffer[i], epsilonBuffer[i]);
+                    recomputed++;
+                }
+            }
+        }
+        refreshedUpdateCount = updateCount;
+        return recomputed;
+    }
+
+    /**
+     * Returns the eligibility probability of a passage or item.
+     *
+     * @param thetaInterval the theta interval index
+     * @param entityIndex the passage or item row index
+     * @return the eligibility probability
+     */
+    public double getProbability(int thetaInterval, int entityIndex) {
+        if (thetaInterval < 0 || thetaInterval >= thetaIntervalNum || entityIndex < 0 || entityIndex >= entityNum) {
+            throw new IndexOutOfBoundsException("Theta interval " + thetaInterval + " or row index "
+                    + entityIndex + " is out of range!");
+        }
+        return probabilities[thetaInterval * entityNum + entityIndex];
+    }
+
+    /**
+     * Draws the eligibility indicators of a theta interval into an existing
+     * bit set.
+     *
+     * @param thetaInterval the theta interval index
+     * @param random the random stream of the draws
+     * @param eligible the bit set receiving the eligible passage or item row
+     *            indices
+     */
+    public void sample(int thetaInterval, SplittableRandom random, BitSet eligible) {
+        if (thetaInterval < 0 || thetaInterval >= thetaIntervalNum) {
+            throw new IndexOutOfBoundsException("Theta interval " + thetaInterval + " is out of range!");
+        }
+        eligible.clear();
+        int offset = thetaInterval * entityNum;
+        for (int i = 0; i < entityNum; i++) {
+            if (draw(probabilities[offset + i], random)) {
+                eligible.set(i);
+            }
+        }
+    }
+
+    /**
+     * Draws the eligibility indicators of all theta intervals for an
+     * examinee.
+     *
+     * @param random the random stream of the draws
+     * @return the eligibility indicators for all theta intervals
+     */
+    public PassageOrItemEligibilityOverall sample(SplittableRandom random) {
+        boolean[][] eligibilityIndicators = new boolean[thetaIntervalNum][entityNum];
+        for (int k = 0; k < thetaIntervalNum; k++) {
+            boolean[] indicators = eligibilityIndicators[k];
+            int offset = k * entityNum;
+            for (int i = 0; i < entityNum; i++) {
+                indicators[i] = draw(probabilities[offset + i], random);
+            }
+        }
+        return new PassageOrItemEligibilityOverall(thetaPoints.clone(), eligibilityIndicators, exposureType);
+    }
+
+    /**
+     * Returns the eligibility probability of Equation 15 in van der Linden &amp;
+     * Veldkamp (2007), bound between 0 and 1.
+     *
+     * @param alphaCount the alpha count
+     * @param epsilonCount the epsilon count
+     * @return the eligibility probability
+     */
+    private double probability(double alphaCount, double epsilonCount) {
+        if (alphaCount <= 0) {
+            return 1.0d;
+        }
+        double probability = rMax * epsilonCount / alphaCount;
+        return Math.max(0.0d, Math.min(1.0d, probability));
+    }
+
+    /**
+     * Draws one Bernoulli indicator.
+     *
+     * @param probability the success probability
+     * @param random the random stream of the draw
+     * @return the indicator
+     */
+    private static boolean draw(double probability, SplittableRandom random) {
+        if (probability >= 1.0d) {
+            return true;
+        }
+        return probability > 0.0d && random.nextDouble() < probability;
+    }
+}
@@ -3,15 +3,20 @@ package org.act.rscat.cat;
 import static org.act.rscat.cat.CatHelper.getPreviousShadowBoolean;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 
 import org.act.rscat.mip.SolverInputSingleItem;
 import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
 import org.act.rscat.testdef.Item;
 import org.act.rscat.testdef.TestConfig;
-import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.apache.commons.math3.distribution.UniformRealDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,12 +65,27 @@ public final class ExposureControlFunctions {
      */
     public static PassageOrItemEligibilityOverall prepExposureControlDataForCat(ExposureControlType exposureControlType,
             ExposureControlData exposureControlData, int entityCount) {
+        return prepExposureControlDataForCat(exposureControlType, exposureControlData, entityCount, new Well19937c());
+    }
+
+    /**
+     * Same as {@link #prepExposureControlDataForCat(ExposureControlType, ExposureControlData, int)}, with the
+     * eligibility indicators drawn from the given random generator.
+     *
+     * @param exposureControlType the exposure control type
+     * @param exposureControlData the exposure control data
+     * @param entityCount         number of either items or passages
+     * @param randomGenerator     the random generator used to draw the eligibility indicators
+     * @return the eligibility indicators for all theta intervals
+     */
+    public static PassageOrItemEligibilityOverall prepExposureControlDataForCat(ExposureControlType exposureControlType,
+            ExposureControlData exposureControlData, int entityCount, RandomGenerator randomGenerator) {
 
         // calculate eligibility probabilities
         double[][] eligibilityProbabilities = calcEligibilityProbabilities(exposureControlData, entityCount);
 
         // get eligibility indicators
-        boolean[][] eligibilityIndicators = getEligibility(eligibilityProbabilities);
+        boolean[][] eligibilityIndicators = getEligibility(eligibilityProbabilities, randomGenerator);
 
         // get theta points
         double[] thetaPoints = exposureControlData.getThetaPoints();
@@ -198,6 +218,19 @@ public final class ExposureControlFunctions {
      *         test
      */
     public static boolean[][] getEligibility(double[][] eligibilityProbabilities) {
+        return getEligibility(eligibilityProbabilities, new Well19937c());
+    }
+
+    /**
+     * Same as {@link #getEligibility(double[][])}, with the Bernoulli trials drawn from the given random
+     * generator.
+     *
+     * @param eligibilityProbabilities a K x I two dimensional double array with the eligibility probability for
+     *                                 each passage item, i, at each theta interval, k.
+     * @param randomGenerator          the random generator used for the Bernoulli trials
+     * @return the K x I eligibility indicators
+     */
+    public static boolean[][] getEligibility(double[][] eligibilityProbabilities, RandomGenerator randomGenerator) {
 
         // getting the number of theta intervals and number of items
         int numThetaIntervals = eligibilityProbabilities.length;
@@ -210,18 +243,15 @@ public final class ExposureControlFunctions {
         /*
          * cycle through all theta intervals k and all passages/items i, conduct one
          * bernoulli trial for each i at each k; the result of each experiment is
-         * converted to a boolean value and saved in the eligibilityIndicators array
+         * saved in the eligibilityIndicators array. The trial inverts the
+         * distribution function of a binomial distribution with n=1 at one uniform
+         * draw, as the inversion sampling of BinomialDistribution does, without
+         * constructing a distribution per trial
          */
         for (int k = 0; k < numThetaIntervals; k++) {
             for (int i = 0; i < numItems; i++) {
                 double p = eligibilityProbabilities[k][i];
-                BinomialDistribution binomDist = new BinomialDistribution(1, p);
-                int experiment = binomDist.sample();
-                boolean experimentBoolean = false;
-                if (experiment == 1) {
-                    experimentBoolean = true;
-                }
-                eligibilityIndicators[k][i] = experimentBoolean;
+                eligibilityIndicators[k][i] = randomGenerator.nextDouble() > 1.0d - p;
             }
         }
 
@@ -246,45 +276,9 @@ public final class ExposureControlFunctions {
     public static PassageOrItemEligibilityAtThetaRange findThetaInterval(
             PassageOrItemEligibilityOverall passageOrItemEligibilityOverall, ThetaEst currentThetaEstimate) {
 
-        // get theta points
-        double[] thetaPoints = passageOrItemEligibilityOverall.getThetaPoints();
-
-        // get current theta estimate
-        double currentTheta = currentThetaEstimate.getTheta();
-
-        // boolean value indicating whether the theta interval has been found
-        boolean foundTheta = false;
-
-        // theta interval index
-        int thetaInd = 0;
-
         // get index of theta interval that the current theta estimate is in
-        if (thetaPoints.length > 0) {
-            for (int k = 0; k < (thetaPoints.length + 1) && !foundTheta; k++) {
-                if (k == 0) {
-                    if (currentTheta < thetaPoints[k]) {
-                        thetaInd = k;
-                        foundTheta = true;
-                    }
-                } else if (k > 0 && k < thetaPoints.length) {
-                    if (currentTheta >= thetaPoints[k - 1] && currentTheta < thetaPoints[k]) {
-                        thetaInd = k;
-                        foundTheta = true;
-                    }
-                } else if (k == thetaPoints.length) {
-                    if (currentTheta >= thetaPoints[k - 1]) {
-                        thetaInd = k;
-                        foundTheta = true;
-                    }
-                } else {
-                    String message = "theta interval index k is out of range";
-                    LOGGER.error(message);
-                    throw new IllegalStateException(message);
-                }
-            }
-        } else {
-            thetaInd = 0;
-        }
+        int thetaInd = findThetaIntervalIndex(passageOrItemEligibilityOverall.getThetaPoints(),
+                currentThetaEstimate.getTheta());
 
         // get eligibility vector associated with current theta interval.
         boolean[] eligibilityAtCurrentTheta = passageOrItemEligibilityOverall.getEligibilityIndicators()[thetaInd];
@@ -293,10 +287,37 @@ public final class ExposureControlFunctions {
                 passageOrItemEligibilityOverall.getExposureType());
     }
 
+    /**
+     * Returns the index of the theta interval in which a theta value is
+     * located, by binary search over the theta boundaries. Interval k covers
+     * the theta values from boundary k - 1, inclusive, to boundary k,
+     * exclusive; the first and the last intervals are unbounded below and
+     * above. A theta value that is not a number is located in the first
+     * interval.
+     *
+     * @param thetaPoints the boundaries between the theta intervals in
+     *            ascending order
+     * @param theta the theta value
+     * @return the theta interval index
+     */
+    public static int findThetaIntervalIndex(double[] thetaPoints, double theta) {
+        int low = 0;
+        int high = thetaPoints.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thetaPoints[mid] <= theta) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Prepares item data for the solver.
      *
-     * @param itemIds an array of item identifiers
+     * @param itemIds an array of item identifiers in item pool order
      * @param fisherInformation an array of item fisher information for items in the {@code itemIds}
      * @param itemsAdministeredBoolean a boolean array that indicates whether items have been administered or not
      * @param eligibilityIndicatorsItemSoft a boolean array that indicates the soft eligibility of items, from the exposure rate control
@@ -311,9 +332,27 @@ public final class ExposureControlFunctions {
         // convert previous shadow test string array to previous shadow test
         // boolean array
         boolean[] previousShadowTestBoolean = getPreviousShadowBoolean(itemIds, previousShadowTest);
+        return prepItemDataForSolver(itemIds, fisherInformation, itemsAdministeredBoolean,
+                eligibilityIndicatorsItemSoft, eligiblePassageItemsHard, previousShadowTestBoolean);
+    }
+
+    /**
+     * Prepares item data for the solver. The item row indices are passed to the solver along with the identifiers.
+     *
+     * @param itemIds an array of item identifiers in item pool order
+     * @param fisherInformation an array of item fisher information for items in the {@code itemIds}
+     * @param itemsAdministeredBoolean a boolean array that indicates whether items have been administered or not
+     * @param eligibilityIndicatorsItemSoft a boolean array that indicates the soft eligibility of items, from the exposure rate control
+     * @param eligiblePassageItemsHard a boolean array that indicates the hard eligibility of items
+     * @param previousShadowTestBoolean a boolean array that indicates whether items are selected in the previous shadow test
+     * @return the {@code List} of {@link SolverInputSingleItem}
+     */
+    public static List<SolverInputSingleItem> prepItemDataForSolver(String[] itemIds, double[] fisherInformation,
+            boolean[] itemsAdministeredBoolean, boolean[] eligibilityIndicatorsItemSoft,
+            boolean[] eligiblePassageItemsHard, boolean[] previousShadowTestBoolean) {
 
         // put data in form that solver can use (item level)
-        List<SolverInputSingleItem> solverInputSingleItemList = new ArrayList<>();
+        List<SolverInputSingleItem> solverInputSingleItemList = new ArrayList<>(itemIds.length);
         for (int index = 0; index < itemIds.length; index++) {
             String itemId = itemIds[index];
             double information = fisherInformation[index];
@@ -323,8 +362,8 @@ public final class ExposureControlFunctions {
             boolean selected = previousShadowTestBoolean[index]; // selected in
                                                                  // previous
                                                                  // shadow test
-            SolverInputSingleItem singleItemInput = new SolverInputSingleItem(itemId, information, administered,
-                    eligible, eligibleHard, selected);
+            SolverInputSingleItem singleItemInput = new SolverInputSingleItem(itemId, index, information,
+                    administered, eligible, eligibleHard, selected);
             // update list
             solverInputSingleItemList.add(singleItemInput);
         }
@@ -332,10 +371,29 @@ public final class ExposureControlFunctions {
         return solverInputSingleItemList;
     }
 
+    /**
+     * Prepares item and passage data for the solver in compact form, without
+     * one object per item or passage.
+     *
+     * @param fisherInformation an array of item fisher information in item pool order
+     * @param itemsAdministered the items that have been administered
+     * @param eligibilityItemSoft the soft eligibility of items, from the exposure rate control
+     * @param eligiblePassageItemsHard the hard eligibility of items
+     * @param previousShadowTest the items selected in the previous shadow test
+     * @param eligibilityPassageSoft the soft eligibility of passages, from the exposure rate control
+     * @return the {@link SolverInputStage}
+     */
+    public static SolverInputStage prepStageDataForSolver(double[] fisherInformation, BitSet itemsAdministered,
+            BitSet eligibilityItemSoft, BitSet eligiblePassageItemsHard, BitSet previousShadowTest,
+            BitSet eligibilityPassageSoft) {
+        return new SolverInputStage(fisherInformation, itemsAdministered, eligibilityItemSoft,
+                eligiblePassageItemsHard, previousShadowTest, eligibilityPassageSoft);
+    }
+
     /**
      * Prepares passage eligibility data for the solver.
      *
-     * @param passageIds an array of passage identifiers
+     * @param passageIds an array of passage identifiers in passage pool order
      * @param eligibilityIndicatorsPassageSoft a boolean array that indicates the soft eligibility of passages
      * @return the {@code List} of {@link SolverInputSinglePassage}
      */
@@ -347,7 +405,7 @@ public final class ExposureControlFunctions {
         for (int index = 0; index < passageIds.length; index++) {
             String passageId = passageIds[index];
             boolean eligible = eligibilityIndicatorsPassageSoft[index];
-            SolverInputSinglePassage singlePassageInput = new SolverInputSinglePassage(passageId, eligible);
+            SolverInputSinglePassage singlePassageInput = new SolverInputSinglePassage(passageId, index, eligible);
             // update list
             solverInputSinglePassageList.add(singlePassageInput);
         }
@@ -366,6 +424,21 @@ public final class ExposureControlFunctions {
      *         components
      */
     public static double[] applyLRandomToInfo(int l, int s, double[] itemInfo) {
+        return applyLRandomToInfo(l, s, itemInfo, new Well19937c());
+    }
+
+    /**
+     * Same as {@link #applyLRandomToInfo(int, int, double[])}, with the random
+     * components drawn from the given random generator.
+     *
+     * @param l               number of items for which to apply randomization
+     *                        method
+     * @param s               current item number
+     * @param itemInfo        item information values at current theta estimate
+     * @param randomGenerator the random generator for the random components
+     * @return a double array of info values updated with random components
+     */
+    public static double[] applyLRandomToInfo(int l, int s, double[] itemInfo, RandomGenerator randomGenerator) {
 
         // initialize return object
         double[] itemInfoWithLRandom = new double[itemInfo.length];
@@ -387,7 +460,8 @@ public final class ExposureControlFunctions {
             }
 
             // construct uniform distribution
-            UniformRealDistribution uniformRealDistribution = new UniformRealDistribution(minInfo, maxInfo);
+            UniformRealDistribution uniformRealDistribution = new UniformRealDistribution(randomGenerator, minInfo,
+                    maxInfo);
 
             // get new info values by adding random weighted value to each item
             // information value
@@ -462,21 +536,114 @@ public final class ExposureControlFunctions {
      */
     public static PassageOrItemEligibilityOverall buildPassageOrItemEligibilityOverall(CatConfig catConfig,
             TestConfig testConfig, Map<ThetaRange, Map<String, ExposureItemUsage>> exposureItemUsageRangeMap) {
-        if (catConfig.exposureControlConfig().getType().equals(ExposureControlType.ITEM)) {
-            int itemIdColIndex = testConfig.getItemPoolTable().columnIndex(Item.ColumnName.ITEM_ID.getColName());
-            List<String> itemIds = testConfig.getItemPoolTable().columns().get(itemIdColIndex);
-            ExposureControlData exposureControlData = buildExposureControlDataItem(exposureItemUsageRangeMap, itemIds,
-                    catConfig.exposureControlConfig().getThetaRanges(), catConfig.exposureControlConfig().getrMax(),
-                    FADING_FACTOR);
+        return buildPassageOrItemEligibilityOverall(catConfig, testConfig, exposureItemUsageRangeMap,
+                new Well19937c());
+    }
+
+    /**
+     * Creates the {@link PassageOrItemEligibilityOverall} for item or passage
+     * exposure rate control, drawing the eligibility indicators from the given
+     * random generator.
+     *
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @param exposureItemUsageRangeMap the exposureItemUsageRangeMap
+     * @param randomGenerator the random generator used to draw the eligibility
+     *            indicators
+     * @return the instance of PassageOrItemEligibilityOverall
+     */
+    public static PassageOrItemEligibilityOverall buildPassageOrItemEligibilityOverall(CatConfig catConfig,
+            TestConfig testConfig, Map<ThetaRange, Map<String, ExposureItemUsage>> exposureItemUsageRangeMap,
+            RandomGenerator randomGenerator) {
+        ExposureControlType exposureType = catConfig.exposureControlConfig().getType();
+        if (exposureType.equals(ExposureControlType.ITEM) || exposureType.equals(ExposureControlType.PASSAGE)) {
+
+            // The usage of passages is keyed by the passage identifiers of the
+            // passage table
+            List<String> entityIds;
+            if (exposureType.equals(ExposureControlType.ITEM)) {
+                int itemIdColIndex = testConfig.getItemPoolTable().columnIndex(Item.ColumnName.ITEM_ID.getColName());
+                entityIds = testConfig.getItemPoolTable().columns().get(itemIdColIndex);
+            } else {
+                entityIds = Arrays.asList(ItemPool.forTestConfig(testConfig).getPassageIdsFromPassageTable());
+            }
+            ExposureControlData exposureControlData = buildExposureControlDataItem(exposureItemUsageRangeMap,
+                    entityIds, catConfig.exposureControlConfig().getThetaRanges(),
+                    catConfig.exposureControlConfig().getrMax(), FADING_FACTOR);
+
+            return ExposureControlFunctions.prepExposureControlDataForCat(exposureType, exposureControlData,
+                    entityIds.size(), randomGenerator);
+
+        } else {
+            return PassageOrItemEligibilityOverall.PASSAGE_OR_ITEM_ELIGIBILITY_OVERALL_NONE;
+        }
+
+    }
 
-            return ExposureControlFunctions
-                    .prepExposureControlDataForCat(catConfig.exposureControlConfig().getType(), exposureControlData,
-                            testConfig.getItemPoolTable().rowCount());
+    /**
+     * Creates the {@link PassageOrItemEligibilityOverall} for item or passage
+     * exposure rate control from a snapshot of the usage counters.
+     *
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @param usageCounters the passage or item usage counters, or another
+     *            source of the usage, matching the exposure control type
+     * @return the instance of PassageOrItemEligibilityOverall
+     * @see ExposureUsageSource
+     */
+    public static PassageOrItemEligibilityOverall buildPassageOrItemEligibilityOverall(CatConfig catConfig,
+            TestConfig testConfig, ExposureUsageSource usageCounters) {
+        return buildPassageOrItemEligibilityOverall(catConfig, testConfig, usageCounters, new Well19937c());
+    }
 
+    /**
+     * Creates the {@link PassageOrItemEligibilityOverall} for item or passage
+     * exposure rate control from a snapshot of the usage counters, drawing
+     * the eligibility indicators from the given random generator.
+     *
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @param usageCounters the passage or item usage counters, or another
+     *            source of the usage, matching the exposure control type
+     * @param randomGenerator the random generator used to draw the eligibility
+     *            indicators
+     * @return the instance of PassageOrItemEligibilityOverall
+     */
+    public static PassageOrItemEligibilityOverall buildPassageOrItemEligibilityOverall(CatConfig catConfig,
+            TestConfig testConfig, ExposureUsageSource usageCounters, RandomGenerator randomGenerator) {
+        ExposureControlType exposureType = catConfig.exposureControlConfig().getType();
+        if (exposureType.equals(ExposureControlType.ITEM) || exposureType.equals(ExposureControlType.PASSAGE)) {
+            ExposureControlData exposureControlData = buildExposureControlDataItem(usageCounters,
+                    catConfig.exposureControlConfig().getThetaRanges(), catConfig.exposureControlConfig().getrMax(),
+                    FADING_FACTOR);
+            return prepExposureControlDataForCat(exposureType, exposureControlData, usageCounters.getEntityNum(),
+                    randomGenerator);
         } else {
             return PassageOrItemEligibilityOverall.PASSAGE_OR_ITEM_ELIGIBILITY_OVERALL_NONE;
         }
+    }
 
+    /**
+     * Creates the {@link PassageOrItemEligibilityOverall} for item or passage
+     * exposure rate control from the probabilities of an eligibility sampler,
+     * drawing the eligibility indicators from the given random stream.
+     *
+     * @param catConfig the CAT configuration
+     * @param eligibilitySampler the eligibility sampler refreshed from the
+     *            passage or item usage, or {@code null} if exposure is not
+     *            controlled
+     * @param random the random stream used to draw the eligibility indicators
+     * @return the instance of PassageOrItemEligibilityOverall
+     * @see EligibilitySampler
+     */
+    public static PassageOrItemEligibilityOverall buildPassageOrItemEligibilityOverall(CatConfig catConfig,
+            EligibilitySampler eligibilitySampler, SplittableRandom random) {
+        ExposureControlType exposureType = catConfig.exposureControlConfig().getType();
+        if (exposureType.equals(ExposureControlType.ITEM) || exposureType.equals(ExposureControlType.PASSAGE)) {
+            return eligibilitySampler.sample(random);
+        } else {
+            return PassageOrItemEligibilityOverall.PASSAGE_OR_ITEM_ELIGIBILITY_OVERALL_NONE;
+        }
     }
 
     /**
@@ -509,13 +676,105 @@ public final class ExposureControlFunctions {
         }
     }
 
+    /**
+     * Updates the item usage counters with an examinee, conditional on the
+     * theta intervals the examinee visited.
+     * <p>
+     * Every theta interval at which an item was selected for the examinee is
+     * visited. The epsilon counts of a visited interval are increased with the
+     * eligibility indicators of the examinee at that interval, and the alpha
+     * count of each administered item at the interval at which it was
+     * selected, following van der Linden &amp; Veldkamp (2007).
+     *
+     * @param usageCounters the item usage counters to be updated, with one
+     *            theta interval per theta range of the eligibility
+     * @param passageOrItemEligibilityOverall the eligibility indicators of the
+     *            examinee for all theta ranges
+     * @param itemsAdministeredIndices the row indices of the items that have
+     *            been administered
+     * @param itemThetaIntervals the theta interval index at which each
+     *            administered item was selected
+     */
+    public static void updateItemUsage(ExposureUsageCounters usageCounters,
+            PassageOrItemEligibilityOverall passageOrItemEligibilityOverall, int[] itemsAdministeredIndices,
+            int[] itemThetaIntervals) {
+        boolean[][] eligibilityIndicators = passageOrItemEligibilityOverall.getEligibilityIndicators();
+        if (eligibilityIndicators.length != usageCounters.getThetaIntervalNum()) {
+            throw new IllegalArgumentException("The usage counters have " + usageCounters.getThetaIntervalNum()
+                    + " theta intervals for " + eligibilityIndicators.length + " theta ranges!");
+        }
+        if (itemThetaIntervals.length != itemsAdministeredIndices.length) {
+            throw new IllegalArgumentException("The theta intervals are not given for each administered item!");
+        }
+        boolean[] visited = new boolean[eligibilityIndicators.length];
+        for (int j = 0; j < itemsAdministeredIndices.length; j++) {
+            int thetaInterval = itemThetaIntervals[j];
+            if (!visited[thetaInterval]) {
+                visited[thetaInterval] = true;
+                usageCounters.addEligible(thetaInterval, eligibilityIndicators[thetaInterval]);
+            }
+            usageCounters.addAdministered(thetaInterval, itemsAdministeredIndices[j]);
+        }
+    }
+
+    /**
+     * Updates the passage usage counters with an examinee, conditional on the
+     * theta intervals the examinee visited.
+     * <p>
+     * The theta intervals are visited as in
+     * {@link #updateItemUsage(ExposureUsageCounters, PassageOrItemEligibilityOverall, int[], int[])}, where the
+     * epsilon counts of a visited interval are increased with the passage
+     * eligibility indicators of the examinee at that interval. A passage is
+     * administered once per examinee, at the theta interval at which its first
+     * item was selected; discrete items do not count.
+     *
+     * @param usageCounters the passage usage counters to be updated, with one
+     *            theta interval per theta range of the eligibility
+     * @param passageOrItemEligibilityOverall the passage eligibility indicators
+     *            of the examinee for all theta ranges
+     * @param itemsAdministeredIndices the row indices of the items that have
+     *            been administered
+     * @param itemThetaIntervals the theta interval index at which each
+     *            administered item was selected
+     * @param itemPassageIndices the passage row index of each item in item pool
+     *            order, or -1 for a discrete item
+     * @see ItemPool#getItemPassageIndices()
+     */
+    public static void updatePassageUsage(ExposureUsageCounters usageCounters,
+            PassageOrItemEligibilityOverall passageOrItemEligibilityOverall, int[] itemsAdministeredIndices,
+            int[] itemThetaIntervals, int[] itemPassageIndices) {
+        boolean[][] eligibilityIndicators = passageOrItemEligibilityOverall.getEligibilityIndicators();
+        if (eligibilityIndicators.length != usageCounters.getThetaIntervalNum()) {
+            throw new IllegalArgumentException("The usage counters have " + usageCounters.getThetaIntervalNum()
+                    + " theta intervals for " + eligibilityIndicators.length + " theta ranges!");
+        }
+        if (itemThetaIntervals.length != itemsAdministeredIndices.length) {
+            throw new IllegalArgumentException("The theta intervals are not given for each administered item!");
+        }
+        boolean[] visited = new boolean[eligibilityIndicators.length];
+        BitSet passagesAdministered = new BitSet(usageCounters.getEntityNum());
+        for (int j = 0; j < itemsAdministeredIndices.length; j++) {
+            int thetaInterval = itemThetaIntervals[j];
+            if (!visited[thetaInterval]) {
+                visited[thetaInterval] = true;
+                usageCounters.addEligible(thetaInterval, eligibilityIndicators[thetaInterval]);
+            }
+            int passageIndex = itemPassageIndices[itemsAdministeredIndices[j]];
+            if (passageIndex >= 0 && !passagesAdministered.get(passageIndex)) {
+                passagesAdministered.set(passageIndex);
+                usageCounters.addAdministered(thetaInterval, passageIndex);
+            }
+        }
+    }
+
     /**
      * Creates {@link ExposureControlData} for the exposure control.
      *
      * @param exposureItemUsageRangeMap the item usage data
      * @param itemIds a {@code List} of item identifiers in the item pool
      * @param thetaRanges a {@code List} of {@link ThetaRange} for the exposure control. For the exposure control at
-     *                      the overall range, only include the overall theta range in the list.
+     *                      the overall range, only include the overall theta range in the list. The usage of a
+     *                      theta range missing from the usage data is the usage at the overall range.
      * @param rMax the exposure control goal rate
      * @param fadingFactor the fading factor
      * @return an instance of {@link ExposureControlData}
@@ -524,11 +783,14 @@ public final class ExposureControlFunctions {
             Map<ThetaRange, Map<String, ExposureItemUsage>> exposureItemUsageRangeMap, List<String> itemIds,
             List<ThetaRange> thetaRanges, double rMax, double fadingFactor) {
 
-        ThetaRange key = new ThetaRange(ExposureControlFunctions.EC_THETA_MIN, ExposureControlFunctions.EC_THETA_MAX);
+        ThetaRange overallKey = new ThetaRange(ExposureControlFunctions.EC_THETA_MIN,
+                ExposureControlFunctions.EC_THETA_MAX);
         double[][] alphaArray = new double[thetaRanges.size()][itemIds.size()];
         double[][] epsilonArray = new double[thetaRanges.size()][itemIds.size()];
 
         for (int i = 0; i < thetaRanges.size(); i++) {
+            ThetaRange key = exposureItemUsageRangeMap.containsKey(thetaRanges.get(i)) ? thetaRanges.get(i)
+                    : overallKey;
             Map<String, ExposureItemUsage> itemUsageMap = exposureItemUsageRangeMap.get(key);
             for (int j = 0; j < itemIds.size(); j++) {
                 if (itemUsageMap != null && itemUsageMap.get(itemIds.get(j)) != null) {
@@ -542,7 +804,49 @@ public final class ExposureControlFunctions {
                 .epsilonArray(epsilonArray).numThetaIntervals(thetaRanges.size()).rMax(rMax).fadingFactor(fadingFactor)
                 .build();
     }
-    private static double[] getThetaPoints(List<ThetaRange> thetaRanges) {
+
+    /**
+     * Creates {@link ExposureControlData} for the exposure control from a
+     * snapshot of the usage counters.
+     * <p>
+     * Counters with a single theta interval count the usage over the overall
+     * range, which then applies to every theta range; otherwise the counters
+     * have one theta interval per theta range.
+     *
+     * @param usageCounters the item usage counters, or another source of the item usage
+     * @param thetaRanges a {@code List} of {@link ThetaRange} for the exposure control. For the exposure control at
+     *                      the overall range, only include the overall theta range in the list.
+     * @param rMax the exposure control goal rate
+     * @param fadingFactor the fading factor
+     * @return an instance of {@link ExposureControlData}
+     */
+    public static ExposureControlData buildExposureControlDataItem(ExposureUsageSource usageCounters,
+            List<ThetaRange> thetaRanges, double rMax, double fadingFactor) {
+        int intervalNum = usageCounters.getThetaIntervalNum();
+        if (intervalNum != 1 && intervalNum != thetaRanges.size()) {
+            throw new IllegalArgumentException("The usage counters have " + intervalNum
+                    + " theta intervals for " + thetaRanges.size() + " theta ranges!");
+        }
+        double[][] alphaArray = new double[thetaRanges.size()][];
+        double[][] epsilonArray = new double[thetaRanges.size()][];
+        for (int i = 0; i < thetaRanges.size(); i++) {
+            int interval = intervalNum == 1 ? 0 : i;
+            alphaArray[i] = usageCounters.snapshotAlpha(interval);
+            epsilonArray[i] = usageCounters.snapshotEpsilon(interval);
+        }
+
+        return new ExposureControlData.Builder().thetaPoints(getThetaPoints(thetaRanges)).alphaArray(alphaArray)
+                .epsilonArray(epsilonArray).numThetaIntervals(thetaRanges.size()).rMax(rMax).fadingFactor(fadingFactor)
+                .build();
+    }
+
+    /**
+     * Returns the boundaries between consecutive theta ranges.
+     *
+     * @param thetaRanges a {@code List} of {@link ThetaRange} in ascending order
+     * @return the theta boundaries
+     */
+    static double[] getThetaPoints(List<ThetaRange> thetaRanges) {
         double[] thetaPoints = new double[thetaRanges.size() - 1];
         for (int i = 0; i < thetaRanges.size() - 1; i++) {
             thetaPoints[i] = thetaRanges.get(i).getMaxThetaExclusive();
@@ -0,0 +1,278 @@
+package org.act.rscat.cat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the passage or item usage of exposure control at theta intervals.
+ * <p>
+ * Alpha is the number of examinees who visited theta interval k and took
+ * passage/item i; epsilon is the number of examinees who visited theta
+ * interval k when passage/item i was eligible; the visits of theta interval k
+ * are the number of examinees whose eligibility was counted at interval k. The
+ * counts are kept in
+ * primitive arrays indexed by theta interval and by row index in the pool,
+ * instead of one {@link ExposureItemUsage} per item looked up by identifier.
+ * <p>
+ * Counts can be updated from any number of threads. Each thread adds to one of
+ * several stripes of atomic counters, so that concurrent sessions seldom
+ * update the same counters, and reads sum the stripes. A snapshot taken while
+ * other threads update the counts contains each single update or not, but not
+ * necessarily all updates of an examinee.
+ */
+public final class ExposureUsageCounters implements ExposureUsageSource {
+
+    /**
+     * The number of theta intervals.
+     */
+    private final int thetaIntervalNum;
+
+    /**
+     * The number of passages or items.
+     */
+    private final int entityNum;
+
+    /**
+     * The mask selecting the stripe of a thread.
+     */
+    private final int stripeMask;
+
+    /**
+     * The alpha counts of each stripe, indexed by
+     * {@code thetaInterval * entityNum + entityIndex}.
+     */
+    private final AtomicLongArray[] alphaStripes;
+
+    /**
+     * The epsilon counts of each stripe, indexed as the alpha counts.
+     */
+    private final AtomicLongArray[] epsilonStripes;
+
+    /**
+     * The visits of each theta interval.
+     */
+    private final AtomicLongArray visits;
+
+    /**
+     * The number of updates of the counts.
+     */
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * Constructs new {@link ExposureUsageCounters} with zero counts and one
+     * stripe per available processor.
+     *
+     * @param thetaIntervalNum the number of theta intervals
+     * @param entityNum the number of passages or items
+     */
+    public ExposureUsageCounters(int thetaIntervalNum, int entityNum) {
+        this(thetaIntervalNum, entityNum, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs new {@link ExposureUsageCounters} with zero counts.
+     *
+     * @param thetaIntervalNum the number of theta intervals
+     * @param entityNum the number of passages or items
+     * @param concurrency the expected number of updating threads, rounded up
+     *            to a power of two stripes
+     */
+    public ExposureUsageCounters(int thetaIntervalNum, int entityNum, int concurrency) {
+        if (thetaIntervalNum < 1 || entityNum < 0 || concurrency < 1) {
+            throw new IllegalArgumentException("The theta intervals and the concurrency must be at least 1!");
+        }
+        this.thetaIntervalNum = thetaIntervalNum;
+        this.entityNum = entityNum;
+        int stripeNum = Integer.highestOneBit(concurrency);
+        if (stripeNum < concurrency) {
+            stripeNum *= 2;
+        }
+        stripeMask = stripeNum - 1;
+        alphaStripes = new AtomicLongArray[stripeNum];
+        epsilonStripes = new AtomicLongArray[stripeNum];
+        for (int s = 0; s < stripeNum; s++) {
+            alphaStripes[s] = new AtomicLongArray(thetaIntervalNum * entityNum);
+            epsilonStripes[s] = new AtomicLongArray(thetaIntervalNum * entityNum);
+        }
+        visits = new AtomicLongArray(thetaIntervalNum);
+    }
+
+    @Override
+    public int getThetaIntervalNum() {
+        return thetaIntervalNum;
+    }
+
+    @Override
+    public int getEntityNum() {
+        return entityNum;
+    }
+
+    /**
+     * Increases the alpha counts of the passages or items administered to an
+     * examinee.
+     *
+     * @param thetaInterval the theta interval index
+     * @param entityIndices the row indices of the administered passages or
+     *            items
+     */
+    public void addAdministered(int thetaInterval, int[] entityIndices) {
+        AtomicLongArray alpha = alphaStripes[stripe()];
+        int offset = offset(thetaInterval);
+        for (int entityIndex : entityIndices) {
+            alpha.incrementAndGet(offset + checkEntity(entityIndex));
+        }
+        updateCount.incrementAndGet();
+    }
+
+    /**
+     * Increases the alpha count of a passage or item administered to an
+     * examinee.
+     *
+     * @param thetaInterval the theta interval index
+     * @param entityIndex the row index of the administered passage or item
+     */
+    public void addAdministered(int thetaInterval, int entityIndex) {
+        alphaStripes[stripe()].incrementAndGet(offset(thetaInterval) + checkEntity(entityIndex));
+        updateCount.incrementAndGet();
+    }
+
+    /**
+     * Increases the epsilon counts of the passages or items eligible for an
+     * examinee, and the visits of the theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @param eligibilityIndicators the eligibility of each passage or item
+     */
+    public void addEligible(int thetaInterval, boolean[] eligibilityIndicators) {
+        if (eligibilityIndicators.length != entityNum) {
+            throw new IllegalArgumentException("The eligibility indicators are not of length "
+                    + entityNum + "!");
+        }
+        AtomicLongArray epsilon = epsilonStripes[stripe()];
+        int offset = offset(thetaInterval);
+        for (int i = 0; i < entityNum; i++) {
+            if (eligibilityIndicators[i]) {
+                epsilon.incrementAndGet(offset + i);
+            }
+        }
+        visits.incrementAndGet(thetaInterval);
+        updateCount.incrementAndGet();
+    }
+
+    @Override
+    public long getUpdateCount() {
+        return updateCount.get();
+    }
+
+    /**
+     * Returns the alpha count of a passage or item.
+     *
+     * @param thetaInterval the theta interval index
+     * @param entityIndex the passage or item row index
+     * @return the alpha count
+     */
+    public long getAlpha(int thetaInterval, int entityIndex) {
+        return sum(alphaStripes, offset(thetaInterval) + checkEntity(entityIndex));
+    }
+
+    /**
+     * Returns the epsilon count of a passage or item.
+     *
+     * @param thetaInterval the theta interval index
+     * @param entityIndex the passage or item row index
+     * @return the epsilon count
+     */
+    public long getEpsilon(int thetaInterval, int entityIndex) {
+        return sum(epsilonStripes, offset(thetaInterval) + checkEntity(entityIndex));
+    }
+
+    /**
+     * Returns the visits of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the number of examinees whose eligibility was counted at the
+     *         theta interval
+     */
+    public long getVisitNum(int thetaInterval) {
+        offset(thetaInterval);
+        return visits.get(thetaInterval);
+    }
+
+    @Override
+    public void copyAlpha(int thetaInterval, double[] counts) {
+        copy(alphaStripes, thetaInterval, counts);
+    }
+
+    @Override
+    public void copyEpsilon(int thetaInterval, double[] counts) {
+        copy(epsilonStripes, thetaInterval, counts);
+    }
+
+    /**
+     * Sums the counts of a theta interval over the stripes into an existing
+     * array.
+     *
+     * @param stripes the alpha or epsilon stripes
+     * @param thetaInterval the theta interval index
+     * @param counts the array receiving the counts in pool order
+     */
+    private void copy(AtomicLongArray[] stripes, int thetaInterval, double[] counts) {
+        if (counts.length != entityNum) {
+            throw new IllegalArgumentException("The count array is not of length " + entityNum + "!");
+        }
+        int offset = offset(thetaInterval);
+        for (int i = 0; i < entityNum; i++) {
+            counts[i] = sum(stripes, offset + i);
+        }
+    }
+
+    /**
+     * Returns a count summed over the stripes.
+     *
+     * @param stripes the alpha or epsilon stripes
+     * @param index the count index
+     * @return the count
+     */
+    private static long sum(AtomicLongArray[] stripes, int index) {
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            count += stripe.get(index);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the stripe updated by the current thread.
+     *
+     * @return the stripe index
+     */
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    /**
+     * Returns the index of the first count of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the count index
+     */
+    private int offset(int thetaInterval) {
+        if (thetaInterval < 0 || thetaInterval >= thetaIntervalNum) {
+            throw new IndexOutOfBoundsException("Theta interval " + thetaInterval + " is out of range!");
+        }
+        return thetaInterval * entityNum;
+    }
+
+    /**
+     * Checks the row index of a passage or item.
+     *
+     * @param entityIndex the passage or item row index
+     * @return the row index
+     */
+    private int checkEntity(int entityIndex) {
+        if (entityIndex < 0 || entityIndex >= entityNum) {
+            throw new IndexOutOfBoundsException("Row index " + entityIndex + " is out of range!");
+        }
+        return entityIndex;
+    }
+}
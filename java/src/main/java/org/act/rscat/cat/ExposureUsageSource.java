@@ -0,0 +1,93 @@
+package org.act.rscat.cat;
+
+/**
+ * A source of the passage or item usage of exposure control at theta
+ * intervals, read by the exposure control to compute the eligibility
+ * probabilities.
+ * <p>
+ * Alpha is the number of examinees who visited theta interval k and took
+ * passage/item i; epsilon is the number of examinees who visited theta
+ * interval k when passage/item i was eligible. The counts of a source with
+ * fading are weighted by the fading factor and are not integers.
+ *
+ * @see ExposureUsageCounters
+ * @see MappedExposureStore
+ */
+public interface ExposureUsageSource {
+
+    /**
+     * Returns the number of theta intervals.
+     *
+     * @return the number of theta intervals
+     */
+    int getThetaIntervalNum();
+
+    /**
+     * Returns the number of passages or items.
+     *
+     * @return the number of passages or items
+     */
+    int getEntityNum();
+
+    /**
+     * Returns the number of updates of the counts so far. Counts read after
+     * this number did not change are the same as the counts read before.
+     *
+     * @return the number of updates
+     */
+    long getUpdateCount();
+
+    /**
+     * Copies the alpha counts of a theta interval into an existing array.
+     *
+     * @param thetaInterval the theta interval index
+     * @param counts the array receiving the alpha counts in pool order
+     */
+    void copyAlpha(int thetaInterval, double[] counts);
+
+    /**
+     * Copies the epsilon counts of a theta interval into an existing array.
+     *
+     * @param thetaInterval the theta interval index
+     * @param counts the array receiving the epsilon counts in pool order
+     */
+    void copyEpsilon(int thetaInterval, double[] counts);
+
+    /**
+     * Copies the alpha and the epsilon counts of a theta interval into
+     * existing arrays. Sources updated by other processes copy both from the
+     * same state.
+     *
+     * @param thetaInterval the theta interval index
+     * @param alpha the array receiving the alpha counts in pool order
+     * @param epsilon the array receiving the epsilon counts in pool order
+     */
+    default void copyUsage(int thetaInterval, double[] alpha, double[] epsilon) {
+        copyAlpha(thetaInterval, alpha);
+        copyEpsilon(thetaInterval, epsilon);
+    }
+
+    /**
+     * Returns a snapshot of the alpha counts of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the alpha counts in pool order
+     */
+    default double[] snapshotAlpha(int thetaInterval) {
+        double[] counts = new double[getEntityNum()];
+        copyAlpha(thetaInterval, counts);
+        return counts;
+    }
+
+    /**
+     * Returns a snapshot of the epsilon counts of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the epsilon counts in pool order
+     */
+    default double[] snapshotEpsilon(int thetaInterval) {
+        double[] counts = new double[getEntityNum()];
+        copyEpsilon(thetaInterval, counts);
+        return counts;
+    }
+}
@@ -0,0 +1,427 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.CatHelper.getItemParams;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.act.rscat.testdef.Item;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.ContentTable;
+import org.act.rscat.util.PrimitiveArraySet;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * An immutable view of the item and passage pools of a {@link TestConfig}.
+ * <p>
+ * An {@code ItemPool} is built once per {@code TestConfig} and shared, read-only, by every CAT session and
+ * {@link CatInput} that runs against that configuration. The item pool table is parsed once into typed columns,
+ * and item and passage identifiers are resolved to row indices through hash maps.
+ * <p>
+ * The dense item and passage row indices assigned here serve as integer handles along the CAT path:
+ * {@link CatInput#getItemsAdminIndices()}, {@link CatInput#getShadowTestIndices()},
+ * {@link CatOutput#getShadowTestIndices()} and {@link CatOutput#getShadowTestIndices(ItemPool)} return them, and the solver inputs carry them so that no identifier is
+ * looked up in the solvers. Arrays returned by this class are not copied and must not be modified by callers.
+ */
+public final class ItemPool {
+
+    /**
+     * The item pools built so far, keyed by test configuration. Test configurations are compared by identity
+     * and released together with their pools once they are no longer referenced.
+     */
+    private static final Map<TestConfig, ItemPool> POOLS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The index of the passage item order column in the item pool table.
+     */
+    private static final int PASSAGE_ITEM_ORDER_COLUMN_INDEX = 2;
+
+    /**
+     * The passage item order value of items without an order.
+     */
+    private static final String NO_PASSAGE_ITEM_ORDER = "none";
+
+    /**
+     * The item pool data set.
+     */
+    private final PrimitiveArraySet itemPoolDataSet;
+
+    /**
+     * Parameters of items as an instance of RealMatrix.
+     */
+    private final RealMatrix itemPar;
+
+    /**
+     * Item parameter A of each item.
+     */
+    private final double[] aParams;
+
+    /**
+     * Item parameter B of each item.
+     */
+    private final double[] bParams;
+
+    /**
+     * Item parameter C of each item.
+     */
+    private final double[] cParams;
+
+    /**
+     * The D constant of each item.
+     */
+    private final double[] dConstants;
+
+    /**
+     * Item identifiers extracted from the item pool.
+     */
+    private final String[] itemIds;
+
+    /**
+     * The unmodifiable list of item identifiers.
+     */
+    private final List<String> itemIdList;
+
+    /**
+     * Item row indices keyed by item identifier.
+     */
+    private final Map<String, Integer> itemIndexById;
+
+    /**
+     * Passage identifiers extracted from the item pool using the passage id column.
+     */
+    private final String[] passageIdsFromItemTable;
+
+    /**
+     * Item indices from 0 to the number of items -1.
+     */
+    private final int[] itemIndices;
+
+    /**
+     * Passage identifiers extracted from the passage pool.
+     */
+    private final String[] passageIdsFromPassageTable;
+
+    /**
+     * Passage row indices keyed by passage identifier.
+     */
+    private final Map<String, Integer> passageIndexById;
+
+    /**
+     * The passage row index of each item, or -1 for a discrete item.
+     */
+    private final int[] itemPassageIndices;
+
+    /**
+     * The item row indices of each passage, in item pool order.
+     */
+    private final int[][] passageItemIndices;
+
+    /**
+     * The order of each item within its passage, 0 if the order is not a number.
+     */
+    private final int[] passageItemOrders;
+
+    /**
+     * Whether each item has a passage item order.
+     */
+    private final boolean[] passageItemOrderSpecified;
+
+    /**
+     * Constructs a new {@link ItemPool}.
+     *
+     * @param testConfig the test configuration providing the item and passage pools
+     */
+    private ItemPool(TestConfig testConfig) {
+        itemPoolDataSet = convertItemPoolDataSet(testConfig);
+        itemPar = getItemParams(itemPoolDataSet);
+        aParams = itemPoolDataSet.getDoubleArray(Item.ColumnName.A_PARAM.getColName());
+        bParams = itemPoolDataSet.getDoubleArray(Item.ColumnName.B_PARAM.getColName());
+        cParams = itemPoolDataSet.getDoubleArray(Item.ColumnName.C_PARAM.getColName());
+        dConstants = itemPoolDataSet.getDoubleArray(Item.ColumnName.D_CONSTANT.getColName());
+        itemIds = itemPoolDataSet.getStringArrayCopy(Item.ColumnName.ITEM_ID.getColName());
+        itemIdList = Collections.unmodifiableList(Arrays.asList(itemIds));
+        passageIdsFromItemTable = itemPoolDataSet.getStringArrayCopy(Item.ColumnName.ITEM_PASSAGE_ID.getColName());
+        itemIndices = new int[itemIds.length];
+        itemIndexById = new HashMap<>(itemIds.length * 2);
+        for (int i = 0; i < itemIndices.length; i++) {
+            itemIndices[i] = i;
+            itemIndexById.putIfAbsent(itemIds[i], i);
+        }
+        ContentTable passageTable = testConfig.getPassageTable();
+        passageIdsFromPassageTable = new String[passageTable.rowCount()];
+        passageIndexById = new HashMap<>(passageIdsFromPassageTable.length * 2);
+        for (int i = 0; i < passageIdsFromPassageTable.length; i++) {
+            passageIdsFromPassageTable[i] = passageTable.rows().get(i).get(0);
+            passageIndexById.putIfAbsent(passageIdsFromPassageTable[i], i);
+        }
+
+        // passage membership of items
+        itemPassageIndices = new int[itemIds.length];
+        int[] passageSizes = new int[passageIdsFromPassageTable.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemPassageIndices[i] = getPassageIndex(passageIdsFromItemTable[i]);
+            if (itemPassageIndices[i] >= 0) {
+                passageSizes[itemPassageIndices[i]]++;
+            }
+        }
+        passageItemIndices = new int[passageSizes.length][];
+        for (int p = 0; p < passageSizes.length; p++) {
+            passageItemIndices[p] = new int[passageSizes[p]];
+            passageSizes[p] = 0;
+        }
+        for (int i = 0; i < itemIds.length; i++) {
+            int p = itemPassageIndices[i];
+            if (p >= 0) {
+                passageItemIndices[p][passageSizes[p]++] = i;
+            }
+        }
+
+        // passage item orders
+        ContentTable itemPoolTable = testConfig.getItemPoolTable();
+        passageItemOrders = new int[itemIds.length];
+        passageItemOrderSpecified = new boolean[itemIds.length];
+        if (itemPoolTable.columnNames().size() > PASSAGE_ITEM_ORDER_COLUMN_INDEX) {
+            List<List<String>> rows = itemPoolTable.rows();
+            for (int i = 0; i < itemIds.length; i++) {
+                String order = rows.get(i).get(PASSAGE_ITEM_ORDER_COLUMN_INDEX);
+                passageItemOrders[i] = NumberUtils.toInt(order);
+                passageItemOrderSpecified[i] = !NO_PASSAGE_ITEM_ORDER.equalsIgnoreCase(order);
+            }
+        }
+    }
+
+    /**
+     * Returns the shared {@link ItemPool} of a test configuration, building it on first use.
+     *
+     * @param testConfig the test configuration
+     * @return the {@code ItemPool} of the test configuration
+     */
+    public static ItemPool forTestConfig(TestConfig testConfig) {
+        return POOLS.computeIfAbsent(testConfig, ItemPool::new);
+    }
+
+    /**
+     * Converts the item pool {@link ContentTable} of a test configuration to {@link PrimitiveArraySet}.
+     *
+     * @param testConfig the test configuration
+     * @return the item pool {@code PrimitiveArraySet} data
+     */
+    static PrimitiveArraySet convertItemPoolDataSet(TestConfig testConfig) {
+        Map<String, Class<?>> columnTypes = new HashMap<>();
+        columnTypes.put(Item.ColumnName.ITEM_ID.getColName(), String[].class);
+        columnTypes.put(Item.ColumnName.ITEM_PASSAGE_ID.getColName(), String[].class);
+        columnTypes.put(Item.ColumnName.A_PARAM.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.A_PARAM_SE.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.B_PARAM.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.B_PARAM_SE.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.C_PARAM.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.C_PARAM_SE.getColName(), double[].class);
+        columnTypes.put(Item.ColumnName.D_CONSTANT.getColName(), double[].class);
+        return PrimitiveArraySet.fromContentTable(testConfig.getItemPoolTable(), columnTypes);
+    }
+
+    /**
+     * Returns the item pool data set, which includes item id, passage id, item IRT parameters, and scaling D
+     * constants.
+     *
+     * @return the item pool data set
+     */
+    public PrimitiveArraySet getItemPoolDataSet() {
+        return itemPoolDataSet;
+    }
+
+    /**
+     * Returns the I x 4 matrix of item parameters (a, b, c and the D constant).
+     *
+     * @return the item parameters
+     */
+    public RealMatrix getItemPar() {
+        return itemPar;
+    }
+
+    /**
+     * Returns the item parameter A of each item in item pool order.
+     *
+     * @return the item parameters A
+     */
+    public double[] getAParams() {
+        return aParams;
+    }
+
+    /**
+     * Returns the item parameter B of each item in item pool order.
+     *
+     * @return the item parameters B
+     */
+    public double[] getBParams() {
+        return bParams;
+    }
+
+    /**
+     * Returns the item parameter C of each item in item pool order.
+     *
+     * @return the item parameters C
+     */
+    public double[] getCParams() {
+        return cParams;
+    }
+
+    /**
+     * Returns the D constant of each item in item pool order.
+     *
+     * @return the D constants
+     */
+    public double[] getDConstants() {
+        return dConstants;
+    }
+
+    /**
+     * Returns the item identifiers in item pool order.
+     *
+     * @return the item identifiers
+     */
+    public String[] getItemIds() {
+        return itemIds;
+    }
+
+    /**
+     * Returns the unmodifiable list of item identifiers in item pool order.
+     *
+     * @return the item identifiers
+     */
+    public List<String> getItemIdList() {
+        return itemIdList;
+    }
+
+    /**
+     * Returns the row index of an item.
+     *
+     * @param itemId the item identifier
+     * @return the item row index, or -1 if the item is not in the pool
+     */
+    public int getItemIndex(String itemId) {
+        Integer index = itemIndexById.get(itemId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the row indices of items, in the order of the identifiers.
+     *
+     * @param itemIdsToResolve the item identifiers
+     * @return the item row indices
+     * @throws IllegalArgumentException if an item is not in the pool
+     */
+    public int[] getItemIndices(Collection<String> itemIdsToResolve) {
+        int[] indices = new int[itemIdsToResolve.size()];
+        int count = 0;
+        for (String itemId : itemIdsToResolve) {
+            int index = getItemIndex(itemId);
+            if (index < 0) {
+                throw new IllegalArgumentException("Item " + itemId + " is not in the item pool!");
+            }
+            indices[count++] = index;
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the row index of a passage.
+     *
+     * @param passageId the passage identifier
+     * @return the passage row index, or -1 if the passage is not in the pool
+     */
+    public int getPassageIndex(String passageId) {
+        Integer index = passageIndexById.get(passageId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the passage row index of each item in item pool order, or -1 for a discrete item.
+     *
+     * @return the passage row indices of items
+     */
+    public int[] getItemPassageIndices() {
+        return itemPassageIndices;
+    }
+
+    /**
+     * Returns the item row indices of a passage, in item pool order.
+     *
+     * @param passageIndex the passage row index
+     * @return the item row indices of the passage
+     */
+    public int[] getPassageItemIndices(int passageIndex) {
+        return passageItemIndices[passageIndex];
+    }
+
+    /**
+     * Returns the order of each item within its passage in item pool order, read from the third column of the item
+     * pool table. A value that is not a number is 0.
+     *
+     * @return the passage item orders
+     */
+    public int[] getPassageItemOrders() {
+        return passageItemOrders;
+    }
+
+    /**
+     * Returns whether an item has a passage item order, i.e., whether its order value is not "none".
+     *
+     * @param itemIndex the item row index
+     * @return <code>true</code> if the item has a passage item order
+     */
+    public boolean isPassageItemOrderSpecified(int itemIndex) {
+        return passageItemOrderSpecified[itemIndex];
+    }
+
+    /**
+     * Returns the passage identifiers of items in item pool order.
+     *
+     * @return the passage identifiers from the item table
+     */
+    public String[] getPassageIdsFromItemTable() {
+        return passageIdsFromItemTable;
+    }
+
+    /**
+     * Returns the item indices from 0 to the number of items - 1.
+     *
+     * @return the item indices
+     */
+    public int[] getItemIndices() {
+        return itemIndices;
+    }
+
+    /**
+     * Returns the passage identifiers in passage pool order.
+     *
+     * @return the passage identifiers from the passage table
+     */
+    public String[] getPassageIdsFromPassageTable() {
+        return passageIdsFromPassageTable;
+    }
+
+    /**
+     * Returns the number of items in the pool.
+     *
+     * @return the number of items
+     */
+    public int getItemNum() {
+        return itemIds.length;
+    }
+
+    /**
+     * Returns the number of passages in the pool.
+     *
+     * @return the number of passages
+     */
+    public int getPassageNum() {
+        return passageIdsFromPassageTable.length;
+    }
+}
@@ -0,0 +1,479 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.CatFunctions.calInfo;
+import static org.act.rscat.cat.CatFunctions.getProb3PL;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.act.rscat.testdef.TestConfig;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * Precomputed item response and information values of the items of an
+ * {@link ItemPool}.
+ * <p>
+ * Item parameters are fixed for the life of a pool, so the 3PL response
+ * function and the item information are tabulated once per {@link TestConfig}
+ * and shared, read-only, by every CAT session that runs against that
+ * configuration:
+ * <ul>
+ * <li>the item information, its derivative and its integral over theta on a
+ * theta grid, from which the information and the integrated information at an
+ * arbitrary theta are obtained by cubic Hermite interpolation. The grid step
+ * is chosen from the steepest item of the pool so that the interpolation
+ * error stays below {@value #MAX_INTERPOLATION_ERROR} for item slopes up to
+ * about 3;</li>
+ * <li>the maximum information of each item;</li>
+ * <li>the log-probabilities of correct and incorrect responses on the
+ * quadrature points of an EAP configuration, built on first use of the
+ * configuration.</li>
+ * </ul>
+ * Values at a theta outside of the grid are computed exactly. Arrays returned
+ * by this class are not copied and must not be modified by callers.
+ */
+public final class ItemResponseTable {
+
+    /**
+     * The smallest theta of the grid.
+     */
+    static final double GRID_MIN = -6.0;
+
+    /**
+     * The largest theta of the grid.
+     */
+    static final double GRID_MAX = 6.0;
+
+    /**
+     * The smallest number of theta grid points.
+     */
+    static final int MIN_GRID_SIZE = 121;
+
+    /**
+     * The largest number of theta grid points, which is reached by pools with
+     * item slopes above about 3.
+     */
+    static final int MAX_GRID_SIZE = 601;
+
+    /**
+     * The bound of the interpolation error of the information and the
+     * integrated information.
+     */
+    static final double MAX_INTERPOLATION_ERROR = 1e-7;
+
+    /**
+     * The grid step of an item with a slope (item parameter A times the D
+     * constant) of 1. The cubic Hermite interpolation error of the information
+     * grows with {@code (step * slope)^4 * slope^2}, so the step of the
+     * steepest item is this value times its slope to the power -1.5; the value
+     * keeps the error below {@link #MAX_INTERPOLATION_ERROR} for guessing
+     * parameters up to 0.3.
+     */
+    private static final double UNIT_SLOPE_STEP = 0.1;
+
+    /**
+     * The tables built so far, keyed by test configuration. Test
+     * configurations are compared by identity and released together with
+     * their tables once they are no longer referenced.
+     */
+    private static final Map<TestConfig, ItemResponseTable> TABLES = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Item parameter A times the D constant of each item.
+     */
+    private final double[] slopes;
+
+    /**
+     * Item parameter B of each item.
+     */
+    private final double[] difficulties;
+
+    /**
+     * Item parameter C of each item.
+     */
+    private final double[] guessings;
+
+    /**
+     * The number of theta grid points.
+     */
+    private final int gridSize;
+
+    /**
+     * The distance between two consecutive theta grid points.
+     */
+    private final double gridStep;
+
+    /**
+     * The item information at each grid point (first index: grid point;
+     * second index: item row index).
+     */
+    private final double[][] information;
+
+    /**
+     * The derivative of the item information over theta at each grid point.
+     */
+    private final double[][] informationDerivative;
+
+    /**
+     * An antiderivative of the item information over theta at each grid point.
+     */
+    private final double[][] informationIntegral;
+
+    /**
+     * The maximum information of each item.
+     */
+    private final double[] maxInformation;
+
+    /**
+     * The quadrature tables built so far, keyed by number of quadrature points,
+     * minimum and maximum quadrature point.
+     */
+    private final Map<List<Object>, Quadrature> quadratures = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link ItemResponseTable}.
+     *
+     * @param itemPar an I X P matrix containing item parameters, where I is the
+     *            number of items and P is the number of parameters
+     */
+    ItemResponseTable(RealMatrix itemPar) {
+        int itemNum = itemPar.getRowDimension();
+        slopes = new double[itemNum];
+        difficulties = new double[itemNum];
+        guessings = new double[itemNum];
+        maxInformation = new double[itemNum];
+        double maxSlope = 0;
+        for (int i = 0; i < itemNum; i++) {
+            double a = itemPar.getEntry(i, 0);
+            double b = itemPar.getEntry(i, 1);
+            double c = itemPar.getEntry(i, 2);
+            double d = itemPar.getEntry(i, 3);
+            slopes[i] = a * d;
+            difficulties[i] = b;
+            guessings[i] = c;
+            maxSlope = Math.max(maxSlope, Math.abs(slopes[i]));
+            double thetaMax = b + (1 / (a * d)) * Math.log((1 + Math.pow(1 + 8 * c, 0.5)) / 2.0);
+            maxInformation[i] = calInfo(thetaMax, a, b, c, d);
+        }
+        gridSize = gridSizeForSlope(maxSlope);
+        gridStep = (GRID_MAX - GRID_MIN) / (gridSize - 1);
+        information = new double[gridSize][itemNum];
+        informationDerivative = new double[gridSize][itemNum];
+        informationIntegral = new double[gridSize][itemNum];
+        for (int k = 0; k < gridSize; k++) {
+            double theta = GRID_MIN + k * gridStep;
+            for (int i = 0; i < itemNum; i++) {
+                double slope = slopes[i];
+                double c = guessings[i];
+                double pStar = 1.0 / (1.0 + Math.exp(-slope * (theta - difficulties[i])));
+                double p = c + (1.0 - c) * pStar;
+                double info = slope * slope * (1.0 - c) * pStar * pStar * (1.0 - pStar) / p;
+                information[k][i] = info;
+                informationDerivative[k][i] = info * slope
+                        * (2.0 - 3.0 * pStar - (1.0 - c) * pStar * (1.0 - pStar) / p);
+                informationIntegral[k][i] = integral(i, theta);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of theta grid points of an item pool.
+     *
+     * @param maxSlope the largest slope of the items in the pool
+     * @return the number of grid points
+     */
+    static int gridSizeForSlope(double maxSlope) {
+        double step = UNIT_SLOPE_STEP / Math.pow(maxSlope, 1.5);
+        if (!(step < (GRID_MAX - GRID_MIN) / (MIN_GRID_SIZE - 1))) {
+            return MIN_GRID_SIZE;
+        }
+        return (int) Math.min(Math.ceil((GRID_MAX - GRID_MIN) / step) + 1, MAX_GRID_SIZE);
+    }
+
+    /**
+     * Returns the number of theta grid points of the table.
+     *
+     * @return the number of grid points
+     */
+    int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Returns the shared {@link ItemResponseTable} of a test configuration,
+     * building it from the {@link ItemPool} of the configuration on first use.
+     *
+     * @param testConfig the test configuration
+     * @return the {@code ItemResponseTable} of the test configuration
+     */
+    public static ItemResponseTable forTestConfig(TestConfig testConfig) {
+        return TABLES.computeIfAbsent(testConfig,
+                config -> new ItemResponseTable(ItemPool.forTestConfig(config).getItemPar()));
+    }
+
+    /**
+     * Returns the number of items in the table.
+     *
+     * @return the number of items
+     */
+    public int getItemNum() {
+        return slopes.length;
+    }
+
+    /**
+     * Returns the information of all items at a theta value.
+     *
+     * @param theta the ability value
+     * @return the item information values in item pool order
+     */
+    public double[] getInformation(double theta) {
+        return getInformation(theta, new double[getItemNum()]);
+    }
+
+    /**
+     * Returns the information of all items at a theta value, written to an
+     * existing array.
+     *
+     * @param theta the ability value
+     * @param values the array of at least {@link #getItemNum()} values to fill
+     * @return the item information values in item pool order
+     */
+    public double[] getInformation(double theta, double[] values) {
+        int itemNum = getItemNum();
+        int k = gridInterval(theta);
+        if (k < 0) {
+            for (int i = 0; i < itemNum; i++) {
+                values[i] = exactInformation(i, theta);
+            }
+            return values;
+        }
+        double t = (theta - (GRID_MIN + k * gridStep)) / gridStep;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double h00 = 2 * t3 - 3 * t2 + 1;
+        double h10 = (t3 - 2 * t2 + t) * gridStep;
+        double h01 = -2 * t3 + 3 * t2;
+        double h11 = (t3 - t2) * gridStep;
+        double[] info0 = information[k];
+        double[] info1 = information[k + 1];
+        double[] deriv0 = informationDerivative[k];
+        double[] deriv1 = informationDerivative[k + 1];
+        for (int i = 0; i < itemNum; i++) {
+            values[i] = h00 * info0[i] + h10 * deriv0[i] + h01 * info1[i] + h11 * deriv1[i];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the information of all items integrated over a theta interval.
+     *
+     * @param lower the lower bound of the theta interval
+     * @param upper the upper bound of the theta interval
+     * @return the integrated item information values in item pool order
+     */
+    public double[] getInformationIntegral(double lower, double upper) {
+        return getInformationIntegral(lower, upper, new double[getItemNum()]);
+    }
+
+    /**
+     * Returns the information of all items integrated over a theta interval,
+     * written to an existing array.
+     *
+     * @param lower the lower bound of the theta interval
+     * @param upper the upper bound of the theta interval
+     * @param values the array of at least {@link #getItemNum()} values to fill
+     * @return the integrated item information values in item pool order
+     */
+    public double[] getInformationIntegral(double lower, double upper, double[] values) {
+        integralAt(upper, values, false);
+        integralAt(lower, values, true);
+        return values;
+    }
+
+    /**
+     * Returns the maximum information of each item over theta.
+     *
+     * @return the maximum item information values in item pool order
+     */
+    public double[] getMaxInformation() {
+        return maxInformation;
+    }
+
+    /**
+     * Returns the response log-probabilities of all items on the quadrature
+     * points of an EAP configuration, building them on first use of the
+     * quadrature points.
+     *
+     * @param numQuad the number of quadrature points
+     * @param minQuad the minimum quadrature point
+     * @param maxQuad the maximum quadrature point
+     * @return the {@link Quadrature} table
+     */
+    public Quadrature getQuadrature(int numQuad, double minQuad, double maxQuad) {
+        return quadratures.computeIfAbsent(Arrays.asList(numQuad, minQuad, maxQuad),
+                key -> new Quadrature(numQuad, minQuad, maxQuad));
+    }
+
+    /**
+     * Returns the index of the grid interval containing a theta value, or -1
+     * if the theta value is outside of the grid.
+     *
+     * @param theta the ability value
+     * @return the index of the first grid point of the interval
+     */
+    private int gridInterval(double theta) {
+        if (!(theta >= GRID_MIN && theta <= GRID_MAX)) {
+            return -1;
+        }
+        return Math.min((int) ((theta - GRID_MIN) / gridStep), gridSize - 2);
+    }
+
+    /**
+     * Writes the antiderivative of the information of all items at a theta
+     * value, or subtracts it from the values.
+     *
+     * @param theta the ability value
+     * @param values the antiderivative values in item pool order
+     * @param subtract whether to subtract the antiderivative from the values
+     */
+    private void integralAt(double theta, double[] values, boolean subtract) {
+        int itemNum = getItemNum();
+        int k = gridInterval(theta);
+        if (k < 0) {
+            for (int i = 0; i < itemNum; i++) {
+                double value = integral(i, theta);
+                values[i] = subtract ? values[i] - value : value;
+            }
+            return;
+        }
+        double t = (theta - (GRID_MIN + k * gridStep)) / gridStep;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double h00 = 2 * t3 - 3 * t2 + 1;
+        double h10 = (t3 - 2 * t2 + t) * gridStep;
+        double h01 = -2 * t3 + 3 * t2;
+        double h11 = (t3 - t2) * gridStep;
+        double[] integral0 = informationIntegral[k];
+        double[] integral1 = informationIntegral[k + 1];
+        double[] info0 = information[k];
+        double[] info1 = information[k + 1];
+        for (int i = 0; i < itemNum; i++) {
+            double value = h00 * integral0[i] + h10 * info0[i] + h01 * integral1[i] + h11 * info1[i];
+            values[i] = subtract ? values[i] - value : value;
+        }
+    }
+
+    /**
+     * Returns the exact information of an item at a theta value.
+     *
+     * @param item the item row index
+     * @param theta the ability value
+     * @return the item information
+     */
+    private double exactInformation(int item, double theta) {
+        return calInfo(theta, slopes[item], difficulties[item], guessings[item], 1.0);
+    }
+
+    /**
+     * Returns an antiderivative of the information of an item at a theta
+     * value. With P* the 2PL response function, the 3PL information
+     * integrates to {@code Da * (P* - c / (1 - c) * log(c + (1 - c) * P*))}.
+     *
+     * @param item the item row index
+     * @param theta the ability value
+     * @return the antiderivative value
+     */
+    private double integral(int item, double theta) {
+        double slope = slopes[item];
+        double c = guessings[item];
+        double pStar = 1.0 / (1.0 + Math.exp(-slope * (theta - difficulties[item])));
+        if (c == 0) {
+            return slope * pStar;
+        }
+        return slope * (pStar - c / (1.0 - c) * Math.log(c + (1.0 - c) * pStar));
+    }
+
+    /**
+     * The response log-probabilities of the items of an
+     * {@link ItemResponseTable} on the quadrature points of an EAP
+     * configuration.
+     */
+    public final class Quadrature {
+
+        /**
+         * The quadrature points.
+         */
+        private final double[] points;
+
+        /**
+         * The log-probability of a correct response of each item (first
+         * index: item row index; second index: quadrature point).
+         */
+        private final double[][] logProbCorrect;
+
+        /**
+         * The log-probability of an incorrect response of each item.
+         */
+        private final double[][] logProbIncorrect;
+
+        /**
+         * Constructs a new {@link Quadrature}.
+         *
+         * @param numQuad the number of quadrature points
+         * @param minQuad the minimum quadrature point
+         * @param maxQuad the maximum quadrature point
+         */
+        private Quadrature(int numQuad, double minQuad, double maxQuad) {
+            points = new double[numQuad];
+            for (int q = 0; q < numQuad; q++) {
+                points[q] = q * (maxQuad - minQuad) / (numQuad - 1.0) + minQuad;
+            }
+            int itemNum = getItemNum();
+            logProbCorrect = new double[itemNum][numQuad];
+            logProbIncorrect = new double[itemNum][numQuad];
+            for (int i = 0; i < itemNum; i++) {
+                for (int q = 0; q < numQuad; q++) {
+                    double p = getProb3PL(slopes[i], difficulties[i], guessings[i], 1.0, points[q]);
+                    logProbCorrect[i][q] = Math.log(p);
+                    logProbIncorrect[i][q] = Math.log1p(-p);
+                }
+            }
+        }
+
+        /**
+         * Returns the quadrature points.
+         *
+         * @return the quadrature points
+         */
+        public double[] getPoints() {
+            return points;
+        }
+
+        /**
+         * Returns the log-probabilities of a correct response of an item on
+         * the quadrature points.
+         *
+         * @param item the item row index
+         * @return the log-probabilities
+         */
+        public double[] getLogProbCorrect(int item) {
+            return logProbCorrect[item];
+        }
+
+        /**
+         * Returns the log-probabilities of an incorrect response of an item on
+         * the quadrature points.
+         *
+         * @param item the item row index
+         * @return the log-probabilities
+         */
+        public double[] getLogProbIncorrect(int item) {
+            return logProbIncorrect[item];
+        }
+    }
+}
@@ -23,6 +23,19 @@ public interface ItemSelectionMethod {
      */
     double[] getSelectionCriteria();
 
+    /**
+     * Returns the item selection criteria of all items, written to an existing
+     * array so that it can be reused across stages.
+     *
+     * @param criteria the array of item selection criteria to fill
+     * @return the item selection criteria.
+     */
+    default double[] getSelectionCriteria(double[] criteria) {
+        double[] values = getSelectionCriteria();
+        System.arraycopy(values, 0, criteria, 0, values.length);
+        return criteria;
+    }
+
     /**
      * Returns the item selection method type.
      *
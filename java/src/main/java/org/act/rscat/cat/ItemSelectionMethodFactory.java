@@ -31,4 +31,26 @@ public class ItemSelectionMethodFactory {
         }
     }
 
+    /**
+     * Returns an instance of {@link ItemSelectionMethod} evaluating the
+     * selection criteria from the precomputed tables of an item pool.
+     *
+     * @param itemSelectionMethodType the item selection method type
+     * @param responseTable the {@link ItemResponseTable} of the item pool
+     * @param thetaEst the ability estimate
+     * @param thetaSe the ability estimate standard error
+     * @return the instance of {@code ItemSelectionMethod}
+     */
+    public static ItemSelectionMethod getInstance(ItemSelectionMethod.SUPPORTED_METHODS itemSelectionMethodType,
+            ItemResponseTable responseTable, double thetaEst, double thetaSe) {
+        switch (itemSelectionMethodType) {
+        case MAX_FISHER_INFO:
+            return new MaxFisherInformationMethod(responseTable, thetaEst);
+        case EBI:
+            return new EBIMethod(responseTable, thetaEst, thetaSe);
+        default:
+            throw new IllegalArgumentException("The item selection is method not supported!");
+        }
+    }
+
 }
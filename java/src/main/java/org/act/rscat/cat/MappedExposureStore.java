@@ -0,0 +1,583 @@
+package org.act.rscat.cat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the passage or item usage of exposure control in a memory-mapped
+ * file, so that the CAT engines of several processes on the same host share
+ * the usage and the usage survives restarts.
+ * <p>
+ * The usage of each examinee is added in one update, conditional on the theta
+ * intervals the examinee visited as in
+ * {@link ExposureControlFunctions#updateItemUsage(ExposureUsageCounters, PassageOrItemEligibilityOverall, int[],
+ * int[])}. Before an examinee is added, all counts are multiplied by the
+ * fading factor, so that the usage of earlier examinees fades exponentially;
+ * a fading factor of 1 disables fading. The fading is applied lazily: the file
+ * keeps the counts divided by a common scale, which an update multiplies by
+ * the fading factor, and the counts are only rewritten when the scale becomes
+ * too small.
+ * <p>
+ * Updates and reads hold a lock on the file, so that they are atomic with
+ * respect to the other processes, and are serialized within the process. A
+ * process opens at most one store on a file. The mapped file is written back by
+ * the operating system; {@link #force()} and {@link #writeSnapshot(Path)}
+ * persist the usage at chosen points, and {@link #scheduleSnapshots} does so
+ * periodically.
+ */
+public final class MappedExposureStore implements ExposureUsageSource, Closeable {
+
+    /**
+     * The logger of the periodic snapshot failures.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedExposureStore.class);
+
+    /**
+     * The first bytes of an exposure state file.
+     */
+    private static final int MAGIC = 0x52534558;
+
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of bytes before the counts: magic, version, theta interval
+     * and entity numbers, fading factor, update count and scale.
+     */
+    private static final int HEADER_BYTES = 40;
+
+    /**
+     * The byte position of the number of theta intervals in the header.
+     */
+    private static final int THETA_INTERVAL_NUM_POSITION = 8;
+
+    /**
+     * The byte position of the number of passages or items in the header.
+     */
+    private static final int ENTITY_NUM_POSITION = 12;
+
+    /**
+     * The byte position of the fading factor in the header.
+     */
+    private static final int FADING_FACTOR_POSITION = 16;
+
+    /**
+     * The byte position of the number of examinees added in the header.
+     */
+    private static final int UPDATE_COUNT_POSITION = 24;
+
+    /**
+     * The byte position of the common scale of the stored counts in the
+     * header.
+     */
+    private static final int SCALE_POSITION = 32;
+
+    /**
+     * The scale below which the stored counts are rewritten at scale 1.
+     */
+    static final double MIN_SCALE = 1E-100;
+
+    /**
+     * The exposure state file.
+     */
+    private final Path file;
+
+    /**
+     * The channel of the file, holding the file locks.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapping of the whole file, header included.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The stored counts: the visits of each theta interval, then the alpha
+     * and the epsilon counts indexed by
+     * {@code thetaInterval * entityNum + entityIndex}.
+     */
+    private final DoubleBuffer counts;
+
+    /**
+     * The number of theta intervals.
+     */
+    private final int thetaIntervalNum;
+
+    /**
+     * The number of passages or items.
+     */
+    private final int entityNum;
+
+    /**
+     * The factor multiplying all counts before an examinee is added.
+     */
+    private final double fadingFactor;
+
+    private MappedExposureStore(Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.thetaIntervalNum = buffer.getInt(THETA_INTERVAL_NUM_POSITION);
+        this.entityNum = buffer.getInt(ENTITY_NUM_POSITION);
+        this.fadingFactor = buffer.getDouble(FADING_FACTOR_POSITION);
+        buffer.position(HEADER_BYTES);
+        this.counts = buffer.slice().asDoubleBuffer();
+        buffer.position(0);
+    }
+
+    /**
+     * Opens the store in a file, which is created with zero counts if it does
+     * not exist or is empty.
+     *
+     * @param file the exposure state file
+     * @param thetaIntervalNum the number of theta intervals
+     * @param entityNum the number of passages or items
+     * @param fadingFactor the fading factor, greater than 0 and at most 1
+     * @return the store
+     * @throws IOException if the file cannot be opened or is not an exposure
+     *             state file
+     * @throws IllegalArgumentException if an existing file is for different
+     *             theta intervals, passages or items, or fading factor
+     */
+    public static MappedExposureStore open(Path file, int thetaIntervalNum, int entityNum, double fadingFactor)
+            throws IOException {
+        if (thetaIntervalNum < 1 || entityNum < 0 || !(fadingFactor > 0 && fadingFactor <= 1)) {
+            throw new IllegalArgumentException(
+                    "The theta intervals must be at least 1 and the fading factor in (0, 1]!");
+        }
+        long size = HEADER_BYTES + 8L * (thetaIntervalNum + 2L * thetaIntervalNum * entityNum);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The exposure state of " + thetaIntervalNum + " theta intervals and "
+                    + entityNum + " entities is too large to be mapped!");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock();
+            try {
+                if (channel.size() == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    header.putInt(MAGIC).putInt(VERSION).putInt(thetaIntervalNum).putInt(entityNum)
+                            .putDouble(fadingFactor).putLong(0).putDouble(1.0d);
+                    header.flip();
+                    channel.write(header, 0);
+                    channel.write(ByteBuffer.allocate(1), size - 1);
+                } else {
+                    checkHeader(file, channel, size, thetaIntervalNum, entityNum, fadingFactor);
+                }
+            } finally {
+                lock.release();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new MappedExposureStore(file, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks that an existing file is an exposure state file for the given
+     * dimensions.
+     *
+     * @param file the exposure state file
+     * @param channel the channel of the file
+     * @param size the expected file size
+     * @param thetaIntervalNum the number of theta intervals
+     * @param entityNum the number of passages or items
+     * @param fadingFactor the fading factor
+     * @throws IOException if the file is not an exposure state file
+     */
+    private static void checkHeader(Path file, FileChannel channel, long size, int thetaIntervalNum,
+            int entityNum, double fadingFactor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(file + " is not an exposure state file!");
+        }
+        if (header.getInt(THETA_INTERVAL_NUM_POSITION) != thetaIntervalNum
+                || header.getInt(ENTITY_NUM_POSITION) != entityNum
+                || header.getDouble(FADING_FACTOR_POSITION) != fadingFactor) {
+            throw new IllegalArgumentException(file + " stores " + header.getInt(THETA_INTERVAL_NUM_POSITION)
+                    + " theta intervals, " + header.getInt(ENTITY_NUM_POSITION) + " entities and fading factor "
+                    + header.getDouble(FADING_FACTOR_POSITION) + "!");
+        }
+        if (channel.size() != size) {
+            throw new IOException(file + " is truncated!");
+        }
+    }
+
+    @Override
+    public int getThetaIntervalNum() {
+        return thetaIntervalNum;
+    }
+
+    @Override
+    public int getEntityNum() {
+        return entityNum;
+    }
+
+    /**
+     * Returns the fading factor.
+     *
+     * @return the fading factor
+     */
+    public double getFadingFactor() {
+        return fadingFactor;
+    }
+
+    /**
+     * Returns the number of examinees added to the store by all processes.
+     *
+     * @return the number of updates
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    @Override
+    public long getUpdateCount() {
+        synchronized (this) {
+            FileLock lock = lockShared();
+            try {
+                return buffer.getLong(UPDATE_COUNT_POSITION);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * Returns the faded visits of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the faded number of examinees whose eligibility was counted at
+     *         the theta interval
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    public double getVisitNum(int thetaInterval) {
+        checkThetaInterval(thetaInterval);
+        synchronized (this) {
+            FileLock lock = lockShared();
+            try {
+                return counts.get(thetaInterval) * buffer.getDouble(SCALE_POSITION);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    @Override
+    public void copyAlpha(int thetaInterval, double[] alpha) {
+        checkCopy(thetaInterval, alpha);
+        synchronized (this) {
+            FileLock lock = lockShared();
+            try {
+                copy(alphaOffset(thetaInterval), alpha);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    @Override
+    public void copyEpsilon(int thetaInterval, double[] epsilon) {
+        checkCopy(thetaInterval, epsilon);
+        synchronized (this) {
+            FileLock lock = lockShared();
+            try {
+                copy(epsilonOffset(thetaInterval), epsilon);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * Copies the alpha and the epsilon counts of a theta interval under one
+     * shared lock, so that no update of another process falls between them.
+     *
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    @Override
+    public void copyUsage(int thetaInterval, double[] alpha, double[] epsilon) {
+        checkCopy(thetaInterval, alpha);
+        checkCopy(thetaInterval, epsilon);
+        synchronized (this) {
+            FileLock lock = lockShared();
+            try {
+                copy(alphaOffset(thetaInterval), alpha);
+                copy(epsilonOffset(thetaInterval), epsilon);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * Adds the usage of an examinee, conditional on the theta intervals the
+     * examinee visited, after fading the counts.
+     * <p>
+     * Every theta interval at which an item was selected for the examinee is
+     * visited. The epsilon counts of a visited interval are increased with the
+     * eligibility indicators of the examinee at that interval, and the alpha
+     * count of each administered passage or item at the interval at which it
+     * was selected.
+     *
+     * @param eligibilityIndicators the eligibility indicators of the examinee
+     *            for all theta intervals
+     * @param entityIndices the row indices of the administered passages or
+     *            items
+     * @param thetaIntervals the theta interval index at which each
+     *            administered passage or item was selected
+     * @throws IOException if the file cannot be locked
+     */
+    public void addExaminee(boolean[][] eligibilityIndicators, int[] entityIndices, int[] thetaIntervals)
+            throws IOException {
+        if (eligibilityIndicators.length != thetaIntervalNum || thetaIntervals.length != entityIndices.length) {
+            throw new IllegalArgumentException("The eligibility or the theta intervals do not match the store!");
+        }
+        for (int j = 0; j < entityIndices.length; j++) {
+            checkThetaInterval(thetaIntervals[j]);
+            if (entityIndices[j] < 0 || entityIndices[j] >= entityNum) {
+                throw new IndexOutOfBoundsException("Row index " + entityIndices[j] + " is out of range!");
+            }
+            if (eligibilityIndicators[thetaIntervals[j]].length != entityNum) {
+                throw new IllegalArgumentException("The eligibility indicators are not of length " + entityNum + "!");
+            }
+        }
+        boolean[] visited = new boolean[thetaIntervalNum];
+        synchronized (this) {
+            FileLock lock = channel.lock();
+            try {
+                double scale = buffer.getDouble(SCALE_POSITION) * fadingFactor;
+                if (scale < MIN_SCALE) {
+                    for (int c = 0; c < counts.capacity(); c++) {
+                        counts.put(c, counts.get(c) * scale);
+                    }
+                    scale = 1.0d;
+                }
+                double increment = 1.0d / scale;
+                for (int j = 0; j < entityIndices.length; j++) {
+                    int thetaInterval = thetaIntervals[j];
+                    if (!visited[thetaInterval]) {
+                        visited[thetaInterval] = true;
+                        counts.put(thetaInterval, counts.get(thetaInterval) + increment);
+                        int offset = epsilonOffset(thetaInterval);
+                        boolean[] eligible = eligibilityIndicators[thetaInterval];
+                        for (int i = 0; i < entityNum; i++) {
+                            if (eligible[i]) {
+                                counts.put(offset + i, counts.get(offset + i) + increment);
+                            }
+                        }
+                    }
+                    int index = alphaOffset(thetaInterval) + entityIndices[j];
+                    counts.put(index, counts.get(index) + increment);
+                }
+                buffer.putDouble(SCALE_POSITION, scale);
+                buffer.putLong(UPDATE_COUNT_POSITION, buffer.getLong(UPDATE_COUNT_POSITION) + 1);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Writes the mapped usage back to the file.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Writes a consistent copy of the store to a snapshot file, which is
+     * replaced atomically where the file system supports it. A snapshot is an
+     * exposure state file itself, from which a store can be restored by
+     * copying it back.
+     *
+     * @param snapshotFile the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeSnapshot(Path snapshotFile) throws IOException {
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer copy = buffer.duplicate();
+                synchronized (this) {
+                    FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+                    try {
+                        copy.clear();
+                        while (copy.hasRemaining()) {
+                            out.write(copy);
+                        }
+                    } finally {
+                        lock.release();
+                    }
+                }
+                out.force(true);
+            }
+            try {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Periodically writes the mapped usage back to the file and a snapshot of
+     * the store. Failures are logged and do not stop the snapshots.
+     *
+     * @param executor the executor running the snapshots
+     * @param snapshotFile the snapshot file
+     * @param period the period between snapshots
+     * @param unit the time unit of the period
+     * @return the future cancelling the snapshots
+     */
+    public ScheduledFuture<?> scheduleSnapshots(ScheduledExecutorService executor, Path snapshotFile, long period,
+            TimeUnit unit) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                force();
+                writeSnapshot(snapshotFile);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to write the exposure state snapshot of " + file, e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Writes the mapped usage back to the file and closes it. The mapping is
+     * released when the store is garbage collected.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Copies the counts of a theta interval at their current scale. The caller
+     * holds the lock on the file.
+     *
+     * @param offset the index of the first stored count
+     * @param target the array receiving the counts in pool order
+     */
+    private void copy(int offset, double[] target) {
+        double scale = buffer.getDouble(SCALE_POSITION);
+        for (int i = 0; i < entityNum; i++) {
+            target[i] = counts.get(offset + i) * scale;
+        }
+    }
+
+    /**
+     * Returns the index of the first stored alpha count of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the index of the first alpha count
+     */
+    private int alphaOffset(int thetaInterval) {
+        return thetaIntervalNum + thetaInterval * entityNum;
+    }
+
+    /**
+     * Returns the index of the first stored epsilon count of a theta interval.
+     *
+     * @param thetaInterval the theta interval index
+     * @return the index of the first epsilon count
+     */
+    private int epsilonOffset(int thetaInterval) {
+        return thetaIntervalNum + (thetaIntervalNum + thetaInterval) * entityNum;
+    }
+
+    /**
+     * Acquires a shared lock on the file.
+     *
+     * @return the lock
+     * @throws UncheckedIOException if the file cannot be locked
+     */
+    private FileLock lockShared() {
+        try {
+            return channel.lock(0, Long.MAX_VALUE, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Releases a lock on the file.
+     *
+     * @param lock the lock
+     * @throws UncheckedIOException if the lock cannot be released
+     */
+    private static void release(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks a theta interval index and the length of an array receiving
+     * counts.
+     *
+     * @param thetaInterval the theta interval index
+     * @param target the array receiving the counts
+     */
+    private void checkCopy(int thetaInterval, double[] target) {
+        checkThetaInterval(thetaInterval);
+        if (target.length != entityNum) {
+            throw new IllegalArgumentException("The count array is not of length " + entityNum + "!");
+        }
+    }
+
+    /**
+     * Checks a theta interval index.
+     *
+     * @param thetaInterval the theta interval index
+     */
+    private void checkThetaInterval(int thetaInterval) {
+        if (thetaInterval < 0 || thetaInterval >= thetaIntervalNum) {
+            throw new IndexOutOfBoundsException("Theta interval " + thetaInterval + " is out of range!");
+        }
+    }
+}
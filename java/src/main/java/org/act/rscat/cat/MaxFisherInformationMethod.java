@@ -10,6 +10,7 @@ import org.apache.commons.math3.linear.RealMatrix;
  */
 public class MaxFisherInformationMethod implements ItemSelectionMethod {
     private RealMatrix itemPar;
+    private ItemResponseTable responseTable;
     private double thetaEst;
 
     /**
@@ -24,6 +25,18 @@ public class MaxFisherInformationMethod implements ItemSelectionMethod {
         this.thetaEst = thetaEst;
     }
 
+    /**
+     * Constructs a new {@link MaxFisherInformationMethod} interpolating the
+     * item information from the precomputed tables of an item pool.
+     *
+     * @param responseTable the {@link ItemResponseTable} of the item pool
+     * @param thetaEst      value of ability estimate
+     */
+    public MaxFisherInformationMethod(ItemResponseTable responseTable, double thetaEst) {
+        this.responseTable = responseTable;
+        this.thetaEst = thetaEst;
+    }
+
     /**
      * Returns the item information values associated with the items and theta
      * estimate
@@ -32,6 +45,9 @@ public class MaxFisherInformationMethod implements ItemSelectionMethod {
      */
     @Override
     public double[] getSelectionCriteria() {
+        if (responseTable != null) {
+            return responseTable.getInformation(thetaEst);
+        }
         int parNum = itemPar.getRowDimension();
         double[] fisherInformation = new double[parNum];
         for (int i = 0; i < parNum; i++) {
@@ -46,6 +62,17 @@ public class MaxFisherInformationMethod implements ItemSelectionMethod {
         return fisherInformation;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double[] getSelectionCriteria(double[] criteria) {
+        if (responseTable != null) {
+            return responseTable.getInformation(thetaEst, criteria);
+        }
+        return ItemSelectionMethod.super.getSelectionCriteria(criteria);
+    }
+
     /**
      * {@inheritDoc}
      */
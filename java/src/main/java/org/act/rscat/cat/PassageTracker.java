@@ -0,0 +1,184 @@
+package org.act.rscat.cat;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Tracks the passage state of a single examinee across adaptive stages and
+ * derives the hard item eligibility of passage management.
+ * <p>
+ * A passage is closed once an item of another passage or a discrete item is
+ * administered after one of its items; items of closed passages that are not
+ * administered are ineligible for the following shadow tests. In addition, if
+ * the last administered item has a passage item order, items of its passage
+ * not yet administered with a lower order are ineligible.
+ * <p>
+ * The state is updated with the newly administered items only, so each
+ * administered item is processed once and each item is made ineligible at
+ * most once when its passage is closed. Passages are the passages of the
+ * {@link ItemPool}; an item whose passage is not in the passage pool is
+ * discrete. The eligibility is the one of
+ * {@link CatFunctions#getEligiblePassageItems(String[], org.act.rscat.util.PrimitiveArraySet,
+ * org.act.rscat.util.ContentTable)} for items of the passage pool.
+ */
+final class PassageTracker {
+
+    /**
+     * The shared item pool.
+     */
+    private final ItemPool itemPool;
+
+    /**
+     * The administered items.
+     */
+    private final BitSet administered;
+
+    /**
+     * The items eligible with respect to the closed passages.
+     */
+    private final BitSet eligible;
+
+    /**
+     * Whether each passage is closed.
+     */
+    private final boolean[] closed;
+
+    /**
+     * The item pool row indices of the items included in the state, in
+     * administration order, followed by unused capacity.
+     */
+    private int[] includedItems = new int[0];
+
+    /**
+     * The number of items included in the state.
+     */
+    private int includedCount;
+
+    /**
+     * Constructs a new {@link PassageTracker} with no administered item.
+     *
+     * @param itemPool the item pool
+     */
+    PassageTracker(ItemPool itemPool) {
+        this.itemPool = itemPool;
+        administered = new BitSet(itemPool.getItemNum());
+        eligible = new BitSet(itemPool.getItemNum());
+        closed = new boolean[itemPool.getPassageNum()];
+        reset();
+    }
+
+    /**
+     * Updates the state with the items administered so far. Items already
+     * included in the state are skipped; if the administered items do not
+     * start with the included items, the state is rebuilt.
+     *
+     * @param adminRowIndices the item pool row indices of the administered
+     *            items, in administration order
+     */
+    void update(int[] adminRowIndices) {
+        int start = includedCount;
+        if (adminRowIndices.length < start || !startsWithIncludedItems(adminRowIndices)) {
+            reset();
+            start = 0;
+        }
+        int[] itemPassageIndices = itemPool.getItemPassageIndices();
+        for (int i = start; i < adminRowIndices.length; i++) {
+            int item = adminRowIndices[i];
+            administered.set(item);
+            eligible.set(item);
+            if (i > 0) {
+                int previousPassage = itemPassageIndices[adminRowIndices[i - 1]];
+                if (previousPassage >= 0 && previousPassage != itemPassageIndices[item]) {
+                    closePassage(previousPassage);
+                }
+            }
+        }
+        if (includedItems.length < adminRowIndices.length) {
+            includedItems = Arrays.copyOf(includedItems, Math.max(adminRowIndices.length, 2 * includedItems.length));
+        }
+        System.arraycopy(adminRowIndices, start, includedItems, start, adminRowIndices.length - start);
+        includedCount = adminRowIndices.length;
+    }
+
+    /**
+     * Returns the items eligible for the next shadow test.
+     *
+     * @return the eligible item row indices
+     */
+    BitSet getEligibleItems() {
+        return getEligibleItems(new BitSet(itemPool.getItemNum()));
+    }
+
+    /**
+     * Returns the items eligible for the next shadow test, written to an
+     * existing {@link BitSet}.
+     *
+     * @param eligibleItems the bit set to fill
+     * @return the eligible item row indices
+     */
+    BitSet getEligibleItems(BitSet eligibleItems) {
+        eligibleItems.clear();
+        eligibleItems.or(eligible);
+        if (includedCount == 0) {
+            return eligibleItems;
+        }
+
+        // items of the current passage ordered before the last item
+        int lastItem = includedItems[includedCount - 1];
+        int passage = itemPool.getItemPassageIndices()[lastItem];
+        if (passage >= 0 && itemPool.isPassageItemOrderSpecified(lastItem)) {
+            int[] orders = itemPool.getPassageItemOrders();
+            for (int item : itemPool.getPassageItemIndices(passage)) {
+                if (!administered.get(item) && orders[item] < orders[lastItem]) {
+                    eligibleItems.clear(item);
+                }
+            }
+        }
+        return eligibleItems;
+    }
+
+    /**
+     * Returns whether the administered items start with the items included in
+     * the state.
+     *
+     * @param adminRowIndices the item pool row indices of the administered
+     *            items, in administration order
+     * @return true if the included items are a prefix of the administered
+     *         items
+     */
+    private boolean startsWithIncludedItems(int[] adminRowIndices) {
+        for (int i = 0; i < includedCount; i++) {
+            if (includedItems[i] != adminRowIndices[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes a passage, making its items not yet administered ineligible.
+     *
+     * @param passage the passage row index
+     */
+    private void closePassage(int passage) {
+        if (closed[passage]) {
+            return;
+        }
+        closed[passage] = true;
+        for (int item : itemPool.getPassageItemIndices(passage)) {
+            if (!administered.get(item)) {
+                eligible.clear(item);
+            }
+        }
+    }
+
+    /**
+     * Resets the state to no administered item.
+     */
+    private void reset() {
+        administered.clear();
+        eligible.set(0, itemPool.getItemNum());
+        Arrays.fill(closed, false);
+        includedCount = 0;
+    }
+}
@@ -16,6 +16,7 @@ public class ScoringMethodConfigEap extends AbstractScoringMethodConfig {
     private final int numQuad;
     private final double minQuad;
     private final double maxQuad;
+    private final boolean incremental;
 
     // CHECKSTYLE: resume JavadocVariable
 
@@ -33,10 +34,30 @@ public class ScoringMethodConfigEap extends AbstractScoringMethodConfig {
      * @see ProbDistribution
      */
     public ScoringMethodConfigEap(int numQuad, double minQuad, double maxQuad, ProbDistribution priorDistribution) {
+        this(numQuad, minQuad, maxQuad, priorDistribution, false);
+    }
+
+    /**
+     * Constructs a new {@link ScoringMethodConfigEap} with the choice of the
+     * incremental scoring.
+     *
+     * @param numQuad the number of quadrature points
+     * @param minQuad the minimum quadrature point
+     * @param maxQuad the maximum quadrature point
+     * @param priorDistribution the prior distribution of the theta
+     * @param incremental <code>true</code> to carry the posterior forward
+     *            between adaptive stages with
+     *            {@link ScoringMethodEapIncremental}; <code>false</code> to
+     *            recompute it at every stage with {@link ScoringMethodEap}
+     * @see ProbDistribution
+     */
+    public ScoringMethodConfigEap(int numQuad, double minQuad, double maxQuad, ProbDistribution priorDistribution,
+            boolean incremental) {
         super(priorDistribution);
         this.numQuad = numQuad;
         this.minQuad = minQuad;
         this.maxQuad = maxQuad;
+        this.incremental = incremental;
     }
 
     /**
@@ -74,4 +95,15 @@ public class ScoringMethodConfigEap extends AbstractScoringMethodConfig {
         return maxQuad;
     }
 
+    /**
+     * Returns whether the posterior is carried forward between adaptive
+     * stages.
+     *
+     * @return <code>true</code> if the scoring is incremental;
+     *         <code>false</code> otherwise
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
 }
@@ -0,0 +1,184 @@
+package org.act.rscat.cat;
+
+import java.util.Arrays;
+
+import org.act.rscat.util.ProbDistribution;
+
+/**
+ * An implementation of {@link ScoringMethod} using the expected A posteriori
+ * (EAP) estimate with a posterior carried forward between adaptive stages.
+ * <p>
+ * The estimate is the same as the one of {@link ScoringMethodEap}. Instead of
+ * recomputing the likelihood of all administered items at every stage, an
+ * instance is kept by the CAT session of an examinee and holds the unnormalized
+ * log-posterior over the quadrature points; each stage only adds the
+ * log-likelihood of the newly administered items, read from the response
+ * log-probabilities tabulated by the {@link ItemResponseTable} of the item
+ * pool. The prior densities are computed once per instance. Working on the log
+ * scale avoids the underflow of the likelihood product in long tests.
+ */
+public class ScoringMethodEapIncremental implements ScoringMethod {
+
+    /**
+     * The response log-probabilities of the item pool on the quadrature points.
+     */
+    private final ItemResponseTable.Quadrature quadrature;
+
+    /**
+     * The quadrature points.
+     */
+    private final double[] quadPoints;
+
+    /**
+     * The log prior density at each quadrature point.
+     */
+    private final double[] logPrior;
+
+    /**
+     * The unnormalized log-posterior at each quadrature point.
+     */
+    private final double[] logPosterior;
+
+    /**
+     * The posterior weights at each quadrature point, reused across
+     * estimates.
+     */
+    private final double[] weights;
+
+    /**
+     * The item pool row indices of the items included in the posterior, in
+     * administration order, followed by unused capacity.
+     */
+    private int[] includedItems = new int[0];
+
+    /**
+     * The scores of the items included in the posterior, in administration
+     * order, followed by unused capacity.
+     */
+    private int[] includedScores = new int[0];
+
+    /**
+     * The number of items included in the posterior.
+     */
+    private int includedCount;
+
+    /**
+     * Constructs a new {@link ScoringMethodEapIncremental} with the prior as
+     * posterior.
+     *
+     * @param config the configuration of scoring method
+     * @param responseTable the {@link ItemResponseTable} of the item pool
+     * @see ScoringMethodConfigEap
+     */
+    public ScoringMethodEapIncremental(ScoringMethodConfigEap config, ItemResponseTable responseTable) {
+        quadrature = responseTable.getQuadrature(config.getNumQuad(), config.getMinQuad(), config.getMaxQuad());
+        quadPoints = quadrature.getPoints();
+        ProbDistribution priorDistribution = config.getPriorDistribution();
+        logPrior = new double[quadPoints.length];
+        for (int q = 0; q < quadPoints.length; q++) {
+            logPrior[q] = Math.log(priorDistribution.density(quadPoints[q]));
+        }
+        logPosterior = logPrior.clone();
+        weights = new double[quadPoints.length];
+    }
+
+    /**
+     * Updates the posterior with the items administered so far. Items already
+     * included in the posterior are skipped; if the administered items and
+     * their scores do not start with the included items and scores, e.g.
+     * because a score was corrected, the posterior is recomputed from the
+     * prior.
+     *
+     * @param adminRowIndices the item pool row indices of the administered
+     *            items, in administration order
+     * @param itemScores the scores of the administered items, in
+     *            administration order
+     */
+    public void update(int[] adminRowIndices, ItemScores itemScores) {
+        int start = includedCount;
+        int[] scores = itemScores.getItemScores();
+        if (adminRowIndices.length < start || !startsWithIncludedItems(adminRowIndices, scores)) {
+            System.arraycopy(logPrior, 0, logPosterior, 0, logPrior.length);
+            start = 0;
+        }
+        for (int i = start; i < adminRowIndices.length; i++) {
+            double[] logProbCorrect = quadrature.getLogProbCorrect(adminRowIndices[i]);
+            double[] logProbIncorrect = quadrature.getLogProbIncorrect(adminRowIndices[i]);
+            int score = scores[i];
+            for (int q = 0; q < quadPoints.length; q++) {
+                if (score != 0) {
+                    logPosterior[q] += score * logProbCorrect[q];
+                }
+                if (score != 1) {
+                    logPosterior[q] += (1 - score) * logProbIncorrect[q];
+                }
+            }
+        }
+        if (includedItems.length < adminRowIndices.length) {
+            includedItems = Arrays.copyOf(includedItems, Math.max(adminRowIndices.length, 2 * includedItems.length));
+            includedScores = Arrays.copyOf(includedScores, includedItems.length);
+        }
+        System.arraycopy(adminRowIndices, start, includedItems, start, adminRowIndices.length - start);
+        System.arraycopy(scores, start, includedScores, start, adminRowIndices.length - start);
+        includedCount = adminRowIndices.length;
+    }
+
+    /**
+     * Returns whether the administered items start with the items included in
+     * the posterior, with the same scores.
+     *
+     * @param adminRowIndices the item pool row indices of the administered
+     *            items, in administration order
+     * @param scores the scores of the administered items, in administration
+     *            order
+     * @return true if the included items and scores are a prefix of the
+     *         administered items and scores
+     */
+    private boolean startsWithIncludedItems(int[] adminRowIndices, int[] scores) {
+        for (int i = 0; i < includedCount; i++) {
+            if (includedItems[i] != adminRowIndices[i] || includedScores[i] != scores[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Estimates ability using EAP over the current posterior.
+     */
+    @Override
+    public ThetaEst estimateTheta() {
+        double maxLogPosterior = Double.NEGATIVE_INFINITY;
+        for (double value : logPosterior) {
+            maxLogPosterior = Math.max(maxLogPosterior, value);
+        }
+        if (maxLogPosterior == Double.NEGATIVE_INFINITY || Double.isNaN(maxLogPosterior)) {
+            throw new IllegalArgumentException("Posterior equals to 0 at all quadrature points in estimateTheta!");
+        }
+        double numeratorTheta = 0;
+        double denominator = 0;
+        for (int q = 0; q < quadPoints.length; q++) {
+            weights[q] = Math.exp(logPosterior[q] - maxLogPosterior);
+            numeratorTheta += quadPoints[q] * weights[q];
+            denominator += weights[q];
+        }
+        double postMean = numeratorTheta / denominator;
+        double numeratorSD = 0;
+        for (int q = 0; q < quadPoints.length; q++) {
+            double deviation = quadPoints[q] - postMean;
+            numeratorSD += deviation * deviation * weights[q];
+        }
+        double postSd = Math.sqrt(numeratorSD / denominator);
+        return new ThetaEst(postMean, postSd);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ScoringMethod.SUPPORTED_METHODS scoringMethodType() {
+        return ScoringMethod.SUPPORTED_METHODS.EAP;
+    }
+}
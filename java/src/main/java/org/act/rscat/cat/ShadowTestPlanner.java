@@ -0,0 +1,325 @@
+package org.act.rscat.cat;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.act.rscat.util.PrimitiveArrays;
+
+/**
+ * Plans the administration order of the items of a shadow test not yet
+ * administered, following the passage management logic of
+ * {@link CatFunctions#prepShadowTest(String[], int[], org.act.rscat.util.PrimitiveArraySet,
+ * org.act.rscat.util.ContentTable, org.act.rscat.util.ContentTable, List)}.
+ * <p>
+ * Once an item of a passage is administered, the remaining items of the passage
+ * are administered next. Otherwise the next passage or discrete item is the one
+ * with the highest information value, where the value of a passage is the
+ * average information of its items in the shadow test; if the solver returned a
+ * passage sequence, the only passage considered is the one following the last
+ * passage administered in the sequence. Within a passage, items are ordered by
+ * passage item order, then by descending information.
+ * <p>
+ * The information values do not change within a stage, so the shadow test is
+ * sorted once and the full order is produced in a single pass, instead of
+ * repeating the next item selection for each remaining item. The work arrays
+ * are sized to the pool and reused across stages, so a planner is used by a
+ * single session at a time.
+ */
+final class ShadowTestPlanner {
+
+    /**
+     * The shared item pool.
+     */
+    private final ItemPool itemPool;
+
+    /**
+     * The administered items.
+     */
+    private final BitSet administered;
+
+    /**
+     * The items planned so far.
+     */
+    private final BitSet planning;
+
+    /**
+     * The remaining items by descending information.
+     */
+    private final int[] remaining;
+
+    /**
+     * The remaining discrete items by descending information.
+     */
+    private final int[] discreteItems;
+
+    /**
+     * The remaining items of each passage in administration order, from the
+     * start position of the passage.
+     */
+    private final int[] passageItems;
+
+    /**
+     * The work array of the sorts.
+     */
+    private final int[] sortBuffer;
+
+    /**
+     * The average information of each passage over the shadow test.
+     */
+    private final double[] passageValues;
+
+    /**
+     * The number of shadow test items of each passage.
+     */
+    private final int[] passageSizes;
+
+    /**
+     * The start position of each passage in the passage items.
+     */
+    private final int[] passageStarts;
+
+    /**
+     * The number of remaining items of each passage not yet planned.
+     */
+    private final int[] passageRemaining;
+
+    /**
+     * The passages with remaining items by descending value.
+     */
+    private final int[] passagesByValue;
+
+    /**
+     * The position of each passage in the passage sequence, or -1 if it is
+     * not in the sequence.
+     */
+    private final int[] sequencePositions;
+
+    /**
+     * Constructs a new {@link ShadowTestPlanner}.
+     *
+     * @param itemPool the item pool
+     */
+    ShadowTestPlanner(ItemPool itemPool) {
+        this.itemPool = itemPool;
+        int itemNum = itemPool.getItemNum();
+        int passageNum = itemPool.getPassageNum();
+        administered = new BitSet(itemNum);
+        planning = new BitSet(itemNum);
+        remaining = new int[itemNum];
+        discreteItems = new int[itemNum];
+        passageItems = new int[itemNum];
+        sortBuffer = new int[Math.max(itemNum, passageNum)];
+        passageValues = new double[passageNum];
+        passageSizes = new int[passageNum];
+        passageStarts = new int[passageNum];
+        passageRemaining = new int[passageNum];
+        passagesByValue = new int[passageNum];
+        sequencePositions = new int[passageNum];
+    }
+
+    /**
+     * Returns the administration order of the shadow test items not yet
+     * administered.
+     *
+     * @param adminRowIndices the item pool row indices of the administered
+     *            items, in administration order
+     * @param shadowTestIndices the item pool row indices of the shadow test
+     *            items
+     * @param information the information values of all items in the pool
+     * @param passageRowIndexSequence the passage row indices of the passage
+     *            order constraints, or an empty list if passages are not ordered
+     * @return the item pool row indices of the remaining items, in
+     *         administration order
+     */
+    int[] plan(int[] adminRowIndices, int[] shadowTestIndices, double[] information,
+            List<Integer> passageRowIndexSequence) {
+        administered.clear();
+        for (int item : adminRowIndices) {
+            administered.set(item);
+        }
+
+        // remaining items by descending information; among equal values the
+        // item later in the shadow test comes first, which the stable sort
+        // keeps by starting from the last item
+        int remainingCount = 0;
+        for (int i = shadowTestIndices.length - 1; i >= 0; i--) {
+            if (!administered.get(shadowTestIndices[i])) {
+                remaining[remainingCount++] = shadowTestIndices[i];
+            }
+        }
+        PrimitiveArrays.sortByDescendingKey(remaining, remainingCount, information, sortBuffer);
+
+        int passageNum = itemPool.getPassageNum();
+        if (passageNum == 0) {
+            return Arrays.copyOf(remaining, remainingCount);
+        }
+        int[] itemPassageIndices = itemPool.getItemPassageIndices();
+
+        // average information of the passages over the shadow test
+        Arrays.fill(passageValues, 0);
+        Arrays.fill(passageSizes, 0);
+        for (int item : shadowTestIndices) {
+            int passage = itemPassageIndices[item];
+            if (passage >= 0) {
+                passageValues[passage] += information[item];
+                passageSizes[passage]++;
+            }
+        }
+        for (int p = 0; p < passageNum; p++) {
+            if (passageSizes[p] > 0) {
+                passageValues[p] /= passageSizes[p];
+            }
+        }
+
+        // remaining items of each passage in administration order, stored
+        // from the start of the passage in one array, and remaining discrete
+        // items by descending information
+        int start = 0;
+        for (int p = 0; p < passageNum; p++) {
+            passageStarts[p] = start;
+            start += passageSizes[p];
+        }
+        Arrays.fill(passageRemaining, 0);
+        int discreteCount = 0;
+        for (int k = 0; k < remainingCount; k++) {
+            int item = remaining[k];
+            int passage = itemPassageIndices[item];
+            if (passage < 0) {
+                discreteItems[discreteCount++] = item;
+            } else {
+                passageItems[passageStarts[passage] + passageRemaining[passage]++] = item;
+            }
+        }
+        int passageItemCount = remainingCount - discreteCount;
+        int candidateCount = 0;
+        for (int p = 0; p < passageNum; p++) {
+            if (passageRemaining[p] > 0) {
+                orderPassageItems(passageStarts[p], passageStarts[p] + passageRemaining[p]);
+                passagesByValue[candidateCount++] = p;
+            }
+        }
+
+        // passages with remaining items by descending value
+        PrimitiveArrays.sortByDescendingKey(passagesByValue, candidateCount, passageValues, sortBuffer);
+
+        // position of each passage in the passage sequence
+        boolean ordered = passageRowIndexSequence != null && !passageRowIndexSequence.isEmpty();
+        Arrays.fill(sequencePositions, -1);
+        if (ordered) {
+            for (int s = passageRowIndexSequence.size() - 1; s >= 0; s--) {
+                sequencePositions[passageRowIndexSequence.get(s)] = s;
+            }
+        }
+
+        // current passage and last passage of the sequence administered
+        int currentPassage = -1;
+        int lastSequencePosition = -1;
+        for (int item : adminRowIndices) {
+            int passage = itemPassageIndices[item];
+            if (passage >= 0 && sequencePositions[passage] >= 0) {
+                lastSequencePosition = sequencePositions[passage];
+            }
+        }
+        if (adminRowIndices.length > 0) {
+            currentPassage = itemPassageIndices[adminRowIndices[adminRowIndices.length - 1]];
+        }
+
+        int[] planned = new int[remainingCount];
+        int plannedCount = 0;
+        planning.clear();
+        int discreteNext = 0;
+        int passageNext = 0;
+        int mostInformativeNext = 0;
+        while (plannedCount < remainingCount) {
+
+            // complete the current passage
+            if (currentPassage >= 0 && passageRemaining[currentPassage] > 0) {
+                int passageStart = passageStarts[currentPassage];
+                for (int k = passageStart; k < passageStart + passageRemaining[currentPassage]; k++) {
+                    planned[plannedCount++] = passageItems[k];
+                    planning.set(passageItems[k]);
+                }
+                passageItemCount -= passageRemaining[currentPassage];
+                passageRemaining[currentPassage] = 0;
+                continue;
+            }
+
+            // candidates are the discrete items and the passages allowed next
+            while (discreteNext < discreteCount && planning.get(discreteItems[discreteNext])) {
+                discreteNext++;
+            }
+            int passage = -1;
+            boolean candidates = passageItemCount > 0;
+            if (candidates && ordered) {
+                int nextPosition = lastSequencePosition + 1;
+                if (nextPosition < passageRowIndexSequence.size()) {
+                    passage = passageRowIndexSequence.get(nextPosition);
+                    if (passageRemaining[passage] == 0) {
+                        passage = -1;
+                        candidates = discreteNext < discreteCount;
+                    }
+                } else {
+                    candidates = false;
+                }
+            } else if (candidates) {
+                while (passageRemaining[passagesByValue[passageNext]] == 0) {
+                    passageNext++;
+                }
+                passage = passagesByValue[passageNext];
+            }
+
+            int nextItem;
+            if (!candidates) {
+                while (planning.get(remaining[mostInformativeNext])) {
+                    mostInformativeNext++;
+                }
+                nextItem = remaining[mostInformativeNext];
+            } else if (passage >= 0 && (discreteNext == discreteCount
+                    || passageValues[passage] >= information[discreteItems[discreteNext]])) {
+                nextItem = passageItems[passageStarts[passage]];
+            } else {
+                nextItem = discreteItems[discreteNext];
+            }
+
+            currentPassage = itemPassageIndices[nextItem];
+            if (currentPassage >= 0) {
+                if (sequencePositions[currentPassage] >= 0) {
+                    lastSequencePosition = sequencePositions[currentPassage];
+                }
+                continue;
+            }
+            planned[plannedCount++] = nextItem;
+            planning.set(nextItem);
+        }
+        return planned;
+    }
+
+    /**
+     * Orders the remaining items of a passage by passage item order. Items
+     * with the same order, or without order, keep their information order.
+     *
+     * @param from the first position of the passage items, which are by
+     *            descending information
+     * @param to the position after the last passage item
+     */
+    private void orderPassageItems(int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (!itemPool.isPassageItemOrderSpecified(passageItems[k])) {
+                return;
+            }
+        }
+
+        // stable insertion sort, passages have few items
+        int[] orders = itemPool.getPassageItemOrders();
+        for (int k = from + 1; k < to; k++) {
+            int item = passageItems[k];
+            int j = k - 1;
+            while (j >= from && orders[passageItems[j]] > orders[item]) {
+                passageItems[j + 1] = passageItems[j];
+                j--;
+            }
+            passageItems[j + 1] = item;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.act.rscat.cat;
+
+import org.act.rscat.mip.SolverOutput;
+
+/**
+ * Defines how the shadow test of an adaptive stage was obtained.
+ * <p>
+ * The solving time of a stage can be bounded by
+ * {@link org.act.rscat.mip.SolverConfig#setMaxTime(double)}. A solver stopped
+ * at the time limit returns its best solution found so far; if it has none,
+ * the shadow test of the previous stage is reused to select the next item.
+ */
+public enum ShadowTestStatus {
+
+    /**
+     * No shadow test was assembled at the stage, e.g., because the test is
+     * complete.
+     */
+    NONE,
+
+    /**
+     * The shadow test was solved to optimality.
+     */
+    OPTIMAL,
+
+    /**
+     * The shadow test was solved to the optimality gap of the solver
+     * configuration.
+     */
+    GAP,
+
+    /**
+     * The shadow test is the best solution found within the time limit.
+     */
+    TIME_LIMIT,
+
+    /**
+     * No solution was found within the time limit and the shadow test of the
+     * previous stage was reused.
+     */
+    FALLBACK;
+
+    /**
+     * Relative tolerance of the best bound over the objective of an optimal
+     * solution.
+     */
+    private static final double BOUND_TOL = 1e-9;
+
+    /**
+     * Returns the status of a shadow test returned by the solver.
+     *
+     * @param solverOutput the solver output with a non-empty shadow test
+     * @return the shadow test status
+     */
+    static ShadowTestStatus of(SolverOutput solverOutput) {
+        if (solverOutput.getSolverStatus() == SolverOutput.SOLVER_STATS.UNFINISHED) {
+            return TIME_LIMIT;
+        }
+        Double bestBound = solverOutput.getBestBound();
+        double objective = solverOutput.getObjective();
+        if (bestBound != null && bestBound - objective > BOUND_TOL * Math.max(1, Math.abs(objective))) {
+            return GAP;
+        }
+        return OPTIMAL;
+    }
+}
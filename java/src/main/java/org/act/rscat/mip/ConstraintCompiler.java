@@ -0,0 +1,116 @@
+package org.act.rscat.mip;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.act.rscat.testdef.AbstractTestEntity;
+
+/**
+ * Compiles the filters of {@link Constraint} rows into the row indices of the
+ * items or passages each constraint applies to.
+ * <p>
+ * The filters only depend on the static item and passage attributes, so the
+ * object sets are compiled once per test configuration and handed to the
+ * solvers instead of being evaluated when the shadow-test model is built.
+ * Filters are applied attribute by attribute: each attribute column is looked
+ * up once and only the objects still in the set are tested.
+ */
+public final class ConstraintCompiler {
+
+    /**
+     * Item level of a constraint.
+     */
+    public static final String LEVEL_ITEM = "Item";
+
+    /**
+     * Passage level of a constraint.
+     */
+    public static final String LEVEL_PASSAGE = "Passage";
+
+    /**
+     * The set filter value selecting all items.
+     */
+    private static final String ALL_ITEMS = "ALL";
+
+    /**
+     * The set filter value selecting all passages.
+     */
+    private static final String ALL_PASSAGES = "All";
+
+    private ConstraintCompiler() {
+    }
+
+    /**
+     * Returns the object set of each constraint, in the order of the
+     * constraint list. The set of an item level constraint holds item row
+     * indices, the set of a passage level constraint holds passage row
+     * indices, and the set of a constraint with another level is empty.
+     *
+     * @param constraintList the list of constraints
+     * @param itemList the items in the item pool
+     * @param passageList the passages in the passage pool
+     * @return the object sets of the constraints
+     */
+    public static List<BitSet> compile(List<Constraint> constraintList, List<? extends AbstractTestEntity> itemList,
+            List<? extends AbstractTestEntity> passageList) {
+        List<BitSet> objectSets = new ArrayList<>(constraintList.size());
+        for (Constraint cnst : constraintList) {
+            if (LEVEL_ITEM.equals(cnst.level)) {
+                objectSets.add(compile(cnst, itemList, ALL_ITEMS));
+            } else if (LEVEL_PASSAGE.equals(cnst.level)) {
+                objectSets.add(compile(cnst, passageList, ALL_PASSAGES));
+            } else {
+                objectSets.add(new BitSet());
+            }
+        }
+        return objectSets;
+    }
+
+    /**
+     * Returns the row indices of the objects satisfying all filters of a
+     * constraint. An object without a filter attribute has the empty string as
+     * categorical value and 0 as numeric value.
+     *
+     * @param cnst the constraint
+     * @param objects the items or passages indexed by row index, sharing the
+     *            attribute names of their pool table
+     * @param allFilter the set filter value selecting all objects
+     * @return the row indices of the filtered objects
+     */
+    static BitSet compile(Constraint cnst, List<? extends AbstractTestEntity> objects, String allFilter) {
+        BitSet objectSet = new BitSet(objects.size());
+        objectSet.set(0, objects.size());
+        if (objects.isEmpty()) {
+            return objectSet;
+        }
+        AbstractTestEntity first = objects.get(0);
+        for (Entry<String, Set<String>> entry : cnst.filterSetData.entrySet()) {
+            Set<String> filterSet = entry.getValue();
+            if (filterSet.size() == 1 && filterSet.contains(allFilter)) {
+                continue;
+            }
+            int attrIndex = first.getCategAttrsNames().indexOf(entry.getKey());
+            for (int i = objectSet.nextSetBit(0); i >= 0; i = objectSet.nextSetBit(i + 1)) {
+                String attr = attrIndex >= 0 ? objects.get(i).getCategAttrs().get(attrIndex) : "";
+                if (!filterSet.contains(attr)) {
+                    objectSet.clear(i);
+                }
+            }
+        }
+        for (Entry<String, List<Double>> entry : cnst.filterBoundsData.entrySet()) {
+            double lb = entry.getValue().get(0);
+            double ub = entry.getValue().get(1);
+            int attrIndex = first.getNumericAttrsNames().indexOf(entry.getKey());
+            for (int i = objectSet.nextSetBit(0); i >= 0; i = objectSet.nextSetBit(i + 1)) {
+                double attr = attrIndex >= 0 ? objects.get(i).getNumericAttrs().get(attrIndex) : 0;
+                if (attr < lb || attr > ub) {
+                    objectSet.clear(i);
+                }
+            }
+        }
+        return objectSet;
+    }
+}
@@ -1,5 +1,7 @@
 package org.act.rscat.mip;
 
+import org.act.rscat.sol.ShadowTestSolver;
+
 /**
  * Defines configuration parameters of the MIP solver.
  */
@@ -24,11 +26,33 @@ public class SolverConfig {
      */
     private double intTol;
 
+    /**
+     * Wall-clock budget of a single shadow-test solve in seconds, or a
+     * non-positive value for no limit.
+     */
+    private double maxTime;
+
     /**
      * Switch to save MIP input in a separate file.
      */
     private boolean saveInput;
 
+    /**
+     * Switch to build the shadow-test model once per examinee and only update
+     * its real-time data between adaptive stages.
+     */
+    private boolean incrementalModel;
+
+    /**
+     * Switch to load the previous shadow test as the initial MIP solution.
+     */
+    private boolean warmStart;
+
+    /**
+     * The solver backend assembling shadow tests.
+     */
+    private ShadowTestSolver.SUPPORTED_SOLVERS solverType = ShadowTestSolver.SUPPORTED_SOLVERS.XPRESS;
+
     /**
      * Constructs a new {@link SolverParam}.
      *
@@ -98,6 +122,30 @@ public class SolverConfig {
         this.intTol = intTol;
     }
 
+    /**
+     * Returns the wall-clock budget of a single shadow-test solve in seconds.
+     * When the budget is exhausted, the solver returns its best incumbent
+     * solution, if any.
+     *
+     * @return the maximum solver time in seconds, or a non-positive value if
+     *         the solving time is not limited
+     */
+    public double getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Sets the wall-clock budget of a single shadow-test solve in seconds. The
+     * Xpress backend limits the solving time in whole seconds, rounding the
+     * budget down, and rejects a budget under one second.
+     *
+     * @param maxTime the maximum solver time in seconds, or a non-positive
+     *            value for no limit
+     */
+    public void setMaxTime(double maxTime) {
+        this.maxTime = maxTime;
+    }
+
     /**
      * Gets isSaveInput status.
      *
@@ -107,4 +155,64 @@ public class SolverConfig {
         return saveInput;
     }
 
+    /**
+     * Returns whether the shadow-test model is built once per examinee and
+     * updated incrementally between adaptive stages.
+     *
+     * @return <code>true</code> if the model is updated incrementally;
+     *         <code>false</code> if it is rebuilt at every stage
+     */
+    public boolean isIncrementalModel() {
+        return incrementalModel;
+    }
+
+    /**
+     * Sets whether the shadow-test model is built once per examinee and
+     * updated incrementally between adaptive stages.
+     *
+     * @param incrementalModel the incremental model switch
+     */
+    public void setIncrementalModel(boolean incrementalModel) {
+        this.incrementalModel = incrementalModel;
+    }
+
+    /**
+     * Returns whether the previous shadow test is loaded as the initial MIP
+     * solution of the next stage.
+     *
+     * @return <code>true</code> if the solver is warm started;
+     *         <code>false</code> otherwise
+     */
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Sets whether the previous shadow test is loaded as the initial MIP
+     * solution of the next stage.
+     *
+     * @param warmStart the warm start switch
+     */
+    public void setWarmStart(boolean warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * Returns the solver backend assembling shadow tests.
+     *
+     * @return the solver type
+     */
+    public ShadowTestSolver.SUPPORTED_SOLVERS getSolverType() {
+        return solverType;
+    }
+
+    /**
+     * Sets the solver backend assembling shadow tests.
+     *
+     * @param solverType the solver type
+     */
+    public void setSolverType(ShadowTestSolver.SUPPORTED_SOLVERS solverType) {
+        this.solverType = solverType;
+    }
+
 }
@@ -10,6 +10,11 @@ public final class SolverInputSingleItem {
      */
     private final String itemIdentifier;
 
+    /**
+     * Item row index in the item pool, or -1 if unknown.
+     */
+    private final int itemIndex;
+
     /**
      * Item information value.
      */
@@ -53,7 +58,30 @@ public final class SolverInputSingleItem {
      */
     public SolverInputSingleItem(String itemIdentifier, double information, boolean administered, boolean eligible,
             boolean eligibleHard, boolean selected) {
+        this(itemIdentifier, -1, information, administered, eligible, eligibleHard, selected);
+    }
+
+    /**
+     * Constructs a new {@link SolverInputSingleItem} with the item row index,
+     * which spares the solver the identifier lookup.
+     *
+     * @param itemIdentifier item identifier
+     * @param itemIndex item row index in the item pool
+     * @param information item information value
+     * @param administered item administration mark, true if an item is
+     *            administered in previous stages, otherwise false
+     * @param eligible item eligibility mark, true if an item is eligible,
+     *            otherwise false
+     * @param eligibleHard item hard eligibility mark (cannot be relaxed for
+     *            feasible solutions), true if an item is eligible, otherwise
+     *            false.
+     * @param selected boolean flag indicating whether the item is selected or
+     *            not
+     */
+    public SolverInputSingleItem(String itemIdentifier, int itemIndex, double information, boolean administered,
+            boolean eligible, boolean eligibleHard, boolean selected) {
         this.itemIdentifier = itemIdentifier;
+        this.itemIndex = itemIndex;
         this.information = information;
         this.administered = administered;
         this.eligible = eligible;
@@ -70,6 +98,15 @@ public final class SolverInputSingleItem {
         return itemIdentifier;
     }
 
+    /**
+     * Returns item row index in the item pool.
+     *
+     * @return item row index, or -1 if unknown
+     */
+    public int getItemIndex() {
+        return itemIndex;
+    }
+
     /**
      * Returns item information.
      *
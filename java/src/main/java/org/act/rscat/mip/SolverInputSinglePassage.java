@@ -10,6 +10,11 @@ public final class SolverInputSinglePassage {
      */
     private final String passageIdentifier;
 
+    /**
+     * Passage row index in the passage pool, or -1 if unknown.
+     */
+    private final int passageIndex;
+
     /**
      * Passage eligibility mark, true if an passage is eligible, otherwise
      * false.
@@ -25,7 +30,21 @@ public final class SolverInputSinglePassage {
      *            otherwise false
      */
     public SolverInputSinglePassage(String passageIdentifier, boolean eligible) {
+        this(passageIdentifier, -1, eligible);
+    }
+
+    /**
+     * Constructs a new {@link SolverInputSinglePassage} with the passage row
+     * index, which spares the solver the identifier lookup.
+     *
+     * @param passageIdentifier passage identifier
+     * @param passageIndex passage row index in the passage pool
+     * @param eligible passage eligibility mark, true if a passage is eligible,
+     *            otherwise false
+     */
+    public SolverInputSinglePassage(String passageIdentifier, int passageIndex, boolean eligible) {
         this.passageIdentifier = passageIdentifier;
+        this.passageIndex = passageIndex;
         this.eligible = eligible;
     }
 
@@ -38,6 +57,15 @@ public final class SolverInputSinglePassage {
         return passageIdentifier;
     }
 
+    /**
+     * Returns passage row index in the passage pool.
+     *
+     * @return passage row index, or -1 if unknown
+     */
+    public int getPassageIndex() {
+        return passageIndex;
+    }
+
     /**
      * Returns passage eligibility mark.
      *
@@ -0,0 +1,150 @@
+package org.act.rscat.mip;
+
+import java.util.BitSet;
+
+/**
+ * The real-time item and passage data of a stage required by the solver, in
+ * compact form.
+ * <p>
+ * Items and passages are identified by their row indices in the item and
+ * passage pools. The item information is kept in one array and each item or
+ * passage mark in one {@link BitSet}, instead of one
+ * {@link SolverInputSingleItem} or {@link SolverInputSinglePassage} per pool
+ * entry. The arrays and bit sets are shared with the caller and must not be
+ * modified while the stage is solved.
+ */
+public final class SolverInputStage {
+
+    /**
+     * Item information values in item pool order.
+     */
+    private final double[] information;
+
+    /**
+     * Items administered in previous stages.
+     */
+    private final BitSet administered;
+
+    /**
+     * Items eligible with respect to exposure control.
+     */
+    private final BitSet eligible;
+
+    /**
+     * Items eligible with respect to constraints that cannot be relaxed for
+     * feasible solutions.
+     */
+    private final BitSet eligibleHard;
+
+    /**
+     * Items selected in the previous shadow test.
+     */
+    private final BitSet selected;
+
+    /**
+     * Passages eligible with respect to exposure control, or {@code null} if
+     * all passages are eligible.
+     */
+    private final BitSet passageEligible;
+
+    /**
+     * Constructs a new {@link SolverInputStage}.
+     *
+     * @param information item information values in item pool order
+     * @param administered items administered in previous stages
+     * @param eligible items eligible with respect to exposure control
+     * @param eligibleHard items eligible with respect to constraints that
+     *            cannot be relaxed for feasible solutions
+     * @param selected items selected in the previous shadow test
+     * @param passageEligible passages eligible with respect to exposure
+     *            control, or {@code null} if all passages are eligible
+     */
+    public SolverInputStage(double[] information, BitSet administered, BitSet eligible, BitSet eligibleHard,
+            BitSet selected, BitSet passageEligible) {
+        this.information = information;
+        this.administered = administered;
+        this.eligible = eligible;
+        this.eligibleHard = eligibleHard;
+        this.selected = selected;
+        this.passageEligible = passageEligible;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return the number of items
+     */
+    public int getItemNum() {
+        return information.length;
+    }
+
+    /**
+     * Returns item information.
+     *
+     * @param itemIndex the item row index
+     * @return item information
+     */
+    public double getInformation(int itemIndex) {
+        return information[itemIndex];
+    }
+
+    /**
+     * Returns item administration mark.
+     *
+     * @param itemIndex the item row index
+     * @return item administration mark
+     */
+    public boolean isAdministered(int itemIndex) {
+        return administered.get(itemIndex);
+    }
+
+    /**
+     * Returns item eligibility mark.
+     *
+     * @param itemIndex the item row index
+     * @return item eligibility mark
+     */
+    public boolean isEligible(int itemIndex) {
+        return eligible.get(itemIndex);
+    }
+
+    /**
+     * Returns item hard eligibility mark.
+     *
+     * @param itemIndex the item row index
+     * @return item hard eligibility mark
+     */
+    public boolean isEligibleHard(int itemIndex) {
+        return eligibleHard.get(itemIndex);
+    }
+
+    /**
+     * Returns item selection mark.
+     *
+     * @param itemIndex the item row index
+     * @return item selection mark
+     */
+    public boolean isSelected(int itemIndex) {
+        return selected.get(itemIndex);
+    }
+
+    /**
+     * Returns whether the passage eligibility is given.
+     *
+     * @return true if the passage eligibility is given, false if all passages
+     *         are eligible
+     */
+    public boolean hasPassageEligibility() {
+        return passageEligible != null;
+    }
+
+    /**
+     * Returns passage eligibility mark.
+     *
+     * @param passageIndex the passage row index
+     * @return passage eligibility mark
+     */
+    public boolean isPassageEligible(int passageIndex) {
+        return passageEligible == null || passageEligible.get(passageIndex);
+    }
+}
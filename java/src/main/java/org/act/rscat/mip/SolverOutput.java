@@ -121,11 +121,23 @@ public class SolverOutput {
      */
     private final Double objective;
 
+    /**
+     * The best bound on the objective proven by the solver, or {@code null}
+     * if no bound is available.
+     */
+    private final Double bestBound;
+
     /**
      * The solver status.
      */
     private final SOLVER_STATS solverStatus;
 
+    /**
+     * Whether the warm start solution was accepted by the solver, or
+     * {@code null} if no warm start solution was loaded.
+     */
+    private final Boolean warmStartAccepted;
+
     /**
      * Constructs a new {@link SolverOutput}.
      *
@@ -143,7 +155,9 @@ public class SolverOutput {
         }
 
         this.objective = solverOutputBuilder.objective;
+        this.bestBound = solverOutputBuilder.bestBound;
         this.solverStatus = solverOutputBuilder.solverStatus;
+        this.warmStartAccepted = solverOutputBuilder.warmStartAccepted;
     }
 
     /**
@@ -236,6 +250,17 @@ public class SolverOutput {
         return objective;
     }
 
+    /**
+     * Returns the best bound on the shadow test objective proven by the
+     * solver. It equals the objective if the solution is proven optimal and
+     * exceeds it if the solver stopped at the optimality gap.
+     *
+     * @return the best bound, or <code>null</code> if no bound is available
+     */
+    public Double getBestBound() {
+        return bestBound;
+    }
+
     /**
      * Returns the solver status.
      *
@@ -245,6 +270,17 @@ public class SolverOutput {
         return solverStatus;
     }
 
+    /**
+     * Returns whether the warm start solution was accepted by the solver.
+     *
+     * @return <code>true</code> if the warm start solution was accepted,
+     *         <code>false</code> if it was rejected, or <code>null</code> if no
+     *         warm start solution was loaded
+     */
+    public Boolean getWarmStartAccepted() {
+        return warmStartAccepted;
+    }
+
     /**
      * <code>SolverOutputBuilder</code> is used to build instances of
      * {@link SolverOutput}.
@@ -257,7 +293,9 @@ public class SolverOutput {
         private List<Integer> selectedPassageRowIndices = new ArrayList<>();
         private List<Integer> passageRowIndexSequence = new ArrayList<>();
         private Double objective = Double.valueOf(0.0);
+        private Double bestBound;
         private SOLVER_STATS solverStatus = SOLVER_STATS.OTHER;
+        private Boolean warmStartAccepted;
 
         /**
          * Sets the selected item identifiers.
@@ -325,6 +363,18 @@ public class SolverOutput {
             return this;
         }
 
+        /**
+         * Sets the best bound on the MIP objective.
+         *
+         * @param newBestBound the best bound, or <code>null</code> if no bound
+         *            is available
+         * @return a SolverOutputBuilder
+         */
+        public SolverOutputBuilder bestBound(Double newBestBound) {
+            this.bestBound = newBestBound;
+            return this;
+        }
+
         /**
          * Sets solver status.
          *
@@ -336,6 +386,18 @@ public class SolverOutput {
             return this;
         }
 
+        /**
+         * Sets whether the warm start solution was accepted by the solver.
+         *
+         * @param newWarmStartAccepted the warm start acceptance, or
+         *            <code>null</code> if no warm start solution was loaded
+         * @return this builder
+         */
+        public SolverOutputBuilder warmStartAccepted(Boolean newWarmStartAccepted) {
+            this.warmStartAccepted = newWarmStartAccepted;
+            return this;
+        }
+
         /**
          * Builds an instance of {@link SolverOutput}.
          *
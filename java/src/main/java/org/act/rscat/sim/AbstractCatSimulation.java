@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.act.rscat.cat.CatConfig;
+import org.act.rscat.cat.ThetaRange;
 import org.act.rscat.sol.InfeasibleTestConfigException;
 import org.act.rscat.testdef.TestConfig;
 import org.act.rscat.util.ProbDistribution;
@@ -54,6 +55,42 @@ public abstract class AbstractCatSimulation {
      */
     public abstract List<SimOutput> runSim() throws IOException, InfeasibleTestConfigException;
 
+    /**
+     * Runs the CAT simulation and passes the result of each examinee to a sink
+     * in examinee order. The sink is not closed.
+     * <p>
+     * This implementation collects the results of {@link #runSim()} first;
+     * simulations that can pass each result as soon as it is complete override
+     * it, so that the results of all examinees are not kept in memory.
+     *
+     * @param sink the sink receiving the results
+     * @throws IOException if there is an IO error or the sink fails
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible.
+     * @see SimOutputSink
+     */
+    public void runSim(SimOutputSink sink) throws IOException, InfeasibleTestConfigException {
+        for (SimOutput simOutput : runSim()) {
+            sink.accept(simOutput);
+        }
+    }
+
+    /**
+     * Runs the CAT simulation and returns its aggregate statistics, computed
+     * as the results of the examinees complete.
+     *
+     * @param thetaBins the true theta bins of the conditional statistics
+     * @return the simulation statistics
+     * @throws IOException if there is an IO error.
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible.
+     * @see SimStatisticsCollector
+     */
+    public SimStatistics runSimStatistics(List<ThetaRange> thetaBins)
+            throws IOException, InfeasibleTestConfigException {
+        SimStatisticsCollector collector = new SimStatisticsCollector(testConfig, thetaBins);
+        runSim(collector);
+        return collector.getStatistics();
+    }
+
     /**
      * Generates true theta values for all examinees based on the distribution.
      *
@@ -0,0 +1,544 @@
+package org.act.rscat.sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.ItemPool;
+import org.act.rscat.cat.ItemScores;
+import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
+import org.act.rscat.cat.ThetaEst;
+import org.act.rscat.cat.ThetaRange;
+import org.act.rscat.testdef.TestConfig;
+
+/**
+ * Writes the simulation output of each examinee to a compact binary file as
+ * soon as the examinee is complete, and reads such files back.
+ * <p>
+ * The file starts with the item identifiers of the item pool; items are then
+ * written as their row indices. Each examinee record stores its fields one
+ * after another as columns: the administered items, their theta range
+ * indices and scores, and the per-stage shadow tests, theta estimates, CAT
+ * engine times, eligibility indicators and passage sequences, followed by
+ * the exposure rates if any. The eligibility indicators of a stage are packed
+ * to bits, or written as the positions that changed since the previous stage
+ * if they have the same length. Counts and indices are written as
+ * variable-length integers. A file cut short by a failure is read up to its
+ * last complete record.
+ */
+public final class BinarySimOutputSink implements SimOutputSink {
+
+    /**
+     * The first bytes of a simulation output file.
+     */
+    private static final int MAGIC = 0x5253534F;
+
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The output file stream.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * The item pool whose row indices identify the items in the file.
+     */
+    private final ItemPool itemPool;
+
+    /**
+     * Constructs a new {@link BinarySimOutputSink}.
+     *
+     * @param file the output file, which is replaced
+     * @param testConfig the test configuration of the simulation
+     * @throws IOException if the file cannot be created
+     */
+    public BinarySimOutputSink(Path file, TestConfig testConfig) throws IOException {
+        itemPool = ItemPool.forTestConfig(testConfig);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            String[] itemIds = itemPool.getItemIds();
+            writeVarInt(itemIds.length);
+            for (String itemId : itemIds) {
+                out.writeUTF(itemId);
+            }
+            out.flush();
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(SimOutput simOutput) throws IOException {
+        out.writeUTF(simOutput.getexamineeId());
+        out.writeDouble(simOutput.getTrueTheta());
+        out.writeDouble(simOutput.getInitTheta());
+        writeThetaEst(simOutput.getFinalTheta());
+        writeItems(simOutput.getItemsAdministered());
+        writeInts(simOutput.getItemThetaIntervals());
+
+        List<ItemScores> itemScoresList = simOutput.getItemScoresList();
+        writeSize(itemScoresList);
+        if (itemScoresList != null) {
+            for (ItemScores itemScores : itemScoresList) {
+                int[] scores = itemScores.getItemScores();
+                double[] probs = itemScores.getRespProbs();
+                writeVarInt(scores.length);
+                for (int i = 0; i < scores.length; i++) {
+                    out.writeByte(scores[i]);
+                    out.writeDouble(probs[i]);
+                }
+            }
+        }
+
+        // Per-stage columns
+        List<Integer> stages = simOutput.getAdaptiveStageList();
+        writeSize(stages);
+        if (stages != null) {
+            for (int stage : stages) {
+                writeVarInt(stage);
+            }
+        }
+        List<ThetaEst> thetaEsts = simOutput.getThetaEstList();
+        writeSize(thetaEsts);
+        if (thetaEsts != null) {
+            for (ThetaEst thetaEst : thetaEsts) {
+                writeThetaEst(thetaEst);
+            }
+        }
+        List<Double> catEngineTimes = simOutput.getCatEngineTimeList();
+        writeSize(catEngineTimes);
+        if (catEngineTimes != null) {
+            for (Double catEngineTime : catEngineTimes) {
+                out.writeDouble(catEngineTime == null ? Double.NaN : catEngineTime);
+            }
+        }
+        List<List<String>> shadowTests = simOutput.getShadowTestList();
+        writeSize(shadowTests);
+        if (shadowTests != null) {
+            for (List<String> shadowTest : shadowTests) {
+                writeItems(shadowTest);
+            }
+        }
+        List<PassageOrItemEligibilityAtThetaRange> eligibilities = simOutput
+                .getPassageOrItemEligibilityAtThetaRangeList();
+        writeSize(eligibilities);
+        if (eligibilities != null) {
+            boolean[] previous = null;
+            for (PassageOrItemEligibilityAtThetaRange eligibility : eligibilities) {
+                writeEligibility(eligibility, previous);
+                previous = eligibility == null ? null : eligibility.getEligibilityIndicators();
+            }
+        }
+        List<List<Integer>> passageSequences = simOutput.getPassageRowIndexSequences();
+        writeSize(passageSequences);
+        if (passageSequences != null) {
+            for (List<Integer> passageSequence : passageSequences) {
+                writeSize(passageSequence);
+                if (passageSequence != null) {
+                    for (int passageIndex : passageSequence) {
+                        writeVarInt(passageIndex + 1);
+                    }
+                }
+            }
+        }
+        writeRates(simOutput.getItemExposureRates());
+        writeRates(simOutput.getPassageExposureRates());
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reads a simulation output file and passes its examinee records to a sink
+     * in file order. The sink is not closed.
+     *
+     * @param file the simulation output file
+     * @param sink the sink receiving the records
+     * @throws IOException if the file cannot be read or is not a simulation
+     *             output file, or the sink fails
+     */
+    public static void read(Path file, SimOutputSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a simulation output file!");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported simulation output file version " + version + "!");
+            }
+            String[] itemIds = new String[readVarInt(in)];
+            for (int i = 0; i < itemIds.length; i++) {
+                itemIds[i] = in.readUTF();
+            }
+            while (true) {
+                String examineeId;
+                try {
+                    examineeId = in.readUTF();
+                } catch (EOFException e) {
+                    return;
+                }
+                SimOutput simOutput;
+                try {
+                    simOutput = readRecord(in, examineeId, itemIds);
+                } catch (EOFException e) {
+                    // The last record was not complete
+                    return;
+                }
+                sink.accept(simOutput);
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of an examinee record.
+     *
+     * @param in the input positioned after the examinee identifier
+     * @param examineeId the examinee identifier
+     * @param itemIds the item identifiers of the file
+     * @return the simulation output of the examinee
+     * @throws IOException if the record cannot be read
+     */
+    private static SimOutput readRecord(DataInputStream in, String examineeId, String[] itemIds)
+            throws IOException {
+        SimOutput.Builder builder = new SimOutput.Builder(examineeId, in.readDouble());
+        builder.initTheta(in.readDouble());
+        builder.finalTheta(readThetaEst(in));
+        builder.itemsAdministered(readItems(in, itemIds));
+        builder.itemThetaIntervals(readInts(in));
+
+        int size = readSize(in);
+        if (size >= 0) {
+            List<ItemScores> itemScoresList = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                int[] scores = new int[readVarInt(in)];
+                double[] probs = new double[scores.length];
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] = in.readByte();
+                    probs[i] = in.readDouble();
+                }
+                itemScoresList.add(new ItemScores(scores, probs));
+            }
+            builder.itemScoresList(itemScoresList);
+        }
+
+        // Per-stage columns
+        size = readSize(in);
+        if (size >= 0) {
+            List<Integer> stages = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                stages.add(readVarInt(in));
+            }
+            builder.adaptiveStageList(stages);
+        }
+        size = readSize(in);
+        if (size >= 0) {
+            List<ThetaEst> thetaEsts = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                thetaEsts.add(readThetaEst(in));
+            }
+            builder.thetaEstList(thetaEsts);
+        }
+        size = readSize(in);
+        if (size >= 0) {
+            List<Double> catEngineTimes = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                double catEngineTime = in.readDouble();
+                catEngineTimes.add(Double.isNaN(catEngineTime) ? null : catEngineTime);
+            }
+            builder.catEngineTimeList(catEngineTimes);
+        }
+        size = readSize(in);
+        if (size >= 0) {
+            List<List<String>> shadowTests = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                shadowTests.add(readItems(in, itemIds));
+            }
+            builder.shadowTestList(shadowTests);
+        }
+        size = readSize(in);
+        if (size >= 0) {
+            List<PassageOrItemEligibilityAtThetaRange> eligibilities = new EligibilityAuditList();
+            boolean[] previous = null;
+            for (int s = 0; s < size; s++) {
+                PassageOrItemEligibilityAtThetaRange eligibility = readEligibility(in, previous);
+                eligibilities.add(eligibility);
+                previous = eligibility == null ? null : eligibility.getEligibilityIndicators();
+            }
+            builder.itemEligibilityList(eligibilities);
+        }
+        size = readSize(in);
+        if (size >= 0) {
+            List<List<Integer>> passageSequences = new ArrayList<>(size);
+            for (int s = 0; s < size; s++) {
+                int length = readSize(in);
+                List<Integer> passageSequence = null;
+                if (length >= 0) {
+                    passageSequence = new ArrayList<>(length);
+                    for (int j = 0; j < length; j++) {
+                        passageSequence.add(readVarInt(in) - 1);
+                    }
+                }
+                passageSequences.add(passageSequence);
+            }
+            builder.passageRowIndexSequences(passageSequences);
+        }
+        SimOutput simOutput = builder.build();
+        simOutput.setItemExposureRates(readRates(in));
+        simOutput.setPassageExposureRates(readRates(in));
+        return simOutput;
+    }
+
+    private void writeThetaEst(ThetaEst thetaEst) throws IOException {
+        out.writeBoolean(thetaEst != null);
+        if (thetaEst != null) {
+            out.writeDouble(thetaEst.getTheta());
+            out.writeDouble(thetaEst.getSe());
+        }
+    }
+
+    private static ThetaEst readThetaEst(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new ThetaEst(in.readDouble(), in.readDouble()) : null;
+    }
+
+    private void writeItems(List<String> itemIds) throws IOException {
+        writeSize(itemIds);
+        if (itemIds != null) {
+            for (String itemId : itemIds) {
+                int itemIndex = itemPool.getItemIndex(itemId);
+                if (itemIndex < 0) {
+                    throw new IllegalArgumentException("Item " + itemId + " is not in the item pool!");
+                }
+                writeVarInt(itemIndex);
+            }
+        }
+    }
+
+    private static List<String> readItems(DataInputStream in, String[] itemIds) throws IOException {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        List<String> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int itemIndex = readVarInt(in);
+            if (itemIndex >= itemIds.length) {
+                throw new IOException("Item row index " + itemIndex + " is out of range!");
+            }
+            items.add(itemIds[itemIndex]);
+        }
+        return items;
+    }
+
+    private void writeInts(int[] values) throws IOException {
+        writeVarInt(values == null ? 0 : values.length + 1);
+        if (values != null) {
+            for (int value : values) {
+                writeVarInt(value);
+            }
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = readVarInt(in);
+        }
+        return values;
+    }
+
+    private void writeEligibility(PassageOrItemEligibilityAtThetaRange eligibility, boolean[] previous)
+            throws IOException {
+        out.writeBoolean(eligibility != null);
+        if (eligibility == null) {
+            return;
+        }
+        ExposureControlType exposureType = eligibility.getExposureType();
+        writeVarInt(exposureType == null ? 0 : exposureType.getCode());
+        Integer thetaRangeIndex = eligibility.getThetaRangeIndex();
+        writeVarInt(thetaRangeIndex == null ? 0 : thetaRangeIndex + 1);
+        boolean[] indicators = eligibility.getEligibilityIndicators();
+        writeVarInt(indicators == null ? 0 : indicators.length + 1);
+        if (indicators == null) {
+            return;
+        }
+        boolean delta = previous != null && previous.length == indicators.length;
+        out.writeBoolean(delta);
+        if (delta) {
+            int changeNum = 0;
+            for (int i = 0; i < indicators.length; i++) {
+                if (indicators[i] != previous[i]) {
+                    changeNum++;
+                }
+            }
+            writeVarInt(changeNum);
+            int lastChange = -1;
+            for (int i = 0; i < indicators.length; i++) {
+                if (indicators[i] != previous[i]) {
+                    writeVarInt(i - lastChange - 1);
+                    lastChange = i;
+                }
+            }
+        } else {
+            for (int start = 0; start < indicators.length; start += Byte.SIZE) {
+                int packed = 0;
+                for (int bit = 0; bit < Byte.SIZE && start + bit < indicators.length; bit++) {
+                    if (indicators[start + bit]) {
+                        packed |= 1 << bit;
+                    }
+                }
+                out.writeByte(packed);
+            }
+        }
+    }
+
+    private static PassageOrItemEligibilityAtThetaRange readEligibility(DataInputStream in, boolean[] previous)
+            throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int code = readVarInt(in);
+        int thetaRangeIndex = readVarInt(in) - 1;
+        int length = readSize(in);
+        boolean[] indicators = null;
+        if (length >= 0 && in.readBoolean()) {
+            if (previous == null || previous.length != length) {
+                throw new IOException("Eligibility change without previous eligibility!");
+            }
+            indicators = previous.clone();
+            int position = -1;
+            for (int c = readVarInt(in); c > 0; c--) {
+                position += readVarInt(in) + 1;
+                if (position >= length) {
+                    throw new IOException("Eligibility change " + position + " is out of range!");
+                }
+                indicators[position] = !indicators[position];
+            }
+        } else if (length >= 0) {
+            indicators = new boolean[length];
+            for (int start = 0; start < length; start += Byte.SIZE) {
+                int packed = in.readUnsignedByte();
+                for (int bit = 0; bit < Byte.SIZE && start + bit < length; bit++) {
+                    indicators[start + bit] = (packed & (1 << bit)) != 0;
+                }
+            }
+        }
+        return new PassageOrItemEligibilityAtThetaRange(thetaRangeIndex < 0 ? null : thetaRangeIndex, indicators,
+                code == 0 ? null : ExposureControlType.lookup(code));
+    }
+
+    private void writeRates(Map<ThetaRange, Map<String, Double>> rates) throws IOException {
+        writeVarInt(rates == null ? 0 : rates.size() + 1);
+        if (rates != null) {
+            for (Map.Entry<ThetaRange, Map<String, Double>> rangeRates : rates.entrySet()) {
+                out.writeDouble(rangeRates.getKey().getMinThetaInclusive());
+                out.writeDouble(rangeRates.getKey().getMaxThetaExclusive());
+                writeVarInt(rangeRates.getValue().size());
+                for (Map.Entry<String, Double> rate : rangeRates.getValue().entrySet()) {
+                    out.writeUTF(rate.getKey());
+                    out.writeDouble(rate.getValue());
+                }
+            }
+        }
+    }
+
+    private static Map<ThetaRange, Map<String, Double>> readRates(DataInputStream in) throws IOException {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        Map<ThetaRange, Map<String, Double>> rates = new HashMap<>();
+        for (int k = 0; k < size; k++) {
+            ThetaRange thetaRange = new ThetaRange(in.readDouble(), in.readDouble());
+            int rateNum = readVarInt(in);
+            Map<String, Double> rangeRates = new HashMap<>();
+            for (int i = 0; i < rateNum; i++) {
+                rangeRates.put(in.readUTF(), in.readDouble());
+            }
+            rates.put(thetaRange, rangeRates);
+        }
+        return rates;
+    }
+
+    /**
+     * Writes the size of a list, or 0 for {@code null} and the size plus 1
+     * otherwise.
+     *
+     * @param list the list, or {@code null}
+     * @throws IOException if the size cannot be written
+     */
+    private void writeSize(List<?> list) throws IOException {
+        writeVarInt(list == null ? 0 : list.size() + 1);
+    }
+
+    /**
+     * Reads a size written by {@link #writeSize(List)}.
+     *
+     * @param in the input
+     * @return the size, or -1 for {@code null}
+     * @throws IOException if the size cannot be read
+     */
+    private static int readSize(DataInputStream in) throws IOException {
+        return readVarInt(in) - 1;
+    }
+
+    /**
+     * Writes a non-negative integer in 7-bit groups, low group first, where
+     * the high bit of each byte marks a following byte.
+     *
+     * @param value the non-negative value
+     * @throws IOException if the value cannot be written
+     */
+    private void writeVarInt(int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value + " cannot be written!");
+        }
+        int remaining = value;
+        while (remaining >= 0x80) {
+            out.writeByte(remaining & 0x7F | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads an integer written by {@link #writeVarInt(int)}.
+     *
+     * @param in the input
+     * @return the value
+     * @throws IOException if the value cannot be read or is malformed
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer!");
+    }
+}
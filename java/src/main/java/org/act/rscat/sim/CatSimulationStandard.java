@@ -1,32 +1,45 @@
 package org.act.rscat.sim;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.act.rscat.cat.CatConfig;
 import org.act.rscat.cat.CatEngine;
 import org.act.rscat.cat.CatEngineStandard;
 import org.act.rscat.cat.CatInput;
 import org.act.rscat.cat.CatInputStandard;
+import org.act.rscat.cat.EligibilitySampler;
 import org.act.rscat.cat.ExposureControlData;
 import org.act.rscat.cat.ExposureControlFunctions;
 import org.act.rscat.cat.ExposureControlType;
-import org.act.rscat.cat.ExposureItemUsage;
+import org.act.rscat.cat.ExposureUsageCounters;
+import org.act.rscat.cat.ItemPool;
 import org.act.rscat.cat.ItemScores;
 import org.act.rscat.cat.PassageOrItemEligibilityOverall;
 import org.act.rscat.cat.ThetaRange;
 import org.act.rscat.sol.InfeasibleTestConfigException;
-import org.act.rscat.testdef.Item;
+import org.act.rscat.sol.ShadowTestSolverPool;
 import org.act.rscat.testdef.TestConfig;
 import org.act.rscat.util.ProbDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class defines the standard CAT simulation for an individual examinee.
+ * <p>
+ * Examinees can be simulated in parallel and with reproducible random streams,
+ * see {@link SimExecutionConfig}.
  * @see AbstractCatSimulation
  */
 public class CatSimulationStandard extends AbstractCatSimulation {
@@ -36,6 +49,17 @@ public class CatSimulationStandard extends AbstractCatSimulation {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(CatSimulationStandard.class);
 
+    /**
+     * Without exposure control, examinees are independent and are submitted in
+     * batches of this many examinees per thread.
+     */
+    private static final int EXAMINEES_PER_THREAD_WITHOUT_EC = 16;
+
+    /**
+     * The execution settings of the simulation.
+     */
+    private final SimExecutionConfig executionConfig;
+
     /**
      * Constructs a new {@link CatSimulationStandard}
      *
@@ -51,75 +75,239 @@ public class CatSimulationStandard extends AbstractCatSimulation {
      */
     public CatSimulationStandard(String simName, int examineeNum, ProbDistribution thetaDistribution,
             TestConfig testConfig, CatConfig catConfig, Boolean isGenSimResult) {
+        this(simName, examineeNum, thetaDistribution, testConfig, catConfig, isGenSimResult,
+                SimExecutionConfig.SEQUENTIAL);
+    }
+
+    /**
+     * Constructs a new {@link CatSimulationStandard} with the given execution
+     * settings.
+     *
+     * @param simName the simulation name
+     * @param examineeNum the number of simulated examinees
+     * @param thetaDistribution the distribution of true ability of the simulated examinees
+     * @param testConfig the test configuration
+     * @param catConfig the CAT configuration
+     * @param isGenSimResult a boolean value that specifies if simulation results are to be generated or not
+     * @param executionConfig the execution settings of the simulation
+     * @see SimExecutionConfig
+     */
+    public CatSimulationStandard(String simName, int examineeNum, ProbDistribution thetaDistribution,
+            TestConfig testConfig, CatConfig catConfig, Boolean isGenSimResult, SimExecutionConfig executionConfig) {
         super(simName, examineeNum, thetaDistribution, testConfig, catConfig, isGenSimResult);
+        this.executionConfig = executionConfig;
     }
 
     @Override
     public List<SimOutput> runSim() throws IOException, InfeasibleTestConfigException {
+        List<SimOutput> simOutputs = new ArrayList<>();
+        runSim(simOutput -> {
+            if (isGenSimResult()) {
+                simOutputs.add(simOutput);
+            }
+        });
+        return simOutputs;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each result is passed as soon as its exposure control epoch is complete,
+     * so at most one epoch of results is kept in memory.
+     */
+    @Override
+    public void runSim(SimOutputSink sink) throws IOException, InfeasibleTestConfigException {
 
         // Generate examinees' true theta values
+        if (executionConfig.getMasterSeed() != null) {
+            getThetaDistribution().reseedRandomGenerator(executionConfig.getMasterSeed());
+        }
         double[] trueThetas = genTrueThetas();
 
-        // Create CAT engine
-        CatEngine catEngine = CatEngineStandard.INSTANCE;
-        List<SimOutput> simOutputs = new ArrayList<>();
-        Map<ThetaRange, Map<String, ExposureItemUsage>> exposureItemUsageRangeMap = initializeItemUsage();
-
-        // Run simulation for each examinee
-        for (int examineeIndex = 0; examineeIndex < getExamineeNum(); examineeIndex++) {
-            LOGGER.info("Simulation starts for examinee #{}", examineeIndex + 1);
-            double trueTheta = trueThetas[examineeIndex];
-            String studentId = examineeIndex + "";
-            PassageOrItemEligibilityOverall eligibility = ExposureControlFunctions
-                    .buildPassageOrItemEligibilityOverall(getCatConfig(), getTestConfig(), exposureItemUsageRangeMap);
-
-            // Create initial cat input for the examinee
-            CatInput catInput = new CatInputStandard.Builder().catConfig(getCatConfig()).testConfig(getTestConfig())
-                    .completedCount(0).adaptiveStage(0).studentId(studentId).itemsAdmin(new ArrayList<>())
-                    .itemScores(new ItemScores(new int[] {}, new double[] {}))
-                    .administeredPassageIndexSequence(new ArrayList<>()).exposureControlData(new ExposureControlData())
-                    .passageOrItemEligibilityOverall(eligibility).itemsToAdminister(new ArrayList<>())
-                    .shadowTest(new ArrayList<>()).previousTheta(0).previousThetaSe(1).build();
-            AbstractCatSimulationTask studentSimTask = new CatSimulationTaskStandard(studentId, trueTheta, catEngine,
-                    catInput, eligibility);
-            SimOutput simOutput = studentSimTask.runSimTask(isGenSimResult());
-            int itemIdColIndex = getTestConfig().getItemPoolTable().columnIndex(Item.ColumnName.ITEM_ID.getColName());
-            List<String> itemIds = getTestConfig().getItemPoolTable().columns().get(itemIdColIndex);
-            if (getCatConfig().exposureControlConfig().getType().equals(ExposureControlType.ITEM)) {
-                // Update item usage after each simulated examinee
-                ExposureControlFunctions.updateItemUsage(exposureItemUsageRangeMap,
-                        simOutput.getPassageOrItemEligibilityAtThetaRangeList()
-                                .get(simOutput.getPassageOrItemEligibilityAtThetaRangeList().size() - 2),
-                        simOutput.getItemsAdministered(), itemIds);
-
-                if (examineeIndex == getExamineeNum() - 1) {
-                    Map<ThetaRange, Map<String, Double>> itemExposureRates = SimulationFunctions
-                            .calItemExposureRates(exposureItemUsageRangeMap, getExamineeNum());
-                    simOutput.setItemExposureRates(itemExposureRates);
+        ItemPool itemPool = ItemPool.forTestConfig(getTestConfig());
+        ExposureControlType exposureType = getCatConfig().exposureControlConfig().getType();
+        boolean passageExposureControl = exposureType.equals(ExposureControlType.PASSAGE);
+        boolean exposureControl = exposureType.equals(ExposureControlType.ITEM) || passageExposureControl;
+        List<ThetaRange> thetaRanges = null;
+        ExposureUsageCounters usageCounters = null;
+        EligibilitySampler eligibilitySampler = null;
+        if (exposureControl) {
+            // Exposure is counted and controlled at each theta range, with one
+            // counter per passage or per item
+            thetaRanges = getCatConfig().exposureControlConfig().getThetaRanges();
+            int entityNum = passageExposureControl ? itemPool.getPassageNum() : itemPool.getItemNum();
+            usageCounters = new ExposureUsageCounters(thetaRanges.size(), entityNum,
+                    executionConfig.getParallelism());
+            eligibilitySampler = new EligibilitySampler(exposureType, thetaRanges,
+                    getCatConfig().exposureControlConfig().getrMax(), entityNum);
+        }
+
+        // Examinees of an epoch share the same exposure data; without exposure
+        // control the epochs only bound the number of pending examinees
+        int parallelism = executionConfig.getParallelism();
+        int epochSize = exposureControl ? executionConfig.getExposureEpochSize()
+                : Math.max(executionConfig.getExposureEpochSize(), parallelism * EXAMINEES_PER_THREAD_WITHOUT_EC);
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        ShadowTestSolverPool.ensureMaxIdle(getTestConfig(), parallelism);
+        try {
+            for (int epochStart = 0; epochStart < getExamineeNum(); epochStart += epochSize) {
+                int epochEnd = Math.min(getExamineeNum(), epochStart + epochSize);
+                if (eligibilitySampler != null) {
+                    eligibilitySampler.refresh(usageCounters);
+                }
+                List<SimOutput> epochOutputs = runEpoch(executor, trueThetas, eligibilitySampler, usageCounters,
+                        epochStart, epochEnd);
+
+                // Merge the epoch in examinee order
+                for (int examineeIndex = epochStart; examineeIndex < epochEnd; examineeIndex++) {
+                    SimOutput simOutput = epochOutputs.get(examineeIndex - epochStart);
+                    if (exposureControl && examineeIndex == getExamineeNum() - 1) {
+                        if (passageExposureControl) {
+                            simOutput.setPassageExposureRates(SimulationFunctions.calPassageExposureRates(
+                                    usageCounters, thetaRanges,
+                                    Arrays.asList(itemPool.getPassageIdsFromPassageTable()), getExamineeNum()));
+                        } else {
+                            Map<ThetaRange, Map<String, Double>> itemExposureRates = SimulationFunctions
+                                    .calItemExposureRates(usageCounters, thetaRanges, itemPool.getItemIdList(),
+                                            getExamineeNum());
+                            simOutput.setItemExposureRates(itemExposureRates);
+                        }
+                    }
+                    sink.accept(simOutput);
                 }
             }
-            if (isGenSimResult()) {
-                simOutputs.add(simOutput);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
             }
-            LOGGER.info("Simulation ends for examinee #{}", examineeIndex + 1);
+            ShadowTestSolverPool.restoreMaxIdle(getTestConfig(), parallelism);
+        }
+    }
 
+    /**
+     * Simulates the examinees of an epoch, in parallel if an executor is given.
+     *
+     * @param executor the executor running the examinees, or {@code null} to
+     *            run them in the calling thread
+     * @param trueThetas the true theta values of all examinees
+     * @param eligibilitySampler the eligibility sampler refreshed from the
+     *            passage or item usage of the previous epochs, or
+     *            {@code null} without exposure control
+     * @param usageCounters the passage or item usage updated by the
+     *            examinees, or {@code null} without exposure control
+     * @param epochStart the index of the first examinee of the epoch
+     * @param epochEnd the index after the last examinee of the epoch
+     * @return the simulation outputs of the epoch in examinee order
+     * @throws IOException if there is an IO error
+     * @throws InfeasibleTestConfigException if the test configuration is
+     *             infeasible
+     */
+    private List<SimOutput> runEpoch(ExecutorService executor, double[] trueThetas,
+            EligibilitySampler eligibilitySampler, ExposureUsageCounters usageCounters, int epochStart,
+            int epochEnd)
+            throws IOException, InfeasibleTestConfigException {
+        List<SimOutput> epochOutputs = new ArrayList<>(epochEnd - epochStart);
+        if (executor == null) {
+            for (int examineeIndex = epochStart; examineeIndex < epochEnd; examineeIndex++) {
+                epochOutputs.add(runExaminee(examineeIndex, trueThetas[examineeIndex], eligibilitySampler,
+                        usageCounters));
+            }
+            return epochOutputs;
         }
-        return simOutputs;
+
+        List<Future<SimOutput>> futures = new ArrayList<>(epochEnd - epochStart);
+        for (int examineeIndex = epochStart; examineeIndex < epochEnd; examineeIndex++) {
+            int index = examineeIndex;
+            futures.add(executor.submit(() -> runExaminee(index, trueThetas[index], eligibilitySampler,
+                    usageCounters)));
+        }
+        try {
+            for (Future<SimOutput> future : futures) {
+                epochOutputs.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The simulation was interrupted!");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InfeasibleTestConfigException) {
+                throw (InfeasibleTestConfigException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("The simulation failed!", cause);
+        } finally {
+            for (Future<SimOutput> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return epochOutputs;
     }
 
-    private Map<ThetaRange, Map<String, ExposureItemUsage>> initializeItemUsage() {
-
-        // Initialize exposureItemUsageMap
-        Map<ThetaRange, Map<String, ExposureItemUsage>> exposureItemUsageRangeMap = new HashMap<>();
-        ThetaRange thetaRange = new ThetaRange(ExposureControlFunctions.EC_THETA_MIN,
-                ExposureControlFunctions.EC_THETA_MAX);
-        int itemIdColIndex = getTestConfig().getItemPoolTable().columnIndex(Item.ColumnName.ITEM_ID.getColName());
-        List<String> itemIds = getTestConfig().getItemPoolTable().columns().get(itemIdColIndex);
-        Map<String, ExposureItemUsage> exposureItemUsageMap = new HashMap<>();
-        for (String itemId : itemIds) {
-            exposureItemUsageMap.put(itemId, new ExposureItemUsage(itemId, thetaRange, 0, 0));
+    /**
+     * Simulates one examinee with its own CAT session and, for a seeded
+     * simulation, its own random stream.
+     *
+     * @param examineeIndex the index of the examinee
+     * @param trueTheta the true theta value of the examinee
+     * @param eligibilitySampler the eligibility sampler the eligibility is
+     *            drawn from, or {@code null} without exposure control
+     * @param usageCounters the passage or item usage updated with the
+     *            examinee, or {@code null} without exposure control
+     * @return the simulation output of the examinee
+     * @throws IOException if there is an IO error
+     * @throws InfeasibleTestConfigException if the test configuration is
+     *             infeasible
+     */
+    private SimOutput runExaminee(int examineeIndex, double trueTheta,
+            EligibilitySampler eligibilitySampler, ExposureUsageCounters usageCounters)
+            throws IOException, InfeasibleTestConfigException {
+        LOGGER.info("Simulation starts for examinee #{}", examineeIndex + 1);
+        String studentId = examineeIndex + "";
+        RandomGenerator randomGenerator = null;
+        SplittableRandom eligibilityRandom;
+        if (executionConfig.getMasterSeed() == null) {
+            eligibilityRandom = new SplittableRandom();
+        } else {
+            long seed = SimulationFunctions.deriveSeed(executionConfig.getMasterSeed(), examineeIndex);
+            randomGenerator = new Well19937c(seed);
+            eligibilityRandom = new SplittableRandom(seed);
+        }
+        PassageOrItemEligibilityOverall eligibility = ExposureControlFunctions
+                .buildPassageOrItemEligibilityOverall(getCatConfig(), eligibilitySampler, eligibilityRandom);
+
+        // Create initial cat input for the examinee
+        CatInput catInput = new CatInputStandard.Builder().catConfig(getCatConfig()).testConfig(getTestConfig())
+                .completedCount(0).adaptiveStage(0).studentId(studentId).itemsAdmin(new ArrayList<>())
+                .itemScores(new ItemScores(new int[] {}, new double[] {}))
+                .administeredPassageIndexSequence(new ArrayList<>()).exposureControlData(new ExposureControlData())
+                .passageOrItemEligibilityOverall(eligibility).itemsToAdminister(new ArrayList<>())
+                .shadowTest(new ArrayList<>()).previousTheta(0).previousThetaSe(1).build();
+
+        // Each examinee is served by its own CAT session
+        CatEngine catEngine = CatEngineStandard.INSTANCE.newSession(studentId, randomGenerator);
+        AbstractCatSimulationTask studentSimTask = new CatSimulationTaskStandard(studentId, trueTheta, catEngine,
+                catInput, eligibility, randomGenerator);
+        SimOutput simOutput = studentSimTask.runSimTask(isGenSimResult());
+
+        // The usage counts are sums, so the examinees of an epoch update them
+        // in any order; the sampler only reads them before the next epoch
+        if (usageCounters != null) {
+            ItemPool itemPool = ItemPool.forTestConfig(getTestConfig());
+            int[] itemsAdministeredIndices = itemPool.getItemIndices(simOutput.getItemsAdministered());
+            if (eligibility.getExposureType() == ExposureControlType.PASSAGE) {
+                ExposureControlFunctions.updatePassageUsage(usageCounters, eligibility, itemsAdministeredIndices,
+                        simOutput.getItemThetaIntervals(), itemPool.getItemPassageIndices());
+            } else {
+                ExposureControlFunctions.updateItemUsage(usageCounters, eligibility, itemsAdministeredIndices,
+                        simOutput.getItemThetaIntervals());
+            }
         }
-        exposureItemUsageRangeMap.put(thetaRange, exposureItemUsageMap);
-        return exposureItemUsageRangeMap;
+        LOGGER.info("Simulation ends for examinee #{}", examineeIndex + 1);
+        return simOutput;
     }
 }
@@ -2,6 +2,7 @@ package org.act.rscat.sim;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -9,18 +10,21 @@ import org.act.rscat.cat.CatEngine;
 import org.act.rscat.cat.CatHelper;
 import org.act.rscat.cat.CatInput;
 import org.act.rscat.cat.CatOutput;
+import org.act.rscat.cat.ItemPool;
 import org.act.rscat.cat.ItemScores;
 import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
 import org.act.rscat.cat.PassageOrItemEligibilityOverall;
 import org.act.rscat.cat.ThetaEst;
 import org.act.rscat.sol.InfeasibleTestConfigException;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.random.RandomGenerator;
 
 /**
  * This class defines the standard CAT simulation for an individual examinee.
  */
 public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
     private PassageOrItemEligibilityOverall eligibility;
+    private final RandomGenerator randomGenerator;
 
     /**
      * Constructs a new {@link CatSimulationTaskStandard}.
@@ -33,8 +37,26 @@ public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
      */
     public CatSimulationTaskStandard(String studentId, double trueTheta, CatEngine engine, CatInput catInput,
             PassageOrItemEligibilityOverall eligibility) {
+        this(studentId, trueTheta, engine, catInput, eligibility, null);
+    }
+
+    /**
+     * Constructs a new {@link CatSimulationTaskStandard} whose simulated
+     * responses are drawn from the given random generator.
+     *
+     * @param studentId the identifier of the simulated examinee
+     * @param trueTheta the true ability value of the simulated examinee
+     * @param engine the CAT engine used for the CAT simulation
+     * @param catInput the initial CAT input
+     * @param eligibility the eligibility of items or passages
+     * @param randomGenerator the random generator for simulated responses, or
+     *            {@code null} to use an unseeded generator
+     */
+    public CatSimulationTaskStandard(String studentId, double trueTheta, CatEngine engine, CatInput catInput,
+            PassageOrItemEligibilityOverall eligibility, RandomGenerator randomGenerator) {
         super(studentId, trueTheta, engine, catInput);
         this.eligibility = eligibility;
+        this.randomGenerator = randomGenerator;
     }
 
     /**
@@ -42,8 +64,8 @@ public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
      */
     @Override
     public SimOutput runSimTask(boolean generateOutput) throws IOException, InfeasibleTestConfigException {
-        List<String> itemIds = getCatInput().getItemIds();
-        RealMatrix itemPoolParams = CatHelper.getItemParams(getCatInput().getItemPoolDataSet());
+        ItemPool itemPool = ItemPool.forTestConfig(getCatInput().getTestConfig());
+        RealMatrix itemPoolParams = itemPool.getItemPar();
         Map<String, Integer> itemToPassageIndexMap = SimulationFunctions.getItemIdToPassageIndexMap(
                 getCatInput().getTestConfig().getItemPoolTable(), getCatInput().getTestConfig().getPassageTable());
 
@@ -51,11 +73,12 @@ public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
         List<String> itemsToAdminThisStage = null;
 
         int testLength = getCatInput().getTestConfig().getTestLength();
-        List<PassageOrItemEligibilityAtThetaRange> passageOrItemEligibilityAtThetaRangeList = new ArrayList<>(
-                getCatInput().getTestConfig().getItemPoolTable().rowCount());
-        List<List<String>> shadowTestList = new ArrayList<>(testLength);
+        List<PassageOrItemEligibilityAtThetaRange> passageOrItemEligibilityAtThetaRangeList = new EligibilityAuditList();
+        List<List<String>> shadowTestList = new ShadowTestAuditList(itemPool);
         List<ThetaEst> thetaEstList = new ArrayList<>(testLength);
         List<String> itemsAdministered;
+        int[] itemThetaIntervals = new int[testLength];
+        int itemCount = 0;
         List<Double> catEngineTimeList = new ArrayList<>();
         List<List<Integer>> passageRowIndexSequences = new ArrayList<>();
         List<Integer> adaptiveStageList = new ArrayList<>();
@@ -67,14 +90,29 @@ public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
             // Get items to administer
             itemsToAdminThisStage = catOutput.getItemsToAdminister().getItemsToAdmin();
 
+            // Record the exposure control theta range of the items
+            Integer thetaRangeIndex = catOutput.getPassageOrItemEligibilityAtThetaRange().getThetaRangeIndex();
+            if (itemCount + itemsToAdminThisStage.size() > itemThetaIntervals.length) {
+                itemThetaIntervals = Arrays.copyOf(itemThetaIntervals,
+                        Math.max(2 * itemThetaIntervals.length, itemCount + itemsToAdminThisStage.size()));
+            }
+            for (int j = 0; j < itemsToAdminThisStage.size(); j++) {
+                itemThetaIntervals[itemCount++] = thetaRangeIndex == null ? 0 : thetaRangeIndex;
+            }
+
             if (!itemsToAdminThisStage.isEmpty()) {
                 RealMatrix itemParamsForScoring;
                 // Item param subset for items to be administered.
-                itemParamsForScoring = CatHelper.getItemParamsForScoring(itemIds, itemsToAdminThisStage,
-                        itemPoolParams);
+                itemParamsForScoring = itemPoolParams.getSubMatrix(itemPool.getItemIndices(itemsToAdminThisStage),
+                        new int[] { 0, 1, 2, 3 });
 
                 // Simulate student response.
-                itemScoresList.add(SimulationFunctions.simItemScores(itemParamsForScoring, getTrueTheta()));
+                if (randomGenerator == null) {
+                    itemScoresList.add(SimulationFunctions.simItemScores(itemParamsForScoring, getTrueTheta()));
+                } else {
+                    itemScoresList.add(SimulationFunctions.simItemScores(itemParamsForScoring, getTrueTheta(),
+                            randomGenerator));
+                }
             }
 
             // Record audit data.
@@ -111,6 +149,7 @@ public class CatSimulationTaskStandard extends AbstractCatSimulationTask {
                 .catEngineTimeList(catEngineTimeList).finalTheta(finalThetaEst)
                 .initTheta(getCatInput().getCatConfig().initTheta())
                 .itemEligibilityList(passageOrItemEligibilityAtThetaRangeList).itemsAdministered(itemsAdministered)
+                .itemThetaIntervals(Arrays.copyOf(itemThetaIntervals, itemCount))
                 .itemScoresList(itemScoresList).passageRowIndexSequences(passageRowIndexSequences)
                 .shadowTestList(shadowTestList).thetaEstList(thetaEstList).build();
     }
@@ -0,0 +1,230 @@
+package org.act.rscat.sim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.act.rscat.cat.ItemScores;
+import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
+import org.act.rscat.cat.ThetaEst;
+import org.act.rscat.util.CsvUtils;
+
+/**
+ * Writes the simulation output of each examinee to CSV files as soon as the
+ * examinee is complete.
+ * <p>
+ * The examinee file has one row per examinee with the true, initial and final
+ * theta values, the administered items, their scores and the exposure control
+ * theta range index at which each item was selected. The optional stage file
+ * has one row per examinee and adaptive stage with the theta estimate, the CAT
+ * engine time, the theta range index, the number of eligible passages or items,
+ * the shadow test and the administered passage sequence; it is written for
+ * simulations generating the detailed results only. Multiple values in a cell
+ * are separated by {@value #VALUE_SEPARATOR}. The exposure rates are not
+ * written.
+ */
+public final class CsvSimOutputSink implements SimOutputSink {
+
+    /**
+     * The separator of multiple values in a cell.
+     */
+    public static final String VALUE_SEPARATOR = "|";
+
+    /**
+     * The column names of the examinee file.
+     */
+    private static final List<String> EXAMINEE_COLUMNS = Arrays.asList("examinee_id", "true_theta", "init_theta",
+            "final_theta", "final_se", "items_administered", "item_scores", "item_theta_intervals");
+
+    /**
+     * The column names of the stage file.
+     */
+    private static final List<String> STAGE_COLUMNS = Arrays.asList("examinee_id", "adaptive_stage", "theta", "se",
+            "cat_engine_time", "theta_range_index", "eligible_num", "shadow_test", "passage_sequence");
+
+    /**
+     * The writer of the examinee file.
+     */
+    private final Writer examineeWriter;
+
+    /**
+     * The writer of the stage file, or {@code null} if the stage rows are
+     * skipped.
+     */
+    private final Writer stageWriter;
+
+    /**
+     * The values of the row being written, reused across rows.
+     */
+    private final List<String> row = new ArrayList<>();
+
+    /**
+     * Constructs a new {@link CsvSimOutputSink} writing the examinee rows
+     * only.
+     *
+     * @param examineeFile the examinee file, which is replaced
+     * @throws IOException if the file cannot be created
+     */
+    public CsvSimOutputSink(Path examineeFile) throws IOException {
+        this(examineeFile, null);
+    }
+
+    /**
+     * Constructs a new {@link CsvSimOutputSink}.
+     *
+     * @param examineeFile the examinee file, which is replaced
+     * @param stageFile the stage file, which is replaced, or {@code null} to
+     *            skip the stage rows
+     * @throws IOException if a file cannot be created
+     */
+    public CsvSimOutputSink(Path examineeFile, Path stageFile) throws IOException {
+        examineeWriter = Files.newBufferedWriter(examineeFile, StandardCharsets.UTF_8);
+        try {
+            stageWriter = stageFile == null ? null : Files.newBufferedWriter(stageFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            examineeWriter.close();
+            throw e;
+        }
+        writeRow(examineeWriter, EXAMINEE_COLUMNS);
+        if (stageWriter != null) {
+            writeRow(stageWriter, STAGE_COLUMNS);
+        }
+    }
+
+    @Override
+    public void accept(SimOutput simOutput) throws IOException {
+        String examineeId = simOutput.getexamineeId();
+        ThetaEst finalTheta = simOutput.getFinalTheta();
+        row.clear();
+        row.add(examineeId);
+        row.add(Double.toString(simOutput.getTrueTheta()));
+        row.add(Double.toString(simOutput.getInitTheta()));
+        row.add(finalTheta == null ? "" : Double.toString(finalTheta.getTheta()));
+        row.add(finalTheta == null ? "" : Double.toString(finalTheta.getSe()));
+        row.add(join(simOutput.getItemsAdministered()));
+        row.add(joinScores(simOutput.getItemScoresList()));
+        row.add(join(simOutput.getItemThetaIntervals()));
+        writeRow(examineeWriter, row);
+        examineeWriter.flush();
+
+        List<Integer> stages = simOutput.getAdaptiveStageList();
+        if (stageWriter == null || stages == null) {
+            return;
+        }
+        for (int s = 0; s < stages.size(); s++) {
+            ThetaEst thetaEst = get(simOutput.getThetaEstList(), s);
+            PassageOrItemEligibilityAtThetaRange eligibility = get(
+                    simOutput.getPassageOrItemEligibilityAtThetaRangeList(), s);
+            Double catEngineTime = get(simOutput.getCatEngineTimeList(), s);
+            row.clear();
+            row.add(examineeId);
+            row.add(Integer.toString(stages.get(s)));
+            row.add(thetaEst == null ? "" : Double.toString(thetaEst.getTheta()));
+            row.add(thetaEst == null ? "" : Double.toString(thetaEst.getSe()));
+            row.add(catEngineTime == null ? "" : catEngineTime.toString());
+            row.add(eligibility == null || eligibility.getThetaRangeIndex() == null ? ""
+                    : eligibility.getThetaRangeIndex().toString());
+            row.add(eligibility == null || eligibility.getEligibilityIndicators() == null ? ""
+                    : Integer.toString(countTrue(eligibility.getEligibilityIndicators())));
+            row.add(join(get(simOutput.getShadowTestList(), s)));
+            row.add(join(get(simOutput.getPassageRowIndexSequences(), s)));
+            writeRow(stageWriter, row);
+        }
+        stageWriter.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            examineeWriter.close();
+        } finally {
+            if (stageWriter != null) {
+                stageWriter.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a CSV row.
+     *
+     * @param writer the destination
+     * @param values the values of the row
+     * @throws IOException if the row cannot be written
+     */
+    private static void writeRow(Writer writer, List<String> values) throws IOException {
+        writer.write(CsvUtils.format(values));
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Returns an element of a per-stage list.
+     *
+     * @param <T> the element type
+     * @param list the per-stage list, or {@code null}
+     * @param index the stage position
+     * @return the element, or {@code null} if there is none
+     */
+    private static <T> T get(List<T> list, int index) {
+        return list == null || index >= list.size() ? null : list.get(index);
+    }
+
+    private static String join(List<?> values) {
+        if (values == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            if (sb.length() > 0) {
+                sb.append(VALUE_SEPARATOR);
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    private static String join(int[] values) {
+        if (values == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(VALUE_SEPARATOR);
+            }
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String joinScores(List<ItemScores> itemScoresList) {
+        if (itemScoresList == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ItemScores itemScores : itemScoresList) {
+            for (int score : itemScores.getItemScores()) {
+                if (sb.length() > 0) {
+                    sb.append(VALUE_SEPARATOR);
+                }
+                sb.append(score);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int countTrue(boolean[] values) {
+        int count = 0;
+        for (boolean value : values) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,166 @@
+package org.act.rscat.sim;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
+
+/**
+ * An append-only list of the passage or item eligibility of the adaptive
+ * stages of an examinee, stored compactly.
+ * <p>
+ * Consecutive stages differ in a few eligibility indicators only. The
+ * indicators of every {@value #KEY_STAGE_INTERVAL}th stage, and of a stage
+ * whose number of indicators differs from the previous stage, are stored as a
+ * bit set; the indicators of the other stages are stored as the positions that
+ * changed since the previous stage. Added elements are copied, and
+ * {@link #get(int)} decodes a new {@link PassageOrItemEligibilityAtThetaRange}
+ * on each call.
+ */
+public final class EligibilityAuditList extends AbstractList<PassageOrItemEligibilityAtThetaRange> {
+
+    /**
+     * The number of stages between two stages stored as a bit set.
+     */
+    private static final int KEY_STAGE_INTERVAL = 16;
+
+    /**
+     * The changed positions of a stage equal to the previous stage.
+     */
+    private static final int[] NO_CHANGES = new int[0];
+
+    /**
+     * The length of a stage without eligibility.
+     */
+    private static final int NO_ELIGIBILITY = -2;
+
+    /**
+     * The length of a stage without eligibility indicators.
+     */
+    private static final int NO_INDICATORS = -1;
+
+    /**
+     * The eligibility of the key stages as bit sets, {@code null} for the
+     * other stages.
+     */
+    private final List<long[]> keyBits = new ArrayList<>();
+
+    /**
+     * The changed positions of the other stages, {@code null} for the key
+     * stages.
+     */
+    private final List<int[]> changes = new ArrayList<>();
+
+    /**
+     * The theta range index of each stage.
+     */
+    private final List<Integer> thetaRangeIndices = new ArrayList<>();
+
+    /**
+     * The exposure control type of each stage.
+     */
+    private final List<ExposureControlType> exposureTypes = new ArrayList<>();
+
+    /**
+     * The number of indicators of each stage, or {@link #NO_INDICATORS} or
+     * {@link #NO_ELIGIBILITY}.
+     */
+    private int[] lengths = new int[KEY_STAGE_INTERVAL];
+
+    /**
+     * The number of stages.
+     */
+    private int size;
+
+    /**
+     * The indicators of the last added stage, or {@code null} if it has none.
+     */
+    private BitSet last;
+
+    /**
+     * Appends the eligibility of the next stage.
+     *
+     * @param eligibility the eligibility, or {@code null}
+     * @return true
+     */
+    @Override
+    public boolean add(PassageOrItemEligibilityAtThetaRange eligibility) {
+        int stage = size++;
+        modCount++;
+        if (stage == lengths.length) {
+            lengths = Arrays.copyOf(lengths, 2 * lengths.length);
+        }
+        boolean[] indicators = eligibility == null ? null : eligibility.getEligibilityIndicators();
+        thetaRangeIndices.add(eligibility == null ? null : eligibility.getThetaRangeIndex());
+        exposureTypes.add(eligibility == null ? null : eligibility.getExposureType());
+        if (indicators == null) {
+            lengths[stage] = eligibility == null ? NO_ELIGIBILITY : NO_INDICATORS;
+            keyBits.add(null);
+            changes.add(null);
+            last = null;
+            return true;
+        }
+        BitSet bits = toBitSet(indicators);
+        lengths[stage] = indicators.length;
+        if (stage % KEY_STAGE_INTERVAL == 0 || last == null || lengths[stage - 1] != indicators.length) {
+            keyBits.add(bits.toLongArray());
+            changes.add(null);
+        } else {
+            BitSet changed = (BitSet) bits.clone();
+            changed.xor(last);
+            keyBits.add(null);
+            changes.add(changed.isEmpty() ? NO_CHANGES : changed.stream().toArray());
+        }
+        last = bits;
+        return true;
+    }
+
+    @Override
+    public PassageOrItemEligibilityAtThetaRange get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Stage " + index + " is out of range!");
+        }
+        if (lengths[index] == NO_ELIGIBILITY) {
+            return null;
+        }
+        boolean[] indicators = null;
+        if (lengths[index] != NO_INDICATORS) {
+            // Decode from the closest key stage
+            int key = index;
+            while (keyBits.get(key) == null) {
+                key--;
+            }
+            BitSet bits = BitSet.valueOf(keyBits.get(key));
+            for (int stage = key + 1; stage <= index; stage++) {
+                for (int position : changes.get(stage)) {
+                    bits.flip(position);
+                }
+            }
+            indicators = new boolean[lengths[index]];
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                indicators[i] = true;
+            }
+        }
+        return new PassageOrItemEligibilityAtThetaRange(thetaRangeIndices.get(index), indicators,
+                exposureTypes.get(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static BitSet toBitSet(boolean[] indicators) {
+        BitSet bits = new BitSet(indicators.length);
+        for (int i = 0; i < indicators.length; i++) {
+            if (indicators[i]) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+}
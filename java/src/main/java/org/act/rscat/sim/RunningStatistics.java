@@ -0,0 +1,100 @@
+package org.act.rscat.sim;
+
+/**
+ * Accumulates the count, mean, variance and range of a stream of values in
+ * constant memory, using Welford's updates.
+ */
+public final class RunningStatistics {
+
+    private long count;
+    private double mean;
+    private double sumSquaredDeviations;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumSquaredDeviations += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values.
+     *
+     * @return the mean, or NaN if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the sample variance of the values.
+     *
+     * @return the sample variance, or NaN if there are fewer than 2 values
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : sumSquaredDeviations / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values.
+     *
+     * @return the sample standard deviation, or NaN if there are fewer than 2
+     *         values
+     */
+    public double getSd() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the square root of the mean of the squared values.
+     *
+     * @return the root mean square, or NaN if there are no values
+     */
+    public double getRootMeanSquare() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return Math.sqrt(mean * mean + sumSquaredDeviations / count);
+    }
+
+    /**
+     * Returns the smallest value.
+     *
+     * @return the smallest value, or NaN if there are no values
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value.
+     *
+     * @return the largest value, or NaN if there are no values
+     */
+    public double getMax() {
+        return max;
+    }
+}
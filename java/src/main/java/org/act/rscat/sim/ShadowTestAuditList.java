@@ -0,0 +1,212 @@
+package org.act.rscat.sim;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.act.rscat.cat.ItemPool;
+
+/**
+ * An append-only list of the shadow tests of the adaptive stages of an
+ * examinee, stored compactly.
+ * <p>
+ * Items are stored as their item pool row indices. Consecutive shadow tests
+ * share most of their items. The shadow test of every
+ * {@value #KEY_STAGE_INTERVAL}th stage is stored as its row indices; the other
+ * shadow tests are stored as runs copied from the shadow test of the previous
+ * stage and the row indices of the items not in such a run, so that the order
+ * of the items is kept. {@link #get(int)} decodes a new unmodifiable list of
+ * item identifiers on each call.
+ */
+public final class ShadowTestAuditList extends AbstractList<List<String>> {
+
+    /**
+     * The number of stages between two shadow tests stored as row indices.
+     */
+    private static final int KEY_STAGE_INTERVAL = 16;
+
+    /**
+     * The item pool whose row indices identify the items.
+     */
+    private final ItemPool itemPool;
+
+    /**
+     * The row indices of the key stages, {@code null} for the other stages.
+     */
+    private final List<int[]> keyIndices = new ArrayList<>();
+
+    /**
+     * The encoded shadow tests of the other stages, {@code null} for the key
+     * stages. A non-negative value is the row index of an item; a negative
+     * value {@code -(p + 1)} followed by a length copies that many items from
+     * position {@code p} of the previous shadow test.
+     */
+    private final List<int[]> changes = new ArrayList<>();
+
+    /**
+     * The shadow test lengths, or -1 for stages without a shadow test.
+     */
+    private int[] lengths = new int[KEY_STAGE_INTERVAL];
+
+    /**
+     * The number of stages.
+     */
+    private int size;
+
+    /**
+     * The row indices of the last added shadow test, or {@code null} if the
+     * stage has none.
+     */
+    private int[] last;
+
+    /**
+     * Constructs a new {@link ShadowTestAuditList}.
+     *
+     * @param itemPool the item pool of the shadow tests
+     */
+    public ShadowTestAuditList(ItemPool itemPool) {
+        this.itemPool = itemPool;
+    }
+
+    /**
+     * Appends the shadow test of the next stage.
+     *
+     * @param shadowTest the item identifiers of the shadow test, or
+     *            {@code null}
+     * @return true
+     * @throws IllegalArgumentException if an item is not in the item pool
+     */
+    @Override
+    public boolean add(List<String> shadowTest) {
+        int stage = size;
+        if (stage == lengths.length) {
+            lengths = Arrays.copyOf(lengths, 2 * lengths.length);
+        }
+        if (shadowTest == null) {
+            lengths[stage] = -1;
+            keyIndices.add(null);
+            changes.add(null);
+            last = null;
+        } else {
+            int[] indices = new int[shadowTest.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = itemPool.getItemIndex(shadowTest.get(i));
+                if (indices[i] < 0) {
+                    throw new IllegalArgumentException("Item " + shadowTest.get(i) + " is not in the item pool!");
+                }
+            }
+            lengths[stage] = indices.length;
+            if (stage % KEY_STAGE_INTERVAL == 0 || last == null) {
+                keyIndices.add(indices);
+                changes.add(null);
+            } else {
+                keyIndices.add(null);
+                changes.add(encode(last, indices));
+            }
+            last = indices;
+        }
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public List<String> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Stage " + index + " is out of range!");
+        }
+        if (lengths[index] < 0) {
+            return null;
+        }
+
+        // Decode from the closest key stage
+        int key = index;
+        while (keyIndices.get(key) == null) {
+            key--;
+        }
+        int[] indices = keyIndices.get(key);
+        for (int stage = key + 1; stage <= index; stage++) {
+            indices = decode(indices, changes.get(stage), lengths[stage]);
+        }
+        String[] itemIds = itemPool.getItemIds();
+        String[] shadowTest = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            shadowTest[i] = itemIds[indices[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(shadowTest));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Encodes a shadow test as runs of the previous shadow test and row
+     * indices.
+     *
+     * @param previous the row indices of the previous shadow test
+     * @param current the row indices of the shadow test
+     * @return the encoded shadow test
+     */
+    private static int[] encode(int[] previous, int[] current) {
+        Map<Integer, Integer> previousPositions = new HashMap<>(2 * previous.length);
+        for (int p = 0; p < previous.length; p++) {
+            previousPositions.put(previous[p], p);
+        }
+        int[] encoded = new int[current.length];
+        int count = 0;
+        int i = 0;
+        while (i < current.length) {
+            Integer p = previousPositions.get(current[i]);
+            int length = 0;
+            if (p != null) {
+                while (i + length < current.length && p + length < previous.length
+                        && current[i + length] == previous[p + length]) {
+                    length++;
+                }
+            }
+            if (length >= 2) {
+                if (count + 2 > encoded.length) {
+                    encoded = Arrays.copyOf(encoded, 2 * encoded.length);
+                }
+                encoded[count++] = -(p + 1);
+                encoded[count++] = length;
+                i += length;
+            } else {
+                if (count == encoded.length) {
+                    encoded = Arrays.copyOf(encoded, 2 * encoded.length);
+                }
+                encoded[count++] = current[i++];
+            }
+        }
+        return Arrays.copyOf(encoded, count);
+    }
+
+    /**
+     * Decodes a shadow test encoded by {@link #encode(int[], int[])}.
+     *
+     * @param previous the row indices of the previous shadow test
+     * @param encoded the encoded shadow test
+     * @param length the length of the shadow test
+     * @return the row indices of the shadow test
+     */
+    private static int[] decode(int[] previous, int[] encoded, int length) {
+        int[] current = new int[length];
+        int count = 0;
+        for (int e = 0; e < encoded.length; e++) {
+            if (encoded[e] >= 0) {
+                current[count++] = encoded[e];
+            } else {
+                int runLength = encoded[++e];
+                System.arraycopy(previous, -encoded[e - 1] - 1, current, count, runLength);
+                count += runLength;
+            }
+        }
+        return current;
+    }
+}
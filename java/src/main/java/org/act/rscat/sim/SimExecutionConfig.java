@@ -0,0 +1,132 @@
+package org.act.rscat.sim;
+
+/**
+ * This class defines how a CAT simulation is executed: the number of examinees
+ * simulated in parallel, the master seed of the random streams and the size of
+ * the exposure control epochs.
+ * <p>
+ * When a master seed is set, every examinee draws from its own random stream
+ * derived from the master seed and the examinee index, so the results do not
+ * depend on the number of threads.
+ * <p>
+ * With item or passage exposure control, examinees are simulated in epochs of
+ * {@link #getExposureEpochSize()} examinees. All examinees of an epoch draw
+ * their eligibility from the item usage accumulated by the previous epochs, and
+ * the usage of an epoch is merged in examinee order once the whole epoch is
+ * complete. An epoch size of 1 reproduces the sequential exposure control
+ * algorithm exactly; larger epochs let examinees run in parallel at the cost of
+ * updating the exposure statistics less often.
+ */
+public final class SimExecutionConfig {
+
+    /**
+     * The configuration of a sequential, unseeded simulation.
+     */
+    public static final SimExecutionConfig SEQUENTIAL = new Builder().build();
+
+    /**
+     * The number of examinees simulated in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * The master seed, or {@code null} if the simulation is not seeded.
+     */
+    private final Long masterSeed;
+
+    /**
+     * The number of examinees per exposure control epoch.
+     */
+    private final int exposureEpochSize;
+
+    private SimExecutionConfig(Builder builder) {
+        this.parallelism = builder.parallelism;
+        this.masterSeed = builder.masterSeed;
+        this.exposureEpochSize = builder.exposureEpochSize;
+    }
+
+    /**
+     * Returns the number of examinees simulated in parallel.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the master seed of the simulation.
+     *
+     * @return the master seed, or {@code null} if the simulation is not seeded
+     */
+    public Long getMasterSeed() {
+        return masterSeed;
+    }
+
+    /**
+     * Returns the number of examinees per exposure control epoch.
+     *
+     * @return the exposure control epoch size
+     */
+    public int getExposureEpochSize() {
+        return exposureEpochSize;
+    }
+
+    /**
+     * The builder class for {@link SimExecutionConfig}.
+     */
+    public static class Builder {
+        private int parallelism = 1;
+        private Long masterSeed;
+        private int exposureEpochSize = 1;
+
+        /**
+         * Sets the number of examinees simulated in parallel.
+         *
+         * @param newParallelism the parallelism, at least 1
+         * @return this builder
+         */
+        public Builder parallelism(int newParallelism) {
+            if (newParallelism < 1) {
+                throw new IllegalArgumentException("The parallelism must be at least 1!");
+            }
+            this.parallelism = newParallelism;
+            return this;
+        }
+
+        /**
+         * Sets the master seed from which the random streams of all examinees
+         * are derived.
+         *
+         * @param newMasterSeed the master seed
+         * @return this builder
+         */
+        public Builder masterSeed(long newMasterSeed) {
+            this.masterSeed = newMasterSeed;
+            return this;
+        }
+
+        /**
+         * Sets the number of examinees per exposure control epoch.
+         *
+         * @param newExposureEpochSize the epoch size, at least 1
+         * @return this builder
+         */
+        public Builder exposureEpochSize(int newExposureEpochSize) {
+            if (newExposureEpochSize < 1) {
+                throw new IllegalArgumentException("The exposure epoch size must be at least 1!");
+            }
+            this.exposureEpochSize = newExposureEpochSize;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link SimExecutionConfig}.
+         *
+         * @return an instance of {@code SimExecutionConfig}
+         */
+        public SimExecutionConfig build() {
+            return new SimExecutionConfig(this);
+        }
+    }
+}
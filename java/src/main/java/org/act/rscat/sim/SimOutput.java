@@ -15,6 +15,7 @@ public class SimOutput {
     private final String examineeId;
     private final double trueTheta;
     private final List<String> itemsAdministered;
+    private final int[] itemThetaIntervals;
     private final List<ItemScores> itemScoresList;
     private final double initTheta;
     private final ThetaEst finalTheta;
@@ -25,11 +26,13 @@ public class SimOutput {
     private final List<Integer> adaptiveStageList;
     private final List<List<Integer>> passageRowIndexSequences;
     private Map<ThetaRange, Map<String, Double>> itemExposureRates;
+    private Map<ThetaRange, Map<String, Double>> passageExposureRates;
 
     private SimOutput(Builder builder) {
         this.examineeId = builder.examineeId;
         this.trueTheta = builder.trueTheta;
         this.itemsAdministered = builder.itemsAdministered;
+        this.itemThetaIntervals = builder.itemThetaIntervals;
         this.itemScoresList = builder.itemScoresList;
         this.initTheta = builder.initTheta;
         this.finalTheta = builder.finalTheta;
@@ -69,6 +72,16 @@ public class SimOutput {
         return itemsAdministered;
     }
 
+    /**
+     * Returns the index of the exposure control theta range at which each
+     * administered item was selected, in the order of the administered items.
+     *
+     * @return the theta range indices
+     */
+    public int[] getItemThetaIntervals() {
+        return itemThetaIntervals;
+    }
+
     /**
      * Returns the list of scores of the administered items.
      *
@@ -97,7 +110,9 @@ public class SimOutput {
     }
 
     /**
-     * Returns the list of {@link PassageOrItemEligibilityAtThetaRange}.
+     * Returns the list of {@link PassageOrItemEligibilityAtThetaRange}. For
+     * simulation results, the list is an {@link EligibilityAuditList}, which
+     * decodes the eligibility of a stage on each access.
      *
      * @return the list of {@code PassageOrItemEligibilityAtThetaRange}
      */
@@ -107,7 +122,9 @@ public class SimOutput {
 
     /**
      * Returns the list of shadow tests for all adaptive stages. Each sub-list
-     * represents the item identifiers in the shadow test.
+     * represents the item identifiers in the shadow test. For simulation
+     * results, the list is a {@link ShadowTestAuditList}, which decodes the
+     * shadow test of a stage on each access.
      *
      * @return the list of shadow tests
      */
@@ -170,6 +187,24 @@ public class SimOutput {
         this.itemExposureRates = itemExposureRates;
     }
 
+    /**
+     * Returns the passage exposure control rate data defined in a {@code Map}.
+     *
+     * @return the passage exposure control rate data
+     */
+    public Map<ThetaRange, Map<String, Double>> getPassageExposureRates() {
+        return passageExposureRates;
+    }
+
+    /**
+     * Sets the passage exposure rate data.
+     *
+     * @param passageExposureRates the passage exposure rate data
+     */
+    public void setPassageExposureRates(Map<ThetaRange, Map<String, Double>> passageExposureRates) {
+        this.passageExposureRates = passageExposureRates;
+    }
+
     /**
      * The builder class for {@link SimOutput}.
      */
@@ -181,6 +216,7 @@ public class SimOutput {
 
         // Optional fields
         private List<String> itemsAdministered;
+        private int[] itemThetaIntervals;
         private List<ItemScores> itemScoresList;
         private double initTheta;
         private ThetaEst finalTheta;
@@ -214,6 +250,17 @@ public class SimOutput {
             return this;
         }
 
+        /**
+         * Adds the itemThetaIntervals
+         *
+         * @param newItemThetaIntervals the itemThetaIntervals
+         * @return this builder
+         */
+        public Builder itemThetaIntervals(int[] newItemThetaIntervals) {
+            this.itemThetaIntervals = newItemThetaIntervals;
+            return this;
+        }
+
         /**
          * Adds the itemScoresList.
          *
@@ -0,0 +1,38 @@
+package org.act.rscat.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives the simulation output of each examinee as soon as the examinee is
+ * complete, so that a simulation does not have to keep the outputs of all
+ * examinees in memory.
+ * <p>
+ * The outputs are passed in examinee order, one at a time, from the thread
+ * running the simulation. The sink is not closed by the simulation.
+ *
+ * @see AbstractCatSimulation#runSim(SimOutputSink)
+ * @see CsvSimOutputSink
+ * @see BinarySimOutputSink
+ */
+@FunctionalInterface
+public interface SimOutputSink extends Closeable {
+
+    /**
+     * Receives the output of the next examinee.
+     *
+     * @param simOutput the simulation output of the examinee
+     * @throws IOException if the output cannot be written
+     */
+    void accept(SimOutput simOutput) throws IOException;
+
+    /**
+     * Flushes and releases the resources of the sink. Does nothing by default.
+     *
+     * @throws IOException if the sink cannot be closed
+     */
+    @Override
+    default void close() throws IOException {
+        // Nothing to release
+    }
+}
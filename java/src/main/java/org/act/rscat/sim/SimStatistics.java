@@ -0,0 +1,285 @@
+package org.act.rscat.sim;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.act.rscat.cat.ThetaRange;
+
+/**
+ * The aggregate statistics of a CAT simulation, computed by a
+ * {@link SimStatisticsCollector} while the simulation runs.
+ * <p>
+ * The bias and RMSE follow the R summary of a simulation result: the bias is
+ * the mean of the true theta minus the final theta estimate.
+ */
+public final class SimStatistics {
+
+    /**
+     * The number of bins of the item exposure rate histogram.
+     */
+    public static final int EXPOSURE_BIN_NUM = 20;
+
+    private final long examineeNum;
+    private final double bias;
+    private final double rmse;
+    private final double meanFinalSe;
+    private final List<ThetaBinStatistics> thetaBins;
+    private final double meanTestLength;
+    private final double catEngineTimeMean;
+    private final double catEngineTimeSd;
+    private final double testOverlapRate;
+    private final int[] itemExposureHistogram;
+    private final double maxItemExposureRate;
+    private final double itemExposureRateSd;
+    private final int unexposedItemNum;
+    private final Map<String, Long> constraintViolationCounts;
+    private final long violatingExamineeNum;
+
+    SimStatistics(long examineeNum, RunningStatistics error, RunningStatistics finalSe,
+            List<ThetaBinStatistics> thetaBins, RunningStatistics testLength, RunningStatistics catEngineTime,
+            double testOverlapRate, int[] itemExposureHistogram, RunningStatistics itemExposureRate,
+            int unexposedItemNum, Map<String, Long> constraintViolationCounts, long violatingExamineeNum) {
+        this.examineeNum = examineeNum;
+        this.bias = error.getMean();
+        this.rmse = error.getRootMeanSquare();
+        this.meanFinalSe = finalSe.getMean();
+        this.thetaBins = Collections.unmodifiableList(thetaBins);
+        this.meanTestLength = testLength.getMean();
+        this.catEngineTimeMean = catEngineTime.getMean();
+        this.catEngineTimeSd = catEngineTime.getSd();
+        this.testOverlapRate = testOverlapRate;
+        this.itemExposureHistogram = itemExposureHistogram;
+        this.maxItemExposureRate = itemExposureRate.getMax();
+        this.itemExposureRateSd = itemExposureRate.getSd();
+        this.unexposedItemNum = unexposedItemNum;
+        this.constraintViolationCounts = Collections.unmodifiableMap(constraintViolationCounts);
+        this.violatingExamineeNum = violatingExamineeNum;
+    }
+
+    /**
+     * Returns the number of examinees.
+     *
+     * @return the number of examinees
+     */
+    public long getExamineeNum() {
+        return examineeNum;
+    }
+
+    /**
+     * Returns the mean of the true theta minus the final theta estimate.
+     *
+     * @return the bias, or NaN if there are no final theta estimates
+     */
+    public double getBias() {
+        return bias;
+    }
+
+    /**
+     * Returns the root mean square error of the final theta estimates.
+     *
+     * @return the RMSE, or NaN if there are no final theta estimates
+     */
+    public double getRmse() {
+        return rmse;
+    }
+
+    /**
+     * Returns the mean standard error of the final theta estimates.
+     *
+     * @return the mean final SE, or NaN if there are no final theta estimates
+     */
+    public double getMeanFinalSe() {
+        return meanFinalSe;
+    }
+
+    /**
+     * Returns the statistics of the examinees in each true theta bin, in the
+     * order of the bins.
+     *
+     * @return the theta bin statistics
+     */
+    public List<ThetaBinStatistics> getThetaBins() {
+        return thetaBins;
+    }
+
+    /**
+     * Returns the mean number of administered items.
+     *
+     * @return the mean test length, or NaN if there are no examinees
+     */
+    public double getMeanTestLength() {
+        return meanTestLength;
+    }
+
+    /**
+     * Returns the mean CAT engine time of the adaptive stages, in seconds.
+     *
+     * @return the mean CAT engine time, or NaN if the simulation does not
+     *         generate detailed results
+     */
+    public double getCatEngineTimeMean() {
+        return catEngineTimeMean;
+    }
+
+    /**
+     * Returns the standard deviation of the CAT engine time of the adaptive
+     * stages, in seconds.
+     *
+     * @return the CAT engine time SD, or NaN if there are fewer than 2 stages
+     */
+    public double getCatEngineTimeSd() {
+        return catEngineTimeSd;
+    }
+
+    /**
+     * Returns the mean proportion of items two examinees have in common,
+     * relative to the mean test length, over all pairs of examinees.
+     *
+     * @return the test overlap rate, or NaN if there are fewer than 2
+     *         examinees
+     */
+    public double getTestOverlapRate() {
+        return testOverlapRate;
+    }
+
+    /**
+     * Returns the number of items of the item pool in each of
+     * {@value #EXPOSURE_BIN_NUM} equal exposure rate bins between 0 and 1.
+     * Bin {@code k} holds the rates from {@code k / EXPOSURE_BIN_NUM},
+     * inclusive, to {@code (k + 1) / EXPOSURE_BIN_NUM}, exclusive; the last bin
+     * also holds the rate 1.
+     *
+     * @return the item exposure rate histogram
+     */
+    public int[] getItemExposureHistogram() {
+        return itemExposureHistogram.clone();
+    }
+
+    /**
+     * Returns the largest item exposure rate.
+     *
+     * @return the largest item exposure rate
+     */
+    public double getMaxItemExposureRate() {
+        return maxItemExposureRate;
+    }
+
+    /**
+     * Returns the standard deviation of the exposure rates of the items in the
+     * item pool.
+     *
+     * @return the item exposure rate SD
+     */
+    public double getItemExposureRateSd() {
+        return itemExposureRateSd;
+    }
+
+    /**
+     * Returns the number of items of the item pool never administered.
+     *
+     * @return the number of unexposed items
+     */
+    public int getUnexposedItemNum() {
+        return unexposedItemNum;
+    }
+
+    /**
+     * Returns the number of administered tests violating each loaded
+     * constraint, keyed by constraint identifier in the order of their first
+     * violation. Constraints no test violates are not included.
+     *
+     * @return the constraint violation counts
+     */
+    public Map<String, Long> getConstraintViolationCounts() {
+        return constraintViolationCounts;
+    }
+
+    /**
+     * Returns the number of examinees whose administered test violates at
+     * least one loaded constraint.
+     *
+     * @return the number of examinees with constraint violations
+     */
+    public long getViolatingExamineeNum() {
+        return violatingExamineeNum;
+    }
+
+    /**
+     * The statistics of the examinees whose true theta is in a theta bin.
+     */
+    public static final class ThetaBinStatistics {
+        private final ThetaRange thetaRange;
+        private final long examineeNum;
+        private final double bias;
+        private final double rmse;
+        private final double meanFinalSe;
+        private final double finalThetaSd;
+
+        ThetaBinStatistics(ThetaRange thetaRange, RunningStatistics error, RunningStatistics finalSe,
+                RunningStatistics finalTheta) {
+            this.thetaRange = thetaRange;
+            this.examineeNum = error.getCount();
+            this.bias = error.getMean();
+            this.rmse = error.getRootMeanSquare();
+            this.meanFinalSe = finalSe.getMean();
+            this.finalThetaSd = finalTheta.getSd();
+        }
+
+        /**
+         * Returns the true theta range of the bin.
+         *
+         * @return the theta range
+         */
+        public ThetaRange getThetaRange() {
+            return thetaRange;
+        }
+
+        /**
+         * Returns the number of examinees in the bin with a final theta
+         * estimate.
+         *
+         * @return the number of examinees
+         */
+        public long getExamineeNum() {
+            return examineeNum;
+        }
+
+        /**
+         * Returns the conditional bias of the final theta estimates.
+         *
+         * @return the conditional bias, or NaN if the bin is empty
+         */
+        public double getBias() {
+            return bias;
+        }
+
+        /**
+         * Returns the conditional RMSE of the final theta estimates.
+         *
+         * @return the conditional RMSE, or NaN if the bin is empty
+         */
+        public double getRmse() {
+            return rmse;
+        }
+
+        /**
+         * Returns the mean standard error of the final theta estimates.
+         *
+         * @return the conditional SE, or NaN if the bin is empty
+         */
+        public double getMeanFinalSe() {
+            return meanFinalSe;
+        }
+
+        /**
+         * Returns the standard deviation of the final theta estimates.
+         *
+         * @return the conditional SD of the estimates, or NaN if the bin has
+         *         fewer than 2 examinees
+         */
+        public double getFinalThetaSd() {
+            return finalThetaSd;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.act.rscat.sim;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.act.rscat.cat.ItemPool;
+import org.act.rscat.cat.ThetaEst;
+import org.act.rscat.cat.ThetaRange;
+import org.act.rscat.mip.Constraint;
+import org.act.rscat.sol.ConstraintChecker;
+import org.act.rscat.testdef.TestConfig;
+
+/**
+ * Computes the aggregate statistics of a simulation from the output of each
+ * examinee as it completes, so that large simulations can be summarized
+ * without keeping their outputs.
+ * <p>
+ * The collector keeps running statistics of the theta estimation error and
+ * standard error overall and per true theta bin, the administration count of
+ * each item, from which the exposure rate distribution and the test overlap
+ * rate are derived exactly, and the number of administered tests violating
+ * each loaded constraint. The per-stage CAT engine times are only available
+ * for simulations generating detailed results.
+ *
+ * @see AbstractCatSimulation#runSimStatistics(List)
+ */
+public final class SimStatisticsCollector implements SimOutputSink {
+
+    /**
+     * The test configuration of the simulation.
+     */
+    private final TestConfig testConfig;
+
+    /**
+     * The item pool of the test configuration.
+     */
+    private final ItemPool itemPool;
+
+    /**
+     * The true theta bins of the conditional statistics.
+     */
+    private final List<ThetaRange> thetaRanges;
+
+    /**
+     * The errors of the final theta estimates.
+     */
+    private final RunningStatistics error = new RunningStatistics();
+
+    /**
+     * The standard errors of the final theta estimates.
+     */
+    private final RunningStatistics finalSe = new RunningStatistics();
+
+    /**
+     * The errors of the final theta estimates in each true theta bin.
+     */
+    private final RunningStatistics[] binErrors;
+
+    /**
+     * The standard errors of the final theta estimates in each true theta bin.
+     */
+    private final RunningStatistics[] binFinalSes;
+
+    /**
+     * The final theta estimates in each true theta bin.
+     */
+    private final RunningStatistics[] binFinalThetas;
+
+    /**
+     * The numbers of administered items.
+     */
+    private final RunningStatistics testLength = new RunningStatistics();
+
+    /**
+     * The CAT engine times of the adaptive stages.
+     */
+    private final RunningStatistics catEngineTime = new RunningStatistics();
+
+    /**
+     * The number of examinees who took each item, in pool order.
+     */
+    private final long[] itemCounts;
+
+    /**
+     * The number of administered tests violating each constraint, keyed by
+     * constraint identifier in order of first violation.
+     */
+    private final Map<String, Long> violationCounts = new LinkedHashMap<>();
+
+    /**
+     * The number of examinees received.
+     */
+    private long examineeNum;
+
+    /**
+     * The number of administered tests violating at least one constraint.
+     */
+    private long violatingExamineeNum;
+
+    /**
+     * Constructs a new {@link SimStatisticsCollector}.
+     *
+     * @param testConfig the test configuration of the simulation
+     * @param thetaBins the true theta bins of the conditional statistics; an
+     *            examinee is counted in the first bin containing its true
+     *            theta
+     */
+    public SimStatisticsCollector(TestConfig testConfig, List<ThetaRange> thetaBins) {
+        this.testConfig = testConfig;
+        this.itemPool = ItemPool.forTestConfig(testConfig);
+        this.thetaRanges = new ArrayList<>(thetaBins);
+        binErrors = new RunningStatistics[thetaRanges.size()];
+        binFinalSes = new RunningStatistics[thetaRanges.size()];
+        binFinalThetas = new RunningStatistics[thetaRanges.size()];
+        for (int k = 0; k < thetaRanges.size(); k++) {
+            binErrors[k] = new RunningStatistics();
+            binFinalSes[k] = new RunningStatistics();
+            binFinalThetas[k] = new RunningStatistics();
+        }
+        itemCounts = new long[itemPool.getItemNum()];
+    }
+
+    @Override
+    public void accept(SimOutput simOutput) {
+        examineeNum++;
+        ThetaEst finalTheta = simOutput.getFinalTheta();
+        if (finalTheta != null) {
+            double thetaError = simOutput.getTrueTheta() - finalTheta.getTheta();
+            error.add(thetaError);
+            finalSe.add(finalTheta.getSe());
+            int bin = findBin(simOutput.getTrueTheta());
+            if (bin >= 0) {
+                binErrors[bin].add(thetaError);
+                binFinalSes[bin].add(finalTheta.getSe());
+                binFinalThetas[bin].add(finalTheta.getTheta());
+            }
+        }
+
+        List<String> itemsAdministered = simOutput.getItemsAdministered();
+        if (itemsAdministered != null) {
+            testLength.add(itemsAdministered.size());
+            for (String itemId : itemsAdministered) {
+                int itemIndex = itemPool.getItemIndex(itemId);
+                if (itemIndex < 0) {
+                    throw new IllegalArgumentException("Item " + itemId + " is not in the item pool!");
+                }
+                itemCounts[itemIndex]++;
+            }
+            List<Constraint> violations = ConstraintChecker.findViolations(testConfig, itemsAdministered);
+            if (!violations.isEmpty()) {
+                violatingExamineeNum++;
+                for (Constraint cnst : violations) {
+                    violationCounts.merge(cnst.id, 1L, Long::sum);
+                }
+            }
+        }
+
+        List<Double> catEngineTimes = simOutput.getCatEngineTimeList();
+        if (catEngineTimes != null) {
+            for (Double time : catEngineTimes) {
+                if (time != null) {
+                    catEngineTime.add(time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the examinees received so far.
+     *
+     * @return the simulation statistics
+     */
+    public SimStatistics getStatistics() {
+        List<SimStatistics.ThetaBinStatistics> thetaBins = new ArrayList<>(thetaRanges.size());
+        for (int k = 0; k < thetaRanges.size(); k++) {
+            thetaBins.add(new SimStatistics.ThetaBinStatistics(thetaRanges.get(k), binErrors[k], binFinalSes[k],
+                    binFinalThetas[k]));
+        }
+
+        // Exposure rates and the sum of pairs of examinees sharing an item
+        int[] histogram = new int[SimStatistics.EXPOSURE_BIN_NUM];
+        RunningStatistics exposureRate = new RunningStatistics();
+        int unexposedItemNum = 0;
+        double sharedPairs = 0;
+        for (long count : itemCounts) {
+            double rate = examineeNum == 0 ? 0 : (double) count / examineeNum;
+            exposureRate.add(rate);
+            histogram[Math.min((int) (rate * SimStatistics.EXPOSURE_BIN_NUM), SimStatistics.EXPOSURE_BIN_NUM - 1)]++;
+            if (count == 0) {
+                unexposedItemNum++;
+            }
+            sharedPairs += (double) count * (count - 1);
+        }
+        long testNum = testLength.getCount();
+        double testOverlapRate = testNum < 2 || testLength.getMean() == 0 ? Double.NaN
+                : sharedPairs / ((double) testNum * (testNum - 1) * testLength.getMean());
+
+        return new SimStatistics(examineeNum, error, finalSe, thetaBins, testLength, catEngineTime,
+                testOverlapRate, histogram, exposureRate, unexposedItemNum, new LinkedHashMap<>(violationCounts),
+                violatingExamineeNum);
+    }
+
+    /**
+     * Returns the index of the first theta bin containing a theta value.
+     *
+     * @param theta the theta value
+     * @return the bin index, or -1 if no bin contains the value
+     */
+    private int findBin(double theta) {
+        for (int k = 0; k < thetaRanges.size(); k++) {
+            ThetaRange thetaRange = thetaRanges.get(k);
+            if (theta >= thetaRange.getMinThetaInclusive() && theta < thetaRange.getMaxThetaExclusive()) {
+                return k;
+            }
+        }
+        return -1;
+    }
+}
@@ -9,11 +9,14 @@ import java.util.Map.Entry;
 
 import org.act.rscat.cat.CatFunctions;
 import org.act.rscat.cat.ExposureItemUsage;
+import org.act.rscat.cat.ExposureUsageCounters;
 import org.act.rscat.cat.ItemScores;
 import org.act.rscat.cat.ThetaRange;
 import org.act.rscat.util.ContentTable;
 import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 
 /**
  * Utility class providing numeric simulation functions.
@@ -43,6 +46,20 @@ public final class SimulationFunctions {
      */
 
     public static ItemScores simItemScores(RealMatrix itemPar, double thetaTrue) {
+        return simItemScores(itemPar, thetaTrue, new Well19937c());
+    }
+
+    /**
+     * Simulates item scores as {@link #simItemScores(RealMatrix, double)} does,
+     * drawing the responses from the given random generator.
+     *
+     * @param itemPar         An I x P matrix of item parameters
+     * @param thetaTrue       A double value indicating the true ability level of
+     *                        the person
+     * @param randomGenerator the random generator used to draw the responses
+     * @return the simulated item scores
+     */
+    public static ItemScores simItemScores(RealMatrix itemPar, double thetaTrue, RandomGenerator randomGenerator) {
         int nItems = itemPar.getRowDimension();
         int[] itemScoreInt = new int[nItems];
         double[] respProb = new double[nItems];
@@ -52,7 +69,7 @@ public final class SimulationFunctions {
             double c = itemPar.getEntry(i, 2);
             double dCnst = itemPar.getEntry(i, 3);
             double p = CatFunctions.getProb3PL(a, b, c, dCnst, thetaTrue);
-            BinomialDistribution distBinomial = new BinomialDistribution(1, p);
+            BinomialDistribution distBinomial = new BinomialDistribution(randomGenerator, 1, p);
             int sampleBinomial = distBinomial.sample();
             itemScoreInt[i] = sampleBinomial;
             respProb[i] = p;
@@ -60,6 +77,25 @@ public final class SimulationFunctions {
         return new ItemScores(itemScoreInt, respProb);
     }
 
+    /**
+     * Derives the seed of an independent random stream from a master seed. The
+     * same master seed and stream index always give the same seed, which makes
+     * per-examinee random streams independent of the order or the thread in
+     * which examinees are simulated.
+     *
+     * @param masterSeed  the master seed of the simulation
+     * @param streamIndex the index of the stream, e.g. the examinee index
+     * @return the seed of the stream
+     */
+    public static long deriveSeed(long masterSeed, long streamIndex) {
+
+        // SplitMix64 finalizer applied to the golden-ratio spaced stream offset
+        long z = masterSeed + (streamIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Returns a {@code Map} that represents the association between item
      * identifiers and passage row indices.
@@ -143,4 +179,50 @@ public final class SimulationFunctions {
         }
         return exposreRates;
     }
+
+    /**
+     * Calculates the item exposure rates from a snapshot of the usage counters.
+     * <p>
+     * With one theta interval the rate of an item is the proportion of the
+     * examinees who took it. With several theta intervals, the rate at a theta
+     * range is conditional on the range: the proportion of the examinees who
+     * visited the range that took the item there.
+     *
+     * @param usageCounters the item usage counters
+     * @param thetaRanges   the theta ranges of the theta intervals of the counters
+     * @param itemIds       the item identifiers in item pool order
+     * @param numExaminee   the number of examinees
+     * @return the item exposure rates
+     * @see ExposureUsageCounters
+     */
+    public static Map<ThetaRange, Map<String, Double>> calItemExposureRates(ExposureUsageCounters usageCounters,
+            List<ThetaRange> thetaRanges, List<String> itemIds, int numExaminee) {
+        Map<ThetaRange, Map<String, Double>> exposureRates = new HashMap<>();
+        for (int k = 0; k < thetaRanges.size(); k++) {
+            double[] alpha = usageCounters.snapshotAlpha(k);
+            double examineeNum = thetaRanges.size() == 1 ? numExaminee : usageCounters.getVisitNum(k);
+            Map<String, Double> rates = new HashMap<>();
+            for (int i = 0; i < alpha.length; i++) {
+                rates.put(itemIds.get(i), examineeNum > 0 ? alpha[i] / examineeNum : 0.0d);
+            }
+            exposureRates.put(thetaRanges.get(k), rates);
+        }
+        return exposureRates;
+    }
+
+    /**
+     * Calculates the passage exposure rates from a snapshot of the usage
+     * counters, as {@link #calItemExposureRates(ExposureUsageCounters, List, List, int)} does for items.
+     *
+     * @param usageCounters the passage usage counters
+     * @param thetaRanges   the theta ranges of the theta intervals of the counters
+     * @param passageIds    the passage identifiers in passage table order
+     * @param numExaminee   the number of examinees
+     * @return the passage exposure rates
+     * @see ExposureUsageCounters
+     */
+    public static Map<ThetaRange, Map<String, Double>> calPassageExposureRates(ExposureUsageCounters usageCounters,
+            List<ThetaRange> thetaRanges, List<String> passageIds, int numExaminee) {
+        return calItemExposureRates(usageCounters, thetaRanges, passageIds, numExaminee);
+    }
 }
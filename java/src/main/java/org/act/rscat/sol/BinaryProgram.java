@@ -0,0 +1,786 @@
+package org.act.rscat.sol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.act.rscat.mip.SolverOutput.SOLVER_STATS;
+import org.act.rscat.util.PrimitiveArrays;
+
+/**
+ * A 0-1 linear program maximized by depth-first branch and bound.
+ * <p>
+ * Rows are ranged linear constraints {@code lb <= a*v <= ub} over binary
+ * variables. At each node the rows are first propagated on their activity
+ * bounds, which fixes variables forced by a row and detects infeasible rows.
+ * The node is then bounded twice: by a cardinality row, since exactly
+ * {@code cardinality} of the cardinality variables are 1, the bound is the
+ * fixed objective plus the best remaining cardinality variables; and by the
+ * linear relaxation solved with {@link DualSimplex}. An integral relaxation
+ * solution is a new incumbent. Otherwise the search branches on a fractional
+ * priority variable if any, then on the most fractional variable, trying the
+ * rounded relaxation value first.
+ * <p>
+ * Implied rows, which integral solutions satisfy as a consequence of the other
+ * rows, are only propagated and left out of the linear relaxation. Rows with a
+ * single variable are propagated at the root and enter the relaxation as
+ * variable bounds.
+ * <p>
+ * The program is built once and solved many times with different objectives
+ * and variable fixings; every solve starts from the unfixed state. A solve
+ * stopped by its node or time limit returns the best solution found so far.
+ */
+final class BinaryProgram {
+
+    /**
+     * The feasibility tolerance of row activities.
+     */
+    private static final double TOL = 1e-6;
+
+    /**
+     * The maximum number of dual simplex iterations of a node.
+     */
+    private static final int LP_ITER_LIMIT = 5000;
+
+    /**
+     * The variables of the rows added so far.
+     */
+    private final List<int[]> rowVarList = new ArrayList<>();
+
+    /**
+     * The coefficients of the rows added so far.
+     */
+    private final List<double[]> rowCoefList = new ArrayList<>();
+
+    /**
+     * The lower and upper bounds of the rows added so far.
+     */
+    private final List<double[]> rowBoundList = new ArrayList<>();
+
+    /**
+     * Whether each row added so far is implied by the others.
+     */
+    private final List<Boolean> rowImpliedList = new ArrayList<>();
+
+    /**
+     * The number of variables.
+     */
+    private int varNum;
+
+    /**
+     * Whether the rows are compiled to the arrays below.
+     */
+    private boolean compiled;
+
+    private int[][] rowVars;
+    private double[][] rowCoefs;
+    private double[] rowLb;
+    private double[] rowUb;
+    private double[] rowMaxAbs;
+    private int[][] colRows;
+    private double[][] colCoefs;
+    private DualSimplex lp;
+    private double[] lpLower;
+    private double[] lpUpper;
+
+    // Search state
+    private byte[] value;
+    private double[] minAct;
+    private double[] maxAct;
+    private int[] trail;
+    private int trailSize;
+    private int[] queue;
+    private boolean[] queued;
+    private int queueHead;
+    private int queueTail;
+    private double[] obj;
+    private boolean[] isCard;
+    private boolean[] isPriority;
+    private int[] priorityVars;
+    private int[] cardOrder;
+    private int[] cardSortBuffer;
+    private int[] otherVars;
+    private int otherNum;
+    private int cardinality;
+    private int cardOnes;
+    private double fixedObj;
+    private double incumbent;
+    private byte[] incumbentValue;
+    private double absGap;
+    private double relGap;
+    private long nodeLimit;
+    private long deadline;
+    private boolean timed;
+    private long nodeCount;
+    private double prunedBound;
+    private boolean aborted;
+
+    /**
+     * Adds a new binary variable.
+     *
+     * @return the index of the variable
+     */
+    int newVar() {
+        compiled = false;
+        return varNum++;
+    }
+
+    /**
+     * Returns the number of variables.
+     *
+     * @return the number of variables
+     */
+    int getVarNum() {
+        return varNum;
+    }
+
+    /**
+     * Adds a row {@code lb <= sum(coefs[k] * vars[k]) <= ub}. Coefficients of a
+     * repeated variable are merged.
+     *
+     * @param vars the variable indices
+     * @param coefs the coefficients
+     * @param lb the lower bound, or {@link Double#NEGATIVE_INFINITY}
+     * @param ub the upper bound, or {@link Double#POSITIVE_INFINITY}
+     */
+    void addRow(int[] vars, double[] coefs, double lb, double ub) {
+        addRow(vars, coefs, lb, ub, false);
+    }
+
+    /**
+     * Adds a row implied by the other rows for integral solutions. The row
+     * only strengthens propagation.
+     *
+     * @param vars the variable indices
+     * @param coefs the coefficients
+     * @param lb the lower bound, or {@link Double#NEGATIVE_INFINITY}
+     * @param ub the upper bound, or {@link Double#POSITIVE_INFINITY}
+     */
+    void addImpliedRow(int[] vars, double[] coefs, double lb, double ub) {
+        addRow(vars, coefs, lb, ub, true);
+    }
+
+    private void addRow(int[] vars, double[] coefs, double lb, double ub, boolean implied) {
+        int[] mergedVars = new int[vars.length];
+        double[] mergedCoefs = new double[vars.length];
+        int size = 0;
+        for (int k = 0; k < vars.length; k++) {
+            int pos = 0;
+            while (pos < size && mergedVars[pos] != vars[k]) {
+                pos++;
+            }
+            if (pos == size) {
+                mergedVars[size++] = vars[k];
+            }
+            mergedCoefs[pos] += coefs[k];
+        }
+        rowVarList.add(Arrays.copyOf(mergedVars, size));
+        rowCoefList.add(Arrays.copyOf(mergedCoefs, size));
+        rowBoundList.add(new double[] { lb, ub });
+        rowImpliedList.add(implied);
+        compiled = false;
+    }
+
+    /**
+     * Adds a row with all coefficients equal to 1.
+     *
+     * @param vars the variable indices
+     * @param lb the lower bound, or {@link Double#NEGATIVE_INFINITY}
+     * @param ub the upper bound, or {@link Double#POSITIVE_INFINITY}
+     */
+    void addRow(int[] vars, double lb, double ub) {
+        double[] coefs = new double[vars.length];
+        Arrays.fill(coefs, 1);
+        addRow(vars, coefs, lb, ub);
+    }
+
+    /**
+     * Compiles the rows to row- and column-wise arrays.
+     */
+    private void compile() {
+        int rowNum = rowVarList.size();
+        rowVars = rowVarList.toArray(new int[rowNum][]);
+        rowCoefs = rowCoefList.toArray(new double[rowNum][]);
+        rowLb = new double[rowNum];
+        rowUb = new double[rowNum];
+        rowMaxAbs = new double[rowNum];
+        int[] colSize = new int[varNum];
+        for (int r = 0; r < rowNum; r++) {
+            rowLb[r] = rowBoundList.get(r)[0];
+            rowUb[r] = rowBoundList.get(r)[1];
+            for (int k = 0; k < rowVars[r].length; k++) {
+                rowMaxAbs[r] = Math.max(rowMaxAbs[r], Math.abs(rowCoefs[r][k]));
+                colSize[rowVars[r][k]]++;
+            }
+        }
+        colRows = new int[varNum][];
+        colCoefs = new double[varNum][];
+        for (int v = 0; v < varNum; v++) {
+            colRows[v] = new int[colSize[v]];
+            colCoefs[v] = new double[colSize[v]];
+            colSize[v] = 0;
+        }
+        for (int r = 0; r < rowNum; r++) {
+            for (int k = 0; k < rowVars[r].length; k++) {
+                int v = rowVars[r][k];
+                colRows[v][colSize[v]] = r;
+                colCoefs[v][colSize[v]++] = rowCoefs[r][k];
+            }
+        }
+
+        value = new byte[varNum];
+        minAct = new double[rowNum];
+        maxAct = new double[rowNum];
+        trail = new int[varNum];
+        queue = new int[rowNum + 1];
+        queued = new boolean[rowNum];
+        isCard = new boolean[varNum];
+        isPriority = new boolean[varNum];
+        incumbentValue = new byte[varNum];
+        otherVars = new int[varNum];
+
+        // Linear relaxation rows
+        List<Integer> lpRows = new ArrayList<>();
+        for (int r = 0; r < rowNum; r++) {
+            if (rowVars[r].length > 1 && !rowImpliedList.get(r)) {
+                lpRows.add(r);
+            }
+        }
+        int[][] lpRowVars = new int[lpRows.size()][];
+        double[][] lpRowCoefs = new double[lpRows.size()][];
+        double[] lpRowLb = new double[lpRows.size()];
+        double[] lpRowUb = new double[lpRows.size()];
+        for (int k = 0; k < lpRows.size(); k++) {
+            int r = lpRows.get(k);
+            lpRowVars[k] = rowVars[r];
+            lpRowCoefs[k] = rowCoefs[r];
+            lpRowLb[k] = rowLb[r];
+            lpRowUb[k] = rowUb[r];
+        }
+        lp = new DualSimplex(varNum, lpRowVars, lpRowCoefs, lpRowLb, lpRowUb);
+        lpLower = new double[varNum];
+        lpUpper = new double[varNum];
+        compiled = true;
+    }
+
+    /**
+     * Maximizes an objective over the rows.
+     *
+     * @param newObj the objective coefficient of each variable
+     * @param fixings the fixed value of each variable, or -1 for a free
+     *            variable
+     * @param cardVars the cardinality variables, exactly
+     *            {@code newCardinality} of which must be 1 in any feasible
+     *            solution; their row must be among the rows of the program
+     * @param newCardinality the number of cardinality variables equal to 1
+     * @param newPriorityVars the variables branched first, in branching order;
+     *            they must not be cardinality variables
+     * @param warmStart the warm start value of each variable, -1 for a
+     *            variable without a value, or {@code null} for a cold start
+     * @param newAbsGap the absolute optimality gap
+     * @param newRelGap the relative optimality gap
+     * @param newNodeLimit the maximum number of search nodes
+     * @param timeLimitNanos the maximum search time in nanoseconds, or a
+     *            non-positive value for no limit
+     * @return the solution
+     */
+    Solution maximize(double[] newObj, int[] fixings, int[] cardVars, int newCardinality, int[] newPriorityVars,
+            int[] warmStart, double newAbsGap, double newRelGap, long newNodeLimit, long timeLimitNanos) {
+        if (!compiled) {
+            compile();
+        }
+        obj = newObj;
+        cardinality = newCardinality;
+        priorityVars = newPriorityVars;
+        absGap = newAbsGap;
+        relGap = newRelGap;
+        nodeLimit = newNodeLimit;
+        timed = timeLimitNanos > 0;
+        deadline = System.nanoTime() + timeLimitNanos;
+        nodeCount = 0;
+        aborted = false;
+        incumbent = Double.NEGATIVE_INFINITY;
+        reset();
+        lp.setObjective(obj);
+
+        // Order the cardinality variables by decreasing objective
+        Arrays.fill(isCard, false);
+        Arrays.fill(isPriority, false);
+        for (int v : priorityVars) {
+            isPriority[v] = true;
+        }
+        if (cardOrder == null || cardOrder.length != cardVars.length) {
+            cardOrder = new int[cardVars.length];
+            cardSortBuffer = new int[cardVars.length];
+        }
+        for (int k = 0; k < cardVars.length; k++) {
+            cardOrder[k] = cardVars[k];
+            isCard[cardVars[k]] = true;
+        }
+        PrimitiveArrays.sortByDescendingKey(cardOrder, cardOrder.length, obj, cardSortBuffer);
+        otherNum = 0;
+        for (int v = 0; v < varNum; v++) {
+            if (!isCard[v] && !isPriority[v]) {
+                otherVars[otherNum++] = v;
+            }
+        }
+
+        // Root fixings and propagation
+        for (int r = 0; r < rowVars.length; r++) {
+            enqueue(r);
+        }
+        for (int v = 0; v < varNum; v++) {
+            if (fixings[v] >= 0 && value[v] < 0) {
+                assign(v, fixings[v]);
+            } else if (fixings[v] >= 0 && value[v] != fixings[v]) {
+                return infeasible();
+            }
+        }
+        if (!propagate()) {
+            return infeasible();
+        }
+        int rootSize = trailSize;
+
+        // Complete the warm start solution first
+        Boolean warmStartAccepted = null;
+        if (warmStart != null) {
+            boolean consistent = true;
+            for (int v = 0; v < varNum && consistent; v++) {
+                if (warmStart[v] >= 0 && value[v] < 0) {
+                    assign(v, warmStart[v]);
+                    consistent = propagate();
+                } else if (warmStart[v] >= 0 && value[v] != warmStart[v]) {
+                    consistent = false;
+                }
+            }
+            if (consistent) {
+                search();
+            }
+            undo(rootSize);
+            warmStartAccepted = incumbent > Double.NEGATIVE_INFINITY;
+            aborted = false;
+        }
+
+        prunedBound = Double.NEGATIVE_INFINITY;
+        search();
+        undo(0);
+
+        int status;
+        if (aborted) {
+            status = SOLVER_STATS.UNFINISHED.getCode();
+        } else if (incumbent > Double.NEGATIVE_INFINITY) {
+            status = SOLVER_STATS.OPTIMAL.getCode();
+        } else {
+            status = SOLVER_STATS.INFEASIBLE.getCode();
+        }
+        boolean[] solution = new boolean[varNum];
+        if (incumbent > Double.NEGATIVE_INFINITY) {
+            for (int v = 0; v < varNum; v++) {
+                solution[v] = incumbentValue[v] == 1;
+            }
+        }
+        double bestBound = aborted ? Double.NaN : Math.max(incumbent, prunedBound);
+        return new Solution(status, solution, incumbent, bestBound, warmStartAccepted, nodeCount);
+    }
+
+    /**
+     * Returns the solution of an infeasible root node.
+     *
+     * @return the infeasible solution
+     */
+    private Solution infeasible() {
+        undo(0);
+        return new Solution(SOLVER_STATS.INFEASIBLE.getCode(), new boolean[varNum], Double.NEGATIVE_INFINITY,
+                Double.NaN, null, nodeCount);
+    }
+
+    /**
+     * Resets the search state to all variables free.
+     */
+    private void reset() {
+        Arrays.fill(value, (byte) -1);
+        for (int r = 0; r < rowVars.length; r++) {
+            minAct[r] = 0;
+            maxAct[r] = 0;
+            for (double a : rowCoefs[r]) {
+                if (a > 0) {
+                    maxAct[r] += a;
+                } else {
+                    minAct[r] += a;
+                }
+            }
+            queued[r] = false;
+        }
+        trailSize = 0;
+        queueHead = 0;
+        queueTail = 0;
+        cardOnes = 0;
+        fixedObj = 0;
+    }
+
+    /**
+     * Searches the subtree of the current node.
+     */
+    private void search() {
+        if (++nodeCount > nodeLimit || timed && System.nanoTime() - deadline > 0) {
+            aborted = true;
+            return;
+        }
+        double gap = incumbent > Double.NEGATIVE_INFINITY ? Math.max(absGap, relGap * Math.abs(incumbent)) : 0;
+        double cardBound = bound();
+        if (cardBound <= incumbent + gap) {
+            prunedBound = Math.max(prunedBound, cardBound);
+            return;
+        }
+        int v = branchVar();
+        if (v < 0) {
+            incumbent = fixedObj;
+            System.arraycopy(value, 0, incumbentValue, 0, varNum);
+            return;
+        }
+
+        // Bound by the linear relaxation
+        for (int j = 0; j < varNum; j++) {
+            lpLower[j] = value[j] < 0 ? 0 : value[j];
+            lpUpper[j] = value[j] < 0 ? 1 : value[j];
+        }
+        double lpBound = lp.maximize(lpLower, lpUpper, LP_ITER_LIMIT);
+        if (lpBound <= incumbent + gap) {
+            prunedBound = Math.max(prunedBound, lpBound);
+            return;
+        }
+        if (roundRelaxation()) {
+            return;
+        }
+        boolean upFirst = isCard[v] || isPriority[v];
+        int fractional = fractionalVar();
+        if (fractional >= 0) {
+            v = fractional;
+            upFirst = lp.value(v) >= 0.5;
+        }
+        for (int k = 0; k < 2; k++) {
+            int val = upFirst ? 1 - k : k;
+            int mark = trailSize;
+            assign(v, val);
+            if (propagate()) {
+                search();
+            }
+            undo(mark);
+            if (aborted) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes an integral relaxation solution as the incumbent if it is
+     * feasible.
+     *
+     * @return true if the relaxation solution is integral and feasible
+     */
+    private boolean roundRelaxation() {
+        for (int j = 0; j < varNum; j++) {
+            double x = lp.value(j);
+            if (value[j] < 0 && Math.abs(x - Math.rint(x)) > TOL) {
+                return false;
+            }
+        }
+        int mark = trailSize;
+        for (int j = 0; j < varNum; j++) {
+            if (value[j] < 0) {
+                assign(j, lp.value(j) > 0.5 ? 1 : 0);
+            }
+        }
+        boolean feasible = propagate();
+        if (feasible && fixedObj > incumbent) {
+            incumbent = fixedObj;
+            System.arraycopy(value, 0, incumbentValue, 0, varNum);
+        }
+        undo(mark);
+        return feasible;
+    }
+
+    /**
+     * Returns the variable to branch on after the linear relaxation: the first
+     * fractional priority variable, or else the most fractional variable.
+     *
+     * @return the variable index, or -1 if all free variables are integral
+     */
+    private int fractionalVar() {
+        for (int v : priorityVars) {
+            double x = lp.value(v);
+            if (value[v] < 0 && Math.abs(x - Math.rint(x)) > TOL) {
+                return v;
+            }
+        }
+        int best = -1;
+        double bestFraction = TOL;
+        for (int v = 0; v < varNum; v++) {
+            double x = lp.value(v);
+            double fraction = Math.abs(x - Math.rint(x));
+            if (value[v] < 0 && fraction > bestFraction) {
+                bestFraction = fraction;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the objective bound of the current node.
+     *
+     * @return the objective bound, or negative infinity if the cardinality
+     *         can no longer be reached
+     */
+    private double bound() {
+        double bound = fixedObj;
+        int need = cardinality - cardOnes;
+        for (int k = 0; k < cardOrder.length && need > 0; k++) {
+            int v = cardOrder[k];
+            if (value[v] < 0) {
+                bound += obj[v];
+                need--;
+            }
+        }
+        if (need > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        for (int v : priorityVars) {
+            if (value[v] < 0 && obj[v] > 0) {
+                bound += obj[v];
+            }
+        }
+        for (int k = 0; k < otherNum; k++) {
+            int v = otherVars[k];
+            if (value[v] < 0 && obj[v] > 0) {
+                bound += obj[v];
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the next variable to branch on.
+     *
+     * @return the variable index, or -1 if all variables are fixed
+     */
+    private int branchVar() {
+        for (int v : priorityVars) {
+            if (value[v] < 0) {
+                return v;
+            }
+        }
+        for (int v : cardOrder) {
+            if (value[v] < 0) {
+                return v;
+            }
+        }
+        for (int k = 0; k < otherNum; k++) {
+            int v = otherVars[k];
+            if (value[v] < 0) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fixes a variable and updates the activity bounds of its rows.
+     *
+     * @param v the variable index
+     * @param val the value, 0 or 1
+     */
+    private void assign(int v, int val) {
+        value[v] = (byte) val;
+        trail[trailSize++] = v;
+        if (val == 1) {
+            fixedObj += obj[v];
+            if (isCard[v]) {
+                cardOnes++;
+            }
+        }
+        int[] rows = colRows[v];
+        double[] coefs = colCoefs[v];
+        for (int k = 0; k < rows.length; k++) {
+            shift(rows[k], coefs[k], val, 1);
+            enqueue(rows[k]);
+        }
+    }
+
+    /**
+     * Frees the variables fixed after a trail position.
+     *
+     * @param mark the trail position
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int v = trail[--trailSize];
+            int val = value[v];
+            if (val == 1) {
+                fixedObj -= obj[v];
+                if (isCard[v]) {
+                    cardOnes--;
+                }
+            }
+            int[] rows = colRows[v];
+            double[] coefs = colCoefs[v];
+            for (int k = 0; k < rows.length; k++) {
+                shift(rows[k], coefs[k], val, -1);
+            }
+            value[v] = -1;
+        }
+        clearQueue();
+    }
+
+    /**
+     * Empties the propagation queue.
+     */
+    private void clearQueue() {
+        while (queueHead != queueTail) {
+            queued[queue[queueHead]] = false;
+            queueHead = (queueHead + 1) % queue.length;
+        }
+    }
+
+    /**
+     * Shifts the activity bounds of a row for fixing or freeing a variable.
+     *
+     * @param r the row index
+     * @param a the coefficient of the variable
+     * @param val the value of the variable
+     * @param sign 1 for fixing and -1 for freeing the variable
+     */
+    private void shift(int r, double a, int val, int sign) {
+        if (val == 1) {
+            if (a > 0) {
+                minAct[r] += sign * a;
+            } else {
+                maxAct[r] += sign * a;
+            }
+        } else {
+            if (a > 0) {
+                maxAct[r] -= sign * a;
+            } else {
+                minAct[r] -= sign * a;
+            }
+        }
+    }
+
+    /**
+     * Adds a row to the propagation queue.
+     *
+     * @param r the row index
+     */
+    private void enqueue(int r) {
+        if (!queued[r]) {
+            queued[r] = true;
+            queue[queueTail] = r;
+            queueTail = (queueTail + 1) % queue.length;
+        }
+    }
+
+    /**
+     * Propagates the queued rows until no more variables are forced.
+     *
+     * @return false if a row cannot be satisfied
+     */
+    private boolean propagate() {
+        while (queueHead != queueTail) {
+            int r = queue[queueHead];
+            queueHead = (queueHead + 1) % queue.length;
+            queued[r] = false;
+            double lb = rowLb[r];
+            double ub = rowUb[r];
+            if (minAct[r] > ub + TOL || maxAct[r] < lb - TOL) {
+                clearQueue();
+                return false;
+            }
+            if (minAct[r] + rowMaxAbs[r] <= ub + TOL && maxAct[r] - rowMaxAbs[r] >= lb - TOL) {
+                continue;
+            }
+            int[] vars = rowVars[r];
+            double[] coefs = rowCoefs[r];
+            for (int k = 0; k < vars.length; k++) {
+                int v = vars[k];
+                if (value[v] >= 0) {
+                    continue;
+                }
+                double a = coefs[k];
+                int forced = -1;
+                if (a > 0) {
+                    if (minAct[r] + a > ub + TOL) {
+                        forced = 0;
+                    } else if (maxAct[r] - a < lb - TOL) {
+                        forced = 1;
+                    }
+                } else if (a < 0) {
+                    if (maxAct[r] + a < lb - TOL) {
+                        forced = 0;
+                    } else if (minAct[r] - a > ub + TOL) {
+                        forced = 1;
+                    }
+                }
+                if (forced >= 0) {
+                    assign(v, forced);
+                    if (minAct[r] > ub + TOL || maxAct[r] < lb - TOL) {
+                        clearQueue();
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The result of a solve.
+     */
+    static final class Solution {
+
+        /**
+         * The solver status code.
+         *
+         * @see SOLVER_STATS
+         */
+        final int status;
+
+        /**
+         * The value of each variable in the best solution found.
+         */
+        final boolean[] values;
+
+        /**
+         * The objective value of the best solution found, or negative
+         * infinity if there is none.
+         */
+        final double objective;
+
+        /**
+         * The best bound on the objective, which exceeds the objective if the
+         * search stopped at the optimality gap, or NaN if the search was
+         * aborted or the program is infeasible.
+         */
+        final double bestBound;
+
+        /**
+         * Whether the warm start solution was completed to a feasible
+         * solution, or {@code null} without a warm start.
+         */
+        final Boolean warmStartAccepted;
+
+        /**
+         * The number of search nodes.
+         */
+        final long nodeCount;
+
+        private Solution(int status, boolean[] values, double objective, double bestBound,
+                Boolean warmStartAccepted, long nodeCount) {
+            this.status = status;
+            this.values = values;
+            this.objective = objective;
+            this.bestBound = bestBound;
+            this.warmStartAccepted = warmStartAccepted;
+            this.nodeCount = nodeCount;
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package org.act.rscat.sol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.mip.Constraint;
+import org.act.rscat.mip.ConstraintCompiler;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.mip.SolverInputSingleItem;
+import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
+import org.act.rscat.mip.SolverOutput;
+import org.act.rscat.testdef.AbstractTestEntity;
+import org.act.rscat.testdef.Item;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.PrimitiveArrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assembles shadow tests in process with a pure Java branch-and-bound solver.
+ * <p>
+ * The constraints of the Mosel shadow-test model are built once as a
+ * {@link BinaryProgram} over item variables {@code x}, passage variables
+ * {@code z} and the auxiliary variables of "All or None" constraints. At each
+ * stage, administered items are fixed to 1, hard ineligible items are fixed to
+ * 0, and the item information, penalized by big M for items ineligible for
+ * exposure control, is maximized.
+ */
+public class BranchAndBoundSolver implements ShadowTestSolver {
+
+    /**
+     * Logger for the branch-and-bound solver.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BranchAndBoundSolver.class);
+
+    /**
+     * The delimiter of item identifiers in the "Precludes" attribute.
+     */
+    private static final String ATTR_DELIMITER = "\\|";
+
+    /**
+     * The maximum number of search nodes of a stage.
+     */
+    private static final long NODE_LIMIT = 1_000_000L;
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final TestConfig testConfig;
+    private final SolverConfig solverConfig;
+    private final List<Item> itemList;
+    private final List<String> itemIdList;
+    private final List<String> passageIdList;
+    private final List<Integer> itemPassageIndices;
+
+    /**
+     * The shared shadow-test data of the test configuration.
+     */
+    private final ShadowTestData data;
+
+    /**
+     * The shadow-test program.
+     */
+    private final BinaryProgram program = new BinaryProgram();
+
+    /**
+     * The item variables, which are the cardinality variables of the test
+     * length.
+     */
+    private final int[] itemVars;
+
+    /**
+     * The passage variables.
+     */
+    private final int[] passageVars;
+
+    private final double[] itemInfo;
+    private final boolean[] itemAdmined;
+    private final boolean[] itemEligible;
+    private final boolean[] itemEligibleHard;
+    private final boolean[] itemPreSelected;
+    private final boolean[] passageEligible;
+
+    /**
+     * The item row indices of each passage.
+     */
+    private final int[][] passageItems;
+
+    /**
+     * The work arrays of a stage, reused across stages.
+     */
+    private double[] obj;
+    private int[] fixings;
+    private int[] warmStartValues;
+    private final double[] passageItemObjs;
+    private final double[] passageScores;
+    private final int[] passageRanks;
+    private final int[] passageSortBuffer;
+    private final int[] orderedPassageVars;
+
+    private double totalSolverTime;
+    private int warmStartCount;
+    private int warmStartAcceptedCount;
+
+    /**
+     * Constructs a new {@link BranchAndBoundSolver}.
+     *
+     * @param testConfig the test configuration
+     * @param solverConfig the solver configuration
+     * @see TestConfig
+     * @see SolverConfig
+     */
+    public BranchAndBoundSolver(TestConfig testConfig, SolverConfig solverConfig) {
+        long buildStart = System.nanoTime();
+        this.testConfig = testConfig;
+        this.solverConfig = solverConfig;
+        data = ShadowTestData.forTestConfig(testConfig);
+        itemList = data.getItemList();
+        itemIdList = data.getItemIdList();
+        passageIdList = data.getPassageIdList();
+        itemPassageIndices = data.getItemPassageIndices();
+        int itemNum = itemList.size();
+        int passageNum = passageIdList.size();
+        itemInfo = new double[itemNum];
+        itemAdmined = new boolean[itemNum];
+        itemEligible = new boolean[itemNum];
+        itemEligibleHard = new boolean[itemNum];
+        itemPreSelected = new boolean[itemNum];
+        passageEligible = new boolean[passageNum];
+        Arrays.fill(itemEligible, true);
+        Arrays.fill(itemEligibleHard, true);
+        Arrays.fill(passageEligible, true);
+        int[] passageSizes = new int[passageNum];
+        for (int i = 0; i < itemNum; i++) {
+            if (itemPassageIndices.get(i) >= 0) {
+                passageSizes[itemPassageIndices.get(i)]++;
+            }
+        }
+        passageItems = new int[passageNum][];
+        int maxPassageSize = 0;
+        for (int j = 0; j < passageNum; j++) {
+            passageItems[j] = new int[passageSizes[j]];
+            maxPassageSize = Math.max(maxPassageSize, passageSizes[j]);
+            passageSizes[j] = 0;
+        }
+        for (int i = 0; i < itemNum; i++) {
+            int passageIndex = itemPassageIndices.get(i);
+            if (passageIndex >= 0) {
+                passageItems[passageIndex][passageSizes[passageIndex]++] = i;
+            }
+        }
+        passageItemObjs = new double[maxPassageSize];
+        passageScores = new double[passageNum];
+        passageRanks = new int[passageNum];
+        passageSortBuffer = new int[passageNum];
+        orderedPassageVars = new int[passageNum];
+
+        itemVars = new int[itemNum];
+        for (int i = 0; i < itemNum; i++) {
+            itemVars[i] = program.newVar();
+        }
+        passageVars = new int[passageNum];
+        for (int j = 0; j < passageNum; j++) {
+            passageVars[j] = program.newVar();
+        }
+        buildConstraints();
+        LOGGER.debug("Built the branch-and-bound shadow test model with {} variables in {} s",
+                program.getVarNum(), (System.nanoTime() - buildStart) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Builds the rows of the shadow-test model.
+     */
+    private void buildConstraints() {
+        int length = testConfig.getTestLength();
+
+        // User configurable constraints
+        for (Constraint cnst : data.getConstraintList()) {
+            int[] objectIndices = data.getConstraintObjects().get(cnst.rowIndex).stream().toArray();
+            if (ConstraintCompiler.LEVEL_ITEM.equals(cnst.level)) {
+                buildConstraint(cnst, objectIndices, itemVars, itemList, length);
+            } else if (ConstraintCompiler.LEVEL_PASSAGE.equals(cnst.level)) {
+                buildConstraint(cnst, objectIndices, passageVars, data.getPassageList(), length);
+            }
+        }
+
+        // Test length constraint
+        program.addRow(itemVars, length, length);
+
+        // Passage number constraint
+        int passageNumLB = testConfig.getNumPassageLB();
+        int passageNumUB = testConfig.getNumPassageUB();
+        if (passageNumLB > 0 && passageNumUB > 0) {
+            program.addRow(passageVars, passageNumLB, passageNumUB);
+        }
+
+        // Enemy item constraints
+        if (testConfig.isEnableEnemyItemConstraint()) {
+            int precludesIdx = itemList.get(0).getCategAttrsNames().indexOf("Precludes");
+            if (precludesIdx != -1) {
+                for (int i = 0; i < itemList.size(); i++) {
+                    String precludesStr = itemList.get(i).getCategAttrs().get(precludesIdx);
+                    List<Integer> vars = new ArrayList<>();
+                    vars.add(itemVars[i]);
+                    if (!"None".equalsIgnoreCase(precludesStr)) {
+                        for (String itemId : precludesStr.split(ATTR_DELIMITER)) {
+                            int enemyIndex = data.getItemIndex(itemId);
+                            if (enemyIndex >= 0) {
+                                vars.add(itemVars[enemyIndex]);
+                            }
+                        }
+                    }
+                    program.addRow(toArray(vars), Double.NEGATIVE_INFINITY, 1);
+                }
+            }
+        }
+
+        // Number of items per passage constraint
+        List<List<Integer>> passageItemVars = new ArrayList<>();
+        for (int j = 0; j < passageVars.length; j++) {
+            passageItemVars.add(new ArrayList<>());
+        }
+        int itemNumPerPassageLB = testConfig.getNumItemPerPassageLB();
+        int itemNumPerPassageUB = testConfig.getNumItemPerPassageUB();
+        boolean itemNumPerPassage = itemNumPerPassageLB >= 0 && itemNumPerPassageUB >= 0;
+        for (int i = 0; i < itemList.size(); i++) {
+            int passageIndex = itemPassageIndices.get(i);
+            if (passageIndex >= 0) {
+                passageItemVars.get(passageIndex).add(itemVars[i]);
+
+                // Items are selected only with their passage, which is implied
+                // by the upper bound of the number of items per passage
+                int[] linkVars = new int[] { itemVars[i], passageVars[passageIndex] };
+                double[] linkCoefs = new double[] { 1, -1 };
+                if (itemNumPerPassage) {
+                    program.addImpliedRow(linkVars, linkCoefs, Double.NEGATIVE_INFINITY, 0);
+                } else {
+                    program.addRow(linkVars, linkCoefs, Double.NEGATIVE_INFINITY, 0);
+                }
+            }
+        }
+        if (itemNumPerPassage) {
+            for (int j = 0; j < passageVars.length; j++) {
+                List<Integer> vars = passageItemVars.get(j);
+                int[] rowVars = new int[vars.size() + 1];
+                double[] lbCoefs = new double[rowVars.length];
+                double[] ubCoefs = new double[rowVars.length];
+                for (int k = 0; k < vars.size(); k++) {
+                    rowVars[k] = vars.get(k);
+                    lbCoefs[k] = 1;
+                    ubCoefs[k] = 1;
+                }
+                rowVars[vars.size()] = passageVars[j];
+                lbCoefs[vars.size()] = -itemNumPerPassageLB;
+                ubCoefs[vars.size()] = -itemNumPerPassageUB;
+                program.addRow(rowVars, lbCoefs, 0, Double.POSITIVE_INFINITY);
+                program.addRow(rowVars, ubCoefs, Double.NEGATIVE_INFINITY, 0);
+            }
+        }
+    }
+
+    /**
+     * Builds the rows of a user configurable constraint.
+     *
+     * @param cnst the constraint
+     * @param objectIndices the row indices of the constrained objects
+     * @param vars the variables of the objects
+     * @param objects the items or passages
+     * @param length the test length
+     */
+    private void buildConstraint(Constraint cnst, int[] objectIndices, int[] vars,
+            List<? extends AbstractTestEntity> objects, int length) {
+        int[] rowVars = new int[objectIndices.length];
+        for (int k = 0; k < rowVars.length; k++) {
+            rowVars[k] = vars[objectIndices[k]];
+        }
+        switch (cnst.type) {
+            case "Include":
+                if ("Count".equals(cnst.calAttr)) {
+                    program.addRow(rowVars, cnst.calLB, cnst.calUB);
+                } else if ("Percentage".equals(cnst.calAttr)) {
+                    program.addRow(rowVars, cnst.calLB * length, cnst.calUB * length);
+                } else if ("Null".equals(cnst.calAttr)) {
+                    for (int var : rowVars) {
+                        program.addRow(new int[] { var }, 1, 1);
+                    }
+                }
+                break;
+            case "Exclude":
+                if ("Null".equals(cnst.calAttr)) {
+                    for (int var : rowVars) {
+                        program.addRow(new int[] { var }, 0, 0);
+                    }
+                }
+                break;
+            case "Mutually Exclude":
+                if ("Null".equals(cnst.calAttr)) {
+                    program.addRow(rowVars, Double.NEGATIVE_INFINITY, 1);
+                }
+                break;
+            case "Avg Attribute":
+                double[] lbCoefs = new double[rowVars.length];
+                double[] ubCoefs = new double[rowVars.length];
+                for (int k = 0; k < rowVars.length; k++) {
+                    double attr = numericAttr(objects.get(objectIndices[k]), cnst.calAttr);
+                    lbCoefs[k] = attr - cnst.calLB;
+                    ubCoefs[k] = attr - cnst.calUB;
+                }
+                program.addRow(rowVars, lbCoefs, 0, Double.POSITIVE_INFINITY);
+                program.addRow(rowVars, ubCoefs, Double.NEGATIVE_INFINITY, 0);
+                break;
+            case "Sum Attribute":
+                double[] coefs = new double[rowVars.length];
+                for (int k = 0; k < rowVars.length; k++) {
+                    coefs[k] = numericAttr(objects.get(objectIndices[k]), cnst.calAttr);
+                }
+                program.addRow(rowVars, coefs, cnst.calLB, cnst.calUB);
+                break;
+            case "All or None":
+                int[] logicVars = Arrays.copyOf(rowVars, rowVars.length + 1);
+                double[] logicCoefs = new double[logicVars.length];
+                Arrays.fill(logicCoefs, 1);
+                logicVars[rowVars.length] = program.newVar();
+                logicCoefs[rowVars.length] = -rowVars.length;
+                program.addRow(logicVars, logicCoefs, 0, 0);
+                break;
+            default:
+                LOGGER.warn("Constraint type {} is not supported by the branch-and-bound solver.", cnst.type);
+        }
+    }
+
+    @Override
+    public SolverOutput solve(int stageIndex, List<SolverInputSingleItem> itemInput,
+            List<SolverInputSinglePassage> passageInput, double theta, double bigM,
+            ExposureControlType exposureType) {
+        long solveStart = System.nanoTime();
+
+        // Update item information, administration status and eligibility
+        for (SolverInputSingleItem singleItemInput : itemInput) {
+            int i = data.getItemIndex(singleItemInput);
+            itemAdmined[i] |= singleItemInput.isAdministered();
+            itemInfo[i] = singleItemInput.getInformation();
+            itemEligible[i] = singleItemInput.isEligible();
+            itemEligibleHard[i] = singleItemInput.isEligibleHard();
+            itemPreSelected[i] = singleItemInput.isSelected();
+        }
+
+        // Update passage eligibility
+        if (passageInput != null) {
+            for (SolverInputSinglePassage singlePassageInput : passageInput) {
+                passageEligible[data.getPassageIndex(singlePassageInput)] = singlePassageInput.isEligible();
+            }
+        }
+        return solveStage(solveStart, bigM, exposureType);
+    }
+
+    @Override
+    public SolverOutput solve(int stageIndex, SolverInputStage stageInput, double theta, double bigM,
+            ExposureControlType exposureType) {
+        long solveStart = System.nanoTime();
+
+        // Update item information, administration status and eligibility
+        for (int i = 0; i < itemVars.length; i++) {
+            itemAdmined[i] |= stageInput.isAdministered(i);
+            itemInfo[i] = stageInput.getInformation(i);
+            itemEligible[i] = stageInput.isEligible(i);
+            itemEligibleHard[i] = stageInput.isEligibleHard(i);
+            itemPreSelected[i] = stageInput.isSelected(i);
+        }
+
+        // Update passage eligibility
+        if (stageInput.hasPassageEligibility()) {
+            for (int j = 0; j < passageEligible.length; j++) {
+                passageEligible[j] = stageInput.isPassageEligible(j);
+            }
+        }
+        return solveStage(solveStart, bigM, exposureType);
+    }
+
+    /**
+     * Assembles the shadow test of a stage from the updated item and passage
+     * data.
+     *
+     * @param solveStart the start time of the stage in nanoseconds
+     * @param bigM the big M penalty value for exposure control
+     * @param exposureType whether exposure control is at the PASSAGE or ITEM
+     *            level
+     * @return the solutions from the solver
+     */
+    private SolverOutput solveStage(long solveStart, double bigM, ExposureControlType exposureType) {
+
+        // Objective and item fixings
+        int varNum = program.getVarNum();
+        if (obj == null) {
+            obj = new double[varNum];
+            fixings = new int[varNum];
+            warmStartValues = new int[varNum];
+        }
+        Arrays.fill(obj, 0);
+        Arrays.fill(fixings, -1);
+        boolean warmStart = false;
+        Arrays.fill(warmStartValues, -1);
+        for (int i = 0; i < itemVars.length; i++) {
+            int passageIndex = itemPassageIndices.get(i);
+            obj[itemVars[i]] = itemInfo[i];
+            if (exposureType == ExposureControlType.ITEM && !itemEligible[i]
+                    || exposureType == ExposureControlType.PASSAGE && passageIndex >= 0
+                            && !passageEligible[passageIndex]) {
+                obj[itemVars[i]] -= bigM;
+            }
+            if (itemAdmined[i]) {
+                fixings[itemVars[i]] = 1;
+            } else if (!itemEligibleHard[i]) {
+                fixings[itemVars[i]] = 0;
+            }
+            warmStartValues[itemVars[i]] = itemPreSelected[i] ? 1 : 0;
+            warmStart |= itemPreSelected[i];
+        }
+        warmStart &= solverConfig.isWarmStart();
+
+        BinaryProgram.Solution solution = program.maximize(obj, fixings, itemVars, testConfig.getTestLength(),
+                passageOrder(), warmStart ? warmStartValues : null, solverConfig.getAbsGap(),
+                solverConfig.getRelGap(), NODE_LIMIT, (long) (solverConfig.getMaxTime() * NANOS_PER_SECOND));
+        if (solution.warmStartAccepted != null) {
+            warmStartCount++;
+            if (solution.warmStartAccepted) {
+                warmStartAcceptedCount++;
+            }
+            LOGGER.trace("Warm start accepted: {} ({} of {} stages)", solution.warmStartAccepted,
+                    warmStartAcceptedCount, warmStartCount);
+        }
+        LOGGER.trace("Shadow test assembly objective value = {} ({} nodes)", solution.objective,
+                solution.nodeCount);
+
+        // Retrieve selected items and passages
+        List<String> selectedItemIdentifiers = new ArrayList<>();
+        List<Integer> selectedItemRowIndices = new ArrayList<>();
+        for (int i = 0; i < itemVars.length; i++) {
+            if (solution.values[itemVars[i]]) {
+                selectedItemIdentifiers.add(itemIdList.get(i));
+                selectedItemRowIndices.add(i);
+            }
+        }
+        List<String> selectedPassageIdentifiers = new ArrayList<>();
+        List<Integer> selectedPassageRowIndices = new ArrayList<>();
+        for (int j = 0; j < passageIdList.size(); j++) {
+            if (solution.values[passageVars[j]]) {
+                selectedPassageIdentifiers.add(passageIdList.get(j));
+                selectedPassageRowIndices.add(j);
+            }
+        }
+        totalSolverTime = (System.nanoTime() - solveStart) / NANOS_PER_SECOND;
+
+        return new SolverOutput.SolverOutputBuilder().selectedItemIdentifiers(selectedItemIdentifiers)
+                .selectedItemRowIndices(selectedItemRowIndices)
+                .selectedPassageIdentifiers(selectedPassageIdentifiers)
+                .selectedPassageRowIndices(selectedPassageRowIndices)
+                .objective(solution.objective > Double.NEGATIVE_INFINITY ? solution.objective : 0)
+                .bestBound(Double.isNaN(solution.bestBound) ? null : solution.bestBound)
+                .solverStatus(solution.status)
+                .warmStartAccepted(solution.warmStartAccepted)
+                .build();
+    }
+
+    /**
+     * Returns the passage variables ordered by the objective of their best
+     * items, which is the order passages are branched on. Deciding passages
+     * before items lets the passage constraints prune the item search.
+     *
+     * @return the ordered passage variables
+     */
+    private int[] passageOrder() {
+        int itemNumPerPassageUB = testConfig.getNumItemPerPassageUB() >= 0 ? testConfig.getNumItemPerPassageUB()
+                : testConfig.getTestLength();
+        for (int j = 0; j < passageVars.length; j++) {
+            int[] items = passageItems[j];
+            for (int k = 0; k < items.length; k++) {
+                passageItemObjs[k] = obj[itemVars[items[k]]];
+            }
+            Arrays.sort(passageItemObjs, 0, items.length);
+            passageScores[j] = 0;
+            for (int k = items.length - 1; k >= 0 && items.length - 1 - k < itemNumPerPassageUB; k--) {
+                passageScores[j] += passageItemObjs[k];
+            }
+            passageRanks[j] = j;
+        }
+        PrimitiveArrays.sortByDescendingKey(passageRanks, passageRanks.length, passageScores, passageSortBuffer);
+        for (int k = 0; k < passageRanks.length; k++) {
+            orderedPassageVars[k] = passageVars[passageRanks[k]];
+        }
+        return orderedPassageVars;
+    }
+
+    /**
+     * Returns the numeric attribute of an item or passage, or 0 if it does not
+     * have the attribute.
+     *
+     * @param object the item or passage
+     * @param attrName the attribute name
+     * @return the attribute value
+     */
+    private static double numericAttr(AbstractTestEntity object, String attrName) {
+        int attrIndex = object.getNumericAttrsNames().indexOf(attrName);
+        return attrIndex >= 0 ? object.getNumericAttrs().get(attrIndex) : 0;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int k = 0; k < array.length; k++) {
+            array[k] = list.get(k);
+        }
+        return array;
+    }
+
+    @Override
+    public double getTotalSolverTime() {
+        return totalSolverTime;
+    }
+
+    @Override
+    public int getWarmStartCount() {
+        return warmStartCount;
+    }
+
+    @Override
+    public int getWarmStartAcceptedCount() {
+        return warmStartAcceptedCount;
+    }
+
+    /**
+     * Clears the item and passage data of the current examinee. The
+     * shadow-test program of the test configuration is kept.
+     */
+    @Override
+    public void reset() {
+        Arrays.fill(itemInfo, 0);
+        Arrays.fill(itemAdmined, false);
+        Arrays.fill(itemEligible, true);
+        Arrays.fill(itemEligibleHard, true);
+        Arrays.fill(itemPreSelected, false);
+        Arrays.fill(passageEligible, true);
+        totalSolverTime = 0;
+        warmStartCount = 0;
+        warmStartAcceptedCount = 0;
+    }
+
+    /**
+     * Does nothing; the solver holds no resources beyond memory.
+     */
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
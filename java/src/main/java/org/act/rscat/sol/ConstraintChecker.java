@@ -0,0 +1,131 @@
+package org.act.rscat.sol;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import org.act.rscat.mip.Constraint;
+import org.act.rscat.mip.ConstraintCompiler;
+import org.act.rscat.testdef.AbstractTestEntity;
+import org.act.rscat.testdef.TestConfig;
+
+/**
+ * Checks a complete test against the loaded constraints of its test
+ * configuration.
+ * <p>
+ * The constraints are evaluated as the branch-and-bound solver models them: a
+ * passage is in the test if any of its items is, and a percentage bound is
+ * relative to the test length of the test configuration. Constraint types the
+ * branch-and-bound solver does not support are not checked.
+ */
+public final class ConstraintChecker {
+
+    /**
+     * The tolerance of the constraint bounds.
+     */
+    private static final double TOLERANCE = 1E-6;
+
+    private ConstraintChecker() {
+    }
+
+    /**
+     * Returns the loaded constraints of a test configuration violated by a
+     * test.
+     *
+     * @param testConfig the test configuration
+     * @param itemIds the identifiers of the items in the test
+     * @return the violated constraints, in constraint table order
+     * @throws IllegalArgumentException if an item is not in the item pool
+     */
+    public static List<Constraint> findViolations(TestConfig testConfig, Collection<String> itemIds) {
+        ShadowTestData data = ShadowTestData.forTestConfig(testConfig);
+        BitSet items = new BitSet(data.getItemList().size());
+        BitSet passages = new BitSet(data.getPassageList().size());
+        for (String itemId : itemIds) {
+            int itemIndex = data.getItemIndex(itemId);
+            if (itemIndex < 0) {
+                throw new IllegalArgumentException("Item " + itemId + " is not in the item pool!");
+            }
+            items.set(itemIndex);
+            int passageIndex = data.getItemPassageIndices().get(itemIndex);
+            if (passageIndex >= 0) {
+                passages.set(passageIndex);
+            }
+        }
+        List<Constraint> violations = new ArrayList<>();
+        for (Constraint cnst : data.getConstraintList()) {
+            BitSet objects = data.getConstraintObjects().get(cnst.rowIndex);
+            boolean satisfied = true;
+            if (ConstraintCompiler.LEVEL_ITEM.equals(cnst.level)) {
+                satisfied = isSatisfied(cnst, objects, items, data.getItemList(), testConfig.getTestLength());
+            } else if (ConstraintCompiler.LEVEL_PASSAGE.equals(cnst.level)) {
+                satisfied = isSatisfied(cnst, objects, passages, data.getPassageList(), testConfig.getTestLength());
+            }
+            if (!satisfied) {
+                violations.add(cnst);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Returns whether the selected objects satisfy a constraint.
+     *
+     * @param cnst the constraint
+     * @param objects the row indices of the constrained objects
+     * @param selected the row indices of the selected objects
+     * @param objectList the items or passages
+     * @param length the test length
+     * @return false if the constraint is violated, true otherwise
+     */
+    private static boolean isSatisfied(Constraint cnst, BitSet objects, BitSet selected,
+            List<? extends AbstractTestEntity> objectList, int length) {
+        BitSet selectedObjects = (BitSet) objects.clone();
+        selectedObjects.and(selected);
+        int count = selectedObjects.cardinality();
+        switch (cnst.type) {
+            case "Include":
+                if ("Count".equals(cnst.calAttr)) {
+                    return isWithin(count, cnst.calLB, cnst.calUB);
+                } else if ("Percentage".equals(cnst.calAttr)) {
+                    return isWithin(count, cnst.calLB * length, cnst.calUB * length);
+                } else if ("Null".equals(cnst.calAttr)) {
+                    return count == objects.cardinality();
+                }
+                return true;
+            case "Exclude":
+                return !"Null".equals(cnst.calAttr) || count == 0;
+            case "Mutually Exclude":
+                return !"Null".equals(cnst.calAttr) || count <= 1;
+            case "Avg Attribute":
+                double lbSum = 0;
+                double ubSum = 0;
+                for (int k = selectedObjects.nextSetBit(0); k >= 0; k = selectedObjects.nextSetBit(k + 1)) {
+                    double attr = numericAttr(objectList.get(k), cnst.calAttr);
+                    lbSum += attr - cnst.calLB;
+                    ubSum += attr - cnst.calUB;
+                }
+                return lbSum >= -TOLERANCE && ubSum <= TOLERANCE;
+            case "Sum Attribute":
+                double sum = 0;
+                for (int k = selectedObjects.nextSetBit(0); k >= 0; k = selectedObjects.nextSetBit(k + 1)) {
+                    sum += numericAttr(objectList.get(k), cnst.calAttr);
+                }
+                return isWithin(sum, cnst.calLB, cnst.calUB);
+            case "All or None":
+                return count == 0 || count == objects.cardinality();
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isWithin(double value, double lb, double ub) {
+        return value >= lb - TOLERANCE && value <= ub + TOLERANCE;
+    }
+
+    private static double numericAttr(AbstractTestEntity object, String attrName) {
+        int attrIndex = object.getNumericAttrsNames().indexOf(attrName);
+        return attrIndex >= 0 ? object.getNumericAttrs().get(attrIndex) : 0;
+    }
+}
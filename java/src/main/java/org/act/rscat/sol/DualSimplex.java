@@ -0,0 +1,413 @@
+package org.act.rscat.sol;
+
+import java.util.Arrays;
+
+/**
+ * Solves the linear relaxation of a {@link BinaryProgram} with the bounded
+ * dual simplex method.
+ * <p>
+ * The rows {@code lb <= a*x <= ub} are written as {@code a*x - s = 0} with a
+ * slack {@code s} bounded by the row bounds. All structural variables are
+ * boxed, so any basis is made dual feasible by placing each nonbasic
+ * structural variable at the bound matching the sign of its reduced cost. The
+ * basis is therefore kept between solves: after the variable bounds change
+ * along the branch-and-bound tree, the dual simplex restores primal
+ * feasibility in a few iterations. The objective of every dual feasible basis
+ * bounds the maximum from above, so a solve stopped by the iteration limit
+ * still returns a valid bound.
+ * <p>
+ * The basis inverse is kept dense, which suits the shadow-test model with
+ * a few hundred rows at most.
+ */
+final class DualSimplex {
+
+    private static final double PRIMAL_TOL = 1e-7;
+    private static final double DUAL_TOL = 1e-9;
+    private static final double PIVOT_TOL = 1e-9;
+
+    /**
+     * The number of iterations between refactorizations of the basis inverse.
+     */
+    private static final int REFACTOR_INTERVAL = 100;
+
+    private static final byte BASIC = 0;
+    private static final byte AT_LOWER = 1;
+    private static final byte AT_UPPER = 2;
+
+    private final int rowNum;
+    private final int structNum;
+    private final int colNum;
+    private final int[][] colRows;
+    private final double[][] colCoefs;
+    private final double[] lower;
+    private final double[] upper;
+    private final double[] cost;
+    private final double[] x;
+    private final double[] reducedCost;
+    private final double[] dualValue;
+    private final double[] rho;
+    private final double[] alphaRow;
+    private final double[] alphaCol;
+    private final double[] work;
+    private final int[] basis;
+    private final byte[] status;
+    private final double[][] basisInverse;
+
+    /**
+     * The work matrix of the refactorization, kept to avoid reallocating it.
+     */
+    private final double[][] basisMatrix;
+    private int sinceRefactor;
+
+    /**
+     * Constructs a new {@link DualSimplex}.
+     *
+     * @param structNum the number of structural variables
+     * @param rowVars the variables of each row
+     * @param rowCoefs the coefficients of each row
+     * @param rowLb the lower bound of each row
+     * @param rowUb the upper bound of each row
+     */
+    DualSimplex(int structNum, int[][] rowVars, double[][] rowCoefs, double[] rowLb, double[] rowUb) {
+        this.structNum = structNum;
+        rowNum = rowVars.length;
+        colNum = structNum + rowNum;
+        int[] colSize = new int[structNum];
+        for (int[] vars : rowVars) {
+            for (int v : vars) {
+                colSize[v]++;
+            }
+        }
+        colRows = new int[colNum][];
+        colCoefs = new double[colNum][];
+        for (int j = 0; j < structNum; j++) {
+            colRows[j] = new int[colSize[j]];
+            colCoefs[j] = new double[colSize[j]];
+            colSize[j] = 0;
+        }
+        for (int r = 0; r < rowNum; r++) {
+            for (int k = 0; k < rowVars[r].length; k++) {
+                int v = rowVars[r][k];
+                colRows[v][colSize[v]] = r;
+                colCoefs[v][colSize[v]++] = rowCoefs[r][k];
+            }
+            colRows[structNum + r] = new int[] { r };
+            colCoefs[structNum + r] = new double[] { -1 };
+        }
+        lower = new double[colNum];
+        upper = new double[colNum];
+        System.arraycopy(rowLb, 0, lower, structNum, rowNum);
+        System.arraycopy(rowUb, 0, upper, structNum, rowNum);
+        cost = new double[colNum];
+        x = new double[colNum];
+        reducedCost = new double[colNum];
+        dualValue = new double[rowNum];
+        rho = new double[rowNum];
+        alphaRow = new double[colNum];
+        alphaCol = new double[rowNum];
+        work = new double[rowNum];
+        basis = new int[rowNum];
+        status = new byte[colNum];
+        basisInverse = new double[rowNum][rowNum];
+        basisMatrix = new double[rowNum][rowNum];
+    }
+
+    /**
+     * Sets the objective to maximize and resets the basis to the slack basis.
+     *
+     * @param obj the objective coefficient of each structural variable
+     */
+    void setObjective(double[] obj) {
+        for (int j = 0; j < structNum; j++) {
+            cost[j] = -obj[j];
+        }
+        resetBasis();
+    }
+
+    /**
+     * Returns the value of a structural variable in the last solution.
+     *
+     * @param j the variable index
+     * @return the variable value
+     */
+    double value(int j) {
+        return x[j];
+    }
+
+    /**
+     * Maximizes the objective over the rows within variable bounds.
+     *
+     * @param varLower the lower bound of each structural variable
+     * @param varUpper the upper bound of each structural variable
+     * @param maxIter the maximum number of iterations
+     * @return an upper bound of the maximum, which is the maximum if the
+     *         relaxation was solved to optimality, or negative infinity if the
+     *         relaxation is infeasible
+     */
+    double maximize(double[] varLower, double[] varUpper, int maxIter) {
+        System.arraycopy(varLower, 0, lower, 0, structNum);
+        System.arraycopy(varUpper, 0, upper, 0, structNum);
+        computeReducedCosts();
+        placeNonbasic();
+        for (int iter = 0; iter < maxIter; iter++) {
+            computeBasicValues();
+
+            // Leaving variable with the largest bound violation
+            int p = -1;
+            double maxViolation = PRIMAL_TOL;
+            for (int i = 0; i < rowNum; i++) {
+                int b = basis[i];
+                double violation = Math.max(lower[b] - x[b], x[b] - upper[b]);
+                if (violation > maxViolation) {
+                    maxViolation = violation;
+                    p = i;
+                }
+            }
+            if (p < 0) {
+                return objective();
+            }
+            boolean toLower = x[basis[p]] < lower[basis[p]];
+
+            // Pivot row and dual ratio test
+            System.arraycopy(basisInverse[p], 0, rho, 0, rowNum);
+            int q = -1;
+            double minRatio = Double.POSITIVE_INFINITY;
+            double bestAlpha = 0;
+            for (int j = 0; j < colNum; j++) {
+                if (status[j] == BASIC || lower[j] == upper[j]) {
+                    continue;
+                }
+                double alpha = 0;
+                for (int k = 0; k < colRows[j].length; k++) {
+                    alpha += rho[colRows[j][k]] * colCoefs[j][k];
+                }
+                alphaRow[j] = alpha;
+                boolean candidate;
+                if (toLower) {
+                    candidate = status[j] == AT_LOWER ? alpha < -PIVOT_TOL : alpha > PIVOT_TOL;
+                } else {
+                    candidate = status[j] == AT_LOWER ? alpha > PIVOT_TOL : alpha < -PIVOT_TOL;
+                }
+                if (!candidate) {
+                    continue;
+                }
+                double ratio = Math.max(Math.abs(reducedCost[j]) - DUAL_TOL, 0) / Math.abs(alpha);
+                if (ratio < minRatio - DUAL_TOL || ratio <= minRatio + DUAL_TOL && Math.abs(alpha) > bestAlpha) {
+                    minRatio = Math.min(ratio, minRatio);
+                    bestAlpha = Math.abs(alpha);
+                    q = j;
+                }
+            }
+            if (q < 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            // Update the basis and its inverse
+            int leaving = basis[p];
+            status[leaving] = toLower ? AT_LOWER : AT_UPPER;
+            x[leaving] = toLower ? lower[leaving] : upper[leaving];
+            basis[p] = q;
+            status[q] = BASIC;
+            if (++sinceRefactor >= REFACTOR_INTERVAL) {
+                if (!refactor()) {
+                    resetBasis();
+                    computeReducedCosts();
+                    placeNonbasic();
+                    continue;
+                }
+            } else {
+                columnTimesInverse(q);
+                pivot(p);
+            }
+            computeReducedCosts();
+        }
+        computeBasicValues();
+        return objective();
+    }
+
+    /**
+     * Returns the objective of the current basic solution in the maximization
+     * sense.
+     *
+     * @return the objective
+     */
+    private double objective() {
+        double obj = 0;
+        for (int j = 0; j < structNum; j++) {
+            obj -= cost[j] * x[j];
+        }
+        return obj;
+    }
+
+    /**
+     * Resets the basis to the slack basis.
+     */
+    private void resetBasis() {
+        Arrays.fill(status, AT_LOWER);
+        for (int i = 0; i < rowNum; i++) {
+            Arrays.fill(basisInverse[i], 0);
+            basisInverse[i][i] = -1;
+            basis[i] = structNum + i;
+            status[structNum + i] = BASIC;
+        }
+        sinceRefactor = 0;
+    }
+
+    /**
+     * Places each nonbasic structural variable at the bound that keeps its
+     * reduced cost dual feasible.
+     */
+    private void placeNonbasic() {
+        for (int j = 0; j < structNum; j++) {
+            if (status[j] != BASIC) {
+                status[j] = reducedCost[j] >= 0 ? AT_LOWER : AT_UPPER;
+                x[j] = status[j] == AT_LOWER ? lower[j] : upper[j];
+            }
+        }
+        for (int j = structNum; j < colNum; j++) {
+            if (status[j] != BASIC) {
+                x[j] = status[j] == AT_LOWER ? lower[j] : upper[j];
+            }
+        }
+    }
+
+    /**
+     * Computes the basic variable values from the nonbasic ones.
+     */
+    private void computeBasicValues() {
+        Arrays.fill(work, 0);
+        for (int j = 0; j < colNum; j++) {
+            if (status[j] != BASIC && x[j] != 0) {
+                for (int k = 0; k < colRows[j].length; k++) {
+                    work[colRows[j][k]] += colCoefs[j][k] * x[j];
+                }
+            }
+        }
+        for (int i = 0; i < rowNum; i++) {
+            double value = 0;
+            double[] inverseRow = basisInverse[i];
+            for (int k = 0; k < rowNum; k++) {
+                value -= inverseRow[k] * work[k];
+            }
+            x[basis[i]] = value;
+        }
+    }
+
+    /**
+     * Computes the reduced costs of all variables from the current basis.
+     */
+    private void computeReducedCosts() {
+        Arrays.fill(dualValue, 0);
+        for (int i = 0; i < rowNum; i++) {
+            double c = cost[basis[i]];
+            if (c != 0) {
+                double[] inverseRow = basisInverse[i];
+                for (int k = 0; k < rowNum; k++) {
+                    dualValue[k] += c * inverseRow[k];
+                }
+            }
+        }
+        for (int j = 0; j < colNum; j++) {
+            if (status[j] == BASIC) {
+                reducedCost[j] = 0;
+                continue;
+            }
+            double d = cost[j];
+            for (int k = 0; k < colRows[j].length; k++) {
+                d -= dualValue[colRows[j][k]] * colCoefs[j][k];
+            }
+            reducedCost[j] = d;
+        }
+    }
+
+    /**
+     * Computes the column of a variable in terms of the basis.
+     *
+     * @param j the variable index
+     */
+    private void columnTimesInverse(int j) {
+        Arrays.fill(alphaCol, 0);
+        for (int k = 0; k < colRows[j].length; k++) {
+            int r = colRows[j][k];
+            double a = colCoefs[j][k];
+            for (int i = 0; i < rowNum; i++) {
+                alphaCol[i] += basisInverse[i][r] * a;
+            }
+        }
+    }
+
+    /**
+     * Updates the basis inverse for the entering column in position p.
+     *
+     * @param p the pivot row
+     */
+    private void pivot(int p) {
+        double[] pivotRow = basisInverse[p];
+        double pivot = alphaCol[p];
+        for (int k = 0; k < rowNum; k++) {
+            pivotRow[k] /= pivot;
+        }
+        for (int i = 0; i < rowNum; i++) {
+            double factor = alphaCol[i];
+            if (i != p && factor != 0) {
+                double[] inverseRow = basisInverse[i];
+                for (int k = 0; k < rowNum; k++) {
+                    inverseRow[k] -= factor * pivotRow[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the basis inverse by Gauss-Jordan elimination.
+     *
+     * @return false if the basis is singular
+     */
+    private boolean refactor() {
+        sinceRefactor = 0;
+        double[][] matrix = basisMatrix;
+        for (double[] row : matrix) {
+            Arrays.fill(row, 0);
+        }
+        for (int i = 0; i < rowNum; i++) {
+            int j = basis[i];
+            for (int k = 0; k < colRows[j].length; k++) {
+                matrix[colRows[j][k]][i] = colCoefs[j][k];
+            }
+            Arrays.fill(basisInverse[i], 0);
+            basisInverse[i][i] = 1;
+        }
+        for (int col = 0; col < rowNum; col++) {
+            int pivotRow = col;
+            for (int r = col + 1; r < rowNum; r++) {
+                if (Math.abs(matrix[r][col]) > Math.abs(matrix[pivotRow][col])) {
+                    pivotRow = r;
+                }
+            }
+            if (Math.abs(matrix[pivotRow][col]) < PIVOT_TOL) {
+                return false;
+            }
+            double[] tmp = matrix[col];
+            matrix[col] = matrix[pivotRow];
+            matrix[pivotRow] = tmp;
+            tmp = basisInverse[col];
+            basisInverse[col] = basisInverse[pivotRow];
+            basisInverse[pivotRow] = tmp;
+            double pivot = matrix[col][col];
+            for (int k = 0; k < rowNum; k++) {
+                matrix[col][k] /= pivot;
+                basisInverse[col][k] /= pivot;
+            }
+            for (int r = 0; r < rowNum; r++) {
+                double factor = matrix[r][col];
+                if (r != col && factor != 0) {
+                    for (int k = 0; k < rowNum; k++) {
+                        matrix[r][k] -= factor * matrix[col][k];
+                        basisInverse[r][k] -= factor * basisInverse[col][k];
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+package org.act.rscat.sol;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dashoptimization.XPRMInitializationFrom;
+import com.dashoptimization.XPRMInitializeContext;
+import com.dashoptimization.XPRMTyped;
+
+/**
+ * Hands adaptive stages over to a shadow-test model that keeps running between
+ * stages.
+ * <p>
+ * In the incremental mode the Mosel model builds the static part of the MIP
+ * once and then loops: each iteration reads the next stage request through the
+ * {@code NEXT_STAGE} label of this channel, re-reads the real-time item and
+ * passage data, updates the objective and the item fixings, and solves. The
+ * {@code NEXT_STAGE} callback blocks the model thread until the next request is
+ * submitted; being called again also tells the channel that the previous stage
+ * has been solved and its solutions written back to Java.
+ */
+final class MoselStageChannel implements XPRMInitializationFrom {
+
+    /**
+     * Logger for the stage channel.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MoselStageChannel.class);
+
+    /**
+     * The label the Mosel model reads stage requests from.
+     */
+    static final String NEXT_STAGE_LABEL = "NEXT_STAGE";
+
+    /**
+     * The stage index sent to the Mosel model to end its stage loop.
+     */
+    private static final double STOP_STAGE_INDEX = -1;
+
+    /**
+     * The pending stage request (stage index, big M and exposure type
+     * indicator), or {@code null} if there is none.
+     */
+    private double[] pendingRequest;
+
+    /**
+     * The number of requests submitted so far.
+     */
+    private long submittedCount;
+
+    /**
+     * The number of requests taken by the model so far.
+     */
+    private long takenCount;
+
+    /**
+     * The number of requests solved so far.
+     */
+    private long solvedCount;
+
+    /**
+     * Whether the channel has been closed by Java.
+     */
+    private boolean closed;
+
+    /**
+     * Whether the model has stopped running.
+     */
+    private boolean terminated;
+
+    /**
+     * Submits a stage to the model and waits until it is solved.
+     *
+     * @param stageIndex the stage index in adaptive testing
+     * @param bigM the big M penalty value
+     * @param exposureTypeIndicator the exposure control type indicator
+     * @throws IOException if the model stopped before solving the stage or the
+     *             calling thread was interrupted
+     */
+    synchronized void solve(int stageIndex, double bigM, int exposureTypeIndicator) throws IOException {
+        if (closed || terminated) {
+            throw new IOException("The shadow test model is no longer running!");
+        }
+        pendingRequest = new double[] { stageIndex, bigM, exposureTypeIndicator };
+        long ticket = ++submittedCount;
+        notifyAll();
+        try {
+            while (solvedCount < ticket && !terminated) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the shadow test model!");
+        }
+        if (solvedCount < ticket) {
+            throw new IOException("The shadow test model stopped before solving stage " + stageIndex + "!");
+        }
+    }
+
+    /**
+     * Asks the model to leave its stage loop once it requests the next stage.
+     */
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Records that the model has stopped running and releases any waiting
+     * caller.
+     */
+    synchronized void terminated() {
+        terminated = true;
+        notifyAll();
+    }
+
+    /**
+     * Blocks the model thread until the next stage is submitted. All stages
+     * taken before are solved by the time the model calls back.
+     *
+     * @return the next stage request, or a request with a negative stage index
+     *         if the channel is closed
+     * @throws InterruptedException if the model thread is interrupted
+     */
+    private synchronized double[] nextRequest() throws InterruptedException {
+        solvedCount = takenCount;
+        notifyAll();
+        while (pendingRequest == null && !closed) {
+            wait();
+        }
+        if (pendingRequest == null) {
+            return new double[] { STOP_STAGE_INDEX, 0, 0 };
+        }
+        double[] request = pendingRequest;
+        pendingRequest = null;
+        takenCount++;
+        return request;
+    }
+
+    /**
+     * Sends the next stage request to the Mosel model.
+     *
+     * @param ictx the XPRMInitializeContext object
+     * @param label the data label
+     * @param type the XPRMTyped object
+     * @return the boolean indicator of the initialization status
+     */
+    @Override
+    public boolean initializeFrom(XPRMInitializeContext ictx, String label, XPRMTyped type) {
+        if (!NEXT_STAGE_LABEL.equals(label)) {
+            LOGGER.error("Label {} not found.", label);
+            return false;
+        }
+        try {
+            double[] request = nextRequest();
+            ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
+            for (double value : request) {
+                ictx.send(value);
+            }
+            ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("{} could not be initialized", label);
+            return false;
+        } catch (IOException e) {
+            LOGGER.error("{} could not be initialized", label);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.act.rscat.sol;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.act.rscat.mip.Constraint;
+import org.act.rscat.mip.ConstraintCompiler;
+import org.act.rscat.mip.SolverInputSingleItem;
+import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.testdef.Item;
+import org.act.rscat.testdef.Passage;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.ContentTable;
+
+/**
+ * The static data of the shadow-test model: items, passages and loaded
+ * constraints of a {@link TestConfig}, shared by all solver backends.
+ * <p>
+ * The data are loaded once per {@code TestConfig} and shared, read-only, by
+ * the solvers of every examinee.
+ */
+final class ShadowTestData {
+
+    /**
+     * The data loaded so far, keyed by test configuration. Test configurations
+     * are compared by identity and released together with their data once
+     * they are no longer referenced.
+     */
+    private static final Map<TestConfig, ShadowTestData> DATA = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The list of {@link Item} in the item pool.
+     */
+    private final List<Item> itemList = new ArrayList<>();
+
+    /**
+     * The list of item identifiers in the item pool.
+     */
+    private final List<String> itemIdList = new ArrayList<>();
+
+    /**
+     * The row index of each item identifier.
+     */
+    private final Map<String, Integer> itemIndexMap = new HashMap<>();
+
+    /**
+     * The list of passages in the passage pool.
+     */
+    private final List<Passage> passageList = new ArrayList<>();
+
+    /**
+     * The list of passage identifiers in the passage pool.
+     */
+    private final List<String> passageIdList = new ArrayList<>();
+
+    /**
+     * The row index of each passage identifier.
+     */
+    private final Map<String, Integer> passageIndexMap = new HashMap<>();
+
+    /**
+     * List of passages indices associated with items (index: item row index;
+     * value: passage row index, or -1 for a discrete item).
+     */
+    private final List<Integer> itemPassageIndices = new ArrayList<>();
+
+    /**
+     * List of loaded {@link Constraint} from the constraint table.
+     */
+    private final List<Constraint> constraintList = new ArrayList<>();
+
+    /**
+     * The row indices of the items or passages of each loaded constraint.
+     */
+    private final List<BitSet> constraintObjects;
+
+    /**
+     * Returns the shared {@link ShadowTestData} of a test configuration,
+     * loading it on first use.
+     *
+     * @param testConfig the test configuration
+     * @return the shadow-test data of the test configuration
+     */
+    static ShadowTestData forTestConfig(TestConfig testConfig) {
+        return DATA.computeIfAbsent(testConfig, ShadowTestData::new);
+    }
+
+    /**
+     * Loads data from the content tables of a test configuration.
+     *
+     * @param testConfig the test configuration
+     */
+    private ShadowTestData(TestConfig testConfig) {
+        int rowIndex = 0;
+        ContentTable itemPoolTable = testConfig.getItemPoolTable();
+        int itemIdColumnIndex = testConfig.getItemIdColumnIndex();
+        int passageIdColumnIndexItemPool = testConfig.getPassageIdColumnIndexItemPool();
+        boolean[] itemNumericColumns = testConfig.getItemNumericColumn();
+        ContentTable passageTable = testConfig.getPassageTable();
+        int passageIdColumnIndex = testConfig.getPassageIdColumnIndexPassagePool();
+        boolean[] passageNumericColumns = testConfig.getPassageNumericColumn();
+        ContentTable constraintTable = testConfig.getConstraintTable();
+
+        // Load passage table if it is not null
+        List<String> columnNames;
+        if (passageTable != null) {
+            columnNames = passageTable.columnNames();
+            for (List<String> row : passageTable.rows()) {
+                String passageId = row.get(passageIdColumnIndex);
+                passageList.add(new Passage(passageId, row, columnNames, passageNumericColumns, rowIndex));
+                passageIdList.add(passageId);
+                passageIndexMap.putIfAbsent(passageId, rowIndex);
+                rowIndex++;
+            }
+        }
+
+        // Load item pool table
+        rowIndex = 0;
+        columnNames = itemPoolTable.columnNames();
+        for (List<String> row : itemPoolTable.rows()) {
+            String itemId = row.get(itemIdColumnIndex);
+            Item item = new Item(itemId, row, columnNames, itemNumericColumns, rowIndex);
+            itemList.add(item);
+            itemIdList.add(itemId);
+            itemIndexMap.putIfAbsent(itemId, rowIndex);
+
+            String passageId = row.get(passageIdColumnIndexItemPool);
+            int passageIndex = getPassageIndex(passageId);
+            itemPassageIndices.add(passageIndex);
+            item.getCategAttrsNames().add("IsDiscreteItem");
+            item.getCategAttrs().add(passageIndex >= 0 ? String.valueOf(false) : String.valueOf(true));
+            rowIndex++;
+        }
+
+        // Load constraint table if it is not null
+        if (constraintTable != null) {
+            int loadColumnIndex = constraintTable.columnNames().indexOf(Constraint.ColumnName.IS_LOADED.getName());
+            for (List<String> row : constraintTable.rows()) {
+                String[] data = row.toArray(new String[0]);
+                if (String.valueOf(true).equalsIgnoreCase(data[loadColumnIndex])) {
+                    constraintList.add(new Constraint(constraintTable.columnNames(), data, constraintList.size()));
+                }
+            }
+        }
+        constraintObjects = Collections.unmodifiableList(
+                ConstraintCompiler.compile(constraintList, itemList, passageList));
+    }
+
+    /**
+     * Returns the list of items in the item pool.
+     *
+     * @return the list of items
+     */
+    List<Item> getItemList() {
+        return itemList;
+    }
+
+    /**
+     * Returns the list of item identifiers in the item pool.
+     *
+     * @return the list of item identifiers
+     */
+    List<String> getItemIdList() {
+        return itemIdList;
+    }
+
+    /**
+     * Returns the row index of an item.
+     *
+     * @param itemId the item identifier
+     * @return the item row index, or -1 if the item is not in the pool
+     */
+    int getItemIndex(String itemId) {
+        Integer index = itemIndexMap.get(itemId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the row index of the item of a solver input, using the row index
+     * carried by the input if any.
+     *
+     * @param itemInput the solver input of an item
+     * @return the item row index, or -1 if the item is not in the pool
+     */
+    int getItemIndex(SolverInputSingleItem itemInput) {
+        return itemInput.getItemIndex() >= 0 ? itemInput.getItemIndex() : getItemIndex(itemInput.getItemIdentifier());
+    }
+
+    /**
+     * Returns the list of passages in the passage pool.
+     *
+     * @return the list of passages
+     */
+    List<Passage> getPassageList() {
+        return passageList;
+    }
+
+    /**
+     * Returns the list of passage identifiers in the passage pool.
+     *
+     * @return the list of passage identifiers
+     */
+    List<String> getPassageIdList() {
+        return passageIdList;
+    }
+
+    /**
+     * Returns the row index of a passage.
+     *
+     * @param passageId the passage identifier
+     * @return the passage row index, or -1 if the passage is not in the pool
+     */
+    int getPassageIndex(String passageId) {
+        Integer index = passageIndexMap.get(passageId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the row index of the passage of a solver input, using the row
+     * index carried by the input if any.
+     *
+     * @param passageInput the solver input of a passage
+     * @return the passage row index, or -1 if the passage is not in the pool
+     */
+    int getPassageIndex(SolverInputSinglePassage passageInput) {
+        return passageInput.getPassageIndex() >= 0 ? passageInput.getPassageIndex()
+                : getPassageIndex(passageInput.getPassageIdentifier());
+    }
+
+    /**
+     * Returns the passage row index of each item, -1 for discrete items.
+     *
+     * @return the item passage indices
+     */
+    List<Integer> getItemPassageIndices() {
+        return Collections.unmodifiableList(itemPassageIndices);
+    }
+
+    /**
+     * Returns the list of loaded constraints.
+     *
+     * @return the list of constraints
+     */
+    List<Constraint> getConstraintList() {
+        return constraintList;
+    }
+
+    /**
+     * Returns the row indices of the items or passages of each loaded
+     * constraint, in the order of the constraint list. The sets must not be
+     * modified.
+     *
+     * @return the constraint object sets
+     * @see ConstraintCompiler
+     */
+    List<BitSet> getConstraintObjects() {
+        return constraintObjects;
+    }
+}
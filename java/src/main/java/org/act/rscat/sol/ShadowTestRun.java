@@ -8,19 +8,23 @@ import org.act.rscat.cat.ExposureControlType;
 import org.act.rscat.mip.SolverConfig;
 import org.act.rscat.mip.SolverInputSingleItem;
 import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
 import org.act.rscat.mip.SolverOutput;
-import org.act.rscat.testdef.ItemRealTimeData;
-import org.act.rscat.testdef.PassageRealTimeData;
 import org.act.rscat.testdef.TestConfig;
 
 /**
  * Provides access to optimization engine.
+ * <p>
+ * The {@link ShadowTestSolver} backend is selected by
+ * {@link SolverConfig#getSolverType()}. The solver is checked out of the
+ * {@link ShadowTestSolverPool} and returned to it by {@link #close()}.
  */
 public final class ShadowTestRun {
     private static final double BIG_M_DEFAULT = 10;
     private final TestConfig testConfig;
     private final SolverConfig solverConfig;
-    private TestAssembly testAssembly;
+    private final ShadowTestSolver solver;
+    private boolean closed;
 
     /**
      * Constructs a new {@link ShadowTestRun}.
@@ -33,7 +37,7 @@ public final class ShadowTestRun {
 
         testConfig = catInput.getTestConfig();
         solverConfig = catInput.getCatConfig().solverConfig();
-        testAssembly = new TestAssembly(testConfig, solverConfig);
+        solver = ShadowTestSolverPool.checkout(testConfig, solverConfig);
     }
 
     /**
@@ -59,44 +63,26 @@ public final class ShadowTestRun {
     public SolverOutput runShadowTestAssembly(int stageIndex, List<SolverInputSingleItem> itemInput,
             List<SolverInputSinglePassage> passageInput, double theta, double bigM, ExposureControlType exposureType)
             throws IOException {
+        return solver.solve(stageIndex, itemInput, passageInput, theta, bigM, exposureType);
+    }
 
-        int[] preSolutions = new int[itemInput.size()];
-
-        // Update item information and attributes
-        int count = 0;
-        for (SolverInputSingleItem singleItemInput : itemInput) {
-            // Update item administration information
-            int itemIdex = testAssembly.getItemIdList().indexOf(singleItemInput.getItemIdentifier());
-            ItemRealTimeData itemRealTimeData = testAssembly.getItemRealTimeDataList().get(itemIdex);
-            if (singleItemInput.isAdministered() && !itemRealTimeData.isAdmined) {
-                testAssembly.getAdminedItemList().add(singleItemInput.getItemIdentifier());
-                itemRealTimeData.isAdmined = true;
-            }
-            // Update item information
-            itemRealTimeData.info = singleItemInput.getInformation();
-            // Update item eligibility
-            itemRealTimeData.isEligible = singleItemInput.isEligible();
-            // Update item hard eligibility
-            itemRealTimeData.isEligibleHard = singleItemInput.isEligibleHard();
-
-            // Retrieve solutions of previous shadow test
-            preSolutions[count] = singleItemInput.isSelected() ? 1 : 0;
-
-            count++;
-        }
-
-        // Update passage information and attributes
-        if (passageInput != null) {
-            for (SolverInputSinglePassage singlePassageInput : passageInput) {
-                int passageIndex = testAssembly.getPassageIdList().indexOf(singlePassageInput.getPassageIdentifier());
-                PassageRealTimeData passageRealTimeData = testAssembly.getPassageRealTimeDataList().get(passageIndex);
-                // Update passage eligibility
-                passageRealTimeData.isEligible = singlePassageInput.isEligible();
-            }
-        }
-
-        // Assemble shadow test and return output data
-        return testAssembly.assembleTest(stageIndex, theta, bigM, exposureType);
+    /**
+     * Runs shadow test assembly with the item and passage input data of a stage
+     * in compact form.
+     *
+     * @param stageIndex the index of current CAT stage. The first stage is 0.
+     * @param stageInput the real-time item and passage input data
+     * @param theta current student ability level
+     * @param bigM The big M value for exposure control.
+     * @param exposureType Whether exposure control is at the PASSAGE or ITEM
+     *            level
+     * @return an encapsulated output data object as the shadow test assembly
+     *         result
+     * @throws IOException if there is a data IO failure
+     */
+    public SolverOutput runShadowTestAssembly(int stageIndex, SolverInputStage stageInput, double theta,
+            double bigM, ExposureControlType exposureType) throws IOException {
+        return solver.solve(stageIndex, stageInput, theta, bigM, exposureType);
     }
 
     /**
@@ -114,12 +100,35 @@ public final class ShadowTestRun {
         return runShadowTestAssembly(stageIndex, itemInput, null, theta, BIG_M_DEFAULT, ExposureControlType.NONE);
     }
 
+    /**
+     * Returns the {@link ShadowTestSolver} used for shadow testing.
+     *
+     * @return the shadow test solver
+     */
+    public ShadowTestSolver getSolver() {
+        return solver;
+    }
+
     /**
      * Returns the instance of {@link TestAssembly} used for shadow testing.
      *
-     * @return the instance of {@code TestAssembly}
+     * @return the instance of {@code TestAssembly}, or {@code null} if another
+     *         solver backend is used
      */
     public TestAssembly getTestAssembly() {
-        return testAssembly;
+        return solver instanceof TestAssembly ? (TestAssembly) solver : null;
+    }
+
+    /**
+     * Returns the solver to the pool for the next examinee. The shadow test
+     * run must not be used afterwards.
+     *
+     * @see ShadowTestSolverPool#release(TestConfig, SolverConfig, ShadowTestSolver)
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            ShadowTestSolverPool.release(testConfig, solverConfig, solver);
+        }
     }
 }
@@ -0,0 +1,111 @@
+package org.act.rscat.sol;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.mip.SolverInputSingleItem;
+import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
+import org.act.rscat.mip.SolverOutput;
+
+/**
+ * A solver backend assembling shadow tests.
+ * <p>
+ * A backend is created for one {@link org.act.rscat.testdef.TestConfig}, whose
+ * item pool, passage pool and constraint table define the static part of the
+ * shadow-test model, and serves the adaptive stages of one examinee. At each
+ * stage it receives the item information, the item and passage eligibility and
+ * the administered items, and returns the selected shadow test. After
+ * {@link #reset()} it serves another examinee of the same test configuration.
+ *
+ * @see ShadowTestSolverFactory
+ */
+public interface ShadowTestSolver extends AutoCloseable {
+
+    /**
+     * The supported solver backends.
+     */
+    enum SUPPORTED_SOLVERS {
+
+        /**
+         * FICO Xpress through the Mosel shadow-test model.
+         */
+        XPRESS,
+
+        /**
+         * The in-process pure Java branch-and-bound solver.
+         */
+        BRANCH_AND_BOUND
+    }
+
+    /**
+     * Assembles the shadow test of a stage.
+     *
+     * @param stageIndex the index of current CAT stage. The first stage is 0.
+     * @param itemInput the real-time item input data
+     * @param passageInput the real-time passage input data, or {@code null} if
+     *            all passages are eligible
+     * @param theta current student ability level
+     * @param bigM the big M penalty value for exposure control
+     * @param exposureType whether exposure control is at the PASSAGE or ITEM
+     *            level
+     * @return the solutions from the solver
+     * @throws IOException if there is a data IO failure
+     */
+    SolverOutput solve(int stageIndex, List<SolverInputSingleItem> itemInput,
+            List<SolverInputSinglePassage> passageInput, double theta, double bigM, ExposureControlType exposureType)
+            throws IOException;
+
+    /**
+     * Assembles the shadow test of a stage from the compact stage input.
+     *
+     * @param stageIndex the index of current CAT stage. The first stage is 0.
+     * @param stageInput the real-time item and passage input data
+     * @param theta current student ability level
+     * @param bigM the big M penalty value for exposure control
+     * @param exposureType whether exposure control is at the PASSAGE or ITEM
+     *            level
+     * @return the solutions from the solver
+     * @throws IOException if there is a data IO failure
+     */
+    SolverOutput solve(int stageIndex, SolverInputStage stageInput, double theta, double bigM,
+            ExposureControlType exposureType) throws IOException;
+
+    /**
+     * Returns the total solver time of the last stage.
+     *
+     * @return the total solver time in second
+     */
+    double getTotalSolverTime();
+
+    /**
+     * Returns the number of stages whose solve was warm started from the
+     * previous shadow test.
+     *
+     * @return the number of warm started stages
+     */
+    int getWarmStartCount();
+
+    /**
+     * Returns the number of warm start solutions accepted by the solver.
+     *
+     * @return the number of accepted warm start solutions
+     */
+    int getWarmStartAcceptedCount();
+
+    /**
+     * Clears the state of the current examinee, so that the solver serves the
+     * stages of another examinee of the same test configuration as a newly
+     * created solver would. The static part of the shadow-test model is kept.
+     *
+     * @see ShadowTestSolverPool
+     */
+    void reset();
+
+    /**
+     * Releases the resources held by the solver.
+     */
+    @Override
+    void close();
+}
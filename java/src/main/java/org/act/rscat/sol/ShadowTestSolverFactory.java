@@ -0,0 +1,37 @@
+package org.act.rscat.sol;
+
+import java.io.IOException;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.testdef.TestConfig;
+
+/**
+ * Factory class to generate instances of type {@link ShadowTestSolver}.
+ */
+public final class ShadowTestSolverFactory {
+
+    private ShadowTestSolverFactory() {
+    }
+
+    /**
+     * Returns a new instance of the {@link ShadowTestSolver} selected by the
+     * solver configuration.
+     *
+     * @param testConfig the test configuration
+     * @param solverConfig the solver configuration
+     * @return the instance of {@code ShadowTestSolver}
+     * @throws IOException if there is a data IO failure
+     * @see SolverConfig#getSolverType()
+     */
+    public static ShadowTestSolver getInstance(TestConfig testConfig, SolverConfig solverConfig)
+            throws IOException {
+        switch (solverConfig.getSolverType()) {
+        case XPRESS:
+            return new TestAssembly(testConfig, solverConfig);
+        case BRANCH_AND_BOUND:
+            return new BranchAndBoundSolver(testConfig, solverConfig);
+        default:
+            throw new IllegalArgumentException("The solver type is not supported!");
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.act.rscat.sol;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.testdef.TestConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of ready {@link ShadowTestSolver} instances of each test
+ * configuration.
+ * <p>
+ * Creating a solver loads the shadow-test model and builds its static part from
+ * the item pool, passage pool and constraint table, which is the same for all
+ * examinees of a test configuration. A CAT session checks a solver out when a
+ * test starts and releases it when the test ends; a released solver is
+ * {@link ShadowTestSolver#reset() reset} and kept for the next session, so
+ * that only the first sessions of a test configuration, and sessions running
+ * concurrently with them, create solvers. At most {@link #getMaxIdle()}
+ * released solvers are kept per test configuration; further ones are closed.
+ * <p>
+ * A pooled solver is reused for the same {@link SolverConfig} instance and
+ * solver type only. Test configurations are compared by identity. Idle solvers
+ * are kept for the {@value #MAX_TEST_CONFIGS} most recently released test
+ * configurations; the idle solvers of older ones are closed. Since a solver
+ * refers to its test configuration, the pool keeps a test configuration
+ * reachable until its idle solvers are closed; {@link #clear(TestConfig)}
+ * closes those of a test configuration that is no longer used, and
+ * {@link #clear()} closes all of them. The pool is shared by all sessions of
+ * the JVM, so a user that raises the maximum number of idle solvers of a test
+ * configuration restores it with
+ * {@link #restoreMaxIdle(TestConfig, int)} rather than clearing the pool.
+ */
+public final class ShadowTestSolverPool {
+
+    /**
+     * The logger of the solvers that could not be reset.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShadowTestSolverPool.class);
+
+    /**
+     * The default maximum number of idle solvers per test configuration.
+     */
+    public static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The maximum number of test configurations with idle solvers.
+     */
+    public static final int MAX_TEST_CONFIGS = 16;
+
+    /**
+     * The idle solvers, keyed by test configuration in access order.
+     */
+    private static final Map<TestConfig, IdleSolvers> IDLE_SOLVERS = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum number of idle solvers per test configuration, unless raised
+     * for a test configuration; 0 disables pooling.
+     */
+    private static int maxIdle = DEFAULT_MAX_IDLE;
+
+    /**
+     * The number of solvers created because no idle solver matched.
+     */
+    private static long createdCount;
+
+    /**
+     * The number of checkouts served by an idle solver.
+     */
+    private static long reusedCount;
+
+    private ShadowTestSolverPool() {
+    }
+
+    /**
+     * Returns an idle solver of the test configuration and the solver
+     * configuration, or a new one if there is none.
+     *
+     * @param testConfig the test configuration
+     * @param solverConfig the solver configuration
+     * @return the solver, to be returned with
+     *         {@link #release(TestConfig, SolverConfig, ShadowTestSolver)}
+     * @throws IOException if there is a data IO failure creating a solver
+     */
+    public static ShadowTestSolver checkout(TestConfig testConfig, SolverConfig solverConfig) throws IOException {
+        synchronized (IDLE_SOLVERS) {
+            IdleSolvers entry = IDLE_SOLVERS.get(testConfig);
+            if (entry != null) {
+                List<IdleSolver> idleSolvers = entry.solvers;
+                for (int i = idleSolvers.size() - 1; i >= 0; i--) {
+                    IdleSolver idleSolver = idleSolvers.get(i);
+                    if (idleSolver.matches(solverConfig)) {
+                        idleSolvers.remove(i);
+                        reusedCount++;
+                        return idleSolver.solver;
+                    }
+                }
+            }
+            createdCount++;
+        }
+        return ShadowTestSolverFactory.getInstance(testConfig, solverConfig);
+    }
+
+    /**
+     * Resets a solver checked out with
+     * {@link #checkout(TestConfig, SolverConfig)} and keeps it for later
+     * sessions, or closes it if the pool of the test configuration is full or
+     * the solver cannot be reset.
+     *
+     * @param testConfig the test configuration of the solver
+     * @param solverConfig the solver configuration of the solver
+     * @param solver the solver, which must not be used after the release
+     */
+    public static void release(TestConfig testConfig, SolverConfig solverConfig, ShadowTestSolver solver) {
+        try {
+            solver.reset();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Closing a shadow test solver that could not be reset", e);
+            solver.close();
+            return;
+        }
+        List<IdleSolver> removed = new ArrayList<>();
+        synchronized (IDLE_SOLVERS) {
+            IdleSolvers entry = IDLE_SOLVERS.computeIfAbsent(testConfig, key -> new IdleSolvers());
+            if (entry.solvers.size() < entry.getMaxIdle()) {
+                entry.solvers.add(new IdleSolver(solverConfig, solver));
+            } else {
+                removed.add(new IdleSolver(solverConfig, solver));
+            }
+            removeOldest(removed);
+        }
+        for (IdleSolver idleSolver : removed) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Closes and removes all idle solvers.
+     */
+    public static void clear() {
+        List<IdleSolver> removed = new ArrayList<>();
+        synchronized (IDLE_SOLVERS) {
+            for (IdleSolvers entry : IDLE_SOLVERS.values()) {
+                removed.addAll(entry.solvers);
+            }
+            IDLE_SOLVERS.clear();
+        }
+        for (IdleSolver idleSolver : removed) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Closes and removes the idle solvers of a test configuration, and drops
+     * the maximum numbers of idle solvers raised for it. Solvers checked out
+     * are kept by their sessions and may be released again later.
+     *
+     * @param testConfig the test configuration
+     */
+    public static void clear(TestConfig testConfig) {
+        IdleSolvers entry;
+        synchronized (IDLE_SOLVERS) {
+            entry = IDLE_SOLVERS.remove(testConfig);
+        }
+        if (entry == null) {
+            return;
+        }
+        for (IdleSolver idleSolver : entry.solvers) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Returns the maximum number of idle solvers kept per test configuration,
+     * unless raised for a test configuration.
+     *
+     * @return the maximum number of idle solvers
+     */
+    public static int getMaxIdle() {
+        synchronized (IDLE_SOLVERS) {
+            return maxIdle;
+        }
+    }
+
+    /**
+     * Sets the maximum number of idle solvers kept per test configuration.
+     * Idle solvers beyond the new maximum are closed; 0 disables pooling.
+     *
+     * @param newMaxIdle the maximum number of idle solvers, at least 0
+     */
+    public static void setMaxIdle(int newMaxIdle) {
+        if (newMaxIdle < 0) {
+            throw new IllegalArgumentException("The maximum number of idle solvers cannot be negative!");
+        }
+        List<IdleSolver> removed = new ArrayList<>();
+        synchronized (IDLE_SOLVERS) {
+            maxIdle = newMaxIdle;
+            for (IdleSolvers entry : IDLE_SOLVERS.values()) {
+                List<IdleSolver> idleSolvers = entry.solvers;
+                while (idleSolvers.size() > entry.getMaxIdle()) {
+                    removed.add(idleSolvers.remove(idleSolvers.size() - 1));
+                }
+            }
+        }
+        for (IdleSolver idleSolver : removed) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Raises the maximum number of idle solvers kept for a test configuration
+     * to at least the given number, e.g. the number of sessions running
+     * concurrently, until the raise is undone by
+     * {@link #restoreMaxIdle(TestConfig, int)}, or the idle solvers of the test
+     * configuration are removed by {@link #clear(TestConfig)} or as the least
+     * recently released test configuration. Raises by concurrent users of a
+     * test configuration are kept apart, and the largest one applies. The
+     * maximum of other test configurations is unchanged. Does nothing if
+     * pooling is disabled.
+     *
+     * @param testConfig the test configuration
+     * @param minMaxIdle the least maximum number of idle solvers
+     */
+    public static void ensureMaxIdle(TestConfig testConfig, int minMaxIdle) {
+        List<IdleSolver> removed = new ArrayList<>();
+        synchronized (IDLE_SOLVERS) {
+            IdleSolvers entry = IDLE_SOLVERS.computeIfAbsent(testConfig, key -> new IdleSolvers());
+            entry.raisedMaxIdles.add(minMaxIdle);
+            removeOldest(removed);
+        }
+        for (IdleSolver idleSolver : removed) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Undoes a raise of the maximum number of idle solvers by
+     * {@link #ensureMaxIdle(TestConfig, int)}. The idle solvers of the test
+     * configuration are kept up to the maximum that applies without the
+     * raise; further idle solvers are closed. Solvers checked out are not
+     * affected.
+     *
+     * @param testConfig the test configuration
+     * @param minMaxIdle the least maximum number of idle solvers of the raise
+     */
+    public static void restoreMaxIdle(TestConfig testConfig, int minMaxIdle) {
+        List<IdleSolver> removed = new ArrayList<>();
+        synchronized (IDLE_SOLVERS) {
+            IdleSolvers entry = IDLE_SOLVERS.get(testConfig);
+            if (entry == null) {
+                return;
+            }
+            entry.raisedMaxIdles.remove(Integer.valueOf(minMaxIdle));
+            List<IdleSolver> idleSolvers = entry.solvers;
+            while (idleSolvers.size() > entry.getMaxIdle()) {
+                removed.add(idleSolvers.remove(idleSolvers.size() - 1));
+            }
+            if (idleSolvers.isEmpty() && entry.raisedMaxIdles.isEmpty()) {
+                IDLE_SOLVERS.remove(testConfig);
+            }
+        }
+        for (IdleSolver idleSolver : removed) {
+            idleSolver.solver.close();
+        }
+    }
+
+    /**
+     * Returns the number of solvers created because no idle solver matched.
+     *
+     * @return the number of created solvers
+     */
+    public static long getCreatedCount() {
+        synchronized (IDLE_SOLVERS) {
+            return createdCount;
+        }
+    }
+
+    /**
+     * Returns the number of checkouts served by an idle solver.
+     *
+     * @return the number of reused solvers
+     */
+    public static long getReusedCount() {
+        synchronized (IDLE_SOLVERS) {
+            return reusedCount;
+        }
+    }
+
+    /**
+     * Removes the least recently released test configurations beyond
+     * {@value #MAX_TEST_CONFIGS}. The caller holds the lock on the idle
+     * solvers.
+     *
+     * @param removed the list receiving the idle solvers to close
+     */
+    private static void removeOldest(List<IdleSolver> removed) {
+        Iterator<IdleSolvers> it = IDLE_SOLVERS.values().iterator();
+        while (IDLE_SOLVERS.size() > MAX_TEST_CONFIGS) {
+            removed.addAll(it.next().solvers);
+            it.remove();
+        }
+    }
+
+    /**
+     * The idle solvers of a test configuration.
+     */
+    private static final class IdleSolvers {
+
+        /**
+         * The idle solvers, the most recently released last.
+         */
+        private final List<IdleSolver> solvers = new ArrayList<>();
+
+        /**
+         * The maximum numbers of idle solvers raised for the test
+         * configuration and not restored yet.
+         */
+        private final List<Integer> raisedMaxIdles = new ArrayList<>();
+
+        /**
+         * Returns the maximum number of idle solvers of the test
+         * configuration. The caller holds the lock on the idle solvers.
+         *
+         * @return the maximum number of idle solvers
+         */
+        int getMaxIdle() {
+            int raisedMaxIdle = 0;
+            for (int raised : raisedMaxIdles) {
+                raisedMaxIdle = Math.max(raisedMaxIdle, raised);
+            }
+            return maxIdle > 0 ? Math.max(maxIdle, raisedMaxIdle) : 0;
+        }
+    }
+
+    /**
+     * An idle solver with the solver configuration it was created for.
+     */
+    private static final class IdleSolver {
+        private final SolverConfig solverConfig;
+        private final ShadowTestSolver.SUPPORTED_SOLVERS solverType;
+        private final boolean incrementalModel;
+        private final ShadowTestSolver solver;
+
+        IdleSolver(SolverConfig solverConfig, ShadowTestSolver solver) {
+            this.solverConfig = solverConfig;
+            this.solverType = solverConfig.getSolverType();
+            this.incrementalModel = solverConfig.isIncrementalModel();
+            this.solver = solver;
+        }
+
+        /**
+         * Returns whether the solver serves the given solver configuration.
+         *
+         * @param otherConfig the solver configuration
+         * @return true if the solver was created for the configuration and
+         *         its solver type and model mode have not changed
+         */
+        boolean matches(SolverConfig otherConfig) {
+            return solverConfig == otherConfig && solverType == otherConfig.getSolverType()
+                    && incrementalModel == otherConfig.isIncrementalModel();
+        }
+    }
+}
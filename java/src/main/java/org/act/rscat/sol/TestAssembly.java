@@ -2,16 +2,18 @@ package org.act.rscat.sol;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 import java.util.TreeMap;
 
 import org.act.rscat.cat.ExposureControlType;
 import org.act.rscat.mip.Constraint;
 import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.mip.SolverInputSingleItem;
+import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
 import org.act.rscat.mip.SolverOutput;
 import org.act.rscat.testdef.Item;
 import org.act.rscat.testdef.ItemRealTimeData;
@@ -29,7 +31,6 @@ import com.dashoptimization.XPRMInitializeContext;
 import com.dashoptimization.XPRMLicenseError;
 import com.dashoptimization.XPRMModel;
 import com.dashoptimization.XPRMTyped;
-import com.dashoptimization.XPRMValue;
 
 /**
  * This class implements functionalities to assemble a shadow-test according to
@@ -39,8 +40,14 @@ import com.dashoptimization.XPRMValue;
  * configuration, loading shadow test assembly optimization model, updating item
  * attributes for shadow test assembly, solving shadow test assembly, and
  * returning test assembly results.
+ * <p>
+ * By default the MIP model is rebuilt at every adaptive stage. When
+ * {@link SolverConfig#isIncrementalModel()} is set, the model is built once and
+ * kept running on a dedicated thread; later stages only update the item
+ * information, the eligibility penalties and the item fixings. The model is
+ * then released by {@link #close()}.
  */
-public class TestAssembly {
+public class TestAssembly implements ShadowTestSolver {
     /**
      * Logger for solver performance metrics.
      */
@@ -56,6 +63,19 @@ public class TestAssembly {
      */
     private static final String ATTR_DELIMITER = "\\|";
 
+    /**
+     * Number of solver statistics returned by the Mosel model: the solver
+     * status, the building, solving and other times, the objective value, the
+     * warm start status and the best bound.
+     */
+    private static final int SOL_STAT_NUM = 7;
+
+    /**
+     * Objective value the Mosel model returns if the solver stopped without an
+     * incumbent solution.
+     */
+    static final double NO_SOLUTION_OBJECTIVE = -Double.MAX_VALUE;
+
     /**
      * DynamicModelInit object used for dynamic data initialization.
      */
@@ -99,7 +119,7 @@ public class TestAssembly {
     /**
      * The list of {@link Item} in the item pool.
      */
-    private List<Item> itemList = new ArrayList<>();
+    private List<Item> itemList;
 
     /**
      * The list of {@link ItemRealTimeData} used for test assembly in CAT.
@@ -109,12 +129,17 @@ public class TestAssembly {
     /**
      * The list of item identifiers in the item pool.
      */
-    private List<String> itemIdList = new ArrayList<>();
+    private List<String> itemIdList;
+
+    /**
+     * The shared shadow-test data of the test configuration.
+     */
+    private ShadowTestData shadowTestData;
 
     /**
      * The list of passages in the passage pool.
      */
-    private List<Passage> passageList = new ArrayList<>();
+    private List<Passage> passageList;
 
     /**
      * The list of {@link PassageRealTimeData}.
@@ -124,13 +149,13 @@ public class TestAssembly {
     /**
      * The list of passage identifiers in the passage pool.
      */
-    private List<String> passageIdList = new ArrayList<>();
+    private List<String> passageIdList;
 
     /**
      * List of passages indices associated with items (index: item ID; value:
      * passage ID)
      */
-    private List<Integer> itemPassageIndices = new ArrayList<>();
+    private List<Integer> itemPassageIndices;
 
     /**
      * The optimal objective value of the shadow test.
@@ -152,7 +177,12 @@ public class TestAssembly {
     /**
      * List of {@link Constraint} from the constraint table.
      */
-    private List<Constraint> constraintList = new ArrayList<>();
+    private List<Constraint> constraintList;
+
+    /**
+     * The item or passage row indices of each constraint.
+     */
+    private List<BitSet> constraintObjects;
 
     /**
      * Input to the Mosel model.
@@ -169,6 +199,18 @@ public class TestAssembly {
      */
     private XPRMModel mod = Xprm.newModel();
 
+    /**
+     * The channel handing stages over to the running model in the incremental
+     * mode, or {@code null} if the model is rebuilt at every stage.
+     */
+    private MoselStageChannel stageChannel;
+
+    /**
+     * The thread running the model in the incremental mode, or {@code null} if
+     * the model has not been started.
+     */
+    private Thread modelThread;
+
     /**
      * Performance metric, MIP building time.
      */
@@ -190,16 +232,33 @@ public class TestAssembly {
      */
     private double totalSolverTime;
 
+    /**
+     * Number of stages whose MIP was warm started from the previous shadow
+     * test.
+     */
+    private int warmStartCount;
+
+    /**
+     * Number of warm start solutions accepted by the solver.
+     */
+    private int warmStartAcceptedCount;
+
     /**
      * Constructs a new {@link TestAssembly}.
      *
      * @param testConfig the test configuration
      * @param solverConfig the solver configuration
      * @throws IOException if there is a data IO failure
+     * @throws IllegalArgumentException if the maximum solver time is positive
+     *             but under one second, which Xpress cannot limit
      * @see TestConfig
      * @see SolverConfig
      */
     public TestAssembly(TestConfig testConfig, SolverConfig solverConfig) throws IOException {
+        if (solverConfig.getMaxTime() > 0 && solverConfig.getMaxTime() < 1) {
+            throw new IllegalArgumentException(
+                    "The Xpress solver cannot limit the solving time to less than one second!");
+        }
         this.testConfig = testConfig;
         this.solverConfig = solverConfig;
         reqPassageNumLB = testConfig.getNumPassageLB();
@@ -211,7 +270,8 @@ public class TestAssembly {
         constraintNum = constraintList.size();
 
         // Initialize dynamic type data for the shadow-test MIP model
-        dmInit = new DynamicModelInit(itemList, itemIdList, passageList, constraintList);
+        dmInit = new DynamicModelInit(itemList, itemIdList, passageList, constraintList, constraintObjects);
+        stageChannel = solverConfig.isIncrementalModel() ? new MoselStageChannel() : null;
     }
 
     /**
@@ -249,12 +309,10 @@ public class TestAssembly {
             throws IOException {
 
         // Initialize the model for the first time.
-        if (stageIndex == 0) {
+        if (stageChannel == null ? stageIndex == 0 : modelThread == null) {
             prepareModel();
         }
-        updateModel(stageIndex);
-        mod.setExecParam("STUDENT_THETA", theta);
-        mod.setExecParam("BIG_M", bigM);
+        updateModel();
 
         // Pass exposure control type indicator
         int exposureTypeIndicator;
@@ -273,22 +331,186 @@ public class TestAssembly {
 
         }
 
-        mod.setExecParam("EXPOSURE_TYPE", exposureTypeIndicator);
+        if (stageChannel != null) {
+
+            // Start the model once and hand the stage over to it
+            if (modelThread == null) {
+                setStageParams(stageIndex, theta, bigM, exposureTypeIndicator);
+                startModel();
+            }
+            stageChannel.solve(stageIndex, bigM, exposureTypeIndicator);
+            return processMIPSol();
+        }
+        setStageParams(stageIndex, theta, bigM, exposureTypeIndicator);
 
         // Run MIP model
         mod.run();
 
-        SolverOutput optResult = processMIPSol(mod);
+        SolverOutput optResult = processMIPSol();
         mod.reset();
         return optResult;
     }
 
+    @Override
+    public SolverOutput solve(int stageIndex, List<SolverInputSingleItem> itemInput,
+            List<SolverInputSinglePassage> passageInput, double theta, double bigM, ExposureControlType exposureType)
+            throws IOException {
+
+        // Update item information and attributes
+        for (SolverInputSingleItem singleItemInput : itemInput) {
+            // Update item administration information
+            int itemIdex = shadowTestData.getItemIndex(singleItemInput);
+            ItemRealTimeData itemRealTimeData = itemRealTimeDataList.get(itemIdex);
+            if (singleItemInput.isAdministered() && !itemRealTimeData.isAdmined) {
+                adminedItemList.add(singleItemInput.getItemIdentifier());
+                itemRealTimeData.isAdmined = true;
+            }
+            // Update item information
+            itemRealTimeData.info = singleItemInput.getInformation();
+            // Update item eligibility
+            itemRealTimeData.isEligible = singleItemInput.isEligible();
+            // Update item hard eligibility
+            itemRealTimeData.isEligibleHard = singleItemInput.isEligibleHard();
+
+            // Retrieve solutions of previous shadow test, used as the warm
+            // start solution
+            itemRealTimeData.isPreSelected = singleItemInput.isSelected();
+        }
+
+        // Update passage information and attributes
+        if (passageInput != null) {
+            for (SolverInputSinglePassage singlePassageInput : passageInput) {
+                int passageIndex = shadowTestData.getPassageIndex(singlePassageInput);
+                PassageRealTimeData passageRealTimeData = passageRealTimeDataList.get(passageIndex);
+                // Update passage eligibility
+                passageRealTimeData.isEligible = singlePassageInput.isEligible();
+            }
+        }
+
+        // Assemble shadow test and return output data
+        return assembleTest(stageIndex, theta, bigM, exposureType);
+    }
+
+    @Override
+    public SolverOutput solve(int stageIndex, SolverInputStage stageInput, double theta, double bigM,
+            ExposureControlType exposureType) throws IOException {
+
+        // Update item information and attributes
+        for (int itemIndex = 0; itemIndex < itemRealTimeDataList.size(); itemIndex++) {
+            ItemRealTimeData itemRealTimeData = itemRealTimeDataList.get(itemIndex);
+            if (stageInput.isAdministered(itemIndex) && !itemRealTimeData.isAdmined) {
+                adminedItemList.add(itemRealTimeData.id);
+                itemRealTimeData.isAdmined = true;
+            }
+            itemRealTimeData.info = stageInput.getInformation(itemIndex);
+            itemRealTimeData.isEligible = stageInput.isEligible(itemIndex);
+            itemRealTimeData.isEligibleHard = stageInput.isEligibleHard(itemIndex);
+            itemRealTimeData.isPreSelected = stageInput.isSelected(itemIndex);
+        }
+
+        // Update passage eligibility
+        if (stageInput.hasPassageEligibility()) {
+            for (int passageIndex = 0; passageIndex < passageRealTimeDataList.size(); passageIndex++) {
+                passageRealTimeDataList.get(passageIndex).isEligible = stageInput.isPassageEligible(passageIndex);
+            }
+        }
+
+        // Assemble shadow test and return output data
+        return assembleTest(stageIndex, theta, bigM, exposureType);
+    }
+
     /**
-     * Updates item real-time data for a CAT stage.
+     * Sets the execution parameters of a stage.
      *
-     * @param stepIndex the CAT stage index
+     * @param stageIndex the stage index in adaptive testing
+     * @param theta the ability of the student
+     * @param bigM the big M penalty value
+     * @param exposureTypeIndicator the exposure control type indicator
+     */
+    private void setStageParams(int stageIndex, double theta, double bigM, int exposureTypeIndicator) {
+        mod.setExecParam("STEP_INDEX", stageIndex);
+        mod.setExecParam("STUDENT_THETA", theta);
+        mod.setExecParam("BIG_M", bigM);
+        mod.setExecParam("EXPOSURE_TYPE", exposureTypeIndicator);
+    }
+
+    /**
+     * Starts the model on its own thread in the incremental mode. The model
+     * builds the static part of the MIP and then waits for stage requests
+     * from the stage channel.
+     */
+    private void startModel() {
+        MoselStageChannel channel = stageChannel;
+        mod.bind("stageInst", channel);
+        mod.setExecParam("STAGE_DATAFILE", "java:stageInst");
+        mod.setExecParam("INCREMENTAL", true);
+        modelThread = new Thread(() -> {
+            try {
+                mod.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Shadow test model stopped with an error", e);
+            } finally {
+                channel.terminated();
+                mod.reset();
+            }
+        }, "shadow-test-model");
+        modelThread.setDaemon(true);
+        modelThread.start();
+    }
+
+    /**
+     * Releases the running model in the incremental mode. Does nothing if the
+     * model is rebuilt at every stage.
+     */
+    @Override
+    public void close() {
+        if (stageChannel != null) {
+            stageChannel.close();
+        }
+    }
+
+    /**
+     * Clears the item and passage data of the current examinee. In the
+     * incremental mode the running model is stopped, and the next examinee
+     * starts a new one on the loaded model.
+     */
+    @Override
+    public void reset() {
+        if (modelThread != null) {
+            stageChannel.close();
+            try {
+                modelThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while stopping the shadow test model!", e);
+            }
+            modelThread = null;
+            stageChannel = new MoselStageChannel();
+        }
+        for (ItemRealTimeData itemRealTimeData : itemRealTimeDataList) {
+            itemRealTimeData.info = 0;
+            itemRealTimeData.isEligible = true;
+            itemRealTimeData.isEligibleHard = true;
+            itemRealTimeData.isAdmined = false;
+            itemRealTimeData.isPreSelected = false;
+        }
+        for (PassageRealTimeData passageRealTimeData : passageRealTimeDataList) {
+            passageRealTimeData.isEligible = true;
+        }
+        adminedItemList.clear();
+        selectedPassageItemMap.clear();
+        buildingTime = 0;
+        solvingTime = 0;
+        otherTime = 0;
+        totalSolverTime = 0;
+        warmStartCount = 0;
+        warmStartAcceptedCount = 0;
+    }
+
+    /**
+     * Updates item real-time data for a CAT stage.
      */
-    private void updateModel(int stepIndex) {
+    private void updateModel() {
         long updateModelStart = System.currentTimeMillis();
 
         // Update item information values, administration status,and eligibility
@@ -297,8 +519,9 @@ public class TestAssembly {
             itemRealTimeData.isAdmined = itemRealTimeDataList.get(itemRealTimeData.rowIndex).isAdmined;
             itemRealTimeData.isEligible = itemRealTimeDataList.get(itemRealTimeData.rowIndex).isEligible;
             itemRealTimeData.isEligibleHard = itemRealTimeDataList.get(itemRealTimeData.rowIndex).isEligibleHard;
+            moselInput.preSelectedArr[itemRealTimeData.rowIndex] = itemRealTimeDataList
+                    .get(itemRealTimeData.rowIndex).isPreSelected ? 1 : 0;
         }
-        mod.setExecParam("STEP_INDEX", stepIndex);
         long updateModelEnd = System.currentTimeMillis();
         LOGGER.trace("Update model time: {} {}", updateModelEnd - updateModelStart,  MILLIS);
     }
@@ -333,6 +556,12 @@ public class TestAssembly {
          */
         int[] itemPassageIndicesArr;
 
+        /**
+         * Array of previous shadow test marks (bucket index: item row index;
+         * value: 1 if the item was selected, otherwise 0).
+         */
+        int[] preSelectedArr;
+
         /**
          * Constructs a new {@link MoselInput}.
          *
@@ -348,6 +577,7 @@ public class TestAssembly {
             passageRealTimeDataArr = new PassageRealTimeData[passageList.size()];
             constraintArr = new Constraint[constraintList.size()];
             itemPassageIndicesArr = itemPassageIndices;
+            preSelectedArr = new int[itemList.size()];
 
             for (int i = 0; i < itemList.size(); i++) {
                 itemIdArr[i] = itemList.get(i).getId();
@@ -380,6 +610,14 @@ public class TestAssembly {
          */
         double[] zSolutions;
 
+        /**
+         * Solver statistics from the MIP solver: the solver status, the
+         * building, solving and other times, the objective value, and the warm
+         * start status (negative if no warm start solution was loaded, 0 if it
+         * was rejected, and 1 if it was accepted), and the best bound.
+         */
+        double[] solStats;
+
         /**
          * Constructs a new {@link MoselOutput}
          *
@@ -390,6 +628,7 @@ public class TestAssembly {
         MoselOutput(int itemNum, int passagePoolSize, int cnstNum) {
             xSolutions = new double[itemNum];
             zSolutions = new double[passagePoolSize];
+            solStats = new double[SOL_STAT_NUM];
         }
     }
 
@@ -412,8 +651,10 @@ public class TestAssembly {
         mod.bind("dtp", moselInput.passageRealTimeDataArr);
         mod.bind("cnst", moselInput.constraintArr);
         mod.bind("pidc", moselInput.itemPassageIndicesArr);
+        mod.bind("presol", moselInput.preSelectedArr);
         mod.bind("solx", moselOutput.xSolutions);
         mod.bind("solz", moselOutput.zSolutions);
+        mod.bind("solstat", moselOutput.solStats);
         mod.bind("dmInitInst", dmInit);
 
         // Set the execution parameters and bind the variable
@@ -426,13 +667,16 @@ public class TestAssembly {
         mod.setExecParam("ITEM_NUM_PER_PASSAGE_UB", testConfig.getNumItemPerPassageUB());
         mod.setExecParam("CNST_DATA", "cnst(rowIndex,type,level,calAttr,calLB,calUB)");
         mod.setExecParam("ITEM_PASSAGE_INDEX_DATA", "noindex,pidc");
-        //mod.setExecParam("GAP_ABS", solverConfig.getAbsGap());
-        //mod.setExecParam("GAP_RELV", solverConfig.getRelGap());
-        //mod.setExecParam("TOL_INT", solverConfig.getIntTol());
-        //mod.setExecParam("TIME_MAX", solverConfig.getMaxTime());
+        mod.setExecParam("PRE_SOL_DATA", "noindex,presol");
+        mod.setExecParam("WARM_START", solverConfig.isWarmStart());
+        mod.setExecParam("GAP_ABS", solverConfig.getAbsGap());
+        mod.setExecParam("GAP_RELV", solverConfig.getRelGap());
+        mod.setExecParam("TOL_INT", solverConfig.getIntTol());
+        mod.setExecParam("TIME_MAX", solverConfig.getMaxTime());
         mod.setExecParam("DYNAMIC_DATAFILE", "java:dmInitInst");
         mod.setExecParam("SOL_X", "noindex,solx");
         mod.setExecParam("SOL_Z", "noindex,solz");
+        mod.setExecParam("SOL_STAT", "noindex,solstat");
         mod.setExecParam("WEIGHT_ELG", testConfig.getEligibilityPriority());
         mod.setExecParam("WEIGHT_LENGTH", testConfig.getLengthPriority());
         mod.setExecParam("ENABLE_ENEMY_ITEM", testConfig.isEnableEnemyItemConstraint());
@@ -448,24 +692,40 @@ public class TestAssembly {
 
     /**
      * Processes MIP solutions and results to the {@link SolverOutput} format.
+     * <p>
+     * Solutions and solver statistics are read from the arrays the model
+     * writes back to Java, which works for a model that has finished as well
+     * as for a model kept running in the incremental mode.
      *
-     * @param modSol the XPRMModel object containing solutions and results
      * @return the processed result in a {@code SolverOutput} instance
      */
-    private SolverOutput processMIPSol(XPRMModel modSol) {
+    private SolverOutput processMIPSol() {
 
         // Retrieve solver status
-        int solverStatusCode = ((XPRMValue) modSol.findIdentifier("probstat")).asInteger();
+        int solverStatusCode = (int) Math.round(moselOutput.solStats[0]);
 
         // Retrieve time information
-        buildingTime = ((XPRMValue) modSol.findIdentifier("build_time")).asReal();
-        solvingTime = ((XPRMValue) modSol.findIdentifier("solve_time")).asReal();
-        otherTime = ((XPRMValue) modSol.findIdentifier("other_time")).asReal();
+        buildingTime = moselOutput.solStats[1];
+        solvingTime = moselOutput.solStats[2];
+        otherTime = moselOutput.solStats[3];
         totalSolverTime = buildingTime + solvingTime + otherTime;
 
         // Retrieve objective value
-        objCost = modSol.getObjectiveValue();
+        objCost = toObjective(moselOutput.solStats[4]);
         LOGGER.trace("Shadow test assembly objective value = {}", objCost);
+        double bestBound = moselOutput.solStats[6];
+
+        // Retrieve warm start status
+        Boolean warmStartAccepted = null;
+        if (moselOutput.solStats[5] >= 0) {
+            warmStartAccepted = moselOutput.solStats[5] > 0;
+            warmStartCount++;
+            if (warmStartAccepted) {
+                warmStartAcceptedCount++;
+            }
+            LOGGER.trace("Warm start accepted: {} ({} of {} stages)", warmStartAccepted, warmStartAcceptedCount,
+                    warmStartCount);
+        }
         selectedPassageItemMap.clear();
 
         // Retrieve selected items in the current shadow test
@@ -520,10 +780,24 @@ public class TestAssembly {
                 .selectedPassageIdentifiers(selectedPassageIdentifiers)
                 .selectedPassageRowIndices(selectedPassageRowIndices).passageRowIndexSequence(passageSequence)
                 .objective(objCost)
+                .bestBound(bestBound)
                 .solverStatus(solverStatusCode)
+                .warmStartAccepted(warmStartAccepted)
                 .build();
     }
 
+    /**
+     * Returns the objective value of a solver statistic returned by the Mosel
+     * model, which is 0 if the solver stopped without an incumbent solution,
+     * as with {@link BranchAndBoundSolver}.
+     *
+     * @param objectiveStat the objective value returned by the Mosel model
+     * @return the objective value of the shadow test
+     */
+    static double toObjective(double objectiveStat) {
+        return objectiveStat > NO_SOLUTION_OBJECTIVE ? objectiveStat : 0;
+    }
+
     /**
      * Loads data from content tables to Java objects.
      *
@@ -551,67 +825,24 @@ public class TestAssembly {
      *            table
      */
     private void loadDataFromTable(TestConfig testConfig) {
-        int rowIndex = 0;
-        ContentTable itemPoolTable = testConfig.getItemPoolTable();
-        int itemIdColumnIndex = testConfig.getItemIdColumnIndex();
-        int passageIdColumnIndexItemPool = testConfig.getPassageIdColumnIndexItemPool();
-        boolean[] itemNumericColumns = testConfig.getItemNumericColumn();
-        ContentTable passageTable = testConfig.getPassageTable();
-        int passageIdColumnIndex = testConfig.getPassageIdColumnIndexPassagePool();
-        boolean[] passageNumericColumns = testConfig.getPassageNumericColumn();
-        ContentTable constraintTable = testConfig.getConstraintTable();
-
-        // Load passage table if it is not null
-        List<String> columnNames;
-        if (passageTable != null) {
-            columnNames = passageTable.columnNames();
-            for (List<String> row : passageTable.rows()) {
-                String passageId = row.get(passageIdColumnIndex);
-                Passage passage = new Passage(passageId, row, columnNames, passageNumericColumns, rowIndex);
-                passageList.add(passage);
-                PassageRealTimeData realTimeData = new PassageRealTimeData(passageId, rowIndex, true);
-                passageRealTimeDataList.add(realTimeData);
-                passageIdList.add(passageId);
-                rowIndex++;
-            }
+        shadowTestData = ShadowTestData.forTestConfig(testConfig);
+        itemList = shadowTestData.getItemList();
+        itemIdList = shadowTestData.getItemIdList();
+        passageList = shadowTestData.getPassageList();
+        passageIdList = shadowTestData.getPassageIdList();
+        itemPassageIndices = shadowTestData.getItemPassageIndices();
+        constraintList = shadowTestData.getConstraintList();
+        constraintObjects = shadowTestData.getConstraintObjects();
+
+        // Create real-time data for passages and items
+        for (int rowIndex = 0; rowIndex < passageIdList.size(); rowIndex++) {
+            passageRealTimeDataList.add(new PassageRealTimeData(passageIdList.get(rowIndex), rowIndex, true));
         }
-        passageNum = passageList.size();
-
-        // Load item pool table
-        rowIndex = 0;
-        columnNames = itemPoolTable.columnNames();
-        for (List<String> row : itemPoolTable.rows()) {
-            String itemId = row.get(itemIdColumnIndex);
-            Item item = new Item(itemId, row, columnNames, itemNumericColumns, rowIndex);
-            itemList.add(item);
-            itemIdList.add(itemId);
-
-            ItemRealTimeData itemRealTimeData = new ItemRealTimeData(itemId, rowIndex, 0, true, true, false);
-            itemRealTimeDataList.add(itemRealTimeData);
-
-            String passageId = row.get(passageIdColumnIndexItemPool);
-            int passageIndex = passageIdList.indexOf(passageId);
-            itemPassageIndices.add(passageIndex);
-            item.getCategAttrsNames().add("IsDiscreteItem");
-            item.getCategAttrs().add(passageIndex >= 0 ? String.valueOf(false) : String.valueOf(true));
-
-            // Create generic item
-            rowIndex++;
+        for (int rowIndex = 0; rowIndex < itemIdList.size(); rowIndex++) {
+            itemRealTimeDataList.add(new ItemRealTimeData(itemIdList.get(rowIndex), rowIndex, 0, true, true, false));
         }
+        passageNum = passageList.size();
         itemNum = itemList.size();
-
-        // Load constraint table if it is not null
-        if (constraintTable != null) {
-            int loadColumnIndex = constraintTable.columnNames().indexOf(Constraint.ColumnName.IS_LOADED.getName());
-            for (List<String> row : constraintTable.rows()) {
-                String[] data = row.toArray(new String[0]);
-                if (String.valueOf(true).equalsIgnoreCase(data[loadColumnIndex])) {
-                    Constraint constraint = new Constraint(constraintTable.columnNames(), data, constraintList.size());
-                    constraintList.add(constraint);
-                }
-            }
-
-        }
         constraintNum = constraintList.size();
     }
 
@@ -676,6 +907,11 @@ public class TestAssembly {
          */
         private List<Constraint> constraintList;
 
+        /**
+         * The item or passage row indices of each constraint.
+         */
+        private List<BitSet> constraintObjects;
+
         /**
          * Constructs a new {@DynamicModelInit}.
          *
@@ -683,13 +919,17 @@ public class TestAssembly {
          * @param itemIdList the list of item identifiers
          * @param passageList the list of passages in the passage pool
          * @param constraintList the list of constraints in the constraint table
+         * @param constraintObjects the item or passage row indices of each
+         *            constraint, compiled by
+         *            {@link org.act.rscat.mip.ConstraintCompiler}
          */
         public DynamicModelInit(List<Item> itemList, List<String> itemIdList, List<Passage> passageList,
-                List<Constraint> constraintList) {
+                List<Constraint> constraintList, List<BitSet> constraintObjects) {
             this.itemList = itemList;
             this.itemIdList = itemIdList;
             this.passageList = passageList;
             this.constraintList = constraintList;
+            this.constraintObjects = constraintObjects;
         }
 
         /**
@@ -754,6 +994,10 @@ public class TestAssembly {
                         ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
                         int precludesIdx = itemList.get(0).getCategAttrsNames().indexOf("Precludes");
                         if (precludesIdx != -1) {
+                            Map<String, Integer> itemIndexMap = new HashMap<>();
+                            for (int i = itemIdList.size() - 1; i >= 0; i--) {
+                                itemIndexMap.put(itemIdList.get(i), i);
+                            }
                             for (Item item : itemList) {
                                 ictx.sendControl(XPRMInitializeContext.CONTROL_OPENNDX);
                                 ictx.send(item.getRowIndex());
@@ -767,8 +1011,9 @@ public class TestAssembly {
 
                                         // Add item row index only if the item
                                         // is in the item pool
-                                        if (itemIdList.contains(itemId)) {
-                                            ictx.send(itemIdList.indexOf(itemId));
+                                        Integer enemyIndex = itemIndexMap.get(itemId);
+                                        if (enemyIndex != null) {
+                                            ictx.send(enemyIndex.intValue());
                                         }
                                     }
                                 }
@@ -819,7 +1064,8 @@ public class TestAssembly {
                         ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
                         return true;
 
-                    case "CNST_FILTER_SET_ATTR_DATA":
+                    // Construct the object row indices of each constraint.
+                    case "CNST_OBJECTS_DATA":
                         ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
                         for (Constraint cnst : constraintList) {
 
@@ -828,10 +1074,11 @@ public class TestAssembly {
                             ictx.send(cnst.rowIndex);
                             ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSENDX);
 
-                            // Attributes with set filter
+                            // Item or passage row indices
+                            BitSet objects = constraintObjects.get(cnst.rowIndex);
                             ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                            for (String data : cnst.filterSetData.keySet()) {
-                                ictx.send(data);
+                            for (int i = objects.nextSetBit(0); i >= 0; i = objects.nextSetBit(i + 1)) {
+                                ictx.send(i);
                             }
                             ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
                             ictx.sendControl(XPRMInitializeContext.CONTROL_FLUSH);
@@ -839,72 +1086,6 @@ public class TestAssembly {
                         ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
                         return true;
 
-                    case "CNST_FILTER_BOUND_ATTR_DATA":
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                        for (Constraint cnst : constraintList) {
-
-                            // Constraint index
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_OPENNDX);
-                            ictx.send(cnst.rowIndex);
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSENDX);
-
-                            // Attributes with set filter
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                            for (String data : cnst.filterBoundsData.keySet()) {
-                                ictx.send(data);
-                            }
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_FLUSH);
-                        }
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                        return true;
-
-                    case "CNST_FILTER_SET_DATA":
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                        for (Constraint cnst : constraintList) {
-                            for (Entry<String, Set<String>> entry : cnst.filterSetData.entrySet()) {
-
-                                // Constraint index and filter attribute
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_OPENNDX);
-                                ictx.send(cnst.rowIndex);
-                                ictx.send(entry.getKey());
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSENDX);
-
-                                // Filter data
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                                for (String data : entry.getValue()) {
-                                    ictx.send(data);
-                                }
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                            }
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_FLUSH);
-                        }
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                        return true;
-
-                    case "CNST_FILTER_BOUND_DATA":
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                        for (Constraint cnst : constraintList) {
-                            for (Entry<String, List<Double>> entry : cnst.filterBoundsData.entrySet()) {
-
-                                // Constraint index and filter attribute
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_OPENNDX);
-                                ictx.send(cnst.rowIndex);
-                                ictx.send(entry.getKey());
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSENDX);
-
-                                // Filter data
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_OPENLST);
-                                for (double data : entry.getValue()) {
-                                    ictx.send(data);
-                                }
-                                ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                            }
-                            ictx.sendControl(XPRMInitializeContext.CONTROL_FLUSH);
-                        }
-                        ictx.sendControl(XPRMInitializeContext.CONTROL_CLOSELST);
-                        return true;
-
                     default:
                         LOGGER.error("Label {} not found.", label);
                         return false;
@@ -985,10 +1166,32 @@ public class TestAssembly {
      *
      * @return the total solver time in second.
      */
+    @Override
     public double getTotalSolverTime() {
         return totalSolverTime;
     }
 
+    /**
+     * Returns the number of stages whose MIP was warm started from the previous
+     * shadow test.
+     *
+     * @return the number of warm started stages
+     */
+    @Override
+    public int getWarmStartCount() {
+        return warmStartCount;
+    }
+
+    /**
+     * Returns the number of warm start solutions accepted by the solver.
+     *
+     * @return the number of accepted warm start solutions
+     */
+    @Override
+    public int getWarmStartAcceptedCount() {
+        return warmStartAcceptedCount;
+    }
+
     /**
      * Returns the passage list.
      *
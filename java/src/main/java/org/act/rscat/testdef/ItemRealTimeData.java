@@ -37,6 +37,12 @@ public class ItemRealTimeData {
      */
     public boolean isAdmined;
 
+    /**
+     * Item mark for the previous shadow test, true if the item was selected in
+     * it.
+     */
+    public boolean isPreSelected;
+
     /**
      * Constructs a new {@link ItemRealTimeData}.
      *
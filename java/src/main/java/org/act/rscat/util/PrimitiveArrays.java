@@ -2,8 +2,11 @@ package org.act.rscat.util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +52,72 @@ public final class PrimitiveArrays {
         return values;
     }
 
+    /**
+     * Converts a primitive boolean array into a {@link BitSet} with the true
+     * values set.
+     *
+     * @param array the primitive array of boolean values
+     * @return the bit set
+     */
+    public static BitSet bitSet(boolean[] array) {
+        return bitSet(array, new BitSet(array.length));
+    }
+
+    /**
+     * Sets the bits of an existing {@link BitSet} to the values of a
+     * primitive boolean array, clearing any other bit.
+     *
+     * @param array the primitive array of boolean values
+     * @param bits the bit set to fill
+     * @return the filled bit set
+     */
+    public static BitSet bitSet(boolean[] array, BitSet bits) {
+        bits.clear();
+        for (int i = 0; i < array.length; i++) {
+            if (array[i]) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Sorts the first values of an int array by descending key, where the key
+     * of a value {@code v} is {@code keys[v]}. The sort is stable and boxes
+     * nothing, so values with equal keys keep their order as with
+     * {@link Arrays#sort(Object[], java.util.Comparator)}.
+     *
+     * @param values the values to sort, which are indices of the keys
+     * @param length the number of values to sort
+     * @param keys the sort keys
+     * @param buffer a work array with at least {@code length} elements
+     */
+    public static void sortByDescendingKey(int[] values, int length, double[] keys, int[] buffer) {
+        int[] from = values;
+        int[] to = buffer;
+        for (int width = 1; width < length; width *= 2) {
+            for (int start = 0; start < length; start += 2 * width) {
+                int mid = Math.min(start + width, length);
+                int end = Math.min(start + 2 * width, length);
+                int left = start;
+                int right = mid;
+                for (int k = start; k < end; k++) {
+                    if (left < mid && (right == end || Double.compare(keys[from[right]], keys[from[left]]) <= 0)) {
+                        to[k] = from[left++];
+                    } else {
+                        to[k] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != values) {
+            System.arraycopy(from, 0, values, 0, length);
+        }
+    }
+
     /**
      * Converts a primitive int array into a {@link List} of Strings.
      *
@@ -153,12 +222,30 @@ public final class PrimitiveArrays {
      */
     public static int[] select(String[] array, String... values) {
         List<Integer> results = new ArrayList<>();
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < array.length; j++) {
-                if (values[i].equals(array[j])) {
-                    results.add(j);
+        if (values.length <= 1) {
+            for (int i = 0; i < values.length; i++) {
+                for (int j = 0; j < array.length; j++) {
+                    if (values[i].equals(array[j])) {
+                        results.add(j);
+                    }
                 }
             }
+            return getIntArray(results);
+        }
+
+        // hash the array once so that the lookup is linear in the array and
+        // value lengths; equal elements are chained in array order
+        Map<String, Integer> firstIndices = new HashMap<>(array.length * 2);
+        int[] nextIndices = new int[array.length];
+        for (int j = array.length - 1; j >= 0; j--) {
+            Integer next = firstIndices.put(array[j], j);
+            nextIndices[j] = next == null ? -1 : next;
+        }
+        for (int i = 0; i < values.length; i++) {
+            Integer first = firstIndices.get(values[i]);
+            for (int j = first == null ? -1 : first; j >= 0; j = nextIndices[j]) {
+                results.add(j);
+            }
         }
         return getIntArray(results);
     }
@@ -69,4 +69,12 @@ public interface ProbDistribution {
      * @return the standard error of the distribution
      */
     double sd();
+
+    /**
+     * Reseeds the random generator used to draw samples, so that subsequent
+     * samples are reproducible.
+     *
+     * @param seed the new seed
+     */
+    void reseedRandomGenerator(long seed);
 }
@@ -3,7 +3,7 @@ package org.act.rscat.util;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.act.rscat.cat.AbstractScoringMethodConfig;
@@ -36,7 +36,8 @@ public class RHelper {
      * @param initTheta            the initial theta value of examinees
      * @param scalingConstant      a scaling constant, either 1.0 or 1.7
      * @param itemSelectionMethod  a String that specifies the item selection method
-     * @param exposureControlType  a String that specifies the exposure control type
+     * @param exposureControlType  a String that specifies the exposure control type ("Item",
+     *                             "Passage" or "None")
      * @param rMax                 the exposure control goal rate
      * @param lValue               an integer that specifies to randomize the
      *                             administration of first L items
@@ -84,6 +85,79 @@ public class RHelper {
             boolean[] passageNumericColumn, boolean enableEnemyItem, int numPassageLB, int numPassageUB,
             int numItemPerPassageLB, int numItemPerPassageUB, String simID, int numExaminees, String trueThetaDistType,
             double[] trueThetaDistParams) throws IOException, InfeasibleTestConfigException {
+        return runSim(scoringMethodConfig, initTheta, scalingConstant, itemSelectionMethod, exposureControlType, rMax,
+                lValue, absGap, relGap, intTol, saveInput, testConfigID, testLength, itempoolPath, passagepoolPath,
+                constraintPath, itemNumericColumn, passageNumericColumn, enableEnemyItem, numPassageLB, numPassageUB,
+                numItemPerPassageLB, numItemPerPassageUB, simID, numExaminees, trueThetaDistType, trueThetaDistParams,
+                new double[0]);
+    }
+
+    /**
+     * Runs a CAT simulation from R through rJava, with the exposure controlled
+     * conditional on theta ranges.
+     * <p>
+     * The parameters are those of
+     * {@link #runSim(AbstractScoringMethodConfig, double, double, String, String, double, int, double, double,
+     * double, boolean, String, int, String, String, String, boolean[], boolean[], boolean, int, int, int, int,
+     * String, int, String, double[])}, followed by the boundaries of the theta ranges.
+     *
+     * @param scoringMethodConfig  the scoring method configuration
+     * @param initTheta            the initial theta value of examinees
+     * @param scalingConstant      a scaling constant, either 1.0 or 1.7
+     * @param itemSelectionMethod  a String that specifies the item selection method
+     * @param exposureControlType  a String that specifies the exposure control type ("Item",
+     *                             "Passage" or "None")
+     * @param rMax                 the exposure control goal rate at each theta
+     *                             range
+     * @param lValue               an integer that specifies to randomize the
+     *                             administration of first L items
+     * @param absGap               the absolute gap parameter for the MIP solver
+     * @param relGap               the relative gap parameter for the MIP solver
+     * @param intTol               the integer tolerance parameter for the MIP
+     *                             solver
+     * @param saveInput            a boolean indicator to specify if input data to
+     *                             MIP solver will be saved locally in a file
+     * @param testConfigID         a string as the test configuration identifier
+     * @param testLength           an integer value that specifies the test length
+     * @param itempoolPath         a string that specifies the path of the item pool
+     *                             file
+     * @param passagepoolPath      a string that specifies the path of the passage
+     *                             pool file
+     * @param constraintPath       a string that specifies the path of the
+     *                             constraint file
+     * @param itemNumericColumn    a boolean array that specifies which columns in
+     *                             the item pool are numeric
+     * @param passageNumericColumn a boolean array that specifies which columns in
+     *                             the passage pool are numeric
+     * @param enableEnemyItem      a boolean indicator that specifies if enables
+     *                             defining enemy item constraints through the
+     *                             preclude column
+     * @param numPassageLB         the lower bound of number of passages in the test
+     * @param numPassageUB         the upper bound of number of passages in the test
+     * @param numItemPerPassageLB  the lower bound of number of items per passages
+     *                             in the test
+     * @param numItemPerPassageUB  the upper bound of number of items per passages
+     *                             in the test
+     * @param simID                a string that specifies the simulation identifier
+     * @param numExaminees         the number of simulated examinees
+     * @param trueThetaDistType    a string that specifies the type of distribution
+     *                             of true ability theta
+     * @param trueThetaDistParams  an array that specifies the parameters of the
+     *                             true theta distribution
+     * @param ecThetaPoints        the ascending boundaries between the theta
+     *                             ranges at which exposure is controlled, or an
+     *                             empty array to control it at the overall range
+     * @return the list of {@link SimOutput} as the simulation result
+     * @throws IOException                   if there is an IO error
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    public static List<SimOutput> runSim(AbstractScoringMethodConfig scoringMethodConfig, double initTheta,
+            double scalingConstant, String itemSelectionMethod, String exposureControlType, double rMax, int lValue,
+            double absGap, double relGap, double intTol, boolean saveInput, String testConfigID, int testLength,
+            String itempoolPath, String passagepoolPath, String constraintPath, boolean[] itemNumericColumn,
+            boolean[] passageNumericColumn, boolean enableEnemyItem, int numPassageLB, int numPassageUB,
+            int numItemPerPassageLB, int numItemPerPassageUB, String simID, int numExaminees, String trueThetaDistType,
+            double[] trueThetaDistParams, double[] ecThetaPoints) throws IOException, InfeasibleTestConfigException {
         SolverConfig solverConfig = new SolverConfig(absGap, relGap, intTol, saveInput);
 
         // Initialize CAT configuration
@@ -98,13 +172,25 @@ public class RHelper {
         ExposureControlType ecType;
         if (exposureControlType.equals("Item")) {
             ecType = ExposureControlType.ITEM;
+        } else if (exposureControlType.equals("Passage")) {
+            ecType = ExposureControlType.PASSAGE;
         } else if (exposureControlType.equals("None")) {
             ecType = ExposureControlType.NONE;
         } else {
             throw new IllegalArgumentException("Invalid exposure control type!");
         }
-        List<ThetaRange> thetaRanges = Arrays
-                .asList(new ThetaRange(ExposureControlFunctions.EC_THETA_MIN, ExposureControlFunctions.EC_THETA_MAX));
+        List<ThetaRange> thetaRanges = new ArrayList<>(ecThetaPoints.length + 1);
+        double minTheta = ExposureControlFunctions.EC_THETA_MIN;
+        for (double thetaPoint : ecThetaPoints) {
+            if (thetaPoint <= minTheta || thetaPoint >= ExposureControlFunctions.EC_THETA_MAX) {
+                throw new IllegalArgumentException("The exposure control theta points must be ascending within ("
+                        + ExposureControlFunctions.EC_THETA_MIN + ", " + ExposureControlFunctions.EC_THETA_MAX
+                        + ")!");
+            }
+            thetaRanges.add(new ThetaRange(minTheta, thetaPoint));
+            minTheta = thetaPoint;
+        }
+        thetaRanges.add(new ThetaRange(minTheta, ExposureControlFunctions.EC_THETA_MAX));
         ExposureControlConfig exposureConfig = new ExposureControlConfig(ecType, thetaRanges, rMax);
 
         CatConfig catConfig = new CatConfigStandard(solverConfig, initTheta, scalingConstant, scoringMethodConfig,
@@ -89,4 +89,9 @@ public class UniDimNormalDistribution implements ProbDistribution {
         return sd;
     }
 
+    @Override
+    public void reseedRandomGenerator(long seed) {
+        normDist.reseedRandomGenerator(seed);
+    }
+
 }
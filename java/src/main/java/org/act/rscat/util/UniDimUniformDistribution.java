@@ -73,4 +73,9 @@ public class UniDimUniformDistribution implements ProbDistribution {
         return Math.pow(max - min, 2) / 12.0;
     }
 
+    @Override
+    public void reseedRandomGenerator(long seed) {
+        random.setSeed(seed);
+    }
+
 }
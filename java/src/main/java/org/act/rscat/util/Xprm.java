@@ -1,10 +1,17 @@
 package org.act.rscat.util;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +21,18 @@ import com.dashoptimization.XPRMModel;
 
 /**
  * Provides access to the XPRM singleton.
+ * <p>
+ * The Mosel model is compiled on the first call to {@link #newModel()} rather
+ * than when the class is loaded. The compiled BIM file is cached in the
+ * directory given by the {@value #CACHE_DIR_PROPERTY} system property, or in
+ * the {@code rscat-bim} directory under the temporary directory, under a name
+ * derived from the SHA-256 hash of the model source and the Mosel version, so
+ * that a BIM compiled by another Mosel version is not loaded. A JVM that finds
+ * the BIM of the current source and version in the cache loads it without
+ * compiling (a warm
+ * start); otherwise the model is compiled to a temporary file in the cache
+ * directory and atomically moved to its cached name (a cold start), so that
+ * processes sharing the cache never load a partially written BIM.
  */
 public final class Xprm {
 
@@ -23,29 +42,64 @@ public final class Xprm {
     private static final Logger LOGGER = LoggerFactory.getLogger(Xprm.class);
 
     /**
-     * Instance of the {@code XPRM}.
+     * The system property naming the BIM cache directory.
      */
-    private static final XPRM INSTANCE = new XPRM();
+    public static final String CACHE_DIR_PROPERTY = "org.act.rscat.bimCacheDir";
 
     /**
-     * Path of the compiled BIM file.
+     * Path of the mos source file.
      */
-    private static final String BIM_FILE_PATH;
+    private static final String MOS_FILE_PATH = "org/act/rscat/mosel/shadow_test.mos";
 
     /**
-     * Path of the mos source file.
+     * The version of the cached file names, to be increased when compiled
+     * models must no longer be reused.
      */
-    private static final String MOS_FILE_PATH = "org/act/rscat/mosel/shadow_test.mos";
+    private static final int CACHE_VERSION = 1;
 
-    static {
-        try {
-            BIM_FILE_PATH = compileBIM(MOS_FILE_PATH);
-        } catch (IOException e) {
-            String message = "Exception loading BIM from path:" + MOS_FILE_PATH;
-            throw new IllegalStateException(message, e);
-        }
+    /**
+     * How the compiled model of this JVM was obtained.
+     */
+    public enum StartType {
+
+        /**
+         * The model has not been compiled or loaded from the cache yet.
+         */
+        NONE,
+
+        /**
+         * The compiled model was found in the cache.
+         */
+        WARM,
+
+        /**
+         * The model was compiled and published to the cache.
+         */
+        COLD
     }
 
+    /**
+     * Instance of the {@code XPRM}, created on first use.
+     */
+    private static XPRM instance;
+
+    /**
+     * Path of the compiled BIM file, or {@code null} before first use.
+     */
+    private static String bimFilePath;
+
+    /**
+     * How the compiled model was obtained, or {@link StartType#NONE} before
+     * first use.
+     */
+    private static StartType startType = StartType.NONE;
+
+    /**
+     * The time spent to compile the model or find it in the cache, in
+     * nanoseconds, or 0 before first use.
+     */
+    private static long startNanos;
+
     /**
      * Makes the constructor private so that this class cannot be instantiated.
      */
@@ -53,13 +107,79 @@ public final class Xprm {
     }
 
     /**
-     * Gets a new XPRMModel.
+     * Gets a new XPRMModel. Model loading is serialized so that CAT sessions
+     * running on different threads can safely create their own models. The
+     * first call compiles the model or loads it from the cache.
      *
      * @return an {@link XPRMModel}
-     * @throws IOException if there is an io failure
+     * @throws IOException if the model cannot be compiled or loaded
+     */
+    public static synchronized XPRMModel newModel() throws IOException {
+        if (bimFilePath == null) {
+            initialize();
+        }
+        return instance.loadModel(bimFilePath);
+    }
+
+    /**
+     * Returns how the compiled model of this JVM was obtained.
+     *
+     * @return {@link StartType#WARM} if it was found in the cache,
+     *         {@link StartType#COLD} if it was compiled, or
+     *         {@link StartType#NONE} before the first model
+     */
+    public static synchronized StartType getStartType() {
+        return startType;
+    }
+
+    /**
+     * Returns the time spent to compile the model or find it in the cache.
+     *
+     * @return the start time in nanoseconds, or 0 before the first model
+     */
+    public static synchronized long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Compiles the model or finds it in the cache.
+     *
+     * @throws IOException if there is an IO or a compilation failure
      */
-    public static XPRMModel newModel() throws IOException {
-        return INSTANCE.loadModel(BIM_FILE_PATH);
+    private static void initialize() throws IOException {
+        long start = System.nanoTime();
+        if (instance == null) {
+            instance = new XPRM();
+        }
+        byte[] source = readSource(MOS_FILE_PATH);
+        Path cacheDir = getCacheDir();
+        Files.createDirectories(cacheDir);
+        String name = "shadow_test-" + CACHE_VERSION + "-" + sha256(source, instance.getVersion());
+        Path bimFile = cacheDir.resolve(name + ".bim");
+        StartType type;
+        if (Files.isRegularFile(bimFile) && Files.size(bimFile) > 0) {
+            type = StartType.WARM;
+        } else {
+            compileBIM(source, cacheDir, name, bimFile);
+            type = StartType.COLD;
+        }
+        bimFilePath = bimFile.toString();
+        startType = type;
+        startNanos = System.nanoTime() - start;
+        LOGGER.info("{} start of the Mosel model {} in {} ms", type, bimFilePath, startNanos / 1_000_000);
+    }
+
+    /**
+     * Returns the BIM cache directory.
+     *
+     * @return the cache directory
+     */
+    private static Path getCacheDir() {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir == null || dir.isEmpty()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), "rscat-bim");
+        }
+        return Paths.get(dir);
     }
 
     /**
@@ -70,29 +190,80 @@ public final class Xprm {
      * @throws XPRMCompileException if there is a compilation failure
      */
     private static void compile(String sourcePath, String destPath) throws XPRMCompileException {
-        INSTANCE.compile(null, sourcePath, destPath);
+        instance.compile(null, sourcePath, destPath);
     }
 
     /**
-     * Compiles the Mosel source file (.mos) to the binary file (.bim).
+     * Compiles the Mosel source (.mos) to the binary file (.bim) and publishes
+     * it to the cache.
+     *
+     * @param source the Mosel source
+     * @param cacheDir the cache directory
+     * @param name the cached name of the model, without extension
+     * @param bimFile the cached binary file
+     * @throws IOException if there is an IO or a compilation failure
+     */
+    private static void compileBIM(byte[] source, Path cacheDir, String name, Path bimFile) throws IOException {
+        Path tempSource = Files.createTempFile(cacheDir, name, ".mos");
+        Path tempBim = Files.createTempFile(cacheDir, name, ".bim.tmp");
+        try {
+            Files.write(tempSource, source);
+            try {
+                compile(tempSource.toString(), tempBim.toString());
+            } catch (XPRMCompileException e) {
+                throw new IOException("Exception compiling BIM from path:" + MOS_FILE_PATH, e);
+            }
+
+            // Concurrent processes publish identical files for the same hash
+            try {
+                Files.move(tempBim, bimFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempBim, bimFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempSource);
+            Files.deleteIfExists(tempBim);
+        }
+    }
+
+    /**
+     * Reads the Mosel source from the class path.
      *
      * @param sourceFileResource the path to the Mosel source file
-     * @return the path to the Mosel binary file
+     * @return the Mosel source
      * @throws IOException if there is an IO failure
      */
-    private static String compileBIM(String sourceFileResource) throws IOException {
-        File tempFile = File.createTempFile("model", ".mos");
-        tempFile.deleteOnExit();
+    private static byte[] readSource(String sourceFileResource) throws IOException {
         ClassLoader classLoader = Xprm.class.getClassLoader();
-        InputStream stream = classLoader.getResourceAsStream(sourceFileResource);
-        FileUtils.copyInputStreamToFile(stream, tempFile);
-        String outputPath = tempFile.getPath().replaceFirst("mos", "bim");
-        try {
-            compile(tempFile.getPath(), outputPath);
-        } catch (XPRMCompileException e) {
-            LOGGER.error("Exception compiling BIM", e);
+        try (InputStream stream = classLoader.getResourceAsStream(sourceFileResource)) {
+            if (stream == null) {
+                throw new IOException("Mosel source not found:" + sourceFileResource);
+            }
+            return IOUtils.toByteArray(stream);
         }
-        return outputPath;
     }
 
+    /**
+     * Returns the hexadecimal SHA-256 hash of the model source and the Mosel
+     * version.
+     *
+     * @param source the model source
+     * @param moselVersion the Mosel version
+     * @return the hash
+     */
+    private static String sha256(byte[] source, String moselVersion) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(source);
+            messageDigest.update((byte) 0);
+            byte[] digest = messageDigest.digest(String.valueOf(moselVersion).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
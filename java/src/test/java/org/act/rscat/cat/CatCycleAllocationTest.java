@@ -0,0 +1,130 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.junit.Test;
+
+/**
+ * This class includes an allocation regression benchmark of the CAT cycle.
+ * <p>
+ * The CAT configuration is based on an item pool of 720 items, 30 passages and 12 constraints, assembled with the
+ * branch-and-bound solver and scored with the incremental or the default EAP. Once a session has run its first
+ * stage, the stage buffers, the solver model and the scoring posterior are reused, so the following stages should
+ * only allocate their output and the small objects of the solver search; the default EAP also rebuilds its estimate
+ * from the administered items.
+ */
+public class CatCycleAllocationTest {
+
+    /**
+     * The maximum number of bytes allocated by a steady-state stage. The stages allocate about 4 KB with the
+     * incremental EAP, and from 4 KB to 5 KB with the default EAP, whose item parameter matrix of the administered
+     * items grows with the stage; before the stage buffers were reused they allocated from 75 KB to 330 KB.
+     */
+    private static final long MAX_STAGE_BYTES = 16 * 1024;
+
+    /**
+     * Runs two examinees scored with the incremental EAP through the CAT cycles and checks the bytes allocated by
+     * each stage of the second examinee after its first stage.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void steadyStateStageAllocation() throws IOException, InfeasibleTestConfigException {
+        checkStageAllocation(true, MAX_STAGE_BYTES);
+    }
+
+    /**
+     * Runs two examinees scored with the default EAP through the CAT cycles and checks the bytes allocated by each
+     * stage of the second examinee after its first stage.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void defaultScoringStageAllocation() throws IOException, InfeasibleTestConfigException {
+        checkStageAllocation(false, MAX_STAGE_BYTES);
+    }
+
+    /**
+     * Runs two examinees through the CAT cycles and checks the bytes allocated by each stage of the second examinee
+     * after its first stage.
+     *
+     * @param incremental whether the EAP posterior is carried forward between stages
+     * @param maxStageBytes the maximum number of bytes allocated by a stage
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    private void checkStageAllocation(boolean incremental, long maxStageBytes)
+            throws IOException, InfeasibleTestConfigException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported()
+                && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        // Cat configuration parameters
+        int testLength = 20;
+        SolverConfig solverConfig = new SolverConfig(1E-3, 1E-3, 1E-6, false);
+        solverConfig.setSolverType(BRANCH_AND_BOUND);
+        CatConfig catConfig = new CatConfigStandard(solverConfig, 0, 1.0,
+                new ScoringMethodConfigEap(6, -2, 2, new UniDimNormalDistribution(0, 1), incremental),
+                new ExposureControlConfig(ExposureControlType.NONE, null, 0), MAX_FISHER_INFO, 0);
+        TestConfig testConfig = TestFixtures.testConfig720Items(testLength);
+
+        // The first examinee builds the shared item pool tables
+        runExaminee("Examinee1", catConfig, testConfig, allocationBean);
+        long[] stageBytes = runExaminee("Examinee2", catConfig, testConfig, allocationBean);
+        for (int stage = 1; stage < testLength; stage++) {
+            assertTrue("Stage " + stage + " allocated " + stageBytes[stage] + " bytes",
+                    stageBytes[stage] <= maxStageBytes);
+        }
+    }
+
+    /**
+     * Runs the CAT cycles of an examinee in a new session.
+     *
+     * @param examineeId the examinee identifier
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @param allocationBean the thread bean measuring the allocated bytes
+     * @return the bytes allocated by each stage
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    private long[] runExaminee(String examineeId, CatConfig catConfig, TestConfig testConfig,
+            com.sun.management.ThreadMXBean allocationBean) throws IOException, InfeasibleTestConfigException {
+        CatInput catInput = TestFixtures.firstCatInput(catConfig, testConfig, examineeId);
+        CatSession session = CatEngineStandard.INSTANCE.newSession(examineeId);
+        int testLength = testConfig.getTestLength();
+        long[] stageBytes = new long[testLength];
+        for (int stage = 0; stage < testLength; stage++) {
+            long start = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            CatOutput catOutput = session.runsCatCycle(catInput);
+            stageBytes[stage] = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+
+            // Alternates incorrect and correct responses
+            List<String> nextItems = catOutput.getItemsToAdminister().getItemsToAdmin();
+            catInput = CatHelper.createNextCatInput(catInput,
+                    new ItemScores(new int[] { stage % 2 }, new double[] { 0.5 }), nextItems, stage + 1,
+                    new HashMap<>(), catInput.getPassageOrItemEligibilityOverall(), catOutput);
+        }
+        session.runsCatCycle(catInput);
+        session.close();
+        return stageBytes;
+    }
+}
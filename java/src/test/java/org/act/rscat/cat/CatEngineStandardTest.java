@@ -0,0 +1,133 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND;
+import static org.act.rscat.util.TestFixtures.nextCatInput;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.sol.ShadowTestSolverPool;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the sessions the CAT engine keeps per examinee.
+ * <p>
+ * The CAT configuration is based on a discrete item pool of 10 items and 2 constraints, assembled with the
+ * branch-and-bound solver.
+ */
+public class CatEngineStandardTest {
+    private CatConfig catConfig;
+    private TestConfig testConfig;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        SolverConfig solverConfig = new SolverConfig(1E-3, 1E-3, 1E-6, false);
+        solverConfig.setSolverType(BRANCH_AND_BOUND);
+        catConfig = new CatConfigStandard(solverConfig, 0, 1.0,
+                new ScoringMethodConfigEap(6, -2, 2, new UniDimNormalDistribution(0, 1)),
+                new ExposureControlConfig(ExposureControlType.NONE, null, 0), MAX_FISHER_INFO, 0);
+        testConfig = TestFixtures.testConfig10Items(8);
+    }
+
+    /**
+     * Runs a whole test through the engine.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void runsTest() throws IOException, InfeasibleTestConfigException {
+        CatInput catInput = firstCatInput("Examinee1");
+        for (int stage = 0; stage < testConfig.getTestLength(); stage++) {
+            CatOutput catOutput = CatEngineStandard.INSTANCE.runsCatCycle(catInput);
+            assertFalse(catOutput.getTestComplete());
+            catInput = nextCatInput(catInput, catOutput, stage);
+        }
+        CatOutput catOutput = CatEngineStandard.INSTANCE.runsCatCycle(catInput);
+        assertEquals(true, catOutput.getTestComplete());
+        assertEquals(testConfig.getTestLength(), catOutput.getItemsToAdminister().getListItemsAlreadyAdministered()
+                .size());
+    }
+
+    /**
+     * Runs a later stage of an examinee without a session.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test(expected = IllegalStateException.class)
+    public void unknownSessionMidTest() throws IOException, InfeasibleTestConfigException {
+        CatInput catInput = firstCatInput("Examinee2");
+        CatOutput catOutput = CatEngineStandard.INSTANCE.newSession("Examinee2").runsCatCycle(catInput);
+        CatEngineStandard.INSTANCE.runsCatCycle(nextCatInput(catInput, catOutput, 0));
+    }
+
+    /**
+     * Restarts the test of an examinee and verifies that the solver of the replaced session is returned to the pool
+     * and reused by the new session.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void restartClosesPreviousSession() throws IOException, InfeasibleTestConfigException {
+        ShadowTestSolverPool.clear();
+        long createdCount = ShadowTestSolverPool.getCreatedCount();
+        long reusedCount = ShadowTestSolverPool.getReusedCount();
+        CatEngineStandard.INSTANCE.runsCatCycle(firstCatInput("Examinee3"));
+        CatEngineStandard.INSTANCE.runsCatCycle(firstCatInput("Examinee3"));
+        assertEquals(createdCount + 1, ShadowTestSolverPool.getCreatedCount());
+        assertEquals(reusedCount + 1, ShadowTestSolverPool.getReusedCount());
+        CatEngineStandard.INSTANCE.closeSession("Examinee3");
+    }
+
+    /**
+     * Runs a failing CAT cycle and verifies that the session is released, so that the next stage is rejected.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test(expected = IllegalStateException.class)
+    public void failedCycleReleasesSession() throws IOException, InfeasibleTestConfigException {
+        CatInput catInput = firstCatInput("Examinee4");
+        CatOutput catOutput = CatEngineStandard.INSTANCE.runsCatCycle(catInput);
+        CatInput nextCatInput = nextCatInput(catInput, catOutput, 0);
+        CatInput invalidCatInput = new CatInputStandard.Builder().catConfig(catConfig).testConfig(testConfig)
+                .completedCount(testConfig.getTestLength() + 1).adaptiveStage(1).studentId("Examinee4")
+                .itemsAdmin(new ArrayList<>()).itemScores(new ItemScores(new int[] {}, new double[] {}))
+                .administeredPassageIndexSequence(new ArrayList<>())
+                .passageOrItemEligibilityOverall(catInput.getPassageOrItemEligibilityOverall())
+                .itemsToAdminister(new ArrayList<>()).shadowTest(new ArrayList<>()).build();
+        try {
+            CatEngineStandard.INSTANCE.runsCatCycle(invalidCatInput);
+            fail("The CAT cycle should fail");
+        } catch (IllegalArgumentException e) {
+            CatEngineStandard.INSTANCE.runsCatCycle(nextCatInput);
+        }
+    }
+
+    /**
+     * Returns the CAT input of the first stage of an examinee.
+     *
+     * @param examineeId the examinee identifier
+     * @return the CAT input
+     */
+    private CatInput firstCatInput(String examineeId) {
+        return TestFixtures.firstCatInput(catConfig, testConfig, examineeId);
+    }
+}
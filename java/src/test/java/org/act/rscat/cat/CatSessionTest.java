@@ -0,0 +1,181 @@
+package org.act.rscat.cat;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND;
+import static org.act.rscat.util.TestFixtures.nextCatInput;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.ConstraintChecker;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.apache.commons.math3.random.Well19937c;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the shadow test status reported by a CAT session.
+ * <p>
+ * The CAT configuration is based on an item pool of 720 items, 30 passages, 12 constraints, assembled with the
+ * branch-and-bound solver.
+ */
+public class CatSessionTest {
+    private static final long SEED = 20201016L;
+
+    private SolverConfig solverConfig;
+    private CatConfig catConfig;
+    private TestConfig testConfig;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        solverConfig = new SolverConfig(1E-2, 1E-2, 1E-6, false);
+        solverConfig.setSolverType(BRANCH_AND_BOUND);
+        catConfig = new CatConfigStandard(solverConfig, 0, 1.0,
+                new ScoringMethodConfigEap(6, -2, 2, new UniDimNormalDistribution(0, 1)),
+                new ExposureControlConfig(ExposureControlType.NONE, null, 0), MAX_FISHER_INFO, 3);
+        testConfig = TestFixtures.testConfig720Items(20);
+    }
+
+    /**
+     * Runs a seeded test whose solver time budget is exhausted after the first stage. The later stages fall back on
+     * the shadow test of the first stage, which is administered in full.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void timeLimitFallbackTest() throws IOException, InfeasibleTestConfigException {
+        int testLength = testConfig.getTestLength();
+        CatSession session = CatEngineStandard.INSTANCE.newSession("Examinee1", new Well19937c(SEED));
+        try {
+            CatInput catInput = firstCatInput("Examinee1");
+            CatOutput catOutput = session.runsCatCycle(catInput);
+            ShadowTestStatus firstStatus = catOutput.getShadowTestStatus();
+            assertTrue(firstStatus == ShadowTestStatus.OPTIMAL || firstStatus == ShadowTestStatus.GAP);
+            List<String> firstShadowTest = catOutput.getShadowTest();
+            assertEquals(testLength, firstShadowTest.size());
+
+            solverConfig.setMaxTime(1E-9);
+            for (int stage = 0; stage < testLength; stage++) {
+                catInput = nextCatInput(catInput, catOutput, stage);
+                catOutput = session.runsCatCycle(catInput);
+                if (stage < testLength - 1) {
+                    assertEquals(ShadowTestStatus.FALLBACK, catOutput.getShadowTestStatus());
+                    assertEquals(firstShadowTest, catOutput.getShadowTest());
+                    assertTrue(firstShadowTest.containsAll(catOutput.getItemsToAdminister().getItemsToAdmin()));
+                }
+            }
+            assertEquals(true, catOutput.getTestComplete());
+            assertEquals(ShadowTestStatus.NONE, catOutput.getShadowTestStatus());
+            List<String> itemsAdministered = catOutput.getItemsToAdminister().getListItemsAlreadyAdministered();
+            assertEquals(new HashSet<>(firstShadowTest), new HashSet<>(itemsAdministered));
+            assertTrue(ConstraintChecker.findViolations(testConfig, itemsAdministered).isEmpty());
+        } finally {
+            solverConfig.setMaxTime(0);
+            session.close();
+        }
+    }
+
+    /**
+     * Compares the item pool row indices of the shadow test carried by the CAT output with the shadow test, and with
+     * the indices resolved through the item pool.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void shadowTestIndicesTest() throws IOException, InfeasibleTestConfigException {
+        CatSession session = CatEngineStandard.INSTANCE.newSession("Examinee1", new Well19937c(SEED));
+        try {
+            CatOutput catOutput = session.runsCatCycle(firstCatInput("Examinee1"));
+            ItemPool itemPool = ItemPool.forTestConfig(testConfig);
+            int[] shadowTestIndices = catOutput.getShadowTestIndices();
+            assertEquals(catOutput.getShadowTest().size(), shadowTestIndices.length);
+            for (int i = 0; i < shadowTestIndices.length; i++) {
+                assertEquals(catOutput.getShadowTest().get(i), itemPool.getItemIds()[shadowTestIndices[i]]);
+            }
+            assertArrayEquals(shadowTestIndices, catOutput.getShadowTestIndices(itemPool));
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Runs a second examinee on a session reused after a first examinee, with incremental scoring, and compares the
+     * theta estimates and shadow tests with the ones of a new session given the same CAT inputs.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void reusedSessionTest() throws IOException, InfeasibleTestConfigException {
+        catConfig = new CatConfigStandard(solverConfig, 0, 1.0,
+                new ScoringMethodConfigEap(6, -2, 2, new UniDimNormalDistribution(0, 1), true),
+                new ExposureControlConfig(ExposureControlType.NONE, null, 0), MAX_FISHER_INFO, 3);
+        CatSession reusedSession = CatEngineStandard.INSTANCE.newSession("Examinee1", new Well19937c(SEED));
+        CatSession newSession = CatEngineStandard.INSTANCE.newSession("Examinee2", new Well19937c(SEED));
+        try {
+            CatInput catInput = firstCatInput("Examinee1");
+            CatOutput catOutput = reusedSession.runsCatCycle(catInput);
+            for (int stage = 0; stage < 6; stage++) {
+                catInput = nextCatInput(catInput, catOutput, stage);
+                catOutput = reusedSession.runsCatCycle(catInput);
+            }
+
+            catInput = firstCatInput("Examinee2");
+            for (int stage = 0; stage < 6; stage++) {
+                catOutput = reusedSession.runsCatCycle(catInput);
+                CatOutput expected = newSession.runsCatCycle(catInput);
+                assertEquals(expected.getThetaEst().getTheta(), catOutput.getThetaEst().getTheta(), 0);
+                assertEquals(expected.getThetaEst().getSe(), catOutput.getThetaEst().getSe(), 0);
+                assertEquals(expected.getShadowTest(), catOutput.getShadowTest());
+                catInput = nextCatInput(catInput, catOutput, stage);
+            }
+        } finally {
+            reusedSession.close();
+            newSession.close();
+        }
+    }
+
+    /**
+     * Rejects an administered item that is not in the item pool, rather than pairing the item scores with the
+     * wrong items.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownItemTest() {
+        CatInput catInput = new CatInputStandard.Builder().catConfig(catConfig).testConfig(testConfig)
+                .completedCount(1).adaptiveStage(1).studentId("Examinee1")
+                .itemsAdmin(new ArrayList<>(Arrays.asList("NotAnItem")))
+                .itemScores(new ItemScores(new int[] { 1 }, new double[] { 0.5 }))
+                .administeredPassageIndexSequence(new ArrayList<>()).exposureControlData(new ExposureControlData())
+                .passageOrItemEligibilityOverall(TestFixtures.eligibilityOverall(catConfig, testConfig))
+                .itemsToAdminister(new ArrayList<>()).shadowTest(new ArrayList<>()).previousTheta(0)
+                .previousThetaSe(1).build();
+        catInput.getItemsAdminIndices();
+    }
+
+    /**
+     * Returns the CAT input of the first stage of an examinee.
+     *
+     * @param examineeId the examinee identifier
+     * @return the CAT input
+     */
+    private CatInput firstCatInput(String examineeId) {
+        return TestFixtures.firstCatInput(catConfig, testConfig, examineeId);
+    }
+}
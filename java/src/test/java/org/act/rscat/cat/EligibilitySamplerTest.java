@@ -0,0 +1,129 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the eligibility probabilities drawn by {@link EligibilitySampler} from the usage
+ * counts of exposure control, with 2 theta intervals, 4 passages or items and a goal rate of 0.25.
+ */
+public class EligibilitySamplerTest {
+    private static final double DELTA = 1E-12;
+    private static final double R_MAX = 0.25;
+    private static final int ENTITY_NUM = 4;
+    private static final List<ThetaRange> THETA_RANGES = Arrays.asList(new ThetaRange(-10, 0), new ThetaRange(0, 10));
+
+    /**
+     * Compares the probabilities with {@code rMax * epsilon / alpha} bounded between 0 and 1, and counts the
+     * probabilities recomputed by full and partial refreshes.
+     */
+    @Test
+    public void refreshTest() {
+        EligibilitySampler sampler = new EligibilitySampler(ExposureControlType.ITEM, THETA_RANGES, R_MAX,
+                ENTITY_NUM);
+        ExposureUsageCounters counters = new ExposureUsageCounters(THETA_RANGES.size(), ENTITY_NUM, 1);
+        assertEquals(1, sampler.getProbability(0, 0), 0);
+
+        // 4 examinees at theta interval 0, all eligible, took items 0 and 3 or 0 and 1
+        boolean[] allEligible = new boolean[] { true, true, true, true };
+        for (int m = 0; m < 4; m++) {
+            counters.addEligible(0, allEligible);
+            counters.addAdministered(0, m == 0 ? new int[] { 0, 1 } : new int[] { 0, 3 });
+        }
+        assertEquals(THETA_RANGES.size() * ENTITY_NUM, sampler.refresh(counters));
+        assertEquals(0.25, sampler.getProbability(0, 0), DELTA);
+        assertEquals(1, sampler.getProbability(0, 1), DELTA);
+        assertEquals(1, sampler.getProbability(0, 2), DELTA);
+        assertEquals(R_MAX * 4 / 3, sampler.getProbability(0, 3), DELTA);
+        for (int i = 0; i < ENTITY_NUM; i++) {
+            assertEquals(1, sampler.getProbability(1, i), 0);
+        }
+
+        // Without an update nothing is recomputed
+        assertEquals(0, sampler.refresh(counters));
+
+        // An examinee at theta interval 1 for whom only item 2 was eligible changes item 2 only
+        counters.addEligible(1, new boolean[] { false, false, true, false });
+        counters.addAdministered(1, new int[] { 2 });
+        assertEquals(1, sampler.refresh(counters));
+        assertEquals(R_MAX, sampler.getProbability(1, 2), DELTA);
+        assertEquals(0.25, sampler.getProbability(0, 0), DELTA);
+
+        // An item administered but never eligible is ineligible
+        counters.addAdministered(1, new int[] { 1 });
+        assertEquals(1, sampler.refresh(counters));
+        assertEquals(0, sampler.getProbability(1, 1), 0);
+    }
+
+    /**
+     * Refreshes from counters with a single theta interval, which apply to every theta interval of the sampler.
+     */
+    @Test
+    public void overallRefreshTest() {
+        EligibilitySampler sampler = new EligibilitySampler(ExposureControlType.ITEM, THETA_RANGES, R_MAX,
+                ENTITY_NUM);
+        ExposureUsageCounters counters = new ExposureUsageCounters(1, ENTITY_NUM, 1);
+        counters.addEligible(0, new boolean[] { true, true, true, true });
+        counters.addAdministered(0, new int[] { 0, 1 });
+        assertEquals(THETA_RANGES.size() * ENTITY_NUM, sampler.refresh(counters));
+        counters.addAdministered(0, new int[] { 1 });
+        assertEquals(THETA_RANGES.size(), sampler.refresh(counters));
+        for (int k = 0; k < THETA_RANGES.size(); k++) {
+            assertEquals(R_MAX, sampler.getProbability(k, 0), DELTA);
+            assertEquals(R_MAX / 2, sampler.getProbability(k, 1), DELTA);
+            assertEquals(1, sampler.getProbability(k, 2), 0);
+        }
+    }
+
+    /**
+     * Draws the eligibility of items with probabilities 0, 1 and 0.25.
+     */
+    @Test
+    public void sampleTest() {
+        EligibilitySampler sampler = new EligibilitySampler(ExposureControlType.ITEM, THETA_RANGES, R_MAX,
+                ENTITY_NUM);
+        ExposureUsageCounters counters = new ExposureUsageCounters(THETA_RANGES.size(), ENTITY_NUM, 1);
+        counters.addEligible(0, new boolean[] { true, false, true, true });
+        counters.addAdministered(0, new int[] { 0, 1 });
+        sampler.refresh(counters);
+
+        SplittableRandom random = new SplittableRandom(20201016L);
+        BitSet eligible = new BitSet();
+        int drawNum = 20000;
+        int eligibleNum = 0;
+        for (int n = 0; n < drawNum; n++) {
+            sampler.sample(0, random, eligible);
+            assertFalse(eligible.get(1));
+            assertTrue(eligible.get(2) && eligible.get(3));
+            if (eligible.get(0)) {
+                eligibleNum++;
+            }
+        }
+        assertEquals(R_MAX, (double) eligibleNum / drawNum, 0.01);
+
+        // Nothing was counted at theta interval 1
+        boolean[][] eligibilityIndicators = sampler.sample(random).getEligibilityIndicators();
+        assertEquals(THETA_RANGES.size(), eligibilityIndicators.length);
+        assertFalse(eligibilityIndicators[0][1]);
+        for (boolean indicator : eligibilityIndicators[1]) {
+            assertTrue(indicator);
+        }
+    }
+
+    /**
+     * Refreshes from counters of another number of passages or items.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchTest() {
+        new EligibilitySampler(ExposureControlType.ITEM, THETA_RANGES, R_MAX, ENTITY_NUM)
+                .refresh(new ExposureUsageCounters(THETA_RANGES.size(), ENTITY_NUM + 1, 1));
+    }
+}
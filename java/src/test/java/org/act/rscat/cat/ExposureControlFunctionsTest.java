@@ -0,0 +1,116 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the passage usage updates of exposure control.
+ * <p>
+ * A passage counts as administered once per examinee, at the theta interval of its first item, while the passage
+ * eligibility counts once per theta interval the examinee visited.
+ */
+public class ExposureControlFunctionsTest {
+    private static final long SEED = 20201016L;
+
+    /**
+     * Updates the passage usage of an examinee with several items per passage and discrete items, and compares the
+     * counts with their closed forms.
+     */
+    @Test
+    public void passageUsageTest() {
+        // 4 passages of items 0-2, 3-4, 6-7 and 8; items 5 and 9 are discrete
+        int[] itemPassageIndices = new int[] { 0, 0, 0, 1, 1, -1, 2, 2, 3, -1 };
+        boolean[][] eligibilityIndicators = new boolean[][] { { true, true, false, true },
+                { false, true, true, true }, { true, false, true, false } };
+        PassageOrItemEligibilityOverall eligibility = new PassageOrItemEligibilityOverall(new double[] { -1, 1 },
+                eligibilityIndicators, ExposureControlType.PASSAGE);
+        ExposureUsageCounters counters = new ExposureUsageCounters(3, 4);
+        ExposureControlFunctions.updatePassageUsage(counters, eligibility, new int[] { 0, 3, 1, 5, 4, 6, 2, 9 },
+                new int[] { 0, 0, 1, 1, 2, 2, 2, 1 }, itemPassageIndices);
+
+        // passages 0 and 1 at theta interval 0, passage 2 at theta interval 2, passage 3 never
+        long[][] expectedAlpha = new long[][] { { 1, 1, 0, 0 }, { 0, 0, 0, 0 }, { 0, 0, 1, 0 } };
+        for (int k = 0; k < 3; k++) {
+            assertEquals(1, counters.getVisitNum(k));
+            for (int j = 0; j < 4; j++) {
+                assertEquals(expectedAlpha[k][j], counters.getAlpha(k, j));
+                assertEquals(eligibilityIndicators[k][j] ? 1 : 0, counters.getEpsilon(k, j));
+            }
+        }
+    }
+
+    /**
+     * Updates the passage usage of random examinees and compares the counts with the ones of the distinct passages
+     * of each examinee.
+     */
+    @Test
+    public void randomPassageUsageTest() {
+        int itemNum = 200;
+        int passageNum = 20;
+        int thetaIntervalNum = 4;
+        Random random = new Random(SEED);
+        int[] itemPassageIndices = new int[itemNum];
+        for (int i = 0; i < itemNum; i++) {
+            itemPassageIndices[i] = random.nextInt(4) == 0 ? -1 : random.nextInt(passageNum);
+        }
+        ExposureUsageCounters counters = new ExposureUsageCounters(thetaIntervalNum, passageNum);
+        long[][] expectedAlpha = new long[thetaIntervalNum][passageNum];
+        long[][] expectedEpsilon = new long[thetaIntervalNum][passageNum];
+        long[] expectedVisitNum = new long[thetaIntervalNum];
+        for (int m = 0; m < 300; m++) {
+            boolean[][] eligibilityIndicators = new boolean[thetaIntervalNum][passageNum];
+            for (int k = 0; k < thetaIntervalNum; k++) {
+                for (int j = 0; j < passageNum; j++) {
+                    eligibilityIndicators[k][j] = random.nextBoolean();
+                }
+            }
+            int testLength = 1 + random.nextInt(15);
+            int[] itemsAdministered = random.ints(0, itemNum).distinct().limit(testLength).toArray();
+            int[] itemThetaIntervals = random.ints(testLength, 0, thetaIntervalNum).toArray();
+
+            boolean[] visited = new boolean[thetaIntervalNum];
+            boolean[] passagesAdministered = new boolean[passageNum];
+            for (int n = 0; n < testLength; n++) {
+                int k = itemThetaIntervals[n];
+                if (!visited[k]) {
+                    visited[k] = true;
+                    expectedVisitNum[k]++;
+                    for (int j = 0; j < passageNum; j++) {
+                        expectedEpsilon[k][j] += eligibilityIndicators[k][j] ? 1 : 0;
+                    }
+                }
+                int passageIndex = itemPassageIndices[itemsAdministered[n]];
+                if (passageIndex >= 0 && !passagesAdministered[passageIndex]) {
+                    passagesAdministered[passageIndex] = true;
+                    expectedAlpha[k][passageIndex]++;
+                }
+            }
+
+            ExposureControlFunctions.updatePassageUsage(counters, new PassageOrItemEligibilityOverall(
+                    new double[] { -1, 0, 1 }, eligibilityIndicators, ExposureControlType.PASSAGE),
+                    itemsAdministered, itemThetaIntervals, itemPassageIndices);
+        }
+
+        for (int k = 0; k < thetaIntervalNum; k++) {
+            assertEquals(expectedVisitNum[k], counters.getVisitNum(k));
+            for (int j = 0; j < passageNum; j++) {
+                assertEquals(expectedAlpha[k][j], counters.getAlpha(k, j));
+                assertEquals(expectedEpsilon[k][j], counters.getEpsilon(k, j));
+            }
+        }
+    }
+
+    /**
+     * Rejects usage counters whose theta intervals do not match the theta ranges of the eligibility.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchTest() {
+        PassageOrItemEligibilityOverall eligibility = new PassageOrItemEligibilityOverall(new double[] { 0 },
+                new boolean[2][3], ExposureControlType.PASSAGE);
+        ExposureControlFunctions.updatePassageUsage(new ExposureUsageCounters(3, 3), eligibility, new int[] { 0 },
+                new int[] { 0 }, new int[] { 0 });
+    }
+}
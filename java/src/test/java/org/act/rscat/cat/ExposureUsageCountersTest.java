@@ -0,0 +1,128 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the striped passage or item usage counters of exposure control.
+ * <p>
+ * The counters have 3 theta intervals and 50 passages or items. Examinee {@code m} visits theta interval
+ * {@code m % 3}, where passage or item {@code i} is eligible if {@code (m + i) % 4 != 0}, and takes the passages or
+ * items {@code m % 50} and {@code (m + 7) % 50}.
+ */
+public class ExposureUsageCountersTest {
+    private static final int THETA_INTERVAL_NUM = 3;
+    private static final int ENTITY_NUM = 50;
+    private static final int THREAD_NUM = 8;
+    private static final int EXAMINEES_PER_THREAD = 2000;
+
+    /**
+     * Adds the usage of the examinees from several threads at once and compares the totals with the counts of the
+     * same examinees added from one thread.
+     *
+     * @throws InterruptedException if the test is interrupted
+     * @throws ExecutionException if an update fails
+     */
+    @Test
+    public void concurrentIncrementTest() throws InterruptedException, ExecutionException {
+        ExposureUsageCounters expected = new ExposureUsageCounters(THETA_INTERVAL_NUM, ENTITY_NUM, 1);
+        for (int m = 0; m < THREAD_NUM * EXAMINEES_PER_THREAD; m++) {
+            addExaminee(expected, m);
+        }
+
+        ExposureUsageCounters counters = new ExposureUsageCounters(THETA_INTERVAL_NUM, ENTITY_NUM, THREAD_NUM);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUM);
+        try {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREAD_NUM; t++) {
+                int first = t * EXAMINEES_PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int m = first; m < first + EXAMINEES_PER_THREAD; m++) {
+                        addExaminee(counters, m);
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+
+            // Counts read during the updates never decrease
+            double[] previous = new double[ENTITY_NUM];
+            double[] current = new double[ENTITY_NUM];
+            while (!futures.stream().allMatch(Future::isDone)) {
+                counters.copyEpsilon(0, current);
+                for (int i = 0; i < ENTITY_NUM; i++) {
+                    assertTrue(current[i] >= previous[i]);
+                }
+                System.arraycopy(current, 0, previous, 0, ENTITY_NUM);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(expected.getUpdateCount(), counters.getUpdateCount());
+        for (int k = 0; k < THETA_INTERVAL_NUM; k++) {
+            assertEquals(expected.getVisitNum(k), counters.getVisitNum(k));
+            assertArrayEquals(expected.snapshotAlpha(k), counters.snapshotAlpha(k), 0);
+            assertArrayEquals(expected.snapshotEpsilon(k), counters.snapshotEpsilon(k), 0);
+            for (int i = 0; i < ENTITY_NUM; i++) {
+                assertEquals(expected.getAlpha(k, i), counters.getAlpha(k, i));
+                assertEquals(expected.getEpsilon(k, i), counters.getEpsilon(k, i));
+            }
+        }
+    }
+
+    /**
+     * Compares the counts of a few examinees with their closed forms.
+     */
+    @Test
+    public void countsTest() {
+        ExposureUsageCounters counters = new ExposureUsageCounters(THETA_INTERVAL_NUM, ENTITY_NUM, 2);
+        for (int m = 0; m < 6; m++) {
+            addExaminee(counters, m);
+        }
+        assertEquals(12, counters.getUpdateCount());
+        assertEquals(2, counters.getVisitNum(1));
+        assertEquals(1, counters.getAlpha(1, 1));
+        assertEquals(1, counters.getAlpha(1, 8));
+        assertEquals(1, counters.getAlpha(1, 4));
+        assertEquals(1, counters.getAlpha(1, 11));
+        assertEquals(0, counters.getAlpha(1, 0));
+
+        // examinees 1 and 4 at theta interval 1: item 3 is ineligible for examinee 1, item 0 for examinee 4
+        assertEquals(1, counters.getEpsilon(1, 3));
+        assertEquals(1, counters.getEpsilon(1, 0));
+        assertEquals(2, counters.getEpsilon(1, 1));
+    }
+
+    /**
+     * Adds the usage of an examinee.
+     *
+     * @param counters the usage counters
+     * @param m the examinee index
+     */
+    private static void addExaminee(ExposureUsageCounters counters, int m) {
+        int thetaInterval = m % THETA_INTERVAL_NUM;
+        boolean[] eligibilityIndicators = new boolean[ENTITY_NUM];
+        for (int i = 0; i < ENTITY_NUM; i++) {
+            eligibilityIndicators[i] = (m + i) % 4 != 0;
+        }
+        counters.addEligible(thetaInterval, eligibilityIndicators);
+        counters.addAdministered(thetaInterval, new int[] { m % ENTITY_NUM, (m + 7) % ENTITY_NUM });
+    }
+}
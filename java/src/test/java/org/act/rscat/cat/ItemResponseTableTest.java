@@ -0,0 +1,128 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the precomputed item information tables.
+ * <p>
+ * The interpolated information and integrated information are compared with their exact values for random items
+ * with slopes up to 3, and the EBI values integrated from the tables are compared with the midpoint sums of
+ * {@link EBIMethod} without tables on an item pool of 720 items.
+ */
+public class ItemResponseTableTest {
+    private static final long SEED = 20201016L;
+    private static final double D = 1.7;
+
+    /**
+     * The relative tolerance of the EBI midpoint sum of 100 steps over the +/- 2 SE interval, whose error is below
+     * {@code (4 * SE)^3 / (24 * 100^2)} times the largest second derivative of the item information.
+     */
+    private static final double EBI_TOLERANCE = 1E-3;
+
+    /**
+     * Compares the interpolated information with its exact value for random items with slopes up to 3.
+     */
+    @Test
+    public void informationTest() {
+        RealMatrix itemPar = newItemPar(new Random(SEED), 200, 3 / D);
+        ItemResponseTable table = new ItemResponseTable(itemPar);
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 1000; trial++) {
+            double theta = -7 + 14 * random.nextDouble();
+            double[] values = table.getInformation(theta);
+            for (int i = 0; i < itemPar.getRowDimension(); i++) {
+                double expected = CatFunctions.calInfo(theta, itemPar.getEntry(i, 0), itemPar.getEntry(i, 1),
+                        itemPar.getEntry(i, 2), itemPar.getEntry(i, 3));
+                assertEquals(expected, values[i], ItemResponseTable.MAX_INTERPOLATION_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Compares the integrated information with a fine Simpson sum for random items with slopes up to 3.
+     */
+    @Test
+    public void informationIntegralTest() {
+        RealMatrix itemPar = newItemPar(new Random(SEED), 50, 3 / D);
+        ItemResponseTable table = new ItemResponseTable(itemPar);
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 20; trial++) {
+            double lower = -6 + 10 * random.nextDouble();
+            double upper = lower + 2 * random.nextDouble();
+            double[] values = table.getInformationIntegral(lower, upper);
+            for (int i = 0; i < itemPar.getRowDimension(); i++) {
+                assertEquals(simpson(itemPar, i, lower, upper), values[i],
+                        2 * ItemResponseTable.MAX_INTERPOLATION_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Chooses the number of grid points from the steepest item.
+     */
+    @Test
+    public void gridSizeTest() {
+        assertEquals(ItemResponseTable.MIN_GRID_SIZE, ItemResponseTable.gridSizeForSlope(0));
+        assertEquals(ItemResponseTable.MIN_GRID_SIZE, ItemResponseTable.gridSizeForSlope(0.5));
+        assertEquals(ItemResponseTable.MAX_GRID_SIZE, ItemResponseTable.gridSizeForSlope(4));
+        assertTrue(ItemResponseTable.gridSizeForSlope(1.5) < ItemResponseTable.gridSizeForSlope(2));
+    }
+
+    /**
+     * Compares the EBI values integrated from the tables with the midpoint sums of {@link EBIMethod} without tables.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void ebiRegressionTest() throws IOException {
+        TestConfig testConfig = TestFixtures
+                .testConfigBuilder(20, TestFixtures.read(TestFixtures.ITEM_POOL_720_ITEMS)).build();
+        RealMatrix itemPar = ItemPool.forTestConfig(testConfig).getItemPar();
+        ItemResponseTable table = ItemResponseTable.forTestConfig(testConfig);
+        double[][] estimates = new double[][] { { 0, 1 }, { -1.5, 0.6 }, { 2.2, 0.3 }, { 0.4, 0.15 }, { -3, 0.9 } };
+        for (double[] estimate : estimates) {
+            double[] expected = new EBIMethod(itemPar, estimate[0], estimate[1]).getSelectionCriteria();
+            double[] actual = new EBIMethod(table, estimate[0], estimate[1]).getSelectionCriteria();
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], EBI_TOLERANCE * expected[i]);
+            }
+        }
+    }
+
+    private static RealMatrix newItemPar(Random random, int itemNum, double maxA) {
+        double[][] itemPar = new double[itemNum][4];
+        for (int i = 0; i < itemNum; i++) {
+            itemPar[i][0] = 0.2 + (maxA - 0.2) * random.nextDouble();
+            itemPar[i][1] = -3 + 6 * random.nextDouble();
+            itemPar[i][2] = 0.3 * random.nextDouble();
+            itemPar[i][3] = D;
+        }
+        itemPar[0][0] = maxA;
+        itemPar[0][2] = 0;
+        itemPar[1][0] = maxA;
+        itemPar[1][2] = 0.3;
+        return MatrixUtils.createRealMatrix(itemPar);
+    }
+
+    private static double simpson(RealMatrix itemPar, int i, double lower, double upper) {
+        int stepNum = 2000;
+        double step = (upper - lower) / stepNum;
+        double sum = 0;
+        for (int k = 0; k <= stepNum; k++) {
+            double weight = k == 0 || k == stepNum ? 1 : k % 2 == 1 ? 4 : 2;
+            sum += weight * CatFunctions.calInfo(lower + k * step, itemPar.getEntry(i, 0), itemPar.getEntry(i, 1),
+                    itemPar.getEntry(i, 2), itemPar.getEntry(i, 3));
+        }
+        return sum * step / 3;
+    }
+}
@@ -0,0 +1,200 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the passage or item usage of exposure control stored in a memory-mapped file.
+ * <p>
+ * The stores have 3 theta intervals and 4 passages or items, and the faded counts are compared with their closed
+ * forms.
+ */
+public class MappedExposureStoreTest {
+    private static final double DELTA = 1E-9;
+    private static final int THETA_INTERVAL_NUM = 3;
+    private static final int ENTITY_NUM = 4;
+
+    private Path directory;
+    private Path file;
+
+    /**
+     * Creates a directory for the exposure state files.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("exposure");
+        file = directory.resolve("exposure.dat");
+    }
+
+    /**
+     * Deletes the exposure state files.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Reopens a store and reads the counts added before it was closed.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void reopenTest() throws IOException {
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 1)) {
+            store.addExaminee(eligibility(), new int[] { 0, 2 }, new int[] { 1, 1 });
+            store.addExaminee(eligibility(), new int[] { 3, 1 }, new int[] { 1, 2 });
+        }
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 1)) {
+            assertEquals(2, store.getUpdateCount());
+            assertEquals(0, store.getVisitNum(0), DELTA);
+            assertEquals(2, store.getVisitNum(1), DELTA);
+            assertEquals(1, store.getVisitNum(2), DELTA);
+            assertArrayEquals(new double[] { 1, 0, 1, 1 }, store.snapshotAlpha(1), DELTA);
+            assertArrayEquals(new double[] { 0, 1, 0, 0 }, store.snapshotAlpha(2), DELTA);
+            assertArrayEquals(new double[] { 2, 2, 2, 2 }, store.snapshotEpsilon(1), DELTA);
+            assertArrayEquals(new double[] { 1, 1, 1, 1 }, store.snapshotEpsilon(2), DELTA);
+
+            double[] alpha = new double[ENTITY_NUM];
+            double[] epsilon = new double[ENTITY_NUM];
+            store.copyUsage(1, alpha, epsilon);
+            assertArrayEquals(store.snapshotAlpha(1), alpha, 0);
+            assertArrayEquals(store.snapshotEpsilon(1), epsilon, 0);
+        }
+    }
+
+    /**
+     * Reopens a store with another fading factor.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void reopenMismatchTest() throws IOException {
+        MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 1).close();
+        MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 0.9).close();
+    }
+
+    /**
+     * Compares the faded counts with the geometric sums of the fading factor.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void fadingTest() throws IOException {
+        double fadingFactor = 0.9;
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM,
+                fadingFactor)) {
+            for (int n = 1; n <= 50; n++) {
+                store.addExaminee(eligibility(), new int[] { n % 2 }, new int[] { 0 });
+                assertUsage(store, fadingFactor, n);
+            }
+        }
+    }
+
+    /**
+     * Adds enough examinees for the common scale to fall below {@link MappedExposureStore#MIN_SCALE}, so that the
+     * stored counts are rewritten, and compares the faded counts with the geometric sums of the fading factor.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void rescaleTest() throws IOException {
+        double fadingFactor = 0.5;
+        int examineeNum = 2 * (int) Math.ceil(Math.log(MappedExposureStore.MIN_SCALE) / Math.log(fadingFactor));
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM,
+                fadingFactor)) {
+            for (int n = 1; n <= examineeNum; n++) {
+                store.addExaminee(eligibility(), new int[] { n % 2 }, new int[] { 0 });
+            }
+            assertUsage(store, fadingFactor, examineeNum);
+        }
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM,
+                fadingFactor)) {
+            assertUsage(store, fadingFactor, examineeNum);
+        }
+    }
+
+    /**
+     * Restores a store from a snapshot written before later examinees were added.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void snapshotTest() throws IOException {
+        Path snapshotFile = directory.resolve("exposure.snapshot");
+        double[] alpha;
+        double[] epsilon;
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 0.9)) {
+            store.addExaminee(eligibility(), new int[] { 0, 2 }, new int[] { 0, 2 });
+            store.addExaminee(eligibility(), new int[] { 1 }, new int[] { 0 });
+            store.writeSnapshot(snapshotFile);
+            alpha = store.snapshotAlpha(0);
+            epsilon = store.snapshotEpsilon(0);
+            store.addExaminee(eligibility(), new int[] { 3 }, new int[] { 0 });
+        }
+        Files.copy(snapshotFile, file, StandardCopyOption.REPLACE_EXISTING);
+        try (MappedExposureStore store = MappedExposureStore.open(file, THETA_INTERVAL_NUM, ENTITY_NUM, 0.9)) {
+            assertEquals(2, store.getUpdateCount());
+            assertArrayEquals(alpha, store.snapshotAlpha(0), 0);
+            assertArrayEquals(epsilon, store.snapshotEpsilon(0), 0);
+            assertArrayEquals(new double[] { 0, 0, 0.9, 0 }, store.snapshotAlpha(2), DELTA);
+        }
+    }
+
+    /**
+     * Compares the counts of theta interval 0 after {@code n} examinees, where examinee {@code m} took entity
+     * {@code m % 2}, with the geometric sums of the fading factor.
+     *
+     * @param store the store
+     * @param fadingFactor the fading factor
+     * @param n the number of examinees
+     */
+    private static void assertUsage(MappedExposureStore store, double fadingFactor, int n) {
+        // Examinee m is faded n - m times
+        double visits = (1 - Math.pow(fadingFactor, n)) / (1 - fadingFactor);
+        double even = 0;
+        for (int m = 2; m <= n; m += 2) {
+            even += Math.pow(fadingFactor, n - m);
+        }
+        assertEquals(n, store.getUpdateCount());
+        assertEquals(visits, store.getVisitNum(0), DELTA * visits);
+        assertArrayEquals(new double[] { even, visits - even, 0, 0 }, store.snapshotAlpha(0), DELTA * visits);
+        double[] epsilon = new double[ENTITY_NUM];
+        Arrays.fill(epsilon, visits);
+        assertArrayEquals(epsilon, store.snapshotEpsilon(0), DELTA * visits);
+        assertArrayEquals(new double[ENTITY_NUM], store.snapshotEpsilon(1), 0);
+    }
+
+    /**
+     * Returns the eligibility indicators of an examinee for whom every passage or item is eligible.
+     *
+     * @return the eligibility indicators for all theta intervals
+     */
+    private static boolean[][] eligibility() {
+        boolean[][] eligibilityIndicators = new boolean[THETA_INTERVAL_NUM][ENTITY_NUM];
+        for (boolean[] indicators : eligibilityIndicators) {
+            Arrays.fill(indicators, true);
+        }
+        return eligibilityIndicators;
+    }
+}
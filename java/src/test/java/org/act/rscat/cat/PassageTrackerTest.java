@@ -0,0 +1,194 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.ContentTable;
+import org.act.rscat.util.CsvUtils;
+import org.act.rscat.util.PrimitiveArraySet;
+import org.act.rscat.util.TestFixtures;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes differential tests of the hard item eligibility of {@link PassageTracker} against the one of
+ * {@link CatFunctions#getEligiblePassageItems(String[], PrimitiveArraySet, ContentTable)}.
+ * <p>
+ * The item pool of 720 items and 30 passages is modified so that every fourth item is a discrete item, and the items
+ * of the even passages have passage item orders. Each trial administers a random sequence of discrete items and runs
+ * of passage items, where a passage may be visited again after it was closed, and compares the eligibility after each
+ * administered item.
+ */
+public class PassageTrackerTest {
+    private static final long SEED = 20201016L;
+    private static final int TRIAL_NUM = 100;
+
+    private ContentTable.RowOriented itemPoolTable;
+    private ItemPool itemPool;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        String itemPoolCsv;
+        try (InputStream itemPoolInput = URLClassLoader.getSystemResourceAsStream(TestFixtures.ITEM_POOL_720_ITEMS)) {
+            itemPoolCsv = IOUtils.toString(itemPoolInput, StandardCharsets.UTF_8);
+        }
+
+        // Every fourth item is discrete, and the items of even passages are ordered
+        String[] lines = itemPoolCsv.split("\r?\n");
+        StringBuilder csv = new StringBuilder(lines[0]).append('\n');
+        for (int i = 1; i < lines.length; i++) {
+            String[] columns = lines[i].split(",", -1);
+            if (i % 4 == 0) {
+                columns[1] = "none";
+            }
+            boolean ordered = !"none".equals(columns[1]) && Integer.parseInt(columns[1]) % 2 == 0;
+            columns[2] = ordered ? Integer.toString(1 + i * 7 % 5) : "none";
+            csv.append(String.join(",", columns)).append('\n');
+        }
+        try (InputStream itemPoolInput = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))) {
+            itemPoolTable = CsvUtils.read(itemPoolInput);
+        }
+        TestConfig testConfig = TestFixtures.testConfigBuilder(20, itemPoolTable)
+                .passageTable(TestFixtures.read(TestFixtures.PASSAGE_POOL_30_PASSAGES))
+                .passageNumericColumn(TestFixtures.passageNumericColumn()).build();
+        itemPool = ItemPool.forTestConfig(testConfig);
+    }
+
+    /**
+     * Updates one tracker with each administered item and compares its eligibility with the legacy eligibility.
+     */
+    @Test
+    public void incrementalUpdateTest() {
+        Random random = new Random(SEED);
+        PassageTracker tracker = new PassageTracker(itemPool);
+        for (int trial = 0; trial < TRIAL_NUM; trial++) {
+            int[] sequence = newAdministeredSequence(random);
+            for (int length = 0; length <= sequence.length; length++) {
+                int[] adminRowIndices = new int[length];
+                System.arraycopy(sequence, 0, adminRowIndices, 0, length);
+                tracker.update(adminRowIndices);
+                assertEquals("Trial " + trial + " after " + length + " items", legacyEligibleItems(adminRowIndices),
+                        tracker.getEligibleItems());
+            }
+        }
+    }
+
+    /**
+     * Updates trackers with whole sequences, the same tracker with unrelated sequences, and compares their
+     * eligibility with the legacy eligibility.
+     */
+    @Test
+    public void rebuildTest() {
+        Random random = new Random(SEED);
+        PassageTracker tracker = new PassageTracker(itemPool);
+        BitSet eligibleItems = new BitSet();
+        for (int trial = 0; trial < TRIAL_NUM; trial++) {
+            int[] adminRowIndices = newAdministeredSequence(random);
+            tracker.update(adminRowIndices);
+            BitSet expected = legacyEligibleItems(adminRowIndices);
+            assertEquals("Trial " + trial, expected, tracker.getEligibleItems(eligibleItems));
+
+            PassageTracker newTracker = new PassageTracker(itemPool);
+            newTracker.update(adminRowIndices);
+            assertEquals("Trial " + trial, expected, newTracker.getEligibleItems());
+        }
+    }
+
+    /**
+     * Returns the eligibility of {@link CatFunctions#getEligiblePassageItems(String[], PrimitiveArraySet,
+     * ContentTable)}.
+     *
+     * @param adminRowIndices the item pool row indices of the administered items
+     * @return the eligible item row indices
+     */
+    private BitSet legacyEligibleItems(int[] adminRowIndices) {
+        String[] itemIds = itemPool.getItemIds();
+        String[] itemsAdministeredString = new String[adminRowIndices.length];
+        for (int k = 0; k < adminRowIndices.length; k++) {
+            itemsAdministeredString[k] = itemIds[adminRowIndices[k]];
+        }
+        PrimitiveArraySet mapIndices = new PrimitiveArraySet()
+                .withStringArray(CatEngine.MapIndiceHeader.ITEM_IDENTIFIERS.name(), itemIds)
+                .withStringArray(CatEngine.MapIndiceHeader.PASSAGE_IDENTIFIERS.name(),
+                        itemPool.getPassageIdsFromItemTable());
+        boolean[] eligible = CatFunctions.getEligiblePassageItems(itemsAdministeredString, mapIndices,
+                itemPoolTable);
+        BitSet eligibleItems = new BitSet(eligible.length);
+        for (int i = 0; i < eligible.length; i++) {
+            eligibleItems.set(i, eligible[i]);
+        }
+        return eligibleItems;
+    }
+
+    /**
+     * Returns a random sequence of up to 16 distinct administered items, made of discrete items and runs of 1 to 4
+     * items of a random passage.
+     *
+     * @param random the random generator
+     * @return the item pool row indices of the administered items, in administration order
+     */
+    private int[] newAdministeredSequence(Random random) {
+        int[] itemPassageIndices = itemPool.getItemPassageIndices();
+        List<Integer> discreteItems = new ArrayList<>();
+        for (int i = 0; i < itemPool.getItemNum(); i++) {
+            if (itemPassageIndices[i] < 0) {
+                discreteItems.add(i);
+            }
+        }
+        Collections.shuffle(discreteItems, random);
+        List<List<Integer>> passageItems = new ArrayList<>();
+        for (int p = 0; p < itemPool.getPassageNum(); p++) {
+            List<Integer> items = new ArrayList<>();
+            for (int item : itemPool.getPassageItemIndices(p)) {
+                items.add(item);
+            }
+            Collections.shuffle(items, random);
+            passageItems.add(items);
+        }
+
+        // a few passages, so that some are visited again
+        List<Integer> passages = new ArrayList<>();
+        for (int p = 0; p < itemPool.getPassageNum(); p++) {
+            if (!passageItems.get(p).isEmpty()) {
+                passages.add(p);
+            }
+        }
+        Collections.shuffle(passages, random);
+        passages = passages.subList(0, 4);
+
+        List<Integer> sequence = new ArrayList<>();
+        int length = random.nextInt(17);
+        while (sequence.size() < length) {
+            if (random.nextInt(3) == 0) {
+                sequence.add(discreteItems.remove(discreteItems.size() - 1));
+            } else {
+                List<Integer> items = passageItems.get(passages.get(random.nextInt(passages.size())));
+                for (int k = 1 + random.nextInt(4); k > 0 && !items.isEmpty() && sequence.size() < length; k--) {
+                    sequence.add(items.remove(items.size() - 1));
+                }
+            }
+        }
+        int[] adminRowIndices = new int[sequence.size()];
+        for (int k = 0; k < adminRowIndices.length; k++) {
+            adminRowIndices[k] = sequence.get(k);
+        }
+        return adminRowIndices;
+    }
+}
@@ -0,0 +1,90 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the EAP estimate with a posterior carried forward between adaptive stages.
+ * <p>
+ * The estimates are compared with the ones of {@link ScoringMethodEap} recomputed from all administered items of a
+ * discrete item pool of 10 items.
+ */
+public class ScoringMethodEapIncrementalTest {
+    private static final double DELTA = 1E-9;
+
+    private ScoringMethodConfigEap config;
+    private RealMatrix itemPar;
+    private ItemResponseTable responseTable;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        TestConfig testConfig = TestFixtures
+                .testConfigBuilder(8, TestFixtures.read(TestFixtures.ITEM_POOL_10_ITEMS)).build();
+        config = new ScoringMethodConfigEap(6, -2, 2, new UniDimNormalDistribution(0, 1), true);
+        itemPar = ItemPool.forTestConfig(testConfig).getItemPar();
+        responseTable = ItemResponseTable.forTestConfig(testConfig);
+    }
+
+    /**
+     * Adds items to the posterior stage by stage.
+     */
+    @Test
+    public void extendedPrefixTest() {
+        ScoringMethodEapIncremental scoring = new ScoringMethodEapIncremental(config, responseTable);
+        assertEstimate(scoring, new int[] { 3, 5 }, new int[] { 1, 0 });
+        assertEstimate(scoring, new int[] { 3, 5, 7 }, new int[] { 1, 0, 1 });
+        assertEstimate(scoring, new int[] { 3, 5, 7, 8 }, new int[] { 1, 0, 1, 1 });
+    }
+
+    /**
+     * Corrects the score of an item already included in the posterior.
+     */
+    @Test
+    public void changedScoreTest() {
+        ScoringMethodEapIncremental scoring = new ScoringMethodEapIncremental(config, responseTable);
+        assertEstimate(scoring, new int[] { 3, 5, 7 }, new int[] { 1, 0, 1 });
+        assertEstimate(scoring, new int[] { 3, 5, 7, 8 }, new int[] { 1, 1, 1, 0 });
+        assertEstimate(scoring, new int[] { 3, 5, 7, 8 }, new int[] { 1, 1, 1, 1 });
+    }
+
+    /**
+     * Reorders the items included in the posterior.
+     */
+    @Test
+    public void reorderedPrefixTest() {
+        ScoringMethodEapIncremental scoring = new ScoringMethodEapIncremental(config, responseTable);
+        assertEstimate(scoring, new int[] { 3, 5, 7 }, new int[] { 1, 0, 1 });
+        assertEstimate(scoring, new int[] { 5, 3, 7, 8 }, new int[] { 0, 1, 1, 0 });
+        assertEstimate(scoring, new int[] { 5, 3 }, new int[] { 0, 1 });
+    }
+
+    /**
+     * Updates the posterior and compares the estimate with the one recomputed by {@link ScoringMethodEap}.
+     *
+     * @param scoring the incremental scoring method
+     * @param adminRowIndices the item pool row indices of the administered items
+     * @param scores the scores of the administered items
+     */
+    private void assertEstimate(ScoringMethodEapIncremental scoring, int[] adminRowIndices, int[] scores) {
+        ItemScores itemScores = new ItemScores(scores, new double[scores.length]);
+        scoring.update(adminRowIndices, itemScores);
+        ThetaEst expected = new ScoringMethodEap(itemPar.getSubMatrix(adminRowIndices, new int[] { 0, 1, 2, 3 }),
+                itemScores, config).estimateTheta();
+        ThetaEst actual = scoring.estimateTheta();
+        assertEquals(expected.getTheta(), actual.getTheta(), DELTA);
+        assertEquals(expected.getSe(), actual.getSe(), DELTA);
+    }
+}
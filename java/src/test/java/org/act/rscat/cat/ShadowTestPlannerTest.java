@@ -0,0 +1,192 @@
+package org.act.rscat.cat;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.ContentTable;
+import org.act.rscat.util.CsvUtils;
+import org.act.rscat.util.PrimitiveArraySet;
+import org.act.rscat.util.TestFixtures;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes differential tests of the administration order planned by {@link ShadowTestPlanner} against
+ * the one of {@link CatFunctions#prepShadowTest(String[], int[], PrimitiveArraySet, ContentTable, ContentTable,
+ * List)}.
+ * <p>
+ * The item pool of 720 items and 30 passages is modified so that every fourth item is a discrete item, and the
+ * passage item orders are not specified. Each trial draws a random shadow test, administers a prefix of the order
+ * planned at a previous theta, and compares both orders of the remaining items at new information values.
+ */
+public class ShadowTestPlannerTest {
+    private static final long SEED = 20201016L;
+    private static final int TRIAL_NUM = 500;
+
+    private TestConfig testConfig;
+    private ItemPool itemPool;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        String itemPoolCsv;
+        try (InputStream itemPoolInput = URLClassLoader.getSystemResourceAsStream(TestFixtures.ITEM_POOL_720_ITEMS)) {
+            itemPoolCsv = IOUtils.toString(itemPoolInput, StandardCharsets.UTF_8);
+        }
+
+        // Every fourth item is discrete, and no passage item order is specified
+        String[] lines = itemPoolCsv.split("\r?\n");
+        StringBuilder csv = new StringBuilder(lines[0]).append('\n');
+        for (int i = 1; i < lines.length; i++) {
+            String[] columns = lines[i].split(",", -1);
+            if (i % 4 == 0) {
+                columns[1] = "none";
+            }
+            columns[2] = "none";
+            csv.append(String.join(",", columns)).append('\n');
+        }
+        ContentTable.RowOriented itemPoolTable;
+        try (InputStream itemPoolInput = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))) {
+            itemPoolTable = CsvUtils.read(itemPoolInput);
+        }
+        testConfig = TestFixtures.testConfigBuilder(20, itemPoolTable)
+                .passageTable(TestFixtures.read(TestFixtures.PASSAGE_POOL_30_PASSAGES))
+                .passageNumericColumn(TestFixtures.passageNumericColumn()).build();
+        itemPool = ItemPool.forTestConfig(testConfig);
+    }
+
+    /**
+     * Compares the planned orders without passage sequences.
+     */
+    @Test
+    public void unorderedPassagesTest() {
+        comparePlans(false);
+    }
+
+    /**
+     * Compares the planned orders with passage sequences returned by the solver.
+     */
+    @Test
+    public void orderedPassagesTest() {
+        comparePlans(true);
+    }
+
+    /**
+     * Runs the random trials and compares the planned orders.
+     *
+     * @param ordered whether the passages of a shadow test follow a passage sequence
+     */
+    private void comparePlans(boolean ordered) {
+        Random random = new Random(SEED);
+        ShadowTestPlanner planner = new ShadowTestPlanner(itemPool);
+        String[] itemIds = itemPool.getItemIds();
+        for (int trial = 0; trial < TRIAL_NUM; trial++) {
+            List<Integer> passageRowIndexSequence = new ArrayList<>();
+            int[] shadowTestIndices = newShadowTest(random, passageRowIndexSequence);
+            if (!ordered) {
+                passageRowIndexSequence.clear();
+            }
+
+            // administer a prefix of the order planned at a previous theta
+            int[] previousPlan = planner.plan(new int[0], shadowTestIndices, newInformation(random),
+                    passageRowIndexSequence);
+            int[] adminRowIndices = Arrays.copyOf(previousPlan, random.nextInt(previousPlan.length + 1));
+
+            double[] information = newInformation(random);
+            int[] planned = planner.plan(adminRowIndices, shadowTestIndices, information, passageRowIndexSequence);
+            List<String> plannedIds = new ArrayList<>();
+            for (int item : planned) {
+                plannedIds.add(itemIds[item]);
+            }
+
+            String[] itemsAdminArray = new String[adminRowIndices.length];
+            boolean[] itemsAdministered = new boolean[itemIds.length];
+            for (int k = 0; k < adminRowIndices.length; k++) {
+                itemsAdminArray[k] = itemIds[adminRowIndices[k]];
+                itemsAdministered[adminRowIndices[k]] = true;
+            }
+            PrimitiveArraySet mapIndices = new PrimitiveArraySet()
+                    .withStringArray(CatEngine.MapIndiceHeader.ITEM_IDENTIFIERS.name(), itemIds)
+                    .withStringArray(CatEngine.MapIndiceHeader.PASSAGE_IDENTIFIERS.name(),
+                            itemPool.getPassageIdsFromItemTable())
+                    .withIntArray(CatEngine.MapIndiceHeader.ITEM_INDICES.name(), itemPool.getItemIndices())
+                    .withDoubleArray(CatEngine.MapIndiceHeader.FISHER_INFORMATION.name(), information)
+                    .withBooleanArray(CatEngine.MapIndiceHeader.ITEMS_ADMINISTERED.name(), itemsAdministered);
+            CatItemsToAdminister expected = CatFunctions.prepShadowTest(itemsAdminArray, shadowTestIndices,
+                    mapIndices, testConfig.getItemPoolTable(), testConfig.getPassageTable(), passageRowIndexSequence);
+            assertEquals("Trial " + trial, expected.getListItemsToAdminister(), plannedIds);
+        }
+    }
+
+    /**
+     * Returns a random shadow test of 3 to 5 passages with 1 to 6 items each, and up to 10 discrete items.
+     *
+     * @param random the random generator
+     * @param passageRowIndexSequence the list receiving the passages of the shadow test in random order
+     * @return the item pool row indices of the shadow test items
+     */
+    private int[] newShadowTest(Random random, List<Integer> passageRowIndexSequence) {
+        List<Integer> passages = new ArrayList<>();
+        for (int p = 0; p < itemPool.getPassageNum(); p++) {
+            if (itemPool.getPassageItemIndices(p).length > 0) {
+                passages.add(p);
+            }
+        }
+        Collections.shuffle(passages, random);
+        List<Integer> items = new ArrayList<>();
+        for (int p : passages.subList(0, 3 + random.nextInt(3))) {
+            passageRowIndexSequence.add(p);
+            List<Integer> passageItems = new ArrayList<>();
+            for (int item : itemPool.getPassageItemIndices(p)) {
+                passageItems.add(item);
+            }
+            Collections.shuffle(passageItems, random);
+            items.addAll(passageItems.subList(0, Math.min(passageItems.size(), 1 + random.nextInt(6))));
+        }
+        List<Integer> discreteItems = new ArrayList<>();
+        int[] itemPassageIndices = itemPool.getItemPassageIndices();
+        for (int i = 0; i < itemPool.getItemNum(); i++) {
+            if (itemPassageIndices[i] < 0) {
+                discreteItems.add(i);
+            }
+        }
+        Collections.shuffle(discreteItems, random);
+        items.addAll(discreteItems.subList(0, random.nextInt(11)));
+        Collections.shuffle(items, random);
+        int[] shadowTestIndices = new int[items.size()];
+        for (int k = 0; k < shadowTestIndices.length; k++) {
+            shadowTestIndices[k] = items.get(k);
+        }
+        return shadowTestIndices;
+    }
+
+    /**
+     * Returns random information values of all items in the pool.
+     *
+     * @param random the random generator
+     * @return the information values
+     */
+    private double[] newInformation(Random random) {
+        double[] information = new double[itemPool.getItemNum()];
+        for (int i = 0; i < information.length; i++) {
+            information[i] = random.nextDouble();
+        }
+        return information;
+    }
+}
@@ -0,0 +1,187 @@
+package org.act.rscat.mip;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.act.rscat.testdef.AbstractTestEntity;
+import org.act.rscat.testdef.Item;
+import org.act.rscat.testdef.Passage;
+import org.act.rscat.util.ContentTable;
+import org.act.rscat.util.TestFixtures;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the compiled constraint filters.
+ * <p>
+ * The object sets compiled from the constraint sets of the item pools of 10 and 720 items are compared with the
+ * sets the shadow-test model used to build from the same filters, one object and one filter at a time. An item
+ * level set filter of {@code "ALL"} and a passage level set filter of {@code "All"} select every object; any other
+ * spelling is matched as an attribute value.
+ */
+public class ConstraintCompilerTest {
+
+    /**
+     * Column names of the constraint tables.
+     */
+    private static final List<String> CONSTRAINT_COLUMNS = Arrays.asList("Id", "Description", "Type", "Level",
+            "CalAttr", "CalLB", "CalUB", "FilterAttr", "FilterLogic", "FilterData", "IsLoaded");
+
+    /**
+     * Compiles the constraint set of the item pool of 10 items.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void constraintSet1Test() throws IOException {
+        List<Item> items = readItems(TestFixtures.ITEM_POOL_10_ITEMS);
+        List<Constraint> constraints = readConstraints(TestFixtures.CONSTRAINT_SET_1);
+        List<BitSet> objectSets = ConstraintCompiler.compile(constraints, items, Collections.emptyList());
+
+        assertObjectSets(constraints, items, Collections.emptyList(), objectSets);
+        assertEquals(1, objectSets.get(0).cardinality());
+        assertEquals(3, objectSets.get(1).cardinality());
+    }
+
+    /**
+     * Compiles the constraint set of the item pool of 720 items and 30 passages, with item and passage level,
+     * set and bound filters.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void constraintSet2Test() throws IOException {
+        List<Item> items = readItems(TestFixtures.ITEM_POOL_720_ITEMS);
+        List<Passage> passages = readPassages(TestFixtures.PASSAGE_POOL_30_PASSAGES);
+        List<Constraint> constraints = readConstraints(TestFixtures.CONSTRAINT_SET_2);
+        List<BitSet> objectSets = ConstraintCompiler.compile(constraints, items, passages);
+
+        assertObjectSets(constraints, items, passages, objectSets);
+
+        // The average word count constraint applies to all passages
+        assertEquals(passages.size(), objectSets.get(9).cardinality());
+    }
+
+    /**
+     * Compiles the filters selecting all objects, which are spelled {@code "ALL"} at the item level and
+     * {@code "All"} at the passage level, and the other spelling at each level.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void allFilterTest() throws IOException {
+        List<Item> items = readItems(TestFixtures.ITEM_POOL_720_ITEMS);
+        List<Passage> passages = readPassages(TestFixtures.PASSAGE_POOL_30_PASSAGES);
+        List<Constraint> constraints = Arrays.asList(
+                newConstraint(0, "Item", "Content 3|Word Count", "Set|Bounds", "ALL#30|1000"),
+                newConstraint(1, "Item", "Content 3", "Set", "All"),
+                newConstraint(2, "Passage", "Content Type", "Set", "All"),
+                newConstraint(3, "Passage", "Content Type", "Set", "ALL"),
+                newConstraint(4, "Passage", "Content Type|Includes Figures", "Set|Set", "All#Y"),
+                newConstraint(5, "Test", "Content 3", "Set", "ALL"));
+        List<BitSet> objectSets = ConstraintCompiler.compile(constraints, items, passages);
+
+        assertObjectSets(constraints, items, passages, objectSets);
+        assertEquals(0, objectSets.get(1).cardinality());
+        assertEquals(passages.size(), objectSets.get(2).cardinality());
+        assertEquals(0, objectSets.get(3).cardinality());
+        assertEquals(0, objectSets.get(5).cardinality());
+    }
+
+    private static void assertObjectSets(List<Constraint> constraints, List<Item> items, List<Passage> passages,
+            List<BitSet> objectSets) {
+        assertEquals(constraints.size(), objectSets.size());
+        for (int c = 0; c < constraints.size(); c++) {
+            Constraint cnst = constraints.get(c);
+            BitSet expected;
+            if (ConstraintCompiler.LEVEL_ITEM.equals(cnst.level)) {
+                expected = filter(cnst, items, "ALL");
+            } else if (ConstraintCompiler.LEVEL_PASSAGE.equals(cnst.level)) {
+                expected = filter(cnst, passages, "All");
+            } else {
+                expected = new BitSet();
+            }
+            assertEquals("Constraint " + cnst.id, expected, objectSets.get(c));
+        }
+    }
+
+    /**
+     * Returns the objects selected by the filters of a constraint the way the shadow-test model selected them:
+     * all objects, narrowed by each set filter that is not the all filter and by each bound filter. An object
+     * without a filter attribute has the empty string as categorical value and 0 as numeric value.
+     *
+     * @param cnst the constraint
+     * @param objects the items or passages
+     * @param allFilter the set filter value selecting all objects
+     * @return the row indices of the selected objects
+     */
+    private static BitSet filter(Constraint cnst, List<? extends AbstractTestEntity> objects, String allFilter) {
+        BitSet selected = new BitSet();
+        for (int i = 0; i < objects.size(); i++) {
+            AbstractTestEntity object = objects.get(i);
+            boolean isSelected = true;
+            for (Entry<String, Set<String>> entry : cnst.filterSetData.entrySet()) {
+                if (entry.getValue().equals(Collections.singleton(allFilter))) {
+                    continue;
+                }
+                int attrIndex = object.getCategAttrsNames().indexOf(entry.getKey());
+                String attr = attrIndex >= 0 ? object.getCategAttrs().get(attrIndex) : "";
+                isSelected &= entry.getValue().contains(attr);
+            }
+            for (Entry<String, List<Double>> entry : cnst.filterBoundsData.entrySet()) {
+                int attrIndex = object.getNumericAttrsNames().indexOf(entry.getKey());
+                double attr = attrIndex >= 0 ? object.getNumericAttrs().get(attrIndex) : 0;
+                isSelected &= attr >= entry.getValue().get(0) && attr <= entry.getValue().get(1);
+            }
+            if (isSelected) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    private static List<Item> readItems(String resource) throws IOException {
+        ContentTable.RowOriented table = TestFixtures.read(resource);
+        int idIndex = table.columnIndex("Item ID");
+        List<Item> items = new ArrayList<>();
+        for (List<String> row : table.rows()) {
+            items.add(new Item(row.get(idIndex), row, table.columnNames(), TestFixtures.itemNumericColumn(),
+                    items.size()));
+        }
+        return items;
+    }
+
+    private static List<Passage> readPassages(String resource) throws IOException {
+        ContentTable.RowOriented table = TestFixtures.read(resource);
+        int idIndex = table.columnIndex("Passage ID");
+        List<Passage> passages = new ArrayList<>();
+        for (List<String> row : table.rows()) {
+            passages.add(new Passage(row.get(idIndex), row, table.columnNames(), TestFixtures.passageNumericColumn(),
+                    passages.size()));
+        }
+        return passages;
+    }
+
+    private static List<Constraint> readConstraints(String resource) throws IOException {
+        ContentTable.RowOriented table = TestFixtures.read(resource);
+        List<Constraint> constraints = new ArrayList<>();
+        for (List<String> row : table.rows()) {
+            constraints.add(new Constraint(table.columnNames(), row.toArray(new String[0]), constraints.size()));
+        }
+        return constraints;
+    }
+
+    private static Constraint newConstraint(int rowIndex, String level, String filterAttr, String filterLogic,
+            String filterData) {
+        String[] data = new String[] { Integer.toString(rowIndex + 1), "", "Include", level, "Count", "Null", "Null",
+                filterAttr, filterLogic, filterData, "TRUE" };
+        return new Constraint(CONSTRAINT_COLUMNS, data, rowIndex);
+    }
+}
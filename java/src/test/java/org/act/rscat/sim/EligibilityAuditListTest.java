@@ -0,0 +1,114 @@
+package org.act.rscat.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the compact list of the passage or item eligibility of the adaptive stages.
+ * <p>
+ * The eligibility of random stages over 720 items changes by a few indicators per stage, with stages without
+ * eligibility or indicators and stages of another length. The eligibility decoded at random stages is compared with
+ * the eligibility added.
+ */
+public class EligibilityAuditListTest {
+    private static final long SEED = 20201016L;
+    private static final int ITEM_NUM = 720;
+
+    /**
+     * Adds the eligibility of random stages and decodes it at random stages, across several key stages.
+     */
+    @Test
+    public void decodeTest() {
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 20; trial++) {
+            List<PassageOrItemEligibilityAtThetaRange> expected = new ArrayList<>();
+            EligibilityAuditList actual = new EligibilityAuditList();
+            boolean[] indicators = newIndicators(random, ITEM_NUM);
+            int stageNum = 1 + random.nextInt(80);
+            for (int s = 0; s < stageNum; s++) {
+                indicators = indicators.clone();
+                for (int c = random.nextInt(6); c > 0; c--) {
+                    int i = random.nextInt(ITEM_NUM);
+                    indicators[i] = !indicators[i];
+                }
+                PassageOrItemEligibilityAtThetaRange eligibility;
+                int kind = random.nextInt(20);
+                if (kind == 0) {
+                    eligibility = null;
+                } else if (kind == 1) {
+                    eligibility = new PassageOrItemEligibilityAtThetaRange(random.nextInt(4), null,
+                            ExposureControlType.NONE);
+                } else if (kind == 2) {
+                    eligibility = new PassageOrItemEligibilityAtThetaRange(null,
+                            newIndicators(random, 1 + random.nextInt(40)), ExposureControlType.PASSAGE);
+                } else {
+                    eligibility = new PassageOrItemEligibilityAtThetaRange(random.nextInt(4), indicators,
+                            ExposureControlType.ITEM);
+                }
+                expected.add(eligibility);
+                actual.add(eligibility);
+            }
+
+            assertEquals(expected.size(), actual.size());
+            for (int k = 0; k < 2 * stageNum; k++) {
+                int s = random.nextInt(stageNum);
+                assertEligibility(expected.get(s), actual.get(s));
+            }
+            for (int s = 0; s < stageNum; s++) {
+                assertEligibility(expected.get(s), actual.get(s));
+            }
+        }
+    }
+
+    /**
+     * Changes the indicators of an added stage, which does not change the stored stage.
+     */
+    @Test
+    public void copyTest() {
+        boolean[] indicators = new boolean[] { true, false, true };
+        EligibilityAuditList list = new EligibilityAuditList();
+        list.add(new PassageOrItemEligibilityAtThetaRange(1, indicators, ExposureControlType.ITEM));
+        indicators[1] = true;
+        list.add(new PassageOrItemEligibilityAtThetaRange(1, indicators, ExposureControlType.ITEM));
+        indicators[0] = false;
+        assertArrayEquals(new boolean[] { true, false, true }, list.get(0).getEligibilityIndicators());
+        assertArrayEquals(new boolean[] { true, true, true }, list.get(1).getEligibilityIndicators());
+    }
+
+    /**
+     * Rejects a stage out of range.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfRangeTest() {
+        EligibilityAuditList list = new EligibilityAuditList();
+        list.add(null);
+        list.get(1);
+    }
+
+    private static boolean[] newIndicators(Random random, int length) {
+        boolean[] indicators = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            indicators[i] = random.nextInt(5) != 0;
+        }
+        return indicators;
+    }
+
+    private static void assertEligibility(PassageOrItemEligibilityAtThetaRange expected,
+            PassageOrItemEligibilityAtThetaRange actual) {
+        if (expected == null) {
+            assertEquals(null, actual);
+            return;
+        }
+        assertEquals(expected.getThetaRangeIndex(), actual.getThetaRangeIndex());
+        assertEquals(expected.getExposureType(), actual.getExposureType());
+        assertArrayEquals(expected.getEligibilityIndicators(), actual.getEligibilityIndicators());
+    }
+}
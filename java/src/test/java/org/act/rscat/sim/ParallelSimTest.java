@@ -0,0 +1,80 @@
+package org.act.rscat.sim;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.act.rscat.cat.AbstractScoringMethodConfig;
+import org.act.rscat.cat.CatConfig;
+import org.act.rscat.cat.CatConfigStandard;
+import org.act.rscat.cat.ExposureControlConfig;
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.ScoringMethodConfigEap;
+import org.act.rscat.cat.ThetaRange;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.junit.Test;
+
+/**
+ * This class includes a unit test for seeded CAT simulations run with different numbers of threads.
+ * <p>
+ * The CAT configuration is based on a discrete item pool of 10 items and 2 constraints with item exposure control.
+ * The test verifies that a seeded simulation produces the same results regardless of its parallelism.
+ */
+public class ParallelSimTest {
+    private static final long MASTER_SEED = 20201016L;
+    private static final int EPOCH_SIZE = 4;
+
+    /**
+     * Runs the same seeded simulation sequentially and with 4 threads and compares the results.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void parallelSimTest() throws IOException, InfeasibleTestConfigException {
+        int numExaminees = 12;
+        List<SimOutput> sequentialOutputs = runSim(numExaminees, 1);
+        List<SimOutput> parallelOutputs = runSim(numExaminees, 4);
+
+        assertEquals(numExaminees, sequentialOutputs.size());
+        assertEquals(numExaminees, parallelOutputs.size());
+        for (int i = 0; i < numExaminees; i++) {
+            SimOutput sequential = sequentialOutputs.get(i);
+            SimOutput parallel = parallelOutputs.get(i);
+            assertEquals(sequential.getTrueTheta(), parallel.getTrueTheta(), 0);
+            assertEquals(sequential.getItemsAdministered(), parallel.getItemsAdministered());
+            assertEquals(sequential.getShadowTestList(), parallel.getShadowTestList());
+            assertEquals(sequential.getFinalTheta().getTheta(), parallel.getFinalTheta().getTheta(), 0);
+        }
+        assertEquals(sequentialOutputs.get(numExaminees - 1).getItemExposureRates(),
+                parallelOutputs.get(numExaminees - 1).getItemExposureRates());
+    }
+
+    private List<SimOutput> runSim(int numExaminees, int parallelism)
+            throws IOException, InfeasibleTestConfigException {
+        int testLength = 8;
+        SolverConfig solverConfig = new SolverConfig(1E-3, 1E-3, 1E-6, false);
+        AbstractScoringMethodConfig scoringMethodConfig = new ScoringMethodConfigEap(6, -2, 2,
+                new UniDimNormalDistribution(0, 1));
+        List<ThetaRange> thetaRanges = new ArrayList<>(1);
+        thetaRanges.add(new ThetaRange(-8, 8));
+        ExposureControlConfig exposureControlConfig = new ExposureControlConfig(ExposureControlType.ITEM,
+                thetaRanges, 0.8);
+        CatConfig catConfig = new CatConfigStandard(solverConfig, 0, 1.0, scoringMethodConfig,
+                exposureControlConfig, MAX_FISHER_INFO, 3);
+        TestConfig testConfig = TestFixtures.testConfig10Items(testLength);
+        SimExecutionConfig executionConfig = new SimExecutionConfig.Builder().parallelism(parallelism)
+                .masterSeed(MASTER_SEED).exposureEpochSize(EPOCH_SIZE).build();
+
+        AbstractCatSimulation catSim = new CatSimulationStandard("Sim1", numExaminees,
+                new UniDimNormalDistribution(0, 1), testConfig, catConfig, true, executionConfig);
+        return catSim.runSim();
+    }
+}
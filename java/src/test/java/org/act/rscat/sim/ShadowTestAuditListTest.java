@@ -0,0 +1,144 @@
+package org.act.rscat.sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.act.rscat.cat.ItemPool;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the compact list of the shadow tests of the adaptive stages.
+ * <p>
+ * The shadow tests of random stages over an item pool of 720 items drop, insert and swap a few items per stage,
+ * with stages without a shadow test and empty shadow tests. The shadow tests decoded at random stages are compared
+ * with the shadow tests added.
+ */
+public class ShadowTestAuditListTest {
+    private static final long SEED = 20201016L;
+    private static final int TEST_LENGTH = 20;
+
+    private ItemPool itemPool;
+    private String[] itemIds;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        TestConfig testConfig = TestFixtures
+                .testConfigBuilder(TEST_LENGTH, TestFixtures.read(TestFixtures.ITEM_POOL_720_ITEMS)).build();
+        itemPool = ItemPool.forTestConfig(testConfig);
+        itemIds = itemPool.getItemIds();
+    }
+
+    /**
+     * Adds the shadow tests of random stages and decodes them at random stages, across several key stages.
+     */
+    @Test
+    public void decodeTest() {
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 20; trial++) {
+            List<List<String>> expected = new ArrayList<>();
+            ShadowTestAuditList actual = new ShadowTestAuditList(itemPool);
+            List<String> shadowTest = newShadowTest(random);
+            int stageNum = 1 + random.nextInt(80);
+            for (int s = 0; s < stageNum; s++) {
+                int kind = random.nextInt(20);
+                if (kind == 0) {
+                    expected.add(null);
+                    actual.add(null);
+                    continue;
+                } else if (kind == 1) {
+                    shadowTest = new ArrayList<>();
+                } else if (kind == 2 || shadowTest.isEmpty()) {
+                    shadowTest = newShadowTest(random);
+                } else {
+                    shadowTest = changeShadowTest(random, shadowTest);
+                }
+                expected.add(shadowTest);
+                actual.add(shadowTest);
+            }
+
+            assertEquals(expected.size(), actual.size());
+            for (int k = 0; k < 2 * stageNum; k++) {
+                int s = random.nextInt(stageNum);
+                assertEquals(expected.get(s), actual.get(s));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Changes an added shadow test, which does not change the stored stage.
+     */
+    @Test
+    public void copyTest() {
+        List<String> shadowTest = new ArrayList<>(Arrays.asList(itemIds[3], itemIds[1], itemIds[4]));
+        ShadowTestAuditList list = new ShadowTestAuditList(itemPool);
+        list.add(shadowTest);
+        shadowTest.set(1, itemIds[5]);
+        list.add(shadowTest);
+        shadowTest.clear();
+        assertEquals(Arrays.asList(itemIds[3], itemIds[1], itemIds[4]), list.get(0));
+        assertEquals(Arrays.asList(itemIds[3], itemIds[5], itemIds[4]), list.get(1));
+    }
+
+    /**
+     * Rejects an item that is not in the item pool.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownItemTest() {
+        new ShadowTestAuditList(itemPool).add(Arrays.asList(itemIds[0], "NotAnItem"));
+    }
+
+    /**
+     * Rejects a stage out of range.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfRangeTest() {
+        ShadowTestAuditList list = new ShadowTestAuditList(itemPool);
+        list.add(null);
+        list.get(1);
+    }
+
+    private List<String> newShadowTest(Random random) {
+        List<String> shadowTest = new ArrayList<>();
+        random.ints(0, itemIds.length).distinct().limit(TEST_LENGTH).forEach(i -> shadowTest.add(itemIds[i]));
+        return shadowTest;
+    }
+
+    /**
+     * Returns a shadow test with a few items dropped, inserted at random positions or swapped.
+     *
+     * @param random the random generator
+     * @param previous the previous shadow test
+     * @return the changed shadow test
+     */
+    private List<String> changeShadowTest(Random random, List<String> previous) {
+        List<String> shadowTest = new ArrayList<>(previous);
+        for (int c = random.nextInt(4); c > 0 && !shadowTest.isEmpty(); c--) {
+            shadowTest.remove(random.nextInt(shadowTest.size()));
+        }
+        for (int c = random.nextInt(4); c > 0; c--) {
+            String itemId = itemIds[random.nextInt(itemIds.length)];
+            if (!shadowTest.contains(itemId)) {
+                shadowTest.add(random.nextInt(shadowTest.size() + 1), itemId);
+            }
+        }
+        if (shadowTest.size() >= 2 && random.nextBoolean()) {
+            Collections.swap(shadowTest, random.nextInt(shadowTest.size()), random.nextInt(shadowTest.size()));
+        }
+        return shadowTest;
+    }
+}
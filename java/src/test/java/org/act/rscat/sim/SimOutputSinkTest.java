@@ -0,0 +1,382 @@
+package org.act.rscat.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.ItemPool;
+import org.act.rscat.cat.ItemScores;
+import org.act.rscat.cat.PassageOrItemEligibilityAtThetaRange;
+import org.act.rscat.cat.ThetaEst;
+import org.act.rscat.cat.ThetaRange;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.ContentTable;
+import org.act.rscat.util.CsvUtils;
+import org.act.rscat.util.TestFixtures;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the sinks writing the simulation output of each examinee to files.
+ * <p>
+ * Random examinee outputs on an item pool of 720 items are written to binary files and read back field by field,
+ * and written to CSV files whose cells are compared with the outputs. The outputs include missing fields, item
+ * eligibility changing by a few items per stage, passage eligibility and exposure rates.
+ */
+public class SimOutputSinkTest {
+    private static final long SEED = 20201016L;
+    private static final int EXAMINEE_NUM = 40;
+    private static final int PASSAGE_NUM = 30;
+
+    private Path directory;
+    private TestConfig testConfig;
+    private String[] itemIds;
+
+    /**
+     * Loads csv files for testing and creates a directory for the output files.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        testConfig = TestFixtures.testConfigBuilder(20, TestFixtures.read(TestFixtures.ITEM_POOL_720_ITEMS)).build();
+        itemIds = ItemPool.forTestConfig(testConfig).getItemIds();
+        directory = Files.createTempDirectory("simOutput");
+    }
+
+    /**
+     * Deletes the output files.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes random examinee outputs to a binary file and compares the records read back with them.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void binaryRoundTripTest() throws IOException {
+        List<SimOutput> expected = newSimOutputs();
+        Path file = directory.resolve("simOutput.bin");
+        try (BinarySimOutputSink sink = new BinarySimOutputSink(file, testConfig)) {
+            for (SimOutput simOutput : expected) {
+                sink.accept(simOutput);
+            }
+        }
+        List<SimOutput> actual = new ArrayList<>();
+        BinarySimOutputSink.read(file, actual::add);
+        assertEquals(expected.size(), actual.size());
+        for (int m = 0; m < expected.size(); m++) {
+            assertSimOutput(expected.get(m), actual.get(m));
+        }
+    }
+
+    /**
+     * Reads a binary file cut short in its last record, which is skipped.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void truncatedBinaryTest() throws IOException {
+        List<SimOutput> expected = newSimOutputs();
+        Path file = directory.resolve("simOutput.bin");
+        try (BinarySimOutputSink sink = new BinarySimOutputSink(file, testConfig)) {
+            for (SimOutput simOutput : expected) {
+                sink.accept(simOutput);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        List<SimOutput> actual = new ArrayList<>();
+        BinarySimOutputSink.read(file, actual::add);
+        assertEquals(expected.size() - 1, actual.size());
+        for (int m = 0; m < actual.size(); m++) {
+            assertSimOutput(expected.get(m), actual.get(m));
+        }
+    }
+
+    /**
+     * Rejects a file that is not a simulation output file.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test(expected = IOException.class)
+    public void notBinaryTest() throws IOException {
+        Path file = directory.resolve("simOutput.bin");
+        Files.write(file, "examinee_id,true_theta".getBytes("UTF-8"));
+        BinarySimOutputSink.read(file, simOutput -> { });
+    }
+
+    /**
+     * Writes random examinee outputs to CSV files and compares the examinee and stage rows with them.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void csvTest() throws IOException {
+        List<SimOutput> expected = newSimOutputs();
+        Path examineeFile = directory.resolve("examinees.csv");
+        Path stageFile = directory.resolve("stages.csv");
+        try (CsvSimOutputSink sink = new CsvSimOutputSink(examineeFile, stageFile)) {
+            for (SimOutput simOutput : expected) {
+                sink.accept(simOutput);
+            }
+        }
+        ContentTable.RowOriented examinees;
+        ContentTable.RowOriented stages;
+        try (InputStream examineeInput = Files.newInputStream(examineeFile);
+             InputStream stageInput = Files.newInputStream(stageFile)) {
+            examinees = CsvUtils.read(examineeInput);
+            stages = CsvUtils.read(stageInput);
+        }
+
+        assertEquals(expected.size(), examinees.rowCount());
+        int stageRow = 0;
+        for (int m = 0; m < expected.size(); m++) {
+            SimOutput simOutput = expected.get(m);
+            List<String> row = examinees.rowValues(m);
+            assertEquals(simOutput.getexamineeId(), row.get(examinees.columnIndex("examinee_id")));
+            assertEquals(simOutput.getTrueTheta(), Double.parseDouble(row.get(examinees.columnIndex("true_theta"))),
+                    0);
+            assertEquals(simOutput.getInitTheta(), Double.parseDouble(row.get(examinees.columnIndex("init_theta"))),
+                    0);
+            ThetaEst finalTheta = simOutput.getFinalTheta();
+            assertEquals(finalTheta == null ? "" : Double.toString(finalTheta.getTheta()),
+                    row.get(examinees.columnIndex("final_theta")));
+            assertEquals(finalTheta == null ? "" : Double.toString(finalTheta.getSe()),
+                    row.get(examinees.columnIndex("final_se")));
+            assertEquals(join(simOutput.getItemsAdministered()),
+                    row.get(examinees.columnIndex("items_administered")));
+            List<Integer> scores = new ArrayList<>();
+            if (simOutput.getItemScoresList() != null) {
+                for (ItemScores itemScores : simOutput.getItemScoresList()) {
+                    Arrays.stream(itemScores.getItemScores()).forEach(scores::add);
+                }
+            }
+            assertEquals(join(scores), row.get(examinees.columnIndex("item_scores")));
+            assertEquals(simOutput.getItemThetaIntervals() == null ? ""
+                    : join(Arrays.stream(simOutput.getItemThetaIntervals()).boxed().collect(Collectors.toList())),
+                    row.get(examinees.columnIndex("item_theta_intervals")));
+
+            List<Integer> adaptiveStages = simOutput.getAdaptiveStageList();
+            for (int s = 0; adaptiveStages != null && s < adaptiveStages.size(); s++) {
+                row = stages.rowValues(stageRow++);
+                assertEquals(simOutput.getexamineeId(), row.get(stages.columnIndex("examinee_id")));
+                assertEquals(adaptiveStages.get(s).toString(), row.get(stages.columnIndex("adaptive_stage")));
+                ThetaEst thetaEst = simOutput.getThetaEstList().get(s);
+                assertEquals(Double.toString(thetaEst.getTheta()), row.get(stages.columnIndex("theta")));
+                assertEquals(Double.toString(thetaEst.getSe()), row.get(stages.columnIndex("se")));
+                Double catEngineTime = simOutput.getCatEngineTimeList().get(s);
+                assertEquals(catEngineTime == null ? "" : catEngineTime.toString(),
+                        row.get(stages.columnIndex("cat_engine_time")));
+                PassageOrItemEligibilityAtThetaRange eligibility = simOutput
+                        .getPassageOrItemEligibilityAtThetaRangeList().get(s);
+                assertEquals(eligibility == null || eligibility.getThetaRangeIndex() == null ? ""
+                        : eligibility.getThetaRangeIndex().toString(),
+                        row.get(stages.columnIndex("theta_range_index")));
+                int eligibleNum = 0;
+                if (eligibility != null && eligibility.getEligibilityIndicators() != null) {
+                    for (boolean eligible : eligibility.getEligibilityIndicators()) {
+                        eligibleNum += eligible ? 1 : 0;
+                    }
+                }
+                assertEquals(eligibility == null || eligibility.getEligibilityIndicators() == null ? ""
+                        : Integer.toString(eligibleNum), row.get(stages.columnIndex("eligible_num")));
+                assertEquals(join(simOutput.getShadowTestList().get(s)),
+                        row.get(stages.columnIndex("shadow_test")));
+                assertEquals(join(simOutput.getPassageRowIndexSequences().get(s)),
+                        row.get(stages.columnIndex("passage_sequence")));
+            }
+        }
+        assertEquals(stageRow, stages.rowCount());
+    }
+
+    /**
+     * Returns random examinee outputs. Every seventh examinee has no per-stage results, every fifth no final theta
+     * and no exposure rates, and the eligibility of every third examinee is at the passage level.
+     *
+     * @return the examinee outputs
+     */
+    private List<SimOutput> newSimOutputs() {
+        Random random = new Random(SEED);
+        List<SimOutput> simOutputs = new ArrayList<>();
+        for (int m = 0; m < EXAMINEE_NUM; m++) {
+            int testLength = 1 + random.nextInt(20);
+            List<String> itemsAdministered = random.ints(0, itemIds.length).distinct().limit(testLength)
+                    .mapToObj(i -> itemIds[i]).collect(Collectors.toList());
+            List<ItemScores> itemScoresList = new ArrayList<>();
+            for (int n = 0; n < testLength; n++) {
+                itemScoresList.add(new ItemScores(new int[] { random.nextInt(2) },
+                        new double[] { random.nextDouble() }));
+            }
+            SimOutput.Builder builder = new SimOutput.Builder("Examinee" + m, random.nextGaussian())
+                    .initTheta(random.nextGaussian()).itemsAdministered(itemsAdministered)
+                    .itemThetaIntervals(random.ints(testLength, 0, 4).toArray()).itemScoresList(itemScoresList);
+            if (m % 5 != 4) {
+                builder.finalTheta(new ThetaEst(random.nextGaussian(), random.nextDouble()));
+            }
+            if (m % 7 != 6) {
+                int stageNum = testLength + 1;
+                boolean passageLevel = m % 3 == 0;
+                List<Integer> stages = new ArrayList<>();
+                List<ThetaEst> thetaEsts = new ArrayList<>();
+                List<Double> catEngineTimes = new ArrayList<>();
+                List<List<String>> shadowTests = new ArrayList<>();
+                List<PassageOrItemEligibilityAtThetaRange> eligibilities = new ArrayList<>();
+                List<List<Integer>> passageSequences = new ArrayList<>();
+                boolean[] indicators = newIndicators(random, passageLevel ? PASSAGE_NUM : itemIds.length);
+                for (int s = 0; s < stageNum; s++) {
+                    stages.add(s);
+                    thetaEsts.add(new ThetaEst(random.nextGaussian(), random.nextDouble()));
+                    catEngineTimes.add(random.nextInt(10) == 0 ? null : random.nextDouble());
+                    shadowTests.add(s == stageNum - 1 ? new ArrayList<>()
+                            : random.ints(0, itemIds.length).distinct().limit(20).mapToObj(i -> itemIds[i])
+                                    .collect(Collectors.toList()));
+
+                    // A few changes per stage, a missing stage or a stage of another length
+                    indicators = indicators.clone();
+                    for (int c = random.nextInt(4); c > 0; c--) {
+                        int i = random.nextInt(indicators.length);
+                        indicators[i] = !indicators[i];
+                    }
+                    int kind = random.nextInt(12);
+                    if (kind == 0) {
+                        eligibilities.add(null);
+                    } else if (kind == 1) {
+                        eligibilities.add(new PassageOrItemEligibilityAtThetaRange(null,
+                                newIndicators(random, 1 + random.nextInt(40)), ExposureControlType.ITEM));
+                    } else {
+                        eligibilities.add(new PassageOrItemEligibilityAtThetaRange(random.nextInt(4), indicators,
+                                passageLevel ? ExposureControlType.PASSAGE : ExposureControlType.ITEM));
+                    }
+                    passageSequences.add(random.nextInt(8) == 0 ? null
+                            : random.ints(random.nextInt(5), 0, PASSAGE_NUM).boxed().collect(Collectors.toList()));
+                }
+                builder.adaptiveStageList(stages).thetaEstList(thetaEsts).catEngineTimeList(catEngineTimes)
+                        .shadowTestList(shadowTests).itemEligibilityList(eligibilities)
+                        .passageRowIndexSequences(passageSequences);
+            }
+            SimOutput simOutput = builder.build();
+            if (m % 5 != 4) {
+                simOutput.setItemExposureRates(newRates(random, 5));
+                simOutput.setPassageExposureRates(m % 3 == 0 ? newRates(random, 3) : null);
+            }
+            simOutputs.add(simOutput);
+        }
+        return simOutputs;
+    }
+
+    private static boolean[] newIndicators(Random random, int length) {
+        boolean[] indicators = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            indicators[i] = random.nextInt(5) != 0;
+        }
+        return indicators;
+    }
+
+    private Map<ThetaRange, Map<String, Double>> newRates(Random random, int rateNum) {
+        Map<ThetaRange, Map<String, Double>> rates = new HashMap<>();
+        for (int k = 0; k < 2; k++) {
+            Map<String, Double> rangeRates = new HashMap<>();
+            for (int i = 0; i < rateNum; i++) {
+                rangeRates.put(itemIds[random.nextInt(itemIds.length)], random.nextDouble());
+            }
+            rates.put(new ThetaRange(k - 1.0, k), rangeRates);
+        }
+        return rates;
+    }
+
+    private static String join(List<?> values) {
+        return values == null ? ""
+                : values.stream().map(String::valueOf).collect(Collectors.joining(CsvSimOutputSink.VALUE_SEPARATOR));
+    }
+
+    /**
+     * Compares every field of an examinee output read back with the one written.
+     *
+     * @param expected the examinee output written
+     * @param actual the examinee output read back
+     */
+    private static void assertSimOutput(SimOutput expected, SimOutput actual) {
+        assertEquals(expected.getexamineeId(), actual.getexamineeId());
+        assertEquals(expected.getTrueTheta(), actual.getTrueTheta(), 0);
+        assertEquals(expected.getInitTheta(), actual.getInitTheta(), 0);
+        assertThetaEst(expected.getFinalTheta(), actual.getFinalTheta());
+        assertEquals(expected.getItemsAdministered(), actual.getItemsAdministered());
+        assertArrayEquals(expected.getItemThetaIntervals(), actual.getItemThetaIntervals());
+        assertEquals(expected.getItemScoresList().size(), actual.getItemScoresList().size());
+        for (int n = 0; n < expected.getItemScoresList().size(); n++) {
+            assertArrayEquals(expected.getItemScoresList().get(n).getItemScores(),
+                    actual.getItemScoresList().get(n).getItemScores());
+            assertArrayEquals(expected.getItemScoresList().get(n).getRespProbs(),
+                    actual.getItemScoresList().get(n).getRespProbs(), 0);
+        }
+        assertEquals(expected.getAdaptiveStageList(), actual.getAdaptiveStageList());
+        assertEquals(expected.getCatEngineTimeList(), actual.getCatEngineTimeList());
+        assertEquals(expected.getShadowTestList(), actual.getShadowTestList());
+        assertEquals(expected.getPassageRowIndexSequences(), actual.getPassageRowIndexSequences());
+        if (expected.getThetaEstList() == null) {
+            assertEquals(null, actual.getThetaEstList());
+            assertEquals(null, actual.getPassageOrItemEligibilityAtThetaRangeList());
+        } else {
+            for (int s = 0; s < expected.getThetaEstList().size(); s++) {
+                assertThetaEst(expected.getThetaEstList().get(s), actual.getThetaEstList().get(s));
+            }
+            List<PassageOrItemEligibilityAtThetaRange> expectedEligibilities = expected
+                    .getPassageOrItemEligibilityAtThetaRangeList();
+            List<PassageOrItemEligibilityAtThetaRange> actualEligibilities = actual
+                    .getPassageOrItemEligibilityAtThetaRangeList();
+            assertEquals(expectedEligibilities.size(), actualEligibilities.size());
+            for (int s = 0; s < expectedEligibilities.size(); s++) {
+                PassageOrItemEligibilityAtThetaRange expectedEligibility = expectedEligibilities.get(s);
+                PassageOrItemEligibilityAtThetaRange actualEligibility = actualEligibilities.get(s);
+                if (expectedEligibility == null) {
+                    assertEquals(null, actualEligibility);
+                    continue;
+                }
+                assertEquals(expectedEligibility.getThetaRangeIndex(), actualEligibility.getThetaRangeIndex());
+                assertEquals(expectedEligibility.getExposureType(), actualEligibility.getExposureType());
+                assertArrayEquals(expectedEligibility.getEligibilityIndicators(),
+                        actualEligibility.getEligibilityIndicators());
+            }
+        }
+        assertEquals(expected.getItemExposureRates(), actual.getItemExposureRates());
+        assertEquals(expected.getPassageExposureRates(), actual.getPassageExposureRates());
+    }
+
+    private static void assertThetaEst(ThetaEst expected, ThetaEst actual) {
+        if (expected == null) {
+            assertEquals(null, actual);
+        } else {
+            assertEquals(expected.getTheta(), actual.getTheta(), 0);
+            assertEquals(expected.getSe(), actual.getSe(), 0);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.act.rscat.sim;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.act.rscat.cat.AbstractScoringMethodConfig;
+import org.act.rscat.cat.CatConfig;
+import org.act.rscat.cat.CatConfigStandard;
+import org.act.rscat.cat.ExposureControlConfig;
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.ScoringMethodConfigEap;
+import org.act.rscat.cat.ThetaRange;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes a unit test for the aggregate statistics computed while a CAT simulation runs.
+ * <p>
+ * The CAT configuration is based on a discrete item pool of 10 items and 2 constraints. The test verifies that the
+ * statistics of a simulation without detailed results match the statistics computed from the results of the same
+ * seeded simulation.
+ */
+public class SimStatisticsTest {
+    private static final long MASTER_SEED = 20201016L;
+    private static final double DELTA = 1E-9;
+
+    private TestConfig testConfig;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        testConfig = TestFixtures.testConfig10Items(8);
+    }
+
+    /**
+     * Runs the same seeded simulation with and without detailed results and compares the statistics.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void simStatisticsTest() throws IOException, InfeasibleTestConfigException {
+        int numExaminees = 12;
+        List<ThetaRange> thetaBins = Arrays.asList(new ThetaRange(-8, 0), new ThetaRange(0, 8));
+        SimStatistics statistics = newSim(numExaminees, false).runSimStatistics(thetaBins);
+        List<SimOutput> simOutputs = newSim(numExaminees, true).runSim();
+
+        double errorSum = 0;
+        double squaredErrorSum = 0;
+        Map<String, Integer> itemCounts = new HashMap<>();
+        for (SimOutput simOutput : simOutputs) {
+            double error = simOutput.getTrueTheta() - simOutput.getFinalTheta().getTheta();
+            errorSum += error;
+            squaredErrorSum += error * error;
+            for (String itemId : simOutput.getItemsAdministered()) {
+                itemCounts.merge(itemId, 1, Integer::sum);
+            }
+        }
+        double overlapSum = 0;
+        for (int i = 0; i < numExaminees; i++) {
+            for (int j = i + 1; j < numExaminees; j++) {
+                Set<String> common = new HashSet<>(simOutputs.get(i).getItemsAdministered());
+                common.retainAll(simOutputs.get(j).getItemsAdministered());
+                overlapSum += common.size() / 8.0;
+            }
+        }
+
+        assertEquals(numExaminees, statistics.getExamineeNum());
+        assertEquals(errorSum / numExaminees, statistics.getBias(), DELTA);
+        assertEquals(Math.sqrt(squaredErrorSum / numExaminees), statistics.getRmse(), DELTA);
+        assertEquals(8, statistics.getMeanTestLength(), DELTA);
+        assertEquals(overlapSum / (numExaminees * (numExaminees - 1) / 2), statistics.getTestOverlapRate(), DELTA);
+        assertEquals((double) itemCounts.values().stream().mapToInt(Integer::intValue).max().getAsInt() / numExaminees,
+                statistics.getMaxItemExposureRate(), DELTA);
+        assertEquals(10 - itemCounts.size(), statistics.getUnexposedItemNum());
+        assertEquals(10, Arrays.stream(statistics.getItemExposureHistogram()).sum());
+        assertEquals(numExaminees, statistics.getThetaBins().get(0).getExamineeNum()
+                + statistics.getThetaBins().get(1).getExamineeNum());
+        assertTrue(statistics.getConstraintViolationCounts().isEmpty());
+        assertEquals(0, statistics.getViolatingExamineeNum());
+        assertTrue(Double.isNaN(statistics.getCatEngineTimeMean()));
+    }
+
+    private AbstractCatSimulation newSim(int numExaminees, boolean isGenSimOutput) {
+        SolverConfig solverConfig = new SolverConfig(1E-3, 1E-3, 1E-6, false);
+        solverConfig.setSolverType(BRANCH_AND_BOUND);
+        AbstractScoringMethodConfig scoringMethodConfig = new ScoringMethodConfigEap(6, -2, 2,
+                new UniDimNormalDistribution(0, 1));
+        ExposureControlConfig exposureControlConfig = new ExposureControlConfig(ExposureControlType.NONE, null, 0);
+        CatConfig catConfig = new CatConfigStandard(solverConfig, 0, 1.0, scoringMethodConfig,
+                exposureControlConfig, MAX_FISHER_INFO, 3);
+        SimExecutionConfig executionConfig = new SimExecutionConfig.Builder().masterSeed(MASTER_SEED).build();
+        return new CatSimulationStandard("Sim1", numExaminees, new UniDimNormalDistribution(0, 1), testConfig,
+                catConfig, isGenSimOutput, executionConfig);
+    }
+}
@@ -0,0 +1,128 @@
+package org.act.rscat.sim;
+
+import static org.act.rscat.cat.ItemSelectionMethod.SUPPORTED_METHODS.MAX_FISHER_INFO;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND;
+import static org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS.XPRESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.act.rscat.cat.AbstractScoringMethodConfig;
+import org.act.rscat.cat.CatConfig;
+import org.act.rscat.cat.CatConfigStandard;
+import org.act.rscat.cat.ExposureControlConfig;
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.cat.ScoringMethodConfigEap;
+import org.act.rscat.cat.ThetaEst;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.sol.InfeasibleTestConfigException;
+import org.act.rscat.sol.ShadowTestSolver.SUPPORTED_SOLVERS;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.act.rscat.util.UniDimNormalDistribution;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for CAT simulation with the solver and scoring options on a simple configuration.
+ * <p>
+ * The CAT configuration is based on a discrete item pool of 10 items and 2 constraints. The tests run the same
+ * seeded simulation with different options and compare the results.
+ */
+public class SimpleSimOptionsTest {
+    private static final long MASTER_SEED = 7L;
+    private static final int TEST_LENGTH = 8;
+    private static final List<String> ALL_LIST = Arrays.asList("1007513", "1011601", "1094733");
+
+    /**
+     * Runs the same seeded simulation with a model rebuilt at every stage and with an incremental model, and
+     * compares the shadow tests.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void incrementalModelSimTest() throws IOException, InfeasibleTestConfigException {
+        int numExaminees = 5;
+        List<SimOutput> rebuiltOutputs = runSeededSim(numExaminees, false, XPRESS, false);
+        List<SimOutput> incrementalOutputs = runSeededSim(numExaminees, true, XPRESS, false);
+
+        assertEquals(numExaminees, incrementalOutputs.size());
+        for (int i = 0; i < numExaminees; i++) {
+            assertEquals(rebuiltOutputs.get(i).getShadowTestList(), incrementalOutputs.get(i).getShadowTestList());
+            assertEquals(rebuiltOutputs.get(i).getItemsAdministered(),
+                    incrementalOutputs.get(i).getItemsAdministered());
+        }
+    }
+
+    /**
+     * Runs the simulation with the pure Java branch-and-bound solver and verifies the test specifications in
+     * all shadow tests.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void branchAndBoundSimTest() throws IOException, InfeasibleTestConfigException {
+        int numExaminees = 5;
+        List<SimOutput> simOutputs = runSeededSim(numExaminees, false, BRANCH_AND_BOUND, false);
+
+        assertEquals(numExaminees, simOutputs.size());
+        for (int i = 0; i < numExaminees; i++) {
+            assertEquals(TEST_LENGTH, simOutputs.get(i).getItemsAdministered().size());
+            List<List<String>> shadowTests = simOutputs.get(i).getShadowTestList();
+            for (int n = 0; n < TEST_LENGTH; n++) {
+                List<String> shadowTest = shadowTests.get(n);
+                assertEquals(TEST_LENGTH, shadowTest.size());
+                assertTrue(shadowTest.containsAll(ALL_LIST));
+            }
+        }
+    }
+
+    /**
+     * Runs the same seeded simulation with the posterior recomputed at every stage and carried forward between
+     * stages, and verifies that the ability estimates and administered items agree.
+     *
+     * @throws IOException if there is an IO failure
+     * @throws InfeasibleTestConfigException if the test configuration is infeasible
+     */
+    @Test
+    public void incrementalScoringSimTest() throws IOException, InfeasibleTestConfigException {
+        int numExaminees = 5;
+        List<SimOutput> batchOutputs = runSeededSim(numExaminees, false, BRANCH_AND_BOUND, false);
+        List<SimOutput> incrementalOutputs = runSeededSim(numExaminees, false, BRANCH_AND_BOUND, true);
+
+        assertEquals(numExaminees, incrementalOutputs.size());
+        for (int i = 0; i < numExaminees; i++) {
+            assertEquals(batchOutputs.get(i).getItemsAdministered(), incrementalOutputs.get(i).getItemsAdministered());
+            List<ThetaEst> batchThetas = batchOutputs.get(i).getThetaEstList();
+            List<ThetaEst> incrementalThetas = incrementalOutputs.get(i).getThetaEstList();
+            assertEquals(batchThetas.size(), incrementalThetas.size());
+            for (int j = 0; j < batchThetas.size(); j++) {
+                assertEquals(batchThetas.get(j).getTheta(), incrementalThetas.get(j).getTheta(), 1E-9);
+                assertEquals(batchThetas.get(j).getSe(), incrementalThetas.get(j).getSe(), 1E-9);
+            }
+        }
+    }
+
+    private static List<SimOutput> runSeededSim(int numExaminees, boolean incrementalModel,
+            SUPPORTED_SOLVERS solverType, boolean incrementalScoring)
+            throws IOException, InfeasibleTestConfigException {
+        SolverConfig solverConfig = new SolverConfig(1E-3, 1E-3, 1E-6, false);
+        solverConfig.setIncrementalModel(incrementalModel);
+        solverConfig.setSolverType(solverType);
+        AbstractScoringMethodConfig scoringMethodConfig = new ScoringMethodConfigEap(6, -2, 2,
+                new UniDimNormalDistribution(0, 1), incrementalScoring);
+        ExposureControlConfig exposureControlConfig = new ExposureControlConfig(ExposureControlType.NONE, null, 0);
+        CatConfig catConfig = new CatConfigStandard(solverConfig, 0, 1.0, scoringMethodConfig,
+                exposureControlConfig, MAX_FISHER_INFO, 3);
+        TestConfig testConfig = TestFixtures.testConfig10Items(TEST_LENGTH);
+        SimExecutionConfig executionConfig = new SimExecutionConfig.Builder().masterSeed(MASTER_SEED).build();
+
+        AbstractCatSimulation catSim = new CatSimulationStandard("Sim1", numExaminees,
+                new UniDimNormalDistribution(0, 1), testConfig, catConfig, true, executionConfig);
+        return catSim.runSim();
+    }
+}
@@ -0,0 +1,176 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.act.rscat.mip.SolverOutput.SOLVER_STATS;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the 0-1 linear programs assembled by the branch-and-bound solver.
+ * <p>
+ * The programs are small enough for their optimum to be known.
+ */
+public class BinaryProgramTest {
+    private static final double DELTA = 1E-9;
+    private static final long NODE_LIMIT = 1_000_000L;
+    private static final int[] NO_VARS = new int[0];
+
+    /**
+     * Selects 3 of 5 variables with a conflict between the two best ones.
+     */
+    @Test
+    public void optimumTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] vars = newVars(program, 5);
+        program.addRow(vars, 3, 3);
+        program.addRow(new int[] { vars[0], vars[1] }, Double.NEGATIVE_INFINITY, 1);
+
+        BinaryProgram.Solution solution = program.maximize(new double[] { 5, 4, 3, 2, 1 }, free(5), vars, 3,
+                NO_VARS, null, 0, 0, NODE_LIMIT, 0);
+        assertEquals(SOLVER_STATS.OPTIMAL.getCode(), solution.status);
+        assertEquals(10, solution.objective, DELTA);
+        assertArrayEquals(new boolean[] { true, false, true, true, false }, solution.values);
+        assertNull(solution.warmStartAccepted);
+    }
+
+    /**
+     * Solves programs whose rows or fixings cannot be satisfied.
+     */
+    @Test
+    public void infeasibleTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] vars = newVars(program, 3);
+        program.addRow(vars, 2, 2);
+        BinaryProgram.Solution solution = program.maximize(new double[] { 1, 1, 1 }, new int[] { 0, 0, -1 }, vars,
+                2, NO_VARS, null, 0, 0, NODE_LIMIT, 0);
+        assertEquals(SOLVER_STATS.INFEASIBLE.getCode(), solution.status);
+        assertEquals(Double.NEGATIVE_INFINITY, solution.objective, 0);
+
+        program.addRow(new int[] { vars[0], vars[1] }, Double.NEGATIVE_INFINITY, 0);
+        solution = program.maximize(new double[] { 1, 1, 1 }, free(3), vars, 2, NO_VARS, null, 0, 0, NODE_LIMIT,
+                0);
+        assertEquals(SOLVER_STATS.INFEASIBLE.getCode(), solution.status);
+    }
+
+    /**
+     * Stops at a warm start solution within the absolute gap of the bound, and searches on to the optimum without
+     * a gap.
+     */
+    @Test
+    public void gapTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] vars = newVars(program, 3);
+        program.addRow(vars, 2, 2);
+        double[] obj = new double[] { 10, 5, 4 };
+        int[] warmStart = new int[] { 0, 1, 1 };
+
+        BinaryProgram.Solution solution = program.maximize(obj, free(3), vars, 2, NO_VARS, warmStart, 10, 0,
+                NODE_LIMIT, 0);
+        assertEquals(SOLVER_STATS.OPTIMAL.getCode(), solution.status);
+        assertEquals(9, solution.objective, DELTA);
+        assertEquals(15, solution.bestBound, DELTA);
+
+        solution = program.maximize(obj, free(3), vars, 2, NO_VARS, warmStart, 0, 0, NODE_LIMIT, 0);
+        assertEquals(SOLVER_STATS.OPTIMAL.getCode(), solution.status);
+        assertEquals(15, solution.objective, DELTA);
+        assertEquals(15, solution.bestBound, DELTA);
+    }
+
+    /**
+     * Stops the search at the node and time limits, keeping the incumbent found before the limit.
+     */
+    @Test
+    public void limitTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] vars = newVars(program, 3);
+        program.addRow(vars, 2, 2);
+        double[] obj = new double[] { 10, 5, 4 };
+
+        BinaryProgram.Solution solution = program.maximize(obj, free(3), vars, 2, NO_VARS, new int[] { 0, 1, 1 },
+                0, 0, 1, 0);
+        assertEquals(SOLVER_STATS.UNFINISHED.getCode(), solution.status);
+        assertEquals(9, solution.objective, DELTA);
+        assertArrayEquals(new boolean[] { false, true, true }, solution.values);
+        assertTrue(Double.isNaN(solution.bestBound));
+
+        solution = program.maximize(obj, free(3), vars, 2, NO_VARS, null, 0, 0, NODE_LIMIT, 1);
+        assertEquals(SOLVER_STATS.UNFINISHED.getCode(), solution.status);
+        assertTrue(Double.isNaN(solution.bestBound));
+    }
+
+    /**
+     * Completes a partial warm start solution, and rejects a warm start solution violating a row.
+     */
+    @Test
+    public void warmStartTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] vars = newVars(program, 4);
+        program.addRow(vars, 2, 2);
+        double[] obj = new double[] { 4, 3, 2, 1 };
+
+        BinaryProgram.Solution solution = program.maximize(obj, free(4), vars, 2, NO_VARS,
+                new int[] { -1, -1, 1, -1 }, 0, 0, NODE_LIMIT, 0);
+        assertEquals(Boolean.TRUE, solution.warmStartAccepted);
+        assertEquals(7, solution.objective, DELTA);
+
+        solution = program.maximize(obj, free(4), vars, 2, NO_VARS, new int[] { 1, 1, 1, 0 }, 0, 0, NODE_LIMIT,
+                0);
+        assertEquals(Boolean.FALSE, solution.warmStartAccepted);
+        assertEquals(SOLVER_STATS.OPTIMAL.getCode(), solution.status);
+        assertEquals(7, solution.objective, DELTA);
+    }
+
+    /**
+     * Selects 3 items, where the 3 items of a passage can only be selected with the passage and at least 2 of them
+     * with it. The best discrete item and 2 passage items are optimal, and the program is infeasible without the
+     * passage.
+     */
+    @Test
+    public void passageRowsTest() {
+        BinaryProgram program = new BinaryProgram();
+        int[] itemVars = newVars(program, 5);
+        int passageVar = program.newVar();
+        int[] passageItemVars = new int[] { itemVars[0], itemVars[1], itemVars[2] };
+        program.addRow(itemVars, 3, 3);
+        for (int v : passageItemVars) {
+            program.addRow(new int[] { v, passageVar }, new double[] { 1, -1 }, Double.NEGATIVE_INFINITY, 0);
+        }
+        int[] passageRowVars = new int[] { itemVars[0], itemVars[1], itemVars[2], passageVar };
+        program.addRow(passageRowVars, new double[] { 1, 1, 1, -2 }, 0, Double.POSITIVE_INFINITY);
+        program.addRow(passageRowVars, new double[] { 1, 1, 1, -3 }, Double.NEGATIVE_INFINITY, 0);
+        double[] obj = new double[] { 1, 1, 1, 2.5, 2.4, 0 };
+
+        BinaryProgram.Solution solution = program.maximize(obj, free(6), itemVars, 3, new int[] { passageVar },
+                null, 0, 0, NODE_LIMIT, 0);
+        assertEquals(SOLVER_STATS.OPTIMAL.getCode(), solution.status);
+        assertEquals(4.5, solution.objective, DELTA);
+        assertTrue(solution.values[passageVar]);
+        assertTrue(solution.values[itemVars[3]]);
+        assertEquals(false, solution.values[itemVars[4]]);
+
+        int[] fixings = free(6);
+        fixings[passageVar] = 0;
+        solution = program.maximize(obj, fixings, itemVars, 3, new int[] { passageVar }, null, 0, 0, NODE_LIMIT,
+                0);
+        assertEquals(SOLVER_STATS.INFEASIBLE.getCode(), solution.status);
+    }
+
+    private static int[] newVars(BinaryProgram program, int num) {
+        int[] vars = new int[num];
+        for (int k = 0; k < num; k++) {
+            vars[k] = program.newVar();
+        }
+        return vars;
+    }
+
+    private static int[] free(int num) {
+        int[] fixings = new int[num];
+        Arrays.fill(fixings, -1);
+        return fixings;
+    }
+}
@@ -0,0 +1,175 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.mip.SolverInputStage;
+import org.act.rscat.mip.SolverOutput;
+import org.act.rscat.mip.SolverOutput.SOLVER_STATS;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the pure Java branch-and-bound shadow test solver.
+ * <p>
+ * The shadow tests of a discrete item pool of 10 items and 2 constraints are compared with the best test found by
+ * enumeration, and the shadow tests of an item pool of 720 items, 30 passages and 12 constraints are checked against
+ * the passage bounds and constraints.
+ */
+public class BranchAndBoundSolverTest {
+    private static final long SEED = 20201016L;
+    private static final double DELTA = 1E-9;
+
+    /**
+     * Assembles shadow tests from random item information and compares them with the best tests found by
+     * enumeration.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void enumerationTest() throws IOException {
+        int testLength = 8;
+        TestConfig testConfig = TestFixtures.testConfig10Items(testLength);
+        int itemNum = ShadowTestData.forTestConfig(testConfig).getItemList().size();
+        List<String> itemIds = ShadowTestData.forTestConfig(testConfig).getItemIdList();
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 20; trial++) {
+            double[] information = new double[itemNum];
+            for (int i = 0; i < itemNum; i++) {
+                information[i] = random.nextDouble();
+            }
+
+            // Best feasible test by enumeration of the item subsets of the test length
+            double best = Double.NEGATIVE_INFINITY;
+            for (int subset = 0; subset < 1 << itemNum; subset++) {
+                if (Integer.bitCount(subset) != testLength) {
+                    continue;
+                }
+                List<String> test = new ArrayList<>();
+                double objective = 0;
+                for (int i = 0; i < itemNum; i++) {
+                    if ((subset & 1 << i) != 0) {
+                        test.add(itemIds.get(i));
+                        objective += information[i];
+                    }
+                }
+                if (objective > best && ConstraintChecker.findViolations(testConfig, test).isEmpty()) {
+                    best = objective;
+                }
+            }
+
+            SolverOutput solverOutput;
+            try (BranchAndBoundSolver solver = new BranchAndBoundSolver(testConfig, newSolverConfig(0))) {
+                solverOutput = solver.solve(0, newStageInput(information, new BitSet()), 0, 0,
+                        ExposureControlType.NONE);
+            }
+            assertEquals(SOLVER_STATS.OPTIMAL, solverOutput.getSolverStatus());
+            assertEquals(best, solverOutput.getObjective(), DELTA);
+            assertEquals(testLength, solverOutput.getSelectedItemIdentifiers().size());
+            assertTrue(ConstraintChecker.findViolations(testConfig, solverOutput.getSelectedItemIdentifiers())
+                    .isEmpty());
+        }
+    }
+
+    /**
+     * Assembles shadow tests with passages from random item information and verifies the passage bounds and the
+     * constraints.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void passageTest() throws IOException {
+        int testLength = 20;
+        TestConfig testConfig = TestFixtures.testConfig720Items(testLength);
+        ShadowTestData data = ShadowTestData.forTestConfig(testConfig);
+        int itemNum = data.getItemList().size();
+        Random random = new Random(SEED);
+        try (BranchAndBoundSolver solver = new BranchAndBoundSolver(testConfig, newSolverConfig(1E-2))) {
+            for (int trial = 0; trial < 5; trial++) {
+                double[] information = new double[itemNum];
+                for (int i = 0; i < itemNum; i++) {
+                    information[i] = random.nextDouble();
+                }
+                SolverOutput solverOutput = solver.solve(0, newStageInput(information, new BitSet()), 0, 0,
+                        ExposureControlType.NONE);
+                assertEquals(SOLVER_STATS.OPTIMAL, solverOutput.getSolverStatus());
+                assertTrue(solverOutput.getBestBound() - solverOutput.getObjective() <= 1E-2
+                        * Math.abs(solverOutput.getObjective()) + DELTA);
+
+                List<Integer> itemIndices = solverOutput.getSelectedItemRowIndices();
+                Set<Integer> passageIndices = new HashSet<>(solverOutput.getSelectedPassageRowIndices());
+                assertEquals(testLength, itemIndices.size());
+                assertTrue(passageIndices.size() >= 3 && passageIndices.size() <= 5);
+                int[] passageItemCounts = new int[data.getPassageList().size()];
+                for (int i : itemIndices) {
+                    int passageIndex = data.getItemPassageIndices().get(i);
+                    if (passageIndex >= 0) {
+                        assertTrue(passageIndices.contains(passageIndex));
+                        passageItemCounts[passageIndex]++;
+                    }
+                }
+                for (int j : passageIndices) {
+                    assertTrue(passageItemCounts[j] >= 1 && passageItemCounts[j] <= 10);
+                }
+                assertTrue(ConstraintChecker.findViolations(testConfig, solverOutput.getSelectedItemIdentifiers())
+                        .isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Warm starts a stage with the shadow test of the previous stage, which is accepted as the initial solution.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void warmStartTest() throws IOException {
+        TestConfig testConfig = TestFixtures.testConfig720Items(20);
+        int itemNum = ShadowTestData.forTestConfig(testConfig).getItemList().size();
+        Random random = new Random(SEED);
+        double[] information = new double[itemNum];
+        for (int i = 0; i < itemNum; i++) {
+            information[i] = random.nextDouble();
+        }
+        SolverConfig solverConfig = newSolverConfig(1E-2);
+        solverConfig.setWarmStart(true);
+        try (BranchAndBoundSolver solver = new BranchAndBoundSolver(testConfig, solverConfig)) {
+            SolverOutput first = solver.solve(0, newStageInput(information, new BitSet()), 0, 0,
+                    ExposureControlType.NONE);
+            BitSet selected = new BitSet(itemNum);
+            for (int i : first.getSelectedItemRowIndices()) {
+                selected.set(i);
+            }
+            SolverOutput second = solver.solve(1, newStageInput(information, selected), 0, 0,
+                    ExposureControlType.NONE);
+            assertEquals(null, first.getWarmStartAccepted());
+            assertEquals(Boolean.TRUE, second.getWarmStartAccepted());
+            assertEquals(1, solver.getWarmStartCount());
+            assertEquals(1, solver.getWarmStartAcceptedCount());
+            assertTrue(second.getObjective() >= first.getObjective() - DELTA);
+        }
+    }
+
+    private static SolverConfig newSolverConfig(double gap) {
+        SolverConfig solverConfig = new SolverConfig(gap, gap, 1E-6, false);
+        solverConfig.setSolverType(ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND);
+        return solverConfig;
+    }
+
+    private static SolverInputStage newStageInput(double[] information, BitSet selected) {
+        BitSet all = new BitSet(information.length);
+        all.set(0, information.length);
+        return new SolverInputStage(information, new BitSet(information.length), all, all, selected, null);
+    }
+}
@@ -0,0 +1,59 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the bounded dual simplex method solving the linear relaxations of the
+ * branch-and-bound solver.
+ */
+public class DualSimplexTest {
+    private static final double DELTA = 1E-9;
+
+    /**
+     * Maximizes {@code 3x + 2y} subject to {@code x + y <= 1.5} over the unit box, whose optimum is
+     * {@code x = 1, y = 0.5}.
+     */
+    @Test
+    public void maximizeTest() {
+        DualSimplex lp = new DualSimplex(2, new int[][] { { 0, 1 } }, new double[][] { { 1, 1 } },
+                new double[] { Double.NEGATIVE_INFINITY }, new double[] { 1.5 });
+        lp.setObjective(new double[] { 3, 2 });
+        assertEquals(4, lp.maximize(new double[] { 0, 0 }, new double[] { 1, 1 }, 100), DELTA);
+        assertEquals(1, lp.value(0), DELTA);
+        assertEquals(0.5, lp.value(1), DELTA);
+    }
+
+    /**
+     * Maximizes over ranged rows and fixed variable bounds, solving the same relaxation again with other bounds.
+     */
+    @Test
+    public void boundsTest() {
+        DualSimplex lp = new DualSimplex(3, new int[][] { { 0, 1, 2 }, { 0, 2 } },
+                new double[][] { { 1, 1, 1 }, { 1, -1 } }, new double[] { 2, -0.5 }, new double[] { 2, 0.5 });
+        lp.setObjective(new double[] { 1, 3, 2 });
+
+        // x1 = 1 and x0 - x2 within 0.5 of 0
+        assertEquals(4.75, lp.maximize(new double[] { 0, 0, 0 }, new double[] { 1, 1, 1 }, 100), DELTA);
+        assertEquals(0.25, lp.value(0), DELTA);
+        assertEquals(1, lp.value(1), DELTA);
+        assertEquals(0.75, lp.value(2), DELTA);
+
+        // x1 fixed to 0 forces x0 = x2 = 1
+        assertEquals(3, lp.maximize(new double[] { 0, 0, 0 }, new double[] { 1, 0, 1 }, 100), DELTA);
+        assertEquals(0, lp.value(1), DELTA);
+    }
+
+    /**
+     * Maximizes subject to a row no point of the unit box satisfies.
+     */
+    @Test
+    public void infeasibleTest() {
+        DualSimplex lp = new DualSimplex(2, new int[][] { { 0, 1 } }, new double[][] { { 1, 1 } },
+                new double[] { 3 }, new double[] { Double.POSITIVE_INFINITY });
+        lp.setObjective(new double[] { 1, 1 });
+        assertEquals(Double.NEGATIVE_INFINITY, lp.maximize(new double[] { 0, 0 }, new double[] { 1, 1 }, 100),
+                0);
+    }
+}
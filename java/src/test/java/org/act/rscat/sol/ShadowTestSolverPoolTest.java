@@ -0,0 +1,147 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the pool of shadow test solvers, with branch-and-bound solvers of a discrete
+ * item pool of 10 items.
+ */
+public class ShadowTestSolverPoolTest {
+    private SolverConfig solverConfig;
+    private TestConfig testConfig;
+    private int maxIdle;
+
+    /**
+     * Loads csv files for testing and empties the pool.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        testConfig = TestFixtures.testConfigBuilder(8, TestFixtures.read(TestFixtures.ITEM_POOL_10_ITEMS)).build();
+        solverConfig = new SolverConfig(0, 0, 1E-6, false);
+        solverConfig.setSolverType(ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND);
+        maxIdle = ShadowTestSolverPool.getMaxIdle();
+        ShadowTestSolverPool.clear();
+    }
+
+    /**
+     * Restores the maximum number of idle solvers and empties the pool.
+     */
+    @After
+    public void cleanup() {
+        ShadowTestSolverPool.setMaxIdle(maxIdle);
+        ShadowTestSolverPool.clear();
+    }
+
+    /**
+     * Raises the maximum number of idle solvers of a test configuration until its idle solvers are cleared.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void ensureMaxIdleTest() throws IOException {
+        ShadowTestSolverPool.setMaxIdle(1);
+        ShadowTestSolverPool.ensureMaxIdle(testConfig, 3);
+        assertEquals(1, ShadowTestSolverPool.getMaxIdle());
+        checkoutAndRelease(4);
+        assertEquals(3, reuseCount(4));
+
+        ShadowTestSolverPool.clear(testConfig);
+        assertEquals(0, reuseCount(1));
+        checkoutAndRelease(4);
+        assertEquals(1, reuseCount(4));
+    }
+
+    /**
+     * Restores the maximum number of idle solvers of a test configuration, which keeps the idle solvers up to the
+     * maximum without the raise.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void restoreMaxIdleTest() throws IOException {
+        ShadowTestSolverPool.setMaxIdle(1);
+        ShadowTestSolverPool.ensureMaxIdle(testConfig, 3);
+        checkoutAndRelease(4);
+        ShadowTestSolverPool.restoreMaxIdle(testConfig, 3);
+        assertEquals(1, reuseCount(4));
+        assertEquals(1, reuseCount(4));
+    }
+
+    /**
+     * Raises the maximum number of idle solvers of a test configuration twice, as by two concurrent simulations,
+     * and restores the larger raise first.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void concurrentRaisesTest() throws IOException {
+        ShadowTestSolverPool.setMaxIdle(1);
+        ShadowTestSolverPool.ensureMaxIdle(testConfig, 3);
+        ShadowTestSolverPool.ensureMaxIdle(testConfig, 2);
+        checkoutAndRelease(4);
+        assertEquals(3, reuseCount(4));
+
+        ShadowTestSolverPool.restoreMaxIdle(testConfig, 3);
+        assertEquals(2, reuseCount(4));
+        ShadowTestSolverPool.restoreMaxIdle(testConfig, 2);
+        assertEquals(1, reuseCount(4));
+    }
+
+    /**
+     * Disables pooling, which a raised maximum number of idle solvers does not enable again.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test
+    public void disabledTest() throws IOException {
+        ShadowTestSolverPool.setMaxIdle(0);
+        ShadowTestSolverPool.ensureMaxIdle(testConfig, 3);
+        checkoutAndRelease(2);
+        assertEquals(0, reuseCount(2));
+    }
+
+    /**
+     * Checks out solvers and releases them all.
+     *
+     * @param solverNum the number of solvers
+     * @throws IOException if there is an IO failure
+     */
+    private void checkoutAndRelease(int solverNum) throws IOException {
+        List<ShadowTestSolver> solvers = new ArrayList<>();
+        for (int i = 0; i < solverNum; i++) {
+            solvers.add(ShadowTestSolverPool.checkout(testConfig, solverConfig));
+        }
+        for (ShadowTestSolver solver : solvers) {
+            ShadowTestSolverPool.release(testConfig, solverConfig, solver);
+        }
+    }
+
+    /**
+     * Checks out solvers, releases them all and returns the number of them served by an idle solver.
+     *
+     * @param solverNum the number of solvers
+     * @return the number of reused solvers
+     * @throws IOException if there is an IO failure
+     */
+    private int reuseCount(int solverNum) throws IOException {
+        long reusedCount = ShadowTestSolverPool.getReusedCount();
+        checkoutAndRelease(solverNum);
+        long reused = ShadowTestSolverPool.getReusedCount() - reusedCount;
+        assertTrue(reused <= solverNum);
+        return (int) reused;
+    }
+}
@@ -0,0 +1,186 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.act.rscat.cat.ExposureControlFunctions;
+import org.act.rscat.cat.ExposureControlType;
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.mip.SolverInputSingleItem;
+import org.act.rscat.mip.SolverInputSinglePassage;
+import org.act.rscat.mip.SolverInputStage;
+import org.act.rscat.mip.SolverOutput;
+import org.act.rscat.testdef.TestConfig;
+import org.act.rscat.util.TestFixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the compact stage input of the shadow test solvers.
+ * <p>
+ * The stage input built by {@link ExposureControlFunctions#prepStageDataForSolver} is compared with the per-item
+ * and per-passage solver input of {@link ExposureControlFunctions#prepItemDataForSolver} and
+ * {@link ExposureControlFunctions#prepPassageDataForSolver}, both entry by entry and through the shadow tests the
+ * branch-and-bound solver assembles from either of them, on an item pool of 720 items, 30 passages and 12
+ * constraints.
+ */
+public class SolverInputStageTest {
+    private static final long SEED = 20201016L;
+    private static final double DELTA = 1E-9;
+    private static final double BIG_M = 100;
+
+    private TestConfig testConfig;
+    private String[] itemIds;
+    private String[] passageIds;
+
+    /**
+     * Loads csv files for testing.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Before
+    public void setup() throws IOException {
+        testConfig = TestFixtures.testConfig720Items(20);
+        ShadowTestData data = ShadowTestData.forTestConfig(testConfig);
+        itemIds = data.getItemIdList().toArray(new String[0]);
+        passageIds = data.getPassageIdList().toArray(new String[0]);
+    }
+
+    /**
+     * Compares the stage input with the per-item and per-passage solver input built from the same random marks.
+     */
+    @Test
+    public void entryTest() {
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < 20; trial++) {
+            double[] information = newInformation(random);
+            BitSet administered = newBitSet(random, itemIds.length, 0.1);
+            BitSet eligible = newBitSet(random, itemIds.length, 0.8);
+            BitSet eligibleHard = newBitSet(random, itemIds.length, 0.9);
+            BitSet selected = newBitSet(random, itemIds.length, 0.05);
+            BitSet passageEligible = newBitSet(random, passageIds.length, 0.7);
+            SolverInputStage stageInput = ExposureControlFunctions.prepStageDataForSolver(information,
+                    administered, eligible, eligibleHard, selected, passageEligible);
+            List<SolverInputSingleItem> itemInput = ExposureControlFunctions.prepItemDataForSolver(itemIds,
+                    information, toArray(administered, itemIds.length), toArray(eligible, itemIds.length),
+                    toArray(eligibleHard, itemIds.length), toArray(selected, itemIds.length));
+            List<SolverInputSinglePassage> passageInput = ExposureControlFunctions
+                    .prepPassageDataForSolver(passageIds, toArray(passageEligible, passageIds.length));
+
+            assertEquals(itemInput.size(), stageInput.getItemNum());
+            for (int i = 0; i < itemInput.size(); i++) {
+                SolverInputSingleItem singleItemInput = itemInput.get(i);
+                assertEquals(i, singleItemInput.getItemIndex());
+                assertEquals(singleItemInput.getInformation(), stageInput.getInformation(i), 0);
+                assertEquals(singleItemInput.isAdministered(), stageInput.isAdministered(i));
+                assertEquals(singleItemInput.isEligible(), stageInput.isEligible(i));
+                assertEquals(singleItemInput.isEligibleHard(), stageInput.isEligibleHard(i));
+                assertEquals(singleItemInput.isSelected(), stageInput.isSelected(i));
+            }
+            assertEquals(true, stageInput.hasPassageEligibility());
+            for (int j = 0; j < passageInput.size(); j++) {
+                assertEquals(j, passageInput.get(j).getPassageIndex());
+                assertEquals(passageInput.get(j).isEligible(), stageInput.isPassageEligible(j));
+            }
+        }
+
+        // Without passage eligibility every passage is eligible
+        SolverInputStage stageInput = ExposureControlFunctions.prepStageDataForSolver(new double[itemIds.length],
+                new BitSet(), new BitSet(), new BitSet(), new BitSet(), null);
+        assertEquals(false, stageInput.hasPassageEligibility());
+        for (int j = 0; j < passageIds.length; j++) {
+            assertEquals(true, stageInput.isPassageEligible(j));
+        }
+    }
+
+    /**
+     * Runs two solvers through the same sequence of stages, one with the stage input and one with the per-item and
+     * per-passage solver input, and compares their shadow tests. Item and passage exposure control alternate, and an
+     * item of the previous shadow test is administered at each stage.
+     */
+    @Test
+    public void solverTest() {
+        Random random = new Random(SEED);
+        BitSet administered = new BitSet(itemIds.length);
+        BitSet selected = new BitSet(itemIds.length);
+        try (BranchAndBoundSolver stageSolver = new BranchAndBoundSolver(testConfig, newSolverConfig());
+             BranchAndBoundSolver itemSolver = new BranchAndBoundSolver(testConfig, newSolverConfig())) {
+            for (int stage = 0; stage < 8; stage++) {
+                ExposureControlType exposureType = stage % 2 == 0 ? ExposureControlType.ITEM
+                        : ExposureControlType.PASSAGE;
+                double[] information = newInformation(random);
+                BitSet eligible = newBitSet(random, itemIds.length, 0.8);
+                BitSet eligibleHard = new BitSet(itemIds.length);
+                eligibleHard.set(0, itemIds.length);
+                BitSet passageEligible = stage == 3 ? null : newBitSet(random, passageIds.length, 0.7);
+
+                SolverOutput expected = itemSolver.solve(stage,
+                        ExposureControlFunctions.prepItemDataForSolver(itemIds, information,
+                                toArray(administered, itemIds.length), toArray(eligible, itemIds.length),
+                                toArray(eligibleHard, itemIds.length), toArray(selected, itemIds.length)),
+                        passageEligible == null ? null
+                                : ExposureControlFunctions.prepPassageDataForSolver(passageIds,
+                                        toArray(passageEligible, passageIds.length)),
+                        0, BIG_M, exposureType);
+                SolverOutput actual = stageSolver.solve(stage, ExposureControlFunctions.prepStageDataForSolver(
+                        information, administered, eligible, eligibleHard, selected, passageEligible), 0, BIG_M,
+                        exposureType);
+
+                assertEquals(expected.getSolverStatus(), actual.getSolverStatus());
+                assertEquals(expected.getObjective(), actual.getObjective(), DELTA);
+                assertEquals(expected.getSelectedItemRowIndices(), actual.getSelectedItemRowIndices());
+                assertEquals(expected.getSelectedPassageRowIndices(), actual.getSelectedPassageRowIndices());
+
+                // Administer an item of the shadow test not administered yet
+                selected.clear();
+                for (int i : actual.getSelectedItemRowIndices()) {
+                    selected.set(i);
+                }
+                BitSet candidates = (BitSet) selected.clone();
+                candidates.andNot(administered);
+                int skip = random.nextInt(candidates.cardinality());
+                int item = candidates.nextSetBit(0);
+                for (int k = 0; k < skip; k++) {
+                    item = candidates.nextSetBit(item + 1);
+                }
+                administered.set(item);
+            }
+        }
+    }
+
+    private double[] newInformation(Random random) {
+        double[] information = new double[itemIds.length];
+        for (int i = 0; i < information.length; i++) {
+            information[i] = random.nextDouble();
+        }
+        return information;
+    }
+
+    private static BitSet newBitSet(Random random, int size, double probability) {
+        BitSet bitSet = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < probability) {
+                bitSet.set(i);
+            }
+        }
+        return bitSet;
+    }
+
+    private static boolean[] toArray(BitSet bitSet, int size) {
+        boolean[] array = new boolean[size];
+        for (int i = bitSet.nextSetBit(0); i >= 0 && i < size; i = bitSet.nextSetBit(i + 1)) {
+            array[i] = true;
+        }
+        return array;
+    }
+
+    private static SolverConfig newSolverConfig() {
+        SolverConfig solverConfig = new SolverConfig(1E-2, 1E-2, 1E-6, false);
+        solverConfig.setSolverType(ShadowTestSolver.SUPPORTED_SOLVERS.BRANCH_AND_BOUND);
+        return solverConfig;
+    }
+}
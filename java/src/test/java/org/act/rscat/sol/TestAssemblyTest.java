@@ -0,0 +1,37 @@
+package org.act.rscat.sol;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.act.rscat.mip.SolverConfig;
+import org.act.rscat.util.TestFixtures;
+import org.junit.Test;
+
+/**
+ * This class includes unit tests for the Xpress shadow test solver that do not run the solver.
+ */
+public class TestAssemblyTest {
+
+    /**
+     * Returns the objective value of the Mosel model, and 0 for a solve stopped without an incumbent solution.
+     */
+    @Test
+    public void objectiveTest() {
+        assertEquals(12.5, TestAssembly.toObjective(12.5), 0);
+        assertEquals(-3, TestAssembly.toObjective(-3), 0);
+        assertEquals(0, TestAssembly.toObjective(TestAssembly.NO_SOLUTION_OBJECTIVE), 0);
+    }
+
+    /**
+     * Rejects a solving time limit under one second, which Xpress would round to a whole second.
+     *
+     * @throws IOException if there is an IO failure
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void subSecondMaxTimeTest() throws IOException {
+        SolverConfig solverConfig = new SolverConfig(1E-6, 1E-6, 1E-6, false);
+        solverConfig.setMaxTime(0.5);
+        new TestAssembly(TestFixtures.testConfig10Items(8), solverConfig);
+    }
+}
@@ -0,0 +1,169 @@
+package org.act.rscat.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.act.rscat.cat.CatConfig;
+import org.act.rscat.cat.CatHelper;
+import org.act.rscat.cat.CatInput;
+import org.act.rscat.cat.CatInputStandard;
+import org.act.rscat.cat.CatOutput;
+import org.act.rscat.cat.ExposureControlData;
+import org.act.rscat.cat.ExposureControlFunctions;
+import org.act.rscat.cat.ItemScores;
+import org.act.rscat.cat.PassageOrItemEligibilityOverall;
+import org.act.rscat.testdef.TestConfig;
+
+/**
+ * The sample item pools, passage pool and constraint sets shared by the unit tests, with the test configurations and
+ * CAT inputs built from them.
+ */
+public final class TestFixtures {
+
+    /**
+     * The discrete item pool of 10 items.
+     */
+    public static final String ITEM_POOL_10_ITEMS = "org/act/rscat/data/SampleCATPool/itemPool10Items.csv";
+
+    /**
+     * The item pool of 720 items, most of them in passages.
+     */
+    public static final String ITEM_POOL_720_ITEMS = "org/act/rscat/data/SampleCATPool/itemPool720Items.csv";
+
+    /**
+     * The passage pool of 30 passages of the item pool of 720 items.
+     */
+    public static final String PASSAGE_POOL_30_PASSAGES =
+            "org/act/rscat/data/SampleCATPool/passagePool30Passages.csv";
+
+    /**
+     * The 2 constraints on the item pool of 10 items.
+     */
+    public static final String CONSTRAINT_SET_1 = "org/act/rscat/data/SampleConstraint/constraintSet1.csv";
+
+    /**
+     * The 12 constraints on the item pool of 720 items and its passages.
+     */
+    public static final String CONSTRAINT_SET_2 = "org/act/rscat/data/SampleConstraint/constraintSet2.csv";
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Reads a csv resource.
+     *
+     * @param resource the resource name
+     * @return the content table of the resource
+     * @throws IOException if there is an IO failure
+     */
+    public static ContentTable.RowOriented read(String resource) throws IOException {
+        try (InputStream input = URLClassLoader.getSystemResourceAsStream(resource)) {
+            return CsvUtils.read(input);
+        }
+    }
+
+    /**
+     * Returns the numeric column indicators of the sample item pools.
+     *
+     * @return the numeric column indicators
+     */
+    public static boolean[] itemNumericColumn() {
+        return new boolean[] { false, false, false, false, true, false, false, true, true, true, true, true, true,
+                true, false, true, true, false, false, false, false, true, false, true, false, false, false };
+    }
+
+    /**
+     * Returns the numeric column indicators of the sample passage pool.
+     *
+     * @return the numeric column indicators
+     */
+    public static boolean[] passageNumericColumn() {
+        return new boolean[] { false, true, true, false, false };
+    }
+
+    /**
+     * Returns a builder of a test configuration on an item pool, without enemy item constraints.
+     *
+     * @param testLength the test length
+     * @param itemPoolTable the item pool
+     * @return the test configuration builder
+     */
+    public static TestConfig.Builder testConfigBuilder(int testLength, ContentTable.RowOriented itemPoolTable) {
+        return new TestConfig.Builder(testLength, itemNumericColumn(), itemPoolTable).testConfigId("Test1")
+                .enableEnemyItemConstraint(false);
+    }
+
+    /**
+     * Returns a test configuration on the item pool of 10 items with the constraint set 1.
+     *
+     * @param testLength the test length
+     * @return the test configuration
+     * @throws IOException if there is an IO failure
+     */
+    public static TestConfig testConfig10Items(int testLength) throws IOException {
+        return testConfigBuilder(testLength, read(ITEM_POOL_10_ITEMS)).constraintTable(read(CONSTRAINT_SET_1))
+                .build();
+    }
+
+    /**
+     * Returns a test configuration on the item pool of 720 items and 30 passages with the constraint set 2, 3 to 5
+     * passages and 1 to 10 items per passage.
+     *
+     * @param testLength the test length
+     * @return the test configuration
+     * @throws IOException if there is an IO failure
+     */
+    public static TestConfig testConfig720Items(int testLength) throws IOException {
+        return testConfigBuilder(testLength, read(ITEM_POOL_720_ITEMS)).constraintTable(read(CONSTRAINT_SET_2))
+                .passageTable(read(PASSAGE_POOL_30_PASSAGES)).passageNumericColumn(passageNumericColumn())
+                .numPassageLB(3).numPassageUB(5).numItemPerPassageLB(1).numItemPerPassageUB(10).build();
+    }
+
+    /**
+     * Returns the passage or item eligibility of an examinee without exposure control data.
+     *
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @return the passage or item eligibility for all theta ranges
+     */
+    public static PassageOrItemEligibilityOverall eligibilityOverall(CatConfig catConfig, TestConfig testConfig) {
+        return ExposureControlFunctions.buildPassageOrItemEligibilityOverall(catConfig, testConfig,
+                new HashMap<>());
+    }
+
+    /**
+     * Returns the CAT input of the first stage of an examinee.
+     *
+     * @param catConfig the CAT configuration
+     * @param testConfig the test configuration
+     * @param examineeId the examinee identifier
+     * @return the CAT input
+     */
+    public static CatInput firstCatInput(CatConfig catConfig, TestConfig testConfig, String examineeId) {
+        return new CatInputStandard.Builder().catConfig(catConfig).testConfig(testConfig).completedCount(0)
+                .adaptiveStage(0).studentId(examineeId).itemsAdmin(new ArrayList<>())
+                .itemScores(new ItemScores(new int[] {}, new double[] {}))
+                .administeredPassageIndexSequence(new ArrayList<>()).exposureControlData(new ExposureControlData())
+                .passageOrItemEligibilityOverall(eligibilityOverall(catConfig, testConfig))
+                .itemsToAdminister(new ArrayList<>()).shadowTest(new ArrayList<>()).previousTheta(0)
+                .previousThetaSe(1).build();
+    }
+
+    /**
+     * Returns the CAT input of the next stage, with a correct response at even stages.
+     *
+     * @param catInput the CAT input of the stage
+     * @param catOutput the CAT output of the stage
+     * @param stage the stage index
+     * @return the CAT input of the next stage
+     */
+    public static CatInput nextCatInput(CatInput catInput, CatOutput catOutput, int stage) {
+        return CatHelper.createNextCatInput(catInput,
+                new ItemScores(new int[] { (stage + 1) % 2 }, new double[] { 0.5 }),
+                catOutput.getItemsToAdminister().getItemsToAdmin(), stage + 1, new HashMap<>(),
+                catInput.getPassageOrItemEligibilityOverall(), catOutput);
+    }
+}